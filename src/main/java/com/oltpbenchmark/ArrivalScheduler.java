@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import com.oltpbenchmark.arrivals.ArrivalConfig;
+import com.oltpbenchmark.arrivals.ArrivalProcess;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Decides when the requests of a rate limited phase arrive, and of which
+ * transaction type. Each transaction type with an arrival process of its
+ * own arrives in a stream of its own, at its share of the rate by the
+ * weights; the other types share the default stream and are picked from it
+ * by their weights.
+ * <p>
+ * Only used by the thread that fills the work queue, under the lock of its
+ * {@link WorkloadState}.
+ */
+final class ArrivalScheduler {
+
+    @FunctionalInterface
+    interface ArrivalConsumer {
+        void accept(int transactionType, long scheduledNs);
+    }
+
+    private static final class Stream {
+        private final ArrivalProcess process;
+        private final int[] types;
+        private final double[] cumulativeWeights;
+        private final double share;
+        private final SplittableRandom chooser;
+        // Not drawn yet until the first release
+        private long nextNs = Long.MIN_VALUE;
+
+        private Stream(ArrivalProcess process, int[] types, double[] weights, double totalWeight, SplittableRandom chooser) {
+            this.process = process;
+            this.types = types;
+            this.cumulativeWeights = new double[weights.length];
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cumulativeWeights[i] = sum;
+            }
+            this.share = totalWeight > 0 ? sum / totalWeight : 0;
+            this.chooser = chooser;
+        }
+
+        private int choose() {
+            if (types.length == 1) {
+                return types[0];
+            }
+            double x = chooser.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+            for (int i = 0; i < types.length - 1; i++) {
+                if (x < cumulativeWeights[i]) {
+                    return types[i];
+                }
+            }
+            return types[types.length - 1];
+        }
+    }
+
+    private final List<Stream> streams = new ArrayList<>();
+    private final long startNs;
+    private Phase phase;
+
+    /**
+     * @param startNs When the arrivals start, as of System.nanoTime()
+     * @param random  Where the generators of the streams are split from
+     */
+    ArrivalScheduler(Phase phase, long startNs, SplittableRandom random) {
+        this.phase = phase;
+        this.startNs = startNs;
+
+        List<Double> weights = phase.getWeights();
+        double totalWeight = phase.totalWeight();
+        Map<Integer, ArrivalConfig> byType = new HashMap<>();
+        ArrivalConfig defaults = null;
+        for (ArrivalConfig config : phase.getArrivals()) {
+            if (config.getTransactionType() == ArrivalConfig.ALL_TYPES) {
+                defaults = config;
+            } else {
+                byType.put(config.getTransactionType(), config);
+            }
+        }
+
+        List<Integer> otherTypes = new ArrayList<>();
+        for (int type = 1; type <= weights.size(); type++) {
+            ArrivalConfig config = byType.get(type);
+            if (config == null) {
+                otherTypes.add(type);
+                continue;
+            }
+            streams.add(new Stream(config.create(random.split()), new int[]{type},
+                    new double[]{weights.get(type - 1)}, totalWeight, random.split()));
+        }
+        if (!otherTypes.isEmpty()) {
+            ArrivalProcess process;
+            if (defaults != null) {
+                process = defaults.create(random.split());
+            } else {
+                String type = phase.getArrival() == Phase.Arrival.POISSON ? "poisson" : "regular";
+                process = ArrivalProcess.create(type, Map.of(), random.split());
+            }
+            int[] types = otherTypes.stream().mapToInt(Integer::intValue).toArray();
+            double[] otherWeights = otherTypes.stream().mapToDouble(type -> weights.get(type - 1)).toArray();
+            streams.add(new Stream(process, types, otherWeights, totalWeight, random.split()));
+        }
+    }
+
+    Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Whether the arrivals of phase can go on from where they are here,
+     * because it is this phase with only its rate or number of terminals
+     * changed. If so, phase becomes the phase of the scheduler.
+     */
+    boolean continueWith(Phase phase) {
+        if (phase == this.phase) {
+            return true;
+        }
+        if (phase.getId() != this.phase.getId() || phase.getArrivals() != this.phase.getArrivals()
+                || phase.getArrival() != this.phase.getArrival() || !phase.getWeights().equals(this.phase.getWeights())) {
+            return false;
+        }
+        this.phase = phase;
+        return true;
+    }
+
+    /**
+     * Hands every arrival up to nowNs to consumer, in the order that they
+     * arrive in
+     *
+     * @param rate The rate of all the streams together
+     */
+    void release(long nowNs, double rate, ArrivalConsumer consumer) {
+        for (Stream stream : streams) {
+            if (stream.nextNs == Long.MIN_VALUE) {
+                stream.nextNs = stream.process.next(startNs, rate * stream.share);
+            } else if (stream.nextNs == Long.MAX_VALUE) {
+                // Stopped while its rate was 0; it may have started again
+                stream.nextNs = stream.process.next(nowNs, rate * stream.share);
+            }
+        }
+        while (true) {
+            Stream first = null;
+            for (Stream stream : streams) {
+                if (first == null || stream.nextNs < first.nextNs) {
+                    first = stream;
+                }
+            }
+            if (first == null || first.nextNs > nowNs) {
+                return;
+            }
+            consumer.accept(first.choose(), first.nextNs);
+            first.nextNs = first.process.next(first.nextNs, rate * first.share);
+        }
+    }
+
+    /**
+     * When the next arrival is after the last release, Long.MAX_VALUE if
+     * there is none
+     */
+    long getNextArrivalNs() {
+        long next = Long.MAX_VALUE;
+        for (Stream stream : streams) {
+            next = Math.min(next, stream.nextNs == Long.MIN_VALUE ? startNs : stream.nextNs);
+        }
+        return next;
+    }
+
+    /**
+     * The rate that all the streams arrive at around nowNs
+     */
+    double getRate(long nowNs, double rate) {
+        double total = 0;
+        for (Stream stream : streams) {
+            total += stream.process.getRate(nowNs, rate * stream.share);
+        }
+        return total;
+    }
+}
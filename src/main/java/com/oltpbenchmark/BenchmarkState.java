@@ -21,17 +21,59 @@ import com.oltpbenchmark.types.State;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
-
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * The state of a test, and the current phase of each of its workloads, kept
+ * together in one immutable {@link Snapshot}. Workers read the snapshot with a
+ * single volatile load per look, without taking any lock; every transition
+ * publishes a new snapshot with a compare-and-set.
+ */
 public final class BenchmarkState {
 
     private static final Logger LOG = LoggerFactory.getLogger(BenchmarkState.class);
 
+    /**
+     * A consistent view of the state and phases. Each transition bumps the
+     * version, so a worker can tell whether anything changed between two
+     * looks, and can make a transition only if nothing did.
+     */
+    public static final class Snapshot {
+        private final State state;
+        private final Phase[] phases;
+        private final long version;
+
+        private Snapshot(State state, Phase[] phases, long version) {
+            this.state = state;
+            this.phases = phases;
+            this.version = version;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * The current phase of a workload, see {@link #addWorkload()}
+         */
+        public Phase getPhase(int workload) {
+            return workload < phases.length ? phases[workload] : null;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+
     private final long testStartNs;
     private final CountDownLatch startBarrier;
     private final AtomicInteger notDoneCount;
-    private volatile State state = State.WARMUP;
+    private final AtomicInteger workloads = new AtomicInteger(0);
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(State.WARMUP, new Phase[0], 0));
 
     /**
      * @param numThreads number of threads involved in the test: including the
@@ -45,16 +87,51 @@ public final class BenchmarkState {
         testStartNs = System.nanoTime();
     }
 
-    // Protected by this
-
     public long getTestStartNs() {
         return testStartNs;
     }
 
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
     public State getState() {
-        synchronized (this) {
-            return state;
-        }
+        return snapshot.get().getState();
+    }
+
+    /**
+     * Reserves the slot of a workload's phase in the snapshots
+     */
+    int addWorkload() {
+        return workloads.getAndIncrement();
+    }
+
+    void setPhase(int workload, Phase phase) {
+        update(current -> {
+            Phase[] phases = Arrays.copyOf(current.phases, Math.max(current.phases.length, workload + 1));
+            phases[workload] = phase;
+            return new Snapshot(current.state, phases, current.version + 1);
+        });
+    }
+
+    private void setState(State state) {
+        update(current -> new Snapshot(state, current.phases, current.version + 1));
+    }
+
+    private void update(UnaryOperator<Snapshot> transition) {
+        Snapshot current;
+        do {
+            current = snapshot.get();
+        } while (!snapshot.compareAndSet(current, transition.apply(current)));
+    }
+
+    /**
+     * Moves to state, unless there was a transition since seen was taken
+     *
+     * @return false if there was
+     */
+    public boolean transition(Snapshot seen, State state) {
+        return snapshot.compareAndSet(seen, new Snapshot(state, seen.phases, seen.version + 1));
     }
 
     /**
@@ -73,33 +150,33 @@ public final class BenchmarkState {
     }
 
     public void startMeasure() {
-        state = State.MEASURE;
+        setState(State.MEASURE);
     }
 
     public void startColdQuery() {
-        state = State.COLD_QUERY;
+        setState(State.COLD_QUERY);
     }
 
     public void startHotQuery() {
-        state = State.MEASURE;
+        setState(State.MEASURE);
     }
 
     public void signalLatencyComplete() {
-        state = State.LATENCY_COMPLETE;
+        setState(State.LATENCY_COMPLETE);
     }
 
     public void ackLatencyComplete() {
-        state = State.MEASURE;
+        setState(State.MEASURE);
     }
 
     public void signalError() {
         // A thread died, decrement the count and set error state
         notDoneCount.decrementAndGet();
-        state = State.ERROR;
+        setState(State.ERROR);
     }
 
     public void startCoolDown() {
-        state = State.DONE;
+        setState(State.DONE);
 
         // The master thread must also signal that it is done
         signalDone();
@@ -118,9 +195,9 @@ public final class BenchmarkState {
         if (current == 0) {
             // We are the last thread to notice that we are done: wake any
             // blocked workers
-            this.state = State.EXIT;
+            setState(State.EXIT);
         }
         return current;
     }
 
-}
\ No newline at end of file
+}
@@ -22,6 +22,11 @@ import com.oltpbenchmark.api.BenchmarkModule;
 import com.oltpbenchmark.api.TransactionType;
 import com.oltpbenchmark.api.TransactionTypes;
 import com.oltpbenchmark.api.Worker;
+import com.oltpbenchmark.arrivals.ArrivalConfig;
+import com.oltpbenchmark.metrics.LiveMetrics;
+import com.oltpbenchmark.metrics.MetricsFileReporter;
+import com.oltpbenchmark.metrics.MetricsReporter;
+import com.oltpbenchmark.metrics.PrometheusReporter;
 import com.oltpbenchmark.types.DatabaseType;
 import com.oltpbenchmark.util.*;
 import org.apache.commons.cli.*;
@@ -32,6 +37,7 @@ import org.apache.commons.configuration2.builder.FileBasedConfigurationBuilder;
 import org.apache.commons.configuration2.builder.fluent.Parameters;
 import org.apache.commons.configuration2.convert.DisabledListDelimiterHandler;
 import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.commons.configuration2.ex.ConversionException;
 import org.apache.commons.configuration2.tree.ImmutableNode;
 import org.apache.commons.configuration2.tree.xpath.XPathExpressionEngine;
 import org.apache.commons.lang3.StringUtils;
@@ -126,6 +132,15 @@ public class DBWorkload {
             wrkld.setBatchSize(xmlConfig.getInt("batchsize", 128));
             wrkld.setMaxRetries(xmlConfig.getInt("retries", 3));
             wrkld.setNewConnectionPerTxn(xmlConfig.getBoolean("newConnectionPerTxn", false));
+            wrkld.setOpenLoop(xmlConfig.getBoolean("openLoop", false));
+            wrkld.setVirtualThreads(xmlConfig.getBoolean("virtualThreads", false));
+            if (wrkld.getVirtualThreads() && !ThreadUtil.isVirtualThreadSupported()) {
+                LOG.error("virtualThreads requires JDK 21 or later, this is JDK {}", Runtime.version());
+                System.exit(-1);
+            }
+            wrkld.setStatementCacheSize(xmlConfig.getInt("statementCacheSize", 0));
+            wrkld.setBulkLoad(xmlConfig.getBoolean("bulkLoad", false));
+            wrkld.setMultiRowInsert(xmlConfig.getBoolean("multiRowInsert", false));
 
             int terminals = xmlConfig.getInt("terminals[not(@bench)]", 0);
             terminals = xmlConfig.getInt("terminals" + pluginTest, terminals);
@@ -172,6 +187,11 @@ public class DBWorkload {
             initDebug.put("Scale Factor", wrkld.getScaleFactor());
             initDebug.put("Terminals", wrkld.getTerminals());
             initDebug.put("New Connection Per Txn", wrkld.getNewConnectionPerTxn());
+            initDebug.put("Open Loop", wrkld.getOpenLoop());
+            initDebug.put("Virtual Threads", wrkld.getVirtualThreads());
+            initDebug.put("Statement Cache Size", wrkld.getStatementCacheSize());
+            initDebug.put("Bulk Load", wrkld.getBulkLoad());
+            initDebug.put("Multi-Row Insert", wrkld.getMultiRowInsert());
 
             if (selectivity != -1) {
                 initDebug.put("Selectivity", selectivity);
@@ -282,11 +302,20 @@ public class DBWorkload {
                 boolean disabled = false;
                 boolean timed;
 
+                // A rate search probes at rates of its own, starting from
+                // its minimum rate
+                HierarchicalConfiguration<ImmutableNode> search = null;
+                if (!work.configurationsAt("search").isEmpty()) {
+                    search = work.configurationAt("search");
+                }
+
                 // can be "disabled", "unlimited" or a number
                 String rate_string;
                 rate_string = work.getString("rate[not(@bench)]", "");
                 rate_string = work.getString("rate" + pluginTest, rate_string);
-                if (rate_string.equals(RATE_DISABLED)) {
+                if (search != null) {
+                    rate = search.getDouble("@min_rate", 10);
+                } else if (rate_string.equals(RATE_DISABLED)) {
                     disabled = true;
                 } else if (rate_string.equals(RATE_UNLIMITED)) {
                     rateLimited = false;
@@ -310,6 +339,31 @@ public class DBWorkload {
                 if (arrive.equalsIgnoreCase("POISSON")) {
                     arrival = Phase.Arrival.POISSON;
                 }
+                List<ArrivalConfig> arrivals = new ArrayList<>();
+                try {
+                    if (!arrive.equalsIgnoreCase("REGULAR") && !arrive.equalsIgnoreCase("POISSON")) {
+                        arrivals.add(new ArrivalConfig(arrive, Map.of(), ArrivalConfig.ALL_TYPES, null));
+                    }
+                    List<HierarchicalConfiguration<ImmutableNode>> elements = new ArrayList<>(work.configurationsAt("arrival[not(@bench)]"));
+                    if (!pluginTest.equals("[not(@bench)]")) {
+                        elements.addAll(work.configurationsAt("arrival" + pluginTest));
+                    }
+                    for (HierarchicalConfiguration<ImmutableNode> element : elements) {
+                        arrivals.add(parseArrival(element, ttypes));
+                    }
+                    Set<Integer> streams = new HashSet<>();
+                    for (ArrivalConfig config : arrivals) {
+                        if (!streams.add(config.getTransactionType())) {
+                            throw new IllegalArgumentException(config.getTransactionType() == ArrivalConfig.ALL_TYPES
+                                    ? "more than one arrival process for all the transactions"
+                                    : "more than one arrival process for " + ttypes.get(config.getTransactionType()).getName());
+                        }
+                        config.validate();
+                    }
+                } catch (IllegalArgumentException ex) {
+                    LOG.error(String.format("Invalid arrival process in work %d: %s", i, ex.getMessage()));
+                    System.exit(-1);
+                }
 
                 // We now have the option to run all queries exactly once in
                 // a serial (rather than random) order.
@@ -364,7 +418,57 @@ public class DBWorkload {
                 }
 
 
-                wrkld.addPhase(i, time, warmup, rate, weights, rateLimited, disabled, serial, timed, activeTerminals, arrival);
+                Phase phase = wrkld.addPhase(i, time, warmup, rate, weights, rateLimited, disabled, serial, timed, activeTerminals, arrival);
+                if (!arrivals.isEmpty() && serial) {
+                    LOG.error(String.format("Invalid arrival process in work %d: a serial work has no arrivals", i));
+                    System.exit(-1);
+                }
+                phase.setArrivals(arrivals);
+
+                // The rate and the active terminals can ramp up (or down) to
+                // their value from that of the from attribute
+                try {
+                    Phase.Ramp rateRamp = parseRamp(work, "rate", pluginTest, rate, time);
+                    Phase.Ramp terminalRamp = parseRamp(work, "active_terminals", pluginTest, activeTerminals, time);
+                    if ((rateRamp != null || terminalRamp != null) && (serial || search != null)) {
+                        throw new IllegalArgumentException("a serial or searched work can't ramp");
+                    }
+                    if (rateRamp != null && (!rateLimited || disabled)) {
+                        throw new IllegalArgumentException("only a numeric rate can ramp");
+                    }
+                    if (rateRamp != null && rateRamp.getFrom() <= 0) {
+                        throw new IllegalArgumentException("a rate ramp must start above 0");
+                    }
+                    if (terminalRamp != null && (terminalRamp.getFrom() < 0 || terminalRamp.getFrom() > terminals)) {
+                        throw new IllegalArgumentException("the active terminals must start between 0 and the number of terminals");
+                    }
+                    phase.setRateRamp(rateRamp);
+                    phase.setTerminalRamp(terminalRamp);
+                } catch (IllegalArgumentException ex) {
+                    LOG.error(String.format("Invalid ramp in work %d: %s", i, ex.getMessage()));
+                    System.exit(-1);
+                }
+
+                if (search != null) {
+                    try {
+                        if (serial) {
+                            throw new IllegalArgumentException("a serial work can't be searched");
+                        }
+                        RateSearch.Metric metric = RateSearch.Metric.fromString(search.getString("@metric", "p99"));
+                        // The SLO may also be given as slo_<metric>_ms
+                        String slo = search.getString("@slo_ms", search.getString("@slo_" + metric + "_ms", null));
+                        if (slo == null) {
+                            throw new IllegalArgumentException("the SLO is missing");
+                        }
+                        new RateSearch(phase, metric, wrkld.getOpenLoop(), Double.parseDouble(slo),
+                                search.getDouble("@min_rate", 10), search.getDouble("@max_rate", 1000000),
+                                search.getDouble("@step", 0), search.getDouble("@precision", 0.05),
+                                search.getDouble("@min_throughput", 0.95), search.getInt("@max_probes", 20));
+                    } catch (IllegalArgumentException ex) {
+                        LOG.error(String.format("Invalid rate search in work %d: %s", i, ex.getMessage()));
+                        System.exit(-1);
+                    }
+                }
             }
 
             // CHECKING INPUT PHASES
@@ -399,12 +503,34 @@ public class DBWorkload {
             throw new RuntimeException("No StatementDialects is available for " + bench);
         }
 
+        // Generate the data files, without touching the database
+        if (isBooleanOptionSet(argsLine, "generate-files")) {
+            int part = 1;
+            int parts = 1;
+            if (argsLine.hasOption("generate-part")) {
+                String[] split = argsLine.getOptionValue("generate-part").split("/");
+                part = Integer.parseInt(split[0]);
+                parts = Integer.parseInt(split[1]);
+            }
+            try {
+                for (BenchmarkModule benchmark : benchList) {
+                    File directory = new File(benchmark.getWorkloadConfiguration().getDataDir());
+                    benchmark.generateFiles(directory, part, parts);
+                    LOG.info("Finished generating {} files in {}", benchmark.getBenchmarkName().toUpperCase(), directory);
+                }
+            } catch (Throwable ex) {
+                LOG.error("Unexpected error when generating benchmark data files.", ex);
+                System.exit(1);
+            }
+            return;
+        }
+
         // Create the Benchmark's Database
         if (isBooleanOptionSet(argsLine, "create")) {
             try {
                 for (BenchmarkModule benchmark : benchList) {
                     LOG.info("Creating new {} database...", benchmark.getBenchmarkName().toUpperCase());
-                    runCreator(benchmark);
+                    runCreator(benchmark, argsLine);
                     LOG.info("Finished creating new {} database...", benchmark.getBenchmarkName().toUpperCase());
                 }
             } catch (Throwable ex) {
@@ -443,7 +569,11 @@ public class DBWorkload {
             try {
                 for (BenchmarkModule benchmark : benchList) {
                     LOG.info("Loading data into {} database...", benchmark.getBenchmarkName().toUpperCase());
-                    runLoader(benchmark);
+                    runLoader(benchmark, argsLine);
+                    if (isBooleanOptionSet(argsLine, "defer-indexes")) {
+                        benchmark.createDeferredDDL();
+                        benchmark.refreshCatalog();
+                    }
                     LOG.info("Finished loading data into {} database...", benchmark.getBenchmarkName().toUpperCase());
                 }
             } catch (Throwable ex) {
@@ -459,7 +589,7 @@ public class DBWorkload {
         if (isBooleanOptionSet(argsLine, "execute")) {
             // Bombs away!
             try {
-                Results r = runWorkload(benchList, intervalMonitor);
+                Results r = runWorkload(benchList, intervalMonitor, argsLine);
                 writeOutputs(r, activeTXTypes, argsLine, xmlConfig);
                 writeHistograms(r);
 
@@ -479,6 +609,61 @@ public class DBWorkload {
         }
     }
 
+    /**
+     * Reads the ramp of an element of a work, such as
+     * <code>&lt;rate ramp="exponential" from="100" ramp_time="60"&gt;1000&lt;/rate&gt;</code>.
+     * The ramp time defaults to the time of the work.
+     *
+     * @return null if the element does not ramp
+     */
+    private static Phase.Ramp parseRamp(HierarchicalConfiguration<ImmutableNode> work, String element, String pluginTest, double to, int time) {
+        String key = work.containsKey(element + pluginTest + "/@ramp") ? element + pluginTest : element + "[not(@bench)]";
+        String shape = work.getString(key + "/@ramp", null);
+        if (shape == null) {
+            return null;
+        }
+        if (!work.containsKey(key + "/@from")) {
+            throw new IllegalArgumentException(String.format("the %s ramp has no from value", element));
+        }
+        if (!shape.equalsIgnoreCase("linear") && !shape.equalsIgnoreCase("exponential")) {
+            throw new IllegalArgumentException(String.format("the %s ramp must be linear or exponential", element));
+        }
+        double from;
+        double seconds;
+        try {
+            from = work.getDouble(key + "/@from");
+            seconds = work.getDouble(key + "/@ramp_time", time);
+        } catch (ConversionException ex) {
+            throw new IllegalArgumentException(String.format("the from and ramp_time of the %s ramp must be numbers", element));
+        }
+        return new Phase.Ramp(Phase.Ramp.Shape.valueOf(shape.toUpperCase()), from, to, seconds);
+    }
+
+    /**
+     * An arrival element: the type of the process, optionally the
+     * transaction type that it is the stream of, and the parameters of the
+     * process as the other attributes
+     */
+    private static ArrivalConfig parseArrival(HierarchicalConfiguration<ImmutableNode> element, List<TransactionType> ttypes) {
+        Map<String, String> params = new TreeMap<>();
+        element.getNodeModel().getNodeHandler().getRootNode().getAttributes()
+                .forEach((name, value) -> params.put(name, String.valueOf(value)));
+        params.remove("bench");
+        String type = params.getOrDefault("type", "poisson");
+        params.remove("type");
+        String transaction = params.remove("transaction");
+        if (transaction == null) {
+            return new ArrivalConfig(type, params, ArrivalConfig.ALL_TYPES, null);
+        }
+        // Index 0 is the invalid transaction type
+        for (int k = 1; k < ttypes.size(); k++) {
+            if (ttypes.get(k).getName().equalsIgnoreCase(transaction)) {
+                return new ArrivalConfig(type, params, k, ttypes.get(k).getName());
+            }
+        }
+        throw new IllegalArgumentException(String.format("unknown transaction '%s'", transaction));
+    }
+
     private static Options buildOptions(XMLConfiguration pluginConfig) {
         Options options = new Options();
         options.addOption("b", "bench", true, "[required] Benchmark class. Currently supported: " + pluginConfig.getList("/plugin//@name"));
@@ -486,6 +671,10 @@ public class DBWorkload {
         options.addOption(null, "create", true, "Initialize the database for this benchmark");
         options.addOption(null, "clear", true, "Clear all records in the database for this benchmark");
         options.addOption(null, "load", true, "Load data using the benchmark's data loader");
+        options.addOption(null, "generate-files", true, "Write the data of the benchmark's loader to files in the datadir instead of loading a database");
+        options.addOption(null, "generate-part", true, "Only generate part k of n of the files, given as k/n");
+        options.addOption(null, "resume", true, "Resume a load that was stopped part way, see the load journal in the result directory");
+        options.addOption(null, "defer-indexes", true, "Create the secondary indexes and foreign keys after the load instead of with the tables");
         options.addOption(null, "execute", true, "Execute the benchmark workload");
         options.addOption("h", "help", false, "Print this help");
         options.addOption("s", "sample", true, "Sampling window");
@@ -493,6 +682,10 @@ public class DBWorkload {
         options.addOption("d", "directory", true, "Base directory for the result files, default is current directory");
         options.addOption(null, "dialects-export", true, "Export benchmark SQL to a dialects file");
         options.addOption("jh", "json-histograms", true, "Export histograms to JSON file");
+        options.addOption(null, "metrics-port", true, "Serve live metrics in Prometheus text format on this local port");
+        options.addOption(null, "metrics-file", true, "Append live metrics to this .csv or .jsonl file");
+        options.addOption(null, "metrics-interval", true, "Live metrics interval in milliseconds, default is 1000");
+        options.addOption(null, "control-port", true, "Accept changes to the running phases over HTTP on this local port");
         return options;
     }
 
@@ -568,18 +761,6 @@ public class DBWorkload {
 
         int windowSize = Integer.parseInt(argsLine.getOptionValue("s", "5"));
 
-        String rawFileName = baseFileName + ".raw.csv";
-        try (PrintStream ps = new PrintStream(FileUtil.joinPath(outputDirectory, rawFileName))) {
-            LOG.info("Output Raw data into file: {}", rawFileName);
-            rw.writeRaw(activeTXTypes, ps);
-        }
-
-        String sampleFileName = baseFileName + ".samples.csv";
-        try (PrintStream ps = new PrintStream(FileUtil.joinPath(outputDirectory, sampleFileName))) {
-            LOG.info("Output samples into file: {}", sampleFileName);
-            rw.writeSamples(ps);
-        }
-
         String summaryFileName = baseFileName + ".summary.json";
         try (PrintStream ps = new PrintStream(FileUtil.joinPath(outputDirectory, summaryFileName))) {
             LOG.info("Output summary data into file: {}", summaryFileName);
@@ -600,38 +781,69 @@ public class DBWorkload {
             }
         }
 
+        String histogramsFileName = baseFileName + ".histograms.json";
+        try (PrintStream ps = new PrintStream(FileUtil.joinPath(outputDirectory, histogramsFileName))) {
+            LOG.info("Output latency histograms into file: {}", histogramsFileName);
+            rw.writeLatencyHistograms(ps);
+        }
+
+        List<RateSearch> searches = r.getRateSearches();
+        for (int i = 0; i < searches.size(); i++) {
+            String searchFileName = baseFileName + (searches.size() == 1 ? "" : "." + (i + 1)) + ".search.csv";
+            try (PrintStream ps = new PrintStream(FileUtil.joinPath(outputDirectory, searchFileName))) {
+                LOG.info("Output rate search curve into file: {}", searchFileName);
+                rw.writeRateSearch(i, ps);
+            }
+        }
+
         String configFileName = baseFileName + ".config.xml";
         try (PrintStream ps = new PrintStream(FileUtil.joinPath(outputDirectory, configFileName))) {
             LOG.info("Output benchmark config into file: {}", configFileName);
             rw.writeConfig(ps);
         }
 
+        // The raw samples, per-second samples and windowed results are all
+        // written in a single pass over the merged latency samples.
+        String rawFileName = baseFileName + ".raw.csv";
+        String sampleFileName = baseFileName + ".samples.csv";
         String resultsFileName = baseFileName + ".results.csv";
-        try (PrintStream ps = new PrintStream(FileUtil.joinPath(outputDirectory, resultsFileName))) {
+        Map<TransactionType, PrintStream> txTypeStreams = new LinkedHashMap<>();
+        try (PrintStream rawPs = new PrintStream(FileUtil.joinPath(outputDirectory, rawFileName));
+             PrintStream samplesPs = new PrintStream(FileUtil.joinPath(outputDirectory, sampleFileName));
+             PrintStream resultsPs = new PrintStream(FileUtil.joinPath(outputDirectory, resultsFileName))) {
+            LOG.info("Output Raw data into file: {}", rawFileName);
+            LOG.info("Output samples into file: {}", sampleFileName);
             LOG.info("Output results into file: {} with window size {}", resultsFileName, windowSize);
-            rw.writeResults(windowSize, ps);
-        }
-
-        for (TransactionType t : activeTXTypes) {
-            String fileName = baseFileName + ".results." + t.getName() + ".csv";
-            try (PrintStream ps = new PrintStream(FileUtil.joinPath(outputDirectory, fileName))) {
-                rw.writeResults(windowSize, ps, t);
+            for (TransactionType t : activeTXTypes) {
+                String fileName = baseFileName + ".results." + t.getName() + ".csv";
+                txTypeStreams.put(t, new PrintStream(FileUtil.joinPath(outputDirectory, fileName)));
+            }
+            rw.writeSampleOutputs(activeTXTypes, windowSize, rawPs, samplesPs, resultsPs, txTypeStreams);
+        } finally {
+            for (PrintStream ps : txTypeStreams.values()) {
+                ps.close();
             }
         }
 
     }
 
-    private static void runCreator(BenchmarkModule bench) throws SQLException, IOException {
+    private static void runCreator(BenchmarkModule bench, CommandLine argsLine) throws SQLException, IOException {
         LOG.debug(String.format("Creating %s Database", bench));
-        bench.createDatabase();
+        if (isBooleanOptionSet(argsLine, "defer-indexes")) {
+            bench.createTables();
+        } else {
+            bench.createDatabase();
+        }
     }
 
-    private static void runLoader(BenchmarkModule bench) throws SQLException, InterruptedException {
+    private static void runLoader(BenchmarkModule bench, CommandLine argsLine) throws SQLException, InterruptedException {
         LOG.debug(String.format("Loading %s Database", bench));
-        bench.loadDatabase();
+        String outputDirectory = argsLine.getOptionValue("d", "results");
+        File journalFile = new File(outputDirectory, bench.getBenchmarkName() + ".load.journal");
+        bench.loadDatabase(journalFile, isBooleanOptionSet(argsLine, "resume"));
     }
 
-    private static Results runWorkload(List<BenchmarkModule> benchList, int intervalMonitor) throws IOException {
+    private static Results runWorkload(List<BenchmarkModule> benchList, int intervalMonitor, CommandLine argsLine) throws IOException, InterruptedException {
         List<Worker<?>> workers = new ArrayList<>();
         List<WorkloadConfiguration> workConfs = new ArrayList<>();
         for (BenchmarkModule bench : benchList) {
@@ -643,7 +855,37 @@ public class DBWorkload {
             workConfs.add(bench.getWorkloadConfiguration());
 
         }
-        Results r = ThreadBench.runRateLimitedBenchmark(workers, workConfs, intervalMonitor);
+
+        LiveMetrics liveMetrics = null;
+        List<MetricsReporter> reporters = new ArrayList<>();
+        if (argsLine.hasOption("metrics-port")) {
+            reporters.add(new PrometheusReporter(Integer.parseInt(argsLine.getOptionValue("metrics-port"))));
+        }
+        if (argsLine.hasOption("metrics-file")) {
+            reporters.add(new MetricsFileReporter(argsLine.getOptionValue("metrics-file")));
+        }
+        if (!reporters.isEmpty()) {
+            long interval = Long.parseLong(argsLine.getOptionValue("metrics-interval", "1000"));
+            liveMetrics = new LiveMetrics(workers, interval, reporters);
+            liveMetrics.start();
+        }
+
+        RunControl control = null;
+        if (argsLine.hasOption("control-port")) {
+            control = new RunControl(Integer.parseInt(argsLine.getOptionValue("control-port")));
+        }
+
+        Results r;
+        try {
+            r = ThreadBench.runRateLimitedBenchmark(workers, workConfs, intervalMonitor, control);
+        } finally {
+            if (liveMetrics != null) {
+                liveMetrics.shutdown();
+            }
+            if (control != null) {
+                control.close();
+            }
+        }
         LOG.info(SINGLE_LINE);
         LOG.info("Rate limited reqs/s: {}", r);
         return r;
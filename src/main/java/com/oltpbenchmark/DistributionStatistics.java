@@ -57,29 +57,37 @@ public class DistributionStatistics {
      * values.
      */
     public static DistributionStatistics computeStatistics(int[] valuesAsMicroseconds) {
-        if (valuesAsMicroseconds.length == 0) {
+        return computeStatistics(valuesAsMicroseconds, valuesAsMicroseconds.length);
+    }
+
+    /**
+     * Computes distribution statistics over the first length values.
+     * WARNING: This will sort that part of values.
+     */
+    public static DistributionStatistics computeStatistics(int[] valuesAsMicroseconds, int length) {
+        if (length == 0) {
             long[] percentiles = new long[PERCENTILES.length];
             Arrays.fill(percentiles, -1);
             return new DistributionStatistics(0, percentiles, -1, -1);
         }
 
-        Arrays.sort(valuesAsMicroseconds);
+        Arrays.sort(valuesAsMicroseconds, 0, length);
 
         double sum = 0;
-        for (int value1 : valuesAsMicroseconds) {
-            sum += value1;
+        for (int i = 0; i < length; i++) {
+            sum += valuesAsMicroseconds[i];
         }
-        double average = sum / valuesAsMicroseconds.length;
+        double average = sum / length;
 
         double sumDiffsSquared = 0;
-        for (int value : valuesAsMicroseconds) {
-            double v = value - average;
+        for (int i = 0; i < length; i++) {
+            double v = valuesAsMicroseconds[i] - average;
             sumDiffsSquared += v * v;
         }
         double standardDeviation = 0;
-        if (valuesAsMicroseconds.length > 1) {
+        if (length > 1) {
             standardDeviation = Math
-                    .sqrt(sumDiffsSquared / (valuesAsMicroseconds.length - 1));
+                    .sqrt(sumDiffsSquared / (length - 1));
         }
 
         // NOTE: NIST recommends interpolating. This just selects the closest
@@ -87,14 +95,28 @@ public class DistributionStatistics {
         // http://www.itl.nist.gov/div898/handbook/prc/section2/prc252.htm
         long[] percentiles = new long[PERCENTILES.length];
         for (int i = 0; i < percentiles.length; ++i) {
-            int index = (int) (PERCENTILES[i] * valuesAsMicroseconds.length);
-            if (index == valuesAsMicroseconds.length) {
-                index = valuesAsMicroseconds.length - 1;
+            int index = (int) (PERCENTILES[i] * length);
+            if (index == length) {
+                index = length - 1;
             }
             percentiles[i] = valuesAsMicroseconds[index];
         }
 
-        return new DistributionStatistics(valuesAsMicroseconds.length, percentiles, average, standardDeviation);
+        return new DistributionStatistics(length, percentiles, average, standardDeviation);
+    }
+
+    /**
+     * Computes distribution statistics over the values of a histogram. The
+     * minimum, maximum, average and standard deviation are exact, the other
+     * percentiles are within the resolution of the histogram.
+     */
+    public static DistributionStatistics computeStatistics(LatencyHistogram histogram) {
+        long[] percentiles = new long[PERCENTILES.length];
+        for (int i = 0; i < percentiles.length; ++i) {
+            percentiles[i] = histogram.getValueAtQuantile(PERCENTILES[i]);
+        }
+        return new DistributionStatistics((int) histogram.getCount(), percentiles, histogram.getAverage(),
+                histogram.getStandardDeviation());
     }
 
     public int getCount() {
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+
+/**
+ * A log-bucketed histogram of latencies in microseconds, in the spirit of
+ * HdrHistogram. Values below 128 get a bucket of their own, and every power
+ * of two above that is split into 64 equally sized buckets, so a value is
+ * never off by more than 1/128th (less than 0.8%). The number of buckets only
+ * depends on the largest value (it is at most 1664 for Integer.MAX_VALUE), not
+ * on the number of values, and two histograms merge exactly by adding up
+ * their bucket counts. The minimum, maximum, average and standard deviation
+ * are tracked exactly.
+ * <p>
+ * Not thread safe.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * The number of buckets needed for any value up to Integer.MAX_VALUE.
+     */
+    public static final int BUCKET_COUNT = bucketIndex(Integer.MAX_VALUE) + 1;
+
+    // Only grown as far as the largest value needs, since there is one
+    // histogram per worker and transaction type
+    private long[] counts = new long[0];
+    // Highest bucket that may be non zero
+    private int maxIndex = -1;
+
+    private long count = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private long sum = 0;
+    private double sumOfSquares = 0;
+
+    /**
+     * Returns the bucket that value (in microseconds, between 0 and
+     * Integer.MAX_VALUE) falls into.
+     */
+    public static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        return (long) (index - shift * SUB_BUCKET_HALF_COUNT) << shift;
+    }
+
+    static long highestValue(int index) {
+        return lowestValue(index + 1) - 1;
+    }
+
+    private void ensureCapacity(int index) {
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, (index / SUB_BUCKET_HALF_COUNT + 1) * SUB_BUCKET_HALF_COUNT);
+        }
+    }
+
+    /**
+     * Records one value. Negative values are recorded as zero and values
+     * beyond Integer.MAX_VALUE as Integer.MAX_VALUE.
+     */
+    public void record(long valueMicroseconds) {
+        long value = Math.max(0, Math.min(valueMicroseconds, Integer.MAX_VALUE));
+        int index = bucketIndex(value);
+        ensureCapacity(index);
+        counts[index]++;
+        maxIndex = Math.max(maxIndex, index);
+
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value;
+        sumOfSquares += (double) value * value;
+    }
+
+    /**
+     * Records count values that are only known to fall into the given
+     * bucket, e.g. because they were counted elsewhere by bucket. They are
+     * all taken to be the middle of the bucket, so the minimum, maximum,
+     * average and standard deviation become approximations too.
+     */
+    public void recordBucket(int index, long count) {
+        if (count <= 0) {
+            return;
+        }
+        ensureCapacity(index);
+        counts[index] += count;
+        maxIndex = Math.max(maxIndex, index);
+
+        long lowest = lowestValue(index);
+        long value = lowest + (highestValue(index) - lowest) / 2;
+        this.count += count;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value * count;
+        sumOfSquares += (double) value * value * count;
+    }
+
+    /**
+     * Adds all the values of other to this histogram.
+     */
+    public void add(LatencyHistogram other) {
+        if (other.count == 0) {
+            return;
+        }
+        ensureCapacity(other.maxIndex);
+        for (int i = 0; i <= other.maxIndex; i++) {
+            counts[i] += other.counts[i];
+        }
+        maxIndex = Math.max(maxIndex, other.maxIndex);
+
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sum += other.sum;
+        sumOfSquares += other.sumOfSquares;
+    }
+
+    /**
+     * Forgets all the values, but keeps the buckets allocated.
+     */
+    public void reset() {
+        if (maxIndex >= 0) {
+            Arrays.fill(counts, 0, maxIndex + 1, 0);
+        }
+        maxIndex = -1;
+        count = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+        sum = 0;
+        sumOfSquares = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMinimum() {
+        return count == 0 ? -1 : min;
+    }
+
+    public long getMaximum() {
+        return count == 0 ? -1 : max;
+    }
+
+    public double getAverage() {
+        return count == 0 ? -1 : (double) sum / count;
+    }
+
+    public double getStandardDeviation() {
+        if (count == 0) {
+            return -1;
+        }
+        if (count == 1) {
+            return 0;
+        }
+        double variance = (sumOfSquares - (double) sum * sum / count) / (count - 1);
+        return Math.sqrt(Math.max(0, variance));
+    }
+
+    /**
+     * Returns the value at the given quantile (between 0 and 1), picking the
+     * closest value the same way DistributionStatistics does for sorted
+     * values. The minimum and maximum are exact, any other value is the
+     * middle of its bucket.
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (count == 0) {
+            return -1;
+        }
+        long rank = (long) (quantile * count);
+        if (rank >= count - 1) {
+            return max;
+        }
+        if (rank == 0) {
+            return min;
+        }
+        long seen = 0;
+        for (int i = 0; i <= maxIndex; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                long lowest = lowestValue(i);
+                long value = lowest + (highestValue(i) - lowest) / 2;
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Serializes the histogram. Only non-empty buckets are written, as
+     * [bucket index, count] pairs.
+     */
+    public JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("subBucketBits", SUB_BUCKET_BITS);
+        json.put("count", count);
+        json.put("min", getMinimum());
+        json.put("max", getMaximum());
+        json.put("sum", sum);
+        json.put("sumOfSquares", sumOfSquares);
+        JSONArray buckets = new JSONArray();
+        for (int i = 0; i <= maxIndex; i++) {
+            if (counts[i] != 0) {
+                buckets.put(new JSONArray().put(i).put(counts[i]));
+            }
+        }
+        json.put("buckets", buckets);
+        return json;
+    }
+
+    public static LatencyHistogram fromJSON(JSONObject json) throws JSONException {
+        if (json.getInt("subBucketBits") != SUB_BUCKET_BITS) {
+            throw new IllegalArgumentException("Unsupported histogram resolution " + json.getInt("subBucketBits"));
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        JSONArray buckets = json.getJSONArray("buckets");
+        for (int i = 0; i < buckets.length(); i++) {
+            JSONArray bucket = buckets.getJSONArray(i);
+            int index = bucket.getInt(0);
+            histogram.ensureCapacity(index);
+            histogram.counts[index] += bucket.getLong(1);
+            histogram.maxIndex = Math.max(histogram.maxIndex, index);
+        }
+        histogram.count = json.getLong("count");
+        if (histogram.count > 0) {
+            histogram.min = json.getLong("min");
+            histogram.max = json.getLong("max");
+        }
+        histogram.sum = json.getLong("sum");
+        histogram.sumOfSquares = json.getDouble("sumOfSquares");
+        return histogram;
+    }
+}
@@ -20,56 +20,78 @@ package com.oltpbenchmark;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
- * Efficiently stores a record of (start time, latency) pairs.
+ * Efficiently stores a record of (start time, latency, response time) tuples.
  */
 public class LatencyRecord implements Iterable<LatencyRecord.Sample> {
     /**
-     * Allocate space for 500k samples at a time
+     * Allocate space for up to 500k samples at a time. The first chunks are
+     * smaller, so that idle terminals don't pin down a lot of memory.
      */
     static final int ALLOC_SIZE = 500000;
+    static final int INITIAL_ALLOC_SIZE = 128;
 
     /**
-     * Contains (start time, latency, transactionType, workerid, phaseid) pentiplets
-     * in microsecond form. The start times are "compressed" by encoding them as
-     * increments, starting from startNs. A 32-bit integer provides sufficient resolution
-     * for an interval of 2146 seconds, or 35 minutes.
+     * Contains (start time, latency, response time, transactionType, workerid, phaseid)
+     * tuples in columnar form: every chunk holds one primitive array per field, so
+     * recording a sample never allocates. Start times are in nanoseconds, latencies
+     * and response times in microseconds.
      */
-    private final ArrayList<Sample[]> values = new ArrayList<>();
+    private final ArrayList<Chunk> chunks = new ArrayList<>();
+    private Chunk current;
     private int nextIndex;
+    private int size;
 
     private final long startNanosecond;
-    private long lastNanosecond;
 
     public LatencyRecord(long startNanosecond) {
         this.startNanosecond = startNanosecond;
-        this.lastNanosecond = startNanosecond;
         allocateChunk();
-
     }
 
     public void addLatency(int transType, long startNanosecond, long endNanosecond, int workerId, int phaseId) {
+        addLatency(transType, startNanosecond, startNanosecond, endNanosecond, workerId, phaseId);
+    }
 
-
-        if (nextIndex == ALLOC_SIZE) {
-            allocateChunk();
-        }
-        Sample[] chunk = values.get(values.size() - 1);
-
-        long startOffsetNanosecond = (startNanosecond - lastNanosecond + 500);
-
+    /**
+     * Records a completed transaction.
+     *
+     * @param intendedStartNanosecond the time at which the transaction should
+     *                                have started had there been no queueing
+     *                                delay. The response time is measured
+     *                                from here, while the latency (service
+     *                                time) is measured from startNanosecond.
+     */
+    public void addLatency(int transType, long intendedStartNanosecond, long startNanosecond, long endNanosecond, int workerId, int phaseId) {
         int latencyMicroseconds = (int) ((endNanosecond - startNanosecond + 500) / 1000);
 
+        int responseMicroseconds = (int) ((endNanosecond - Math.min(intendedStartNanosecond, startNanosecond) + 500) / 1000);
 
-        chunk[nextIndex] = new Sample(transType, startOffsetNanosecond, latencyMicroseconds, workerId, phaseId);
-        ++nextIndex;
+        add(transType, startNanosecond, latencyMicroseconds, responseMicroseconds, workerId, phaseId);
+    }
 
-        lastNanosecond += startOffsetNanosecond;
+    private void add(int transType, long startNanosecond, int latencyMicroseconds, int responseMicroseconds, int workerId, int phaseId) {
+        if (nextIndex == current.capacity) {
+            allocateChunk();
+        }
+        Chunk chunk = current;
+        chunk.startNanosecond[nextIndex] = startNanosecond;
+        chunk.latencyMicrosecond[nextIndex] = latencyMicroseconds;
+        chunk.responseMicrosecond[nextIndex] = responseMicroseconds;
+        chunk.transactionType[nextIndex] = transType;
+        chunk.workerId[nextIndex] = workerId;
+        chunk.phaseId[nextIndex] = phaseId;
+        ++nextIndex;
+        ++size;
     }
 
     private void allocateChunk() {
-        values.add(new Sample[ALLOC_SIZE]);
+        int capacity = (current == null ? INITIAL_ALLOC_SIZE : Math.min(current.capacity * 2, ALLOC_SIZE));
+        current = new Chunk(capacity);
+        chunks.add(current);
         nextIndex = 0;
     }
 
@@ -77,100 +99,213 @@ public class LatencyRecord implements Iterable<LatencyRecord.Sample> {
      * Returns the number of recorded samples.
      */
     public int size() {
-        // Samples stored in full chunks
-        int samples = (values.size() - 1) * ALLOC_SIZE;
+        return size;
+    }
 
-        // Samples stored in the last not full chunk
-        samples += nextIndex;
-        return samples;
+    public long getStartNanosecond() {
+        return startNanosecond;
     }
 
     /**
-     * Stores the start time and latency for a single sample. Immutable.
+     * Returns a view of the samples of all the given records, ordered by
+     * start time. Each record must already be ordered by start time (which is
+     * the case for a single worker's record), so the samples can be streamed
+     * with a k-way merge instead of being copied and sorted.
      */
-    public static final class Sample implements Comparable<Sample> {
-        private final int transactionType;
-        private long startNanosecond;
-        private final int latencyMicrosecond;
-        private final int workerId;
-        private final int phaseId;
+    public static Iterable<Sample> merge(List<LatencyRecord> records) {
+        return () -> new MergingIterator(records);
+    }
 
-        public Sample(int transactionType, long startNanosecond, int latencyMicrosecond, int workerId, int phaseId) {
-            this.transactionType = transactionType;
-            this.startNanosecond = startNanosecond;
-            this.latencyMicrosecond = latencyMicrosecond;
-            this.workerId = workerId;
-            this.phaseId = phaseId;
+    /**
+     * k-way merge of the records' iterators using a binary min-heap of
+     * record indices, keyed on the start time of each record's current
+     * sample. Needs O(records) extra memory.
+     */
+    private static final class MergingIterator implements Iterator<Sample> {
+        private final Iterator<Sample>[] iterators;
+        private final Sample[] heads;
+        private final int[] heap;
+        private int heapSize = 0;
+
+        // The record whose head was returned last; it is advanced lazily so
+        // that the returned flyweight stays valid until the next call.
+        private int last = -1;
+
+        @SuppressWarnings("unchecked")
+        private MergingIterator(List<LatencyRecord> records) {
+            this.iterators = new Iterator[records.size()];
+            this.heads = new Sample[records.size()];
+            this.heap = new int[records.size()];
+            for (int i = 0; i < records.size(); i++) {
+                iterators[i] = records.get(i).iterator();
+                if (iterators[i].hasNext()) {
+                    heads[i] = iterators[i].next();
+                    heap[heapSize++] = i;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        private void advanceLast() {
+            if (last < 0) {
+                return;
+            }
+            if (iterators[last].hasNext()) {
+                heads[last] = iterators[last].next();
+            } else {
+                heads[last] = null;
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(0);
+            last = -1;
+        }
+
+        private long key(int i) {
+            return heads[heap[i]].getStartNanosecond();
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < heapSize && key(left) < key(smallest)) {
+                    smallest = left;
+                }
+                if (right < heapSize && key(right) < key(smallest)) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                int tmp = heap[i];
+                heap[i] = heap[smallest];
+                heap[smallest] = tmp;
+                i = smallest;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            advanceLast();
+            return heapSize > 0;
+        }
+
+        @Override
+        public Sample next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = heap[0];
+            return heads[last];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove is not supported");
+        }
+    }
+
+    /**
+     * One column array per field for capacity samples.
+     */
+    private static final class Chunk {
+        private final int capacity;
+        private final long[] startNanosecond;
+        private final int[] latencyMicrosecond;
+        private final int[] responseMicrosecond;
+        private final int[] transactionType;
+        private final int[] workerId;
+        private final int[] phaseId;
+
+        private Chunk(int capacity) {
+            this.capacity = capacity;
+            this.startNanosecond = new long[capacity];
+            this.latencyMicrosecond = new int[capacity];
+            this.responseMicrosecond = new int[capacity];
+            this.transactionType = new int[capacity];
+            this.workerId = new int[capacity];
+            this.phaseId = new int[capacity];
+        }
+    }
+
+    /**
+     * A view of a single sample. Iterators hand out the same instance for
+     * every sample (a flyweight) and move it along, so callers must copy out
+     * the values they want to keep instead of holding on to it.
+     */
+    public static final class Sample {
+        private Chunk chunk;
+        private int index;
+
+        private Sample() {
         }
 
         public int getTransactionType() {
-            return transactionType;
+            return chunk.transactionType[index];
         }
 
         public long getStartNanosecond() {
-            return startNanosecond;
+            return chunk.startNanosecond[index];
         }
 
+        /**
+         * The service time: from when the transaction actually started
+         * executing until it completed.
+         */
         public int getLatencyMicrosecond() {
-            return latencyMicrosecond;
+            return chunk.latencyMicrosecond[index];
         }
 
-        public int getWorkerId() {
-            return workerId;
+        /**
+         * The response time: from when the transaction was supposed to start
+         * (its arrival) until it completed, including any queueing delay.
+         */
+        public int getResponseMicrosecond() {
+            return chunk.responseMicrosecond[index];
         }
 
-        public int getPhaseId() {
-            return phaseId;
+        public int getWorkerId() {
+            return chunk.workerId[index];
         }
 
-        @Override
-        public int compareTo(Sample other) {
-            long diff = this.startNanosecond - other.startNanosecond;
-
-            // explicit comparison to avoid long to int overflow
-            if (diff > 0) {
-                return 1;
-            } else if (diff < 0) {
-                return -1;
-            } else {
-
-                return 0;
-            }
+        public int getPhaseId() {
+            return chunk.phaseId[index];
         }
     }
 
     private final class LatencyRecordIterator implements Iterator<Sample> {
+        private final Sample sample = new Sample();
         private int chunkIndex = 0;
         private int subIndex = 0;
-        private long lastIteratorNanosecond = startNanosecond;
 
         @Override
         public boolean hasNext() {
-            if (chunkIndex < values.size() - 1) {
+            if (chunkIndex < chunks.size() - 1) {
                 return true;
             }
-            return subIndex < nextIndex;
+            return chunkIndex == chunks.size() - 1 && subIndex < nextIndex;
         }
 
         @Override
         public Sample next() {
-            Sample[] chunk = values.get(chunkIndex);
-            Sample s = chunk[subIndex];
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            sample.chunk = chunks.get(chunkIndex);
+            sample.index = subIndex;
 
             // Iterate in chunk, and wrap to next one
             ++subIndex;
 
-            if (subIndex == ALLOC_SIZE) {
+            if (subIndex == sample.chunk.capacity) {
                 chunkIndex += 1;
                 subIndex = 0;
             }
 
-            // Previously, s.startNs was just an offset from the previous
-            // value.  Now we make it an absolute.
-            s.startNanosecond += lastIteratorNanosecond;
-            lastIteratorNanosecond = s.startNanosecond;
-
-            return s;
+            return sample;
         }
 
         @Override
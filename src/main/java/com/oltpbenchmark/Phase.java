@@ -17,6 +17,7 @@
 
 package com.oltpbenchmark;
 
+import com.oltpbenchmark.arrivals.ArrivalConfig;
 import com.oltpbenchmark.util.StringUtil;
 
 import java.util.ArrayList;
@@ -28,6 +29,71 @@ public class Phase {
         REGULAR, POISSON,
     }
 
+    /**
+     * A value that goes from one value to another over the first seconds of
+     * the measured time of a phase, and stays at the second one after that.
+     * During the warmup it is at the first one.
+     */
+    public static final class Ramp {
+        public enum Shape {
+            /**
+             * Changes by the same amount every second
+             */
+            LINEAR,
+            /**
+             * Changes by the same factor every second
+             */
+            EXPONENTIAL,
+        }
+
+        private final Shape shape;
+        private final double from;
+        private final double to;
+        private final double seconds;
+
+        public Ramp(Shape shape, double from, double to, double seconds) {
+            if (seconds <= 0) {
+                throw new IllegalArgumentException("the ramp time must be positive");
+            }
+            if (shape == Shape.EXPONENTIAL && (from <= 0 || to <= 0)) {
+                throw new IllegalArgumentException("an exponential ramp must start and end above 0");
+            }
+            this.shape = shape;
+            this.from = from;
+            this.to = to;
+            this.seconds = seconds;
+        }
+
+        public double valueAt(double elapsedSeconds) {
+            double f = Math.min(1, Math.max(0, elapsedSeconds / seconds));
+            if (shape == Shape.LINEAR) {
+                return from + (to - from) * f;
+            }
+            return from * Math.pow(to / from, f);
+        }
+
+        public Shape getShape() {
+            return shape;
+        }
+
+        public double getFrom() {
+            return from;
+        }
+
+        public double getTo() {
+            return to;
+        }
+
+        public double getSeconds() {
+            return seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s->%s (%s over %ss)", from, to, shape.name().toLowerCase(), seconds);
+        }
+    }
+
     private final Random gen = new Random();
     private final String benchmarkName;
     private final int id;
@@ -45,6 +111,10 @@ public class Phase {
     private final int weightCount;
     private final int activeTerminals;
     private int nextSerial;
+    private RateSearch search = null;
+    private Ramp rateRamp = null;
+    private Ramp terminalRamp = null;
+    private List<ArrivalConfig> arrivals = List.of();
 
 
     Phase(String benchmarkName, int id, int t, int wt, double r, List<Double> weights, boolean rateLimited, boolean disabled, boolean serial, boolean timed, int activeTerminals, Arrival a) {
@@ -66,6 +136,96 @@ public class Phase {
 
 
 
+    /**
+     * A copy of this phase that runs at rate for time seconds, without a
+     * warmup or ramps
+     */
+    Phase withRate(double rate, int time) {
+        Phase phase = new Phase(benchmarkName, id, time, 0, rate, weights, true, disabled, serial, time > 0, activeTerminals, arrival);
+        phase.search = this.search;
+        phase.arrivals = this.arrivals;
+        return phase;
+    }
+
+    /**
+     * A copy of this phase with another rate, weights or number of active
+     * terminals, to replace it while it runs. A ramp is dropped when the
+     * value that it ramps is changed.
+     */
+    Phase withChanges(double rate, boolean rateLimited, boolean disabled, List<Double> weights, int activeTerminals) {
+        Phase phase = new Phase(benchmarkName, id, time, warmupTime, rate, weights, rateLimited, disabled, serial, timed, activeTerminals, arrival);
+        phase.search = this.search;
+        phase.arrivals = this.arrivals;
+        if (rate == this.rate && rateLimited == this.rateLimited && disabled == this.disabled) {
+            phase.rateRamp = this.rateRamp;
+        }
+        if (activeTerminals == this.activeTerminals) {
+            phase.terminalRamp = this.terminalRamp;
+        }
+        return phase;
+    }
+
+    /**
+     * The rate search that this phase is a probe of, or null
+     */
+    public RateSearch getSearch() {
+        return search;
+    }
+
+    void setSearch(RateSearch search) {
+        this.search = search;
+    }
+
+    /**
+     * The ramp that the rate follows, or null if it stays at {@link #getRate()}
+     */
+    public Ramp getRateRamp() {
+        return rateRamp;
+    }
+
+    void setRateRamp(Ramp rateRamp) {
+        this.rateRamp = rateRamp;
+    }
+
+    /**
+     * The ramp that the number of active terminals follows, or null if it
+     * stays at {@link #getActiveTerminals()}
+     */
+    public Ramp getTerminalRamp() {
+        return terminalRamp;
+    }
+
+    void setTerminalRamp(Ramp terminalRamp) {
+        this.terminalRamp = terminalRamp;
+    }
+
+    /**
+     * The arrival processes of the streams of this phase, at most one for
+     * each transaction type and one for the rest. If there is none, all the
+     * types arrive by {@link #getArrival()}.
+     */
+    public List<ArrivalConfig> getArrivals() {
+        return arrivals;
+    }
+
+    void setArrivals(List<ArrivalConfig> arrivals) {
+        this.arrivals = List.copyOf(arrivals);
+    }
+
+    /**
+     * The target rate after elapsedSeconds of measured time
+     */
+    public double getRateAt(double elapsedSeconds) {
+        return rateRamp == null ? rate : rateRamp.valueAt(elapsedSeconds);
+    }
+
+    /**
+     * The number of active terminals after elapsedSeconds of measured time
+     */
+    public int getActiveTerminalsAt(double elapsedSeconds) {
+        return terminalRamp == null ? activeTerminals : (int) Math.round(terminalRamp.valueAt(elapsedSeconds));
+    }
+
     public boolean isRateLimited() {
         return rateLimited;
     }
@@ -199,6 +359,13 @@ public class Phase {
      * Returns a string for logging purposes when entering the phase
      */
     public String currentPhaseString() {
+        return StringUtil.bold("PHASE START") + " :: " + describe();
+    }
+
+    /**
+     * The workload and the settings of this phase
+     */
+    public String describe() {
         List<String> inner = new ArrayList<>();
         inner.add("[Workload=" + benchmarkName.toUpperCase() + "]");
         if (isDisabled()) {
@@ -212,13 +379,13 @@ public class Phase {
                 inner.add("[Time=" + time + "]");
             }
             inner.add("[WarmupTime=" + warmupTime + "]");
-            inner.add("[Rate=" + (isRateLimited() ? rate : "unlimited") + "]");
-            inner.add("[Arrival=" + arrival + "]");
+            inner.add("[Rate=" + (isRateLimited() ? (rateRamp != null ? rateRamp : rate) : "unlimited") + "]");
+            inner.add("[Arrival=" + (arrivals.isEmpty() ? arrival : arrivals) + "]");
             inner.add("[Ratios=" + getWeights() + "]");
-            inner.add("[ActiveWorkers=" + getActiveTerminals() + "]");
+            inner.add("[ActiveWorkers=" + (terminalRamp != null ? terminalRamp : getActiveTerminals()) + "]");
         }
 
-        return StringUtil.bold("PHASE START") + " :: " + StringUtil.join(" ", inner);
+        return StringUtil.join(" ", inner);
     }
 
 }
\ No newline at end of file
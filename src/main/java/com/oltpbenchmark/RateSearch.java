@@ -0,0 +1,365 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import com.oltpbenchmark.api.TransactionType;
+import com.oltpbenchmark.api.Worker;
+import com.oltpbenchmark.metrics.TransactionCounters;
+import com.oltpbenchmark.types.TransactionStatus;
+import com.oltpbenchmark.util.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * Searches for the highest rate at which a workload still meets a latency
+ * SLO, by running a short probe phase at every rate it tries. Starting at the
+ * minimum rate, the rate is doubled until a probe misses the SLO, and the
+ * highest rate that met it and the lowest that didn't are then bisected until
+ * they are within the precision of each other. With a step, the rate is
+ * raised by the step instead, which gives evenly spaced points on the curve.
+ * <p>
+ * A probe meets the SLO if the latency metric over its measurement window
+ * is at most the SLO, and the terminals completed at least minThroughput of
+ * the target rate: a rate that the terminals can't keep up with shows up as
+ * missing throughput before it shows up as latency. The first warmup seconds
+ * of every probe are not measured. In open-loop mode the metric is taken
+ * over the response times, which include the time requests waited in the
+ * queue, instead of over the service times.
+ */
+public class RateSearch {
+    private static final Logger LOG = LoggerFactory.getLogger(RateSearch.class);
+
+    public enum Metric {
+        AVERAGE(-1), P50(0.5), P90(0.9), P95(0.95), P99(0.99), P999(0.999);
+
+        private final double quantile;
+
+        Metric(double quantile) {
+            this.quantile = quantile;
+        }
+
+        /**
+         * Parses avg, p50, p90, p95, p99 or p999
+         */
+        public static Metric fromString(String metric) {
+            if (metric.equalsIgnoreCase("avg") || metric.equalsIgnoreCase("average")) {
+                return AVERAGE;
+            }
+            return Metric.valueOf(metric.toUpperCase());
+        }
+
+        /**
+         * The value of this metric in microseconds
+         */
+        public long valueOf(LatencyHistogram histogram) {
+            return quantile < 0 ? Math.round(histogram.getAverage()) : histogram.getValueAtQuantile(quantile);
+        }
+
+        @Override
+        public String toString() {
+            return this == AVERAGE ? "avg" : name().toLowerCase();
+        }
+    }
+
+    /**
+     * The outcome of running at one rate
+     */
+    public static final class Probe {
+        private final double targetRate;
+        private final double throughput;
+        private final long latency;
+        private final DistributionStatistics latencies;
+        private final boolean sloMet;
+
+        private Probe(double targetRate, double throughput, long latency, DistributionStatistics latencies, boolean sloMet) {
+            this.targetRate = targetRate;
+            this.throughput = throughput;
+            this.latency = latency;
+            this.latencies = latencies;
+            this.sloMet = sloMet;
+        }
+
+        public double getTargetRate() {
+            return targetRate;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        /**
+         * The latency metric of the search, in microseconds, over response
+         * times if {@link RateSearch#isResponseTime()}
+         */
+        public long getLatency() {
+            return latency;
+        }
+
+        public DistributionStatistics getLatencies() {
+            return latencies;
+        }
+
+        public boolean isSloMet() {
+            return sloMet;
+        }
+    }
+
+    private final Phase template;
+    private final Metric metric;
+    private final boolean responseTime;
+    private final long sloMicroseconds;
+    private final double minRate;
+    private final double maxRate;
+    private final double step;
+    private final double precision;
+    private final double minThroughput;
+    private final int maxProbes;
+
+    private final List<Probe> probes = new ArrayList<>();
+    private double highestMet = 0;
+    private double lowestMissed = Double.POSITIVE_INFINITY;
+
+    // The probe that is running, and the counters at the start of its
+    // measurement window, once it has started
+    private Phase probe = null;
+    private boolean probeFinished = false;
+    private long probeStartNs;
+    private long windowStartNs;
+    private long[] windowStartCounts = null;
+
+    /**
+     * @param template      The phase to probe with, which the search runs in
+     *                      place of. Its time is how long each probe is
+     *                      measured for, after its warmup.
+     * @param responseTime  Measure the SLO over response times instead of
+     *                      service times, for open-loop mode
+     * @param sloMs         The highest latency that meets the SLO
+     * @param minRate       The rate of the first probe
+     * @param maxRate       Stop once a probe at this rate meets the SLO
+     * @param step          Raise the rate by this much after each probe, or
+     *                      0 to double and bisect
+     * @param precision     Stop bisecting once the rates are within this
+     *                      fraction of each other
+     * @param minThroughput The fraction of the target rate a probe must
+     *                      complete
+     * @param maxProbes     Stop after this many probes
+     */
+    public RateSearch(Phase template, Metric metric, boolean responseTime, double sloMs, double minRate, double maxRate, double step,
+                      double precision, double minThroughput, int maxProbes) {
+        if (minRate <= 0 || maxRate < minRate) {
+            throw new IllegalArgumentException(String.format("Invalid rate search range [%s, %s]", minRate, maxRate));
+        }
+        if (template.getTime() <= 0) {
+            throw new IllegalArgumentException("A rate search needs the time of each probe");
+        }
+        this.template = template;
+        this.metric = metric;
+        this.responseTime = responseTime;
+        this.sloMicroseconds = Math.round(sloMs * 1000);
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.step = step;
+        this.precision = precision;
+        this.minThroughput = minThroughput;
+        this.maxProbes = maxProbes;
+        template.setSearch(this);
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * True if the metric is taken over response times, false if over service
+     * times
+     */
+    public boolean isResponseTime() {
+        return responseTime;
+    }
+
+    private String getMeasured() {
+        return responseTime ? "response time" : "latency";
+    }
+
+    public double getSloMs() {
+        return sloMicroseconds / 1000.0;
+    }
+
+    /**
+     * The probes that have run, in the order they ran in
+     */
+    public List<Probe> getProbes() {
+        return Collections.unmodifiableList(probes);
+    }
+
+    /**
+     * The highest rate that met the SLO, or 0 if none did
+     */
+    public double getMaxSustainableRate() {
+        return highestMet;
+    }
+
+    /**
+     * The phase of the next probe, or null if the search is over. Probes run
+     * for the warmup and time of the template, and have no warmup of their
+     * own.
+     */
+    synchronized Phase nextProbe() {
+        double rate;
+        if (probe == null) {
+            rate = minRate;
+        } else if (!probeFinished) {
+            // Cut short
+            return null;
+        } else {
+            rate = nextRate();
+        }
+        if (rate <= 0) {
+            return null;
+        }
+        probe = template.withRate(rate, template.getWarmupTime() + template.getTime());
+        probeFinished = false;
+        windowStartCounts = null;
+        probeStartNs = -1;
+        return probe;
+    }
+
+    private double nextRate() {
+        if (probes.size() >= maxProbes) {
+            return -1;
+        }
+        if (lowestMissed == Double.POSITIVE_INFINITY) {
+            if (highestMet >= maxRate) {
+                return -1;
+            }
+            return Math.min(step > 0 ? highestMet + step : highestMet * 2, maxRate);
+        }
+        if (highestMet == 0 || step > 0 || lowestMissed <= highestMet * (1 + precision)) {
+            return -1;
+        }
+        return Math.sqrt(highestMet * lowestMissed);
+    }
+
+    /**
+     * Called by ThreadBench on every interval while a probe of this search is
+     * the current phase: starts the measurement window once the probe is past
+     * its warmup, and ends it once the phase is complete.
+     */
+    synchronized void update(Phase phase, long now, boolean phaseComplete, List<? extends Worker<?>> workers) {
+        if (phase != probe || probeFinished) {
+            return;
+        }
+        if (probeStartNs < 0) {
+            probeStartNs = now;
+        }
+        if (windowStartCounts == null && now >= probeStartNs + template.getWarmupTime() * 1000000000L) {
+            windowStartNs = now;
+            windowStartCounts = countLatencies(workers);
+        }
+        if (phaseComplete && windowStartCounts != null) {
+            finishProbe(now, workers);
+        }
+    }
+
+    private void finishProbe(long now, List<? extends Worker<?>> workers) {
+        long[] counts = countLatencies(workers);
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < counts.length; i++) {
+            histogram.recordBucket(i, counts[i] - windowStartCounts[i]);
+        }
+        record(histogram, (now - windowStartNs) / 1e9);
+    }
+
+    /**
+     * Records the outcome of the current probe, which completed the
+     * transactions of histogram in its measurement window of seconds
+     */
+    void record(LatencyHistogram histogram, double seconds) {
+        double throughput = seconds > 0 ? histogram.getCount() / seconds : 0;
+        long latency = metric.valueOf(histogram);
+        double rate = probe.getRate();
+        boolean sloMet = histogram.getCount() > 0 && latency <= sloMicroseconds && throughput >= rate * minThroughput;
+
+        probes.add(new Probe(rate, throughput, latency, DistributionStatistics.computeStatistics(histogram), sloMet));
+        if (sloMet) {
+            highestMet = Math.max(highestMet, rate);
+        } else {
+            lowestMissed = Math.min(lowestMissed, rate);
+        }
+        probeFinished = true;
+        LOG.info(String.format("%s :: Probe %d at %.1f requests/s: %.1f requests/s, %s %s %.2f ms, SLO %s",
+                StringUtil.bold("SEARCH"), probes.size(), rate, throughput, metric, getMeasured(), latency / 1000.0,
+                sloMet ? "met" : "missed"));
+        if (nextRate() <= 0) {
+            LOG.info(String.format("%s :: Highest rate within the %s %s SLO of %.2f ms: %.1f requests/s",
+                    StringUtil.bold("SEARCH"), metric, getMeasured(), getSloMs(), highestMet));
+        }
+    }
+
+    /**
+     * The cumulative latency (or response time) bucket counts of all
+     * transactions of workers
+     */
+    private long[] countLatencies(List<? extends Worker<?>> workers) {
+        long[] statuses = new long[TransactionStatus.values().length];
+        long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+        for (Worker<?> worker : workers) {
+            TransactionCounters counters = worker.getTransactionCounters();
+            for (TransactionType type : counters.getTransactionTypes()) {
+                if (responseTime) {
+                    counters.addResponseTimesTo(type, buckets);
+                } else {
+                    counters.addTo(type, statuses, buckets);
+                }
+            }
+        }
+        return buckets;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("Metric", metric.toString());
+        map.put("Measured", getMeasured());
+        map.put("SLO (milliseconds)", getSloMs());
+        map.put("Probes", probes.size());
+        map.put("Max Sustainable Rate (requests/second)", highestMet);
+        return map;
+    }
+
+    /**
+     * Writes the throughput and latency (or response time) of every probe, by
+     * target rate
+     */
+    public void writeCurve(PrintStream out) {
+        String measured = responseTime ? "Response Time" : "Latency";
+        out.println(String.format("Target Rate (requests/second),Throughput (requests/second),Average %1$s (millisecond),"
+                + "50th Percentile %1$s (millisecond),90th Percentile %1$s (millisecond),"
+                + "95th Percentile %1$s (millisecond),99th Percentile %1$s (millisecond),SLO Met", measured));
+        List<Probe> curve = new ArrayList<>(probes);
+        curve.sort(Comparator.comparingDouble(Probe::getTargetRate));
+        for (Probe p : curve) {
+            DistributionStatistics s = p.getLatencies();
+            out.printf("%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%s%n", p.getTargetRate(), p.getThroughput(),
+                    s.getAverage() / 1000, s.getMedian() / 1000, s.get90thPercentile() / 1000,
+                    s.get95thPercentile() / 1000, s.get99thPercentile() / 1000, p.isSloMet());
+        }
+    }
+}
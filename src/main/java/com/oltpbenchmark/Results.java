@@ -18,20 +18,23 @@
 
 package com.oltpbenchmark;
 
-import com.oltpbenchmark.LatencyRecord.Sample;
 import com.oltpbenchmark.api.TransactionType;
 import com.oltpbenchmark.util.Histogram;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 public final class Results {
 
     private final long nanoseconds;
     private final int measuredRequests;
     private final DistributionStatistics distributionStatistics;
-    private final List<LatencyRecord.Sample> latencySamples;
+    private final DistributionStatistics responseTimeStatistics;
+    private final List<LatencyRecord> latencyRecords;
     private final Histogram<TransactionType> unknown = new Histogram<>(false);
     private final Histogram<TransactionType> success = new Histogram<>(true);
     private final Histogram<TransactionType> abort = new Histogram<>(false);
@@ -39,18 +42,26 @@ public final class Results {
     private final Histogram<TransactionType> error = new Histogram<>(false);
     private final Histogram<TransactionType> retryDifferent = new Histogram<>(false);
     private final Map<TransactionType, Histogram<String>> abortMessages = new HashMap<>();
+    private final Map<TransactionType, LatencyHistogram> latencyHistograms = new HashMap<>();
+    private final Map<TransactionType, LatencyHistogram> responseTimeHistograms = new HashMap<>();
+    private final List<RateSearch> rateSearches = new ArrayList<>();
+    private final NavigableMap<Long, Double> targetRates = new TreeMap<>();
+    private final NavigableMap<Long, String> annotations = new TreeMap<>();
+
+    public Results(long nanoseconds, int measuredRequests, DistributionStatistics distributionStatistics, final List<LatencyRecord> latencyRecords) {
+        this(nanoseconds, measuredRequests, distributionStatistics, distributionStatistics, latencyRecords);
+    }
 
-    public Results(long nanoseconds, int measuredRequests, DistributionStatistics distributionStatistics, final List<LatencyRecord.Sample> latencySamples) {
+    public Results(long nanoseconds, int measuredRequests, DistributionStatistics distributionStatistics, DistributionStatistics responseTimeStatistics, final List<LatencyRecord> latencyRecords) {
         this.nanoseconds = nanoseconds;
         this.measuredRequests = measuredRequests;
         this.distributionStatistics = distributionStatistics;
+        this.responseTimeStatistics = responseTimeStatistics;
 
         if (distributionStatistics == null) {
-            this.latencySamples = null;
+            this.latencyRecords = null;
         } else {
-            // defensive copy
-            this.latencySamples = List.copyOf(latencySamples);
-
+            this.latencyRecords = List.copyOf(latencyRecords);
         }
     }
 
@@ -58,6 +69,14 @@ public final class Results {
         return distributionStatistics;
     }
 
+    /**
+     * Statistics over the response times, measured from the intended start
+     * time of each request instead of when a terminal got around to it.
+     */
+    public DistributionStatistics getResponseTimeStatistics() {
+        return responseTimeStatistics;
+    }
+
     public Histogram<TransactionType> getSuccess() {
         return success;
     }
@@ -86,6 +105,67 @@ public final class Results {
         return abortMessages;
     }
 
+    /**
+     * The latency histogram of each transaction type, merged across all the
+     * workers.
+     */
+    public Map<TransactionType, LatencyHistogram> getLatencyHistograms() {
+        return latencyHistograms;
+    }
+
+    /**
+     * The response time histogram of each transaction type, merged across
+     * all the workers.
+     */
+    public Map<TransactionType, LatencyHistogram> getResponseTimeHistograms() {
+        return responseTimeHistograms;
+    }
+
+    /**
+     * The rate searches that ran, with the probes they ran
+     */
+    public List<RateSearch> getRateSearches() {
+        return rateSearches;
+    }
+
+    /**
+     * The target rate of all the workloads together, from each nanosecond
+     * (as of System.nanoTime()) on. NaN while a workload is not rate limited.
+     */
+    public NavigableMap<Long, Double> getTargetRates() {
+        return targetRates;
+    }
+
+    /**
+     * The average target rate from startNs to endNs
+     *
+     * @return NaN if it is not known or not limited for all of that time
+     */
+    public double getTargetRate(long startNs, long endNs) {
+        Map.Entry<Long, Double> from = targetRates.floorEntry(startNs);
+        if (from == null || endNs <= startNs) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        long t = startNs;
+        double rate = from.getValue();
+        for (Map.Entry<Long, Double> e : targetRates.subMap(startNs, false, endNs, false).entrySet()) {
+            sum += rate * (e.getKey() - t);
+            t = e.getKey();
+            rate = e.getValue();
+        }
+        sum += rate * (endNs - t);
+        return sum / (endNs - startNs);
+    }
+
+    /**
+     * The changes made to the phases while they ran, by when they were made
+     * (as of System.nanoTime())
+     */
+    public NavigableMap<Long, String> getAnnotations() {
+        return annotations;
+    }
+
     public double requestsPerSecondThroughput() {
         return (double) measuredRequests / (double) nanoseconds * 1e9;
     }
@@ -94,8 +174,17 @@ public final class Results {
         return (double) success.getSampleCount() / (double) nanoseconds * 1e9;
     }
 
-    public List<Sample> getLatencySamples() {
-        return latencySamples;
+    /**
+     * The samples of all the workers, merged on the fly in start time order.
+     * Every iteration does a new merge pass, so consumers that need the
+     * samples several times should share one pass instead.
+     */
+    public Iterable<LatencyRecord.Sample> getLatencySamples() {
+        return LatencyRecord.merge(latencyRecords);
+    }
+
+    public List<LatencyRecord> getLatencyRecords() {
+        return latencyRecords;
     }
 
     public long getNanoseconds() {
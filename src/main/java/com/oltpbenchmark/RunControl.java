@@ -0,0 +1,413 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import com.oltpbenchmark.types.State;
+import com.oltpbenchmark.util.StringUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Changes the workload while it runs, so that a soak test can adjust the
+ * load without restarting and losing the warm caches of the database. The
+ * commands come in over HTTP on a local port:
+ * <ul>
+ * <li>POST /phase with rate, weights and/or terminals changes the current
+ * phase</li>
+ * <li>POST /append with time, rate, weights and/or terminals adds a phase
+ * after the configured ones, with the settings of the last one for the
+ * rest</li>
+ * <li>POST /skip ends the current phase, and with count=n the n - 1 phases
+ * after it too</li>
+ * <li>GET /phase describes the current phases</li>
+ * </ul>
+ * The parameters go in the query string or in a form body. The rate is a
+ * number, unlimited or disabled, and the weights are separated by commas.
+ * With bench=name only that workload is changed, otherwise all of them are.
+ * <p>
+ * ThreadBench applies the commands between two of its intervals, all of a
+ * command at once, and records each change as an annotation of the results.
+ * A request returns once its command was applied, with the change or with
+ * why it could not be made.
+ */
+public final class RunControl implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(RunControl.class);
+
+    private static final long REPLY_TIMEOUT_SECONDS = 10;
+    // A request waits up to REPLY_TIMEOUT_SECONDS for its command, so it gets
+    // a thread of its own, and GET /phase still answers while POSTs wait
+    private static final int HANDLER_THREADS = 4;
+
+    enum Action {
+        STATUS, CHANGE, APPEND, SKIP,
+    }
+
+    /**
+     * One request, checked for what can be checked without the workloads
+     */
+    static final class Command {
+        private final Action action;
+        private final String bench;
+        private final String rate;
+        private final List<Double> weights;
+        private final Integer terminals;
+        private final Integer time;
+        private final int count;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        Command(Action action, Map<String, String> params) {
+            this.action = action;
+            this.bench = params.get("bench");
+            this.rate = params.get("rate");
+            if (rate != null && !rate.equals("unlimited") && !rate.equals("disabled") && parse("rate", rate) <= 0) {
+                throw new IllegalArgumentException("rate must be positive, unlimited or disabled");
+            }
+            if (params.containsKey("weights")) {
+                List<Double> weights = new ArrayList<>();
+                for (String weight : params.get("weights").split("\\s*,\\s*")) {
+                    weights.add(parse("weights", weight));
+                }
+                this.weights = Collections.unmodifiableList(weights);
+            } else {
+                this.weights = null;
+            }
+            this.terminals = params.containsKey("terminals") ? (int) parse("terminals", params.get("terminals")) : null;
+            this.time = params.containsKey("time") ? (int) parse("time", params.get("time")) : null;
+            this.count = params.containsKey("count") ? (int) parse("count", params.get("count")) : 1;
+            if ((terminals != null && terminals < 0) || (time != null && time <= 0) || count < 1) {
+                throw new IllegalArgumentException("terminals must not be negative, and time and count must be positive");
+            }
+            if (action == Action.CHANGE && rate == null && weights == null && terminals == null) {
+                throw new IllegalArgumentException("nothing to change, give a rate, weights or terminals");
+            }
+        }
+
+        private static double parse(String name, String value) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(String.format("%s must be a number, not '%s'", name, value));
+            }
+        }
+
+        Action getAction() {
+            return action;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        /**
+         * Whether the command is for the workload of benchmarkName
+         */
+        boolean isFor(String benchmarkName) {
+            return bench == null || bench.equalsIgnoreCase(benchmarkName);
+        }
+
+        /**
+         * The phase with the changes of this command
+         *
+         * @param terminals The number of terminals of the workload
+         */
+        Phase applyTo(Phase phase, int terminals) {
+            double rate = phase.getRate();
+            boolean rateLimited = phase.isRateLimited();
+            boolean disabled = phase.isDisabled();
+            if (this.rate != null) {
+                rateLimited = !this.rate.equals("unlimited");
+                disabled = this.rate.equals("disabled");
+                rate = rateLimited && !disabled ? Double.parseDouble(this.rate) : 1;
+            }
+            List<Double> weights = this.weights != null ? this.weights : phase.getWeights();
+            if (weights.size() != phase.getWeightCount()) {
+                throw new IllegalArgumentException(String.format("%d weights are needed, not %d", phase.getWeightCount(), weights.size()));
+            }
+            int active = this.terminals != null ? this.terminals : phase.getActiveTerminals();
+            if (active > terminals) {
+                throw new IllegalArgumentException(String.format("there are only %d terminals", terminals));
+            }
+            if (phase.isSerial() && (this.rate != null || this.terminals != null)) {
+                throw new IllegalArgumentException("a serial phase runs at its own pace on one terminal");
+            }
+            return phase.withChanges(rate, rateLimited, disabled, weights, active);
+        }
+
+        Integer getTime() {
+            return time;
+        }
+
+        void complete(String message) {
+            result.complete(message);
+        }
+
+        void fail(String message) {
+            result.completeExceptionally(new IllegalStateException(message));
+        }
+
+        /**
+         * The changes, as they are recorded
+         */
+        String describeChanges() {
+            List<String> changes = new ArrayList<>();
+            if (time != null) {
+                changes.add("time=" + time);
+            }
+            if (rate != null) {
+                changes.add("rate=" + rate);
+            }
+            if (weights != null) {
+                changes.add("weights=" + weights);
+            }
+            if (terminals != null) {
+                changes.add("terminals=" + terminals);
+            }
+            return String.join(" ", changes);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(HANDLER_THREADS, r -> {
+        Thread t = new Thread(r, "RunControl");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Queue<Command> pending = new ConcurrentLinkedQueue<>();
+
+    public RunControl(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.server.createContext("/phase", exchange -> handle(exchange, "GET".equals(exchange.getRequestMethod()) ? Action.STATUS : Action.CHANGE));
+        this.server.createContext("/append", exchange -> handle(exchange, Action.APPEND));
+        this.server.createContext("/skip", exchange -> handle(exchange, Action.SKIP));
+        this.server.setExecutor(executor);
+        this.server.start();
+        LOG.info("Accepting run control commands at http://localhost:{}/phase", getPort());
+    }
+
+    /**
+     * The port the endpoint listens on, which is picked by the OS if 0 was
+     * requested.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange, Action action) throws IOException {
+        int status;
+        String reply;
+        try {
+            if (action != Action.STATUS && !"POST".equals(exchange.getRequestMethod())) {
+                throw new IllegalArgumentException("use POST to change the run");
+            }
+            Map<String, String> params = new HashMap<>();
+            parseParams(exchange.getRequestURI().getRawQuery(), params);
+            parseParams(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), params);
+            Command command = new Command(action, params);
+            submit(command);
+            reply = command.result.get(REPLY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            status = 200;
+        } catch (IllegalArgumentException ex) {
+            reply = ex.getMessage();
+            status = 400;
+        } catch (ExecutionException ex) {
+            reply = ex.getCause().getMessage();
+            status = 409;
+        } catch (TimeoutException ex) {
+            reply = "queued, the benchmark has not got to it yet";
+            status = 202;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            reply = "interrupted";
+            status = 503;
+        }
+        byte[] body = (reply + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static void parseParams(String query, Map<String, String> params) {
+        if (query == null || query.isBlank()) {
+            return;
+        }
+        for (String pair : query.trim().split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    void submit(Command command) {
+        pending.offer(command);
+    }
+
+    /**
+     * Applies the commands that came in since the last call. Called by
+     * ThreadBench between two intervals.
+     *
+     * @param state       The state of the test
+     * @param now         When the changes are made, in System.nanoTime()
+     * @param annotations Where the changes are recorded
+     * @return Whether the current phases are to be skipped
+     */
+    boolean apply(List<WorkloadConfiguration> workConfs, State state, long now, NavigableMap<Long, String> annotations) {
+        boolean skip = false;
+        Command command;
+        while ((command = pending.poll()) != null) {
+            try {
+                List<String> changes = new ArrayList<>();
+                List<WorkloadConfiguration> targets = new ArrayList<>();
+                for (WorkloadConfiguration workConf : workConfs) {
+                    if (command.isFor(workConf.getBenchmarkName())) {
+                        targets.add(workConf);
+                    }
+                }
+                if (targets.isEmpty()) {
+                    throw new IllegalArgumentException("there is no workload " + command.bench);
+                }
+                if (state == State.DONE || state == State.EXIT || state == State.ERROR) {
+                    throw new IllegalStateException("the run is over");
+                }
+                switch (command.getAction()) {
+                    case STATUS -> {
+                        for (WorkloadConfiguration workConf : targets) {
+                            Phase phase = workConf.getWorkloadState().getCurrentPhase();
+                            changes.add(phase == null ? workConf.getBenchmarkName() + " is done" : "phase " + phase.getId() + " " + phase.describe());
+                        }
+                    }
+                    case CHANGE -> changes.addAll(change(command, targets));
+                    case APPEND -> changes.addAll(append(command, targets));
+                    case SKIP -> {
+                        if (state != State.MEASURE) {
+                            throw new IllegalStateException("only a measured, timed phase can be skipped, not during " + state);
+                        }
+                        for (WorkloadConfiguration workConf : workConfs) {
+                            Phase phase = workConf.getWorkloadState().getCurrentPhase();
+                            if (phase != null && phase.isLatencyRun()) {
+                                throw new IllegalStateException("a serial latency run can't be skipped");
+                            }
+                        }
+                        for (WorkloadConfiguration workConf : workConfs) {
+                            workConf.getWorkloadState().skipPhases(command.getCount());
+                        }
+                        skip = true;
+                        changes.add(String.format("skip %d phase%s", command.getCount(), command.getCount() > 1 ? "s" : ""));
+                    }
+                }
+                String message = String.join("; ", changes);
+                if (command.getAction() != Action.STATUS) {
+                    annotations.merge(now, message, (a, b) -> a + "; " + b);
+                    LOG.info("{} :: {}", StringUtil.bold("CONTROL"), message);
+                }
+                command.complete(message);
+            } catch (IllegalArgumentException | IllegalStateException ex) {
+                command.fail(ex.getMessage());
+            }
+        }
+        return skip;
+    }
+
+    private static List<String> change(Command command, List<WorkloadConfiguration> targets) {
+        // Check all the workloads first, so that a command is applied to all
+        // of them or to none
+        List<Phase> changed = new ArrayList<>();
+        for (WorkloadConfiguration workConf : targets) {
+            Phase phase = workConf.getWorkloadState().getCurrentPhase();
+            if (phase == null) {
+                throw new IllegalStateException(workConf.getBenchmarkName() + " is done");
+            }
+            if (phase.getSearch() != null) {
+                throw new IllegalStateException("a rate search sets the rate of " + workConf.getBenchmarkName());
+            }
+            changed.add(command.applyTo(phase, workConf.getTerminals()));
+        }
+        List<String> changes = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            targets.get(i).getWorkloadState().replaceCurrentPhase(changed.get(i));
+            changes.add(String.format("%s phase %d: %s", targets.get(i).getBenchmarkName(), changed.get(i).getId(), command.describeChanges()));
+        }
+        return changes;
+    }
+
+    private static List<String> append(Command command, List<WorkloadConfiguration> targets) {
+        List<Phase> appended = new ArrayList<>();
+        for (WorkloadConfiguration workConf : targets) {
+            if (workConf.getWorkloadState().getCurrentPhase() == null) {
+                throw new IllegalStateException(workConf.getBenchmarkName() + " is done");
+            }
+            List<Phase> phases = workConf.getPhases();
+            Phase last = command.applyTo(phases.get(phases.size() - 1), workConf.getTerminals());
+            int time = command.getTime() != null ? command.getTime() : last.getTime();
+            if (time <= 0) {
+                throw new IllegalArgumentException("the time of the phase is missing");
+            }
+            Phase phase = new Phase(workConf.getBenchmarkName(), phases.size() + 1, time, 0, last.getRate(), last.getWeights(),
+                    last.isRateLimited(), last.isDisabled(), last.isSerial(), true, last.getActiveTerminals(), last.getArrival());
+            phase.setArrivals(last.getArrivals());
+            appended.add(phase);
+        }
+        List<String> changes = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            WorkloadConfiguration workConf = targets.get(i);
+            workConf.getWorkloadState().appendPhase(appended.get(i));
+            changes.add(String.format("%s append phase %d: %s", workConf.getBenchmarkName(), appended.get(i).getId(), command.describeChanges()));
+        }
+        return changes;
+    }
+
+    @Override
+    public void close() {
+        // Answer the requests still waiting before the server goes away
+        failPending();
+        server.stop(1);
+        failPending();
+        executor.shutdown();
+    }
+
+    private void failPending() {
+        Command command;
+        while ((command = pending.poll()) != null) {
+            command.fail("the run is over");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RunControl<" + getPort() + ">";
+    }
+}
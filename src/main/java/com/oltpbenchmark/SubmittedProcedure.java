@@ -28,8 +28,19 @@ public class SubmittedProcedure {
     private final long startTime;
 
     SubmittedProcedure(int type) {
+        this(type, System.nanoTime());
+    }
+
+    /**
+     * @param type      the transaction type id to execute
+     * @param startTime the time (from System.nanoTime()) at which this
+     *                  procedure was supposed to start. For open-loop runs
+     *                  this is the scheduled arrival time and not the time
+     *                  it was put on the queue.
+     */
+    SubmittedProcedure(int type, long startTime) {
         this.type = type;
-        this.startTime = System.nanoTime();
+        this.startTime = startTime;
     }
 
     public int getType() {
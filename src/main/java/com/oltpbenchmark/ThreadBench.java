@@ -23,34 +23,54 @@ import com.oltpbenchmark.api.TransactionType;
 import com.oltpbenchmark.api.Worker;
 import com.oltpbenchmark.types.State;
 import com.oltpbenchmark.util.StringUtil;
+import com.oltpbenchmark.util.ThreadUtil;
 import org.apache.commons.collections4.map.ListOrderedMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 public class ThreadBench implements Thread.UncaughtExceptionHandler {
     private static final Logger LOG = LoggerFactory.getLogger(ThreadBench.class);
+    private static final long TARGET_RATE_RESOLUTION_NS = 100000000L;
+    // The longest that the main loop sleeps without checking on the phases
+    private static final long MAX_WAIT_NS = 100000000L;
 
     private final BenchmarkState testState;
     private final List<? extends Worker<? extends BenchmarkModule>> workers;
     private final ArrayList<Thread> workerThreads;
     private final List<WorkloadConfiguration> workConfs;
-    private final ArrayList<LatencyRecord.Sample> samples = new ArrayList<>();
     private final int intervalMonitor;
+    private final RunControl control;
+    // The target rate of all the workloads together over time, NaN while
+    // one is unlimited
+    private final TreeMap<Long, Double> targetRates = new TreeMap<>();
+    // The changes made through the run control
+    private final TreeMap<Long, String> annotations = new TreeMap<>();
 
     private ThreadBench(List<? extends Worker<? extends BenchmarkModule>> workers,
-            List<WorkloadConfiguration> workConfs, int intervalMonitoring) {
+            List<WorkloadConfiguration> workConfs, int intervalMonitoring, RunControl control) {
         this.workers = workers;
         this.workConfs = workConfs;
         this.workerThreads = new ArrayList<>(workers.size());
         this.intervalMonitor = intervalMonitoring;
+        this.control = control;
         this.testState = new BenchmarkState(workers.size() + 1);
     }
 
     public static Results runRateLimitedBenchmark(List<Worker<? extends BenchmarkModule>> workers,
             List<WorkloadConfiguration> workConfs, int intervalMonitoring) {
-        ThreadBench bench = new ThreadBench(workers, workConfs, intervalMonitoring);
+        return runRateLimitedBenchmark(workers, workConfs, intervalMonitoring, null);
+    }
+
+    /**
+     * @param control Where changes to the phases come from while they run,
+     *                or null
+     */
+    public static Results runRateLimitedBenchmark(List<Worker<? extends BenchmarkModule>> workers,
+            List<WorkloadConfiguration> workConfs, int intervalMonitoring, RunControl control) {
+        ThreadBench bench = new ThreadBench(workers, workConfs, intervalMonitoring, control);
         return bench.runRateLimitedMultiPhase();
     }
 
@@ -58,7 +78,12 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
 
         for (Worker<?> worker : workers) {
             worker.initializeState();
-            Thread thread = new Thread(worker);
+            Thread thread;
+            if (worker.getWorkloadConfiguration().getVirtualThreads()) {
+                thread = ThreadUtil.newVirtualThread(worker);
+            } else {
+                thread = new Thread(worker);
+            }
             thread.setUncaughtExceptionHandler(this);
             thread.start();
             this.workerThreads.add(thread);
@@ -117,8 +142,9 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
         long warmupStart = System.nanoTime();
         long warmup = warmupStart;
         long measureEnd = -1;
-        // used to determine the longest sleep interval
-        double lowestRate = Double.MAX_VALUE;
+        // Ramps are measured from when the measurement of a phase starts
+        long phaseStart = start;
+        double elapsed = 0;
 
         Phase phase = null;
 
@@ -126,10 +152,8 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
             workState.switchToNextPhase();
             phase = workState.getCurrentPhase();
             LOG.info(phase.currentPhaseString());
-            if (phase.getRate() < lowestRate) {
-                lowestRate = phase.getRate();
-            }
         }
+        updateRamps(workStates, elapsed, start);
 
         // Change testState to cold query if execution is serial, since we don't
         // have a warm-up phase for serial execution but execute a cold and a
@@ -140,12 +164,6 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
             }
         }
 
-        long intervalNs = getInterval(lowestRate, phase.getArrival());
-
-        long nextInterval = start + intervalNs;
-        int nextToAdd = 1;
-        int rateFactor;
-
         boolean resetQueues = true;
 
         long delta = phase.getTime() * 1000000000L;
@@ -161,25 +179,24 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
 
         // Main Loop
         while (true) {
-            // posting new work... and resetting the queue in case we have new
-            // portion of the workload...
-
+            // posting the work that has arrived... and resetting the queue in
+            // case we have new portion of the workload...
+            long now = System.nanoTime();
+            long nextArrival = Long.MAX_VALUE;
             for (WorkloadState workState : workStates) {
-                if (workState.getCurrentPhase() != null) {
-                    rateFactor = (int) (workState.getCurrentPhase().getRate() / lowestRate);
-                } else {
-                    rateFactor = 1;
-                }
-                workState.addToQueue(nextToAdd * rateFactor, resetQueues);
+                Phase current = workState.getCurrentPhase();
+                double rate = current != null ? current.getRateAt(elapsed) : 0;
+                nextArrival = Math.min(nextArrival, workState.addArrivals(now, rate, resetQueues));
             }
             resetQueues = false;
 
-            // Wait until the interval expires, which may be "don't wait"
-            long now = System.nanoTime();
+            // Wait until the next arrival, which may be "don't wait", but no
+            // longer than it takes to notice the end of a phase
             if (phase != null) {
                 warmup = warmupStart + phase.getWarmupTime() * 1000000000L;
             }
-            long diff = nextInterval - now;
+            long wakeUp = nextArrival != Long.MAX_VALUE && nextArrival - now < MAX_WAIT_NS ? nextArrival : now + MAX_WAIT_NS;
+            long diff = wakeUp - now;
             while (diff > 0) { // this can wake early: sleep multiple times to avoid that
                 long ms = diff / 1000000;
                 diff = diff % 1000000;
@@ -189,7 +206,7 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
                     throw new RuntimeException(e);
                 }
                 now = System.nanoTime();
-                diff = nextInterval - now;
+                diff = wakeUp - now;
             }
 
             boolean phaseComplete = false;
@@ -204,6 +221,17 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
                             && (start + delta <= now);
                 }
             }
+            updateSearches(now, phaseComplete);
+
+            // Changes made through the run control take effect here, between
+            // two arrivals
+            if (control != null && phase != null) {
+                if (control.apply(workConfs, testState.getState(), now, annotations)) {
+                    phaseComplete = true;
+                    delta = now - start;
+                }
+                phase = workStates.get(workStates.size() - 1).getCurrentPhase();
+            }
 
             // Go to next phase if this one is complete or enter if error was thrown
             boolean errorThrown = testState.getState() == State.ERROR;
@@ -219,9 +247,9 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
                         testState.ackLatencyComplete();
                     }
                     for (WorkloadState workState : workStates) {
-                        synchronized (workState) {
+                        workState.lock();
+                        try {
                             workState.switchToNextPhase();
-                            lowestRate = Integer.MAX_VALUE;
                             phase = workState.getCurrentPhase();
                             interruptWorkers();
                             if (phase == null && !lastEntry) {
@@ -237,33 +265,22 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
                                     testState.startColdQuery();
                                 }
                                 LOG.info(phase.currentPhaseString());
-                                if (phase.getRate() < lowestRate) {
-                                    lowestRate = phase.getRate();
-                                }
                             }
+                        } finally {
+                            workState.unlock();
                         }
                     }
                     if (phase != null) {
-                        // update frequency in which we check according to
-                        // wakeup
-                        // speed
-                        // intervalNs = (long) (1000000000. / (double)
-                        // lowestRate + 0.5);
                         delta += phase.getTime() * 1000000000L;
                     }
+                    phaseStart = now;
                 }
             }
 
-            // Compute the next interval
-            // and how many messages to deliver
+            // Move the ramps along to now, for the arrivals from here on
             if (phase != null) {
-                intervalNs = 0;
-                nextToAdd = 0;
-                do {
-                    intervalNs += getInterval(lowestRate, phase.getArrival());
-                    nextToAdd++;
-                } while ((-diff) > intervalNs && !lastEntry);
-                nextInterval += intervalNs;
+                elapsed = testState.getState() == State.WARMUP ? 0 : (now - phaseStart) / 1e9;
+                updateRamps(workStates, elapsed, now);
             }
 
             // Update the test state appropriately
@@ -278,6 +295,7 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
                     interruptWorkers();
                 }
                 start = now;
+                phaseStart = now;
                 LOG.info("{} :: Warmup complete, starting measurements.", StringUtil.bold("MEASURE"));
                 // measureEnd = measureStart + measureSeconds * 1000000000L;
 
@@ -298,23 +316,41 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
         try {
             int requests = finalizeWorkers(this.workerThreads);
 
-            // Combine all the latencies together in the most disgusting way
-            // possible: sorting!
+            // Each worker's samples are already ordered by start time, so
+            // they are merged on the fly by whoever needs them in order.
+            List<LatencyRecord> records = new ArrayList<>(workers.size());
             for (Worker<?> w : workers) {
-                for (LatencyRecord.Sample sample : w.getLatencyRecords()) {
-                    samples.add(sample);
-                }
+                records.add(w.getLatencyRecords());
             }
-            Collections.sort(samples);
 
-            // Compute stats on all the latencies
-            int[] latencies = new int[samples.size()];
-            for (int i = 0; i < samples.size(); ++i) {
-                latencies[i] = samples.get(i).getLatencyMicrosecond();
+            // The overall statistics come from merging the histograms of
+            // every worker and transaction type
+            Map<TransactionType, LatencyHistogram> latencyHistograms = new HashMap<>();
+            Map<TransactionType, LatencyHistogram> responseTimeHistograms = new HashMap<>();
+            for (Worker<?> w : workers) {
+                mergeHistograms(latencyHistograms, w.getLatencyHistograms());
+                mergeHistograms(responseTimeHistograms, w.getResponseTimeHistograms());
             }
+            LatencyHistogram latencies = new LatencyHistogram();
+            latencyHistograms.values().forEach(latencies::add);
+            LatencyHistogram responseTimes = new LatencyHistogram();
+            responseTimeHistograms.values().forEach(responseTimes::add);
+
             DistributionStatistics stats = DistributionStatistics.computeStatistics(latencies);
+            DistributionStatistics responseTimeStats = DistributionStatistics.computeStatistics(responseTimes);
 
-            Results results = new Results(measureEnd - start, requests, stats, samples);
+            Results results = new Results(measureEnd - start, requests, stats, responseTimeStats, records);
+            results.getLatencyHistograms().putAll(latencyHistograms);
+            results.getResponseTimeHistograms().putAll(responseTimeHistograms);
+            results.getTargetRates().putAll(targetRates);
+            results.getAnnotations().putAll(annotations);
+            for (WorkloadConfiguration workConf : workConfs) {
+                for (Phase p : workConf.getPhases()) {
+                    if (p.getSearch() != null) {
+                        results.getRateSearches().add(p.getSearch());
+                    }
+                }
+            }
 
             // Compute transaction histogram
             Set<TransactionType> txnTypes = new HashSet<>();
@@ -345,12 +381,59 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
         }
     }
 
-    private long getInterval(double lowestRate, Phase.Arrival arrival) {
-        // TODO Auto-generated method stub
-        if (arrival == Phase.Arrival.POISSON) {
-            return (long) ((-Math.log(1 - Math.random()) / lowestRate) * 1000000000.);
-        } else {
-            return (long) (1000000000. / lowestRate + 0.5);
+    /**
+     * Moves the active terminals of the current phases along their ramps,
+     * and records the target rate of all of them together
+     *
+     * @param elapsed How far into the measured time of the phases to go
+     */
+    private void updateRamps(List<WorkloadState> workStates, double elapsed, long now) {
+        double targetRate = 0;
+        for (WorkloadState workState : workStates) {
+            Phase phase = workState.getCurrentPhase();
+            if (phase == null) {
+                continue;
+            }
+            double rate = phase.getRateAt(elapsed);
+            if (phase.getTerminalRamp() != null) {
+                workState.setActiveTerminals(phase.getActiveTerminalsAt(elapsed));
+            }
+            if (!phase.isRateLimited() || phase.isSerial()) {
+                targetRate = Double.NaN;
+            } else if (!phase.isDisabled()) {
+                targetRate += workState.getTargetRate(now, rate);
+            }
+        }
+        // A point every TARGET_RATE_RESOLUTION_NS is plenty for the results
+        Map.Entry<Long, Double> last = targetRates.lastEntry();
+        if (last == null || (Double.compare(last.getValue(), targetRate) != 0
+                && now - last.getKey() >= TARGET_RATE_RESOLUTION_NS)) {
+            targetRates.put(now, targetRate);
+        }
+    }
+
+    /**
+     * Lets the rate searches that are probing measure their probes
+     */
+    private void updateSearches(long now, boolean phaseComplete) {
+        for (WorkloadConfiguration workConf : workConfs) {
+            Phase phase = workConf.getWorkloadState().getCurrentPhase();
+            if (phase == null || phase.getSearch() == null) {
+                continue;
+            }
+            List<Worker<?>> searchWorkers = new ArrayList<>();
+            for (Worker<?> w : workers) {
+                if (w.getWorkloadConfiguration() == workConf) {
+                    searchWorkers.add(w);
+                }
+            }
+            phase.getSearch().update(phase, now, phaseComplete, searchWorkers);
+        }
+    }
+
+    private static void mergeHistograms(Map<TransactionType, LatencyHistogram> into, Map<TransactionType, LatencyHistogram> from) {
+        for (Map.Entry<TransactionType, LatencyHistogram> e : from.entrySet()) {
+            into.computeIfAbsent(e.getKey(), t -> new LatencyHistogram()).add(e.getValue());
         }
     }
 
@@ -364,13 +447,16 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
         // and partial metrics will be reported (i.e., until failure happened).
         synchronized (testState) {
             for (WorkloadConfiguration workConf : this.workConfs) {
-                synchronized (workConf.getWorkloadState()) {
-                    WorkloadState workState = workConf.getWorkloadState();
+                WorkloadState workState = workConf.getWorkloadState();
+                workState.lock();
+                try {
                     Phase phase = workState.getCurrentPhase();
                     while (phase != null) {
                         workState.switchToNextPhase();
                         phase = workState.getCurrentPhase();
                     }
+                } finally {
+                    workState.unlock();
                 }
             }
             testState.signalError();
@@ -381,6 +467,7 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
         private final Iterable<Sample> samples;
         private final int windowSizeSeconds;
         private final TransactionType transactionType;
+        private final boolean responseTime;
 
         /**
          * @param samples
@@ -388,97 +475,200 @@ public class ThreadBench implements Thread.UncaughtExceptionHandler {
          * @param transactionType   Allows to filter transactions by type
          */
         public TimeBucketIterable(Iterable<Sample> samples, int windowSizeSeconds, TransactionType transactionType) {
+            this(samples, windowSizeSeconds, transactionType, false);
+        }
+
+        /**
+         * @param samples
+         * @param windowSizeSeconds
+         * @param transactionType   Allows to filter transactions by type
+         * @param responseTime      If true, compute the statistics over the
+         *                          response times instead of the latencies
+         */
+        public TimeBucketIterable(Iterable<Sample> samples, int windowSizeSeconds, TransactionType transactionType, boolean responseTime) {
             this.samples = samples;
             this.windowSizeSeconds = windowSizeSeconds;
             this.transactionType = transactionType;
+            this.responseTime = responseTime;
         }
 
         @Override
         public Iterator<DistributionStatistics> iterator() {
-            return new TimeBucketIterator(samples.iterator(), windowSizeSeconds, transactionType);
+            return new TimeBucketIterator(samples.iterator(), windowSizeSeconds, transactionType, responseTime);
         }
     }
 
-    private static final class TimeBucketIterator implements Iterator<DistributionStatistics> {
-        private final Iterator<Sample> samples;
+    /**
+     * Push-based version of TimeBucketIterable: samples (in start time
+     * order) are fed to it one at a time, and it hands every completed
+     * window to a consumer. This lets several outputs share a single pass
+     * over the samples.
+     */
+    public static final class TimeBucketCollector {
         private final int windowSizeSeconds;
-        private final TransactionType txType;
-
-        private Sample sample;
-        private long nextStartNanosecond;
+        private final Consumer<TimeBucket> consumer;
+        private final TimeBucket bucket = new TimeBucket();
 
-        private DistributionStatistics next;
+        private boolean started = false;
+        private long endNanosecond;
 
         /**
-         * @param samples
          * @param windowSizeSeconds
-         * @param txType            Allows to filter transactions by type
+         * @param consumer          Called with each window. The window is
+         *                          reused afterwards, so the consumer must
+         *                          not hold on to it.
          */
-        public TimeBucketIterator(Iterator<LatencyRecord.Sample> samples, int windowSizeSeconds,
-                TransactionType txType) {
-            this.samples = samples;
+        public TimeBucketCollector(int windowSizeSeconds, Consumer<TimeBucket> consumer) {
             this.windowSizeSeconds = windowSizeSeconds;
-            this.txType = txType;
+            this.consumer = consumer;
+        }
 
-            if (samples.hasNext()) {
-                sample = samples.next();
+        public void add(Sample sample) {
+            if (!started) {
                 // TODO: To be totally correct, we would want this to be the
                 // timestamp of the start
                 // of the measurement interval. In most cases this won't matter.
-                nextStartNanosecond = sample.getStartNanosecond();
-                calculateNext();
+                endNanosecond = sample.getStartNanosecond() + (windowSizeSeconds * 1000000000L);
+                started = true;
+            }
+            while (sample.getStartNanosecond() >= endNanosecond) {
+                emit();
+                endNanosecond += (windowSizeSeconds * 1000000000L);
             }
+            bucket.record(sample);
         }
 
-        private void calculateNext() {
+        /**
+         * Emits the last window. Must be called once all samples were added.
+         */
+        public void finish() {
+            if (started) {
+                emit();
+                started = false;
+            }
+        }
 
-            // Collect all samples in the time window
-            ArrayList<Integer> latencies = new ArrayList<>();
-            long endNanoseconds = nextStartNanosecond + (windowSizeSeconds * 1000000000L);
-            while (sample != null && sample.getStartNanosecond() < endNanoseconds) {
+        private void emit() {
+            bucket.startNanosecond = endNanosecond - (windowSizeSeconds * 1000000000L);
+            bucket.endNanosecond = endNanosecond;
+            consumer.accept(bucket);
+            bucket.reset();
+        }
+    }
 
-                // Check if a TX Type filter is set, in the default case,
-                // INVALID TXType means all should be reported, if a filter is
-                // set, only this specific transaction
-                if (txType.equals(TransactionType.INVALID) || txType.getId() == sample.getTransactionType()) {
-                    latencies.add(sample.getLatencyMicrosecond());
-                }
+    /**
+     * The samples of one window, as one latency and one response time
+     * histogram per transaction type. The statistics of all the transaction
+     * types together come from merging these, so a window costs the same no
+     * matter how many outputs are derived from it.
+     */
+    public static final class TimeBucket {
+        // Indexed by transaction type id
+        private LatencyHistogram[] latencies = new LatencyHistogram[0];
+        private LatencyHistogram[] responseTimes = new LatencyHistogram[0];
+        private final LatencyHistogram merged = new LatencyHistogram();
+        private long startNanosecond;
+        private long endNanosecond;
+
+        private TimeBucket() {
+        }
 
-                if (samples.hasNext()) {
-                    sample = samples.next();
-                } else {
-                    sample = null;
+        public long getStartNanosecond() {
+            return startNanosecond;
+        }
+
+        public long getEndNanosecond() {
+            return endNanosecond;
+        }
+
+        private void record(Sample sample) {
+            int type = sample.getTransactionType();
+            if (type >= latencies.length) {
+                latencies = Arrays.copyOf(latencies, type + 1);
+                responseTimes = Arrays.copyOf(responseTimes, type + 1);
+            }
+            if (latencies[type] == null) {
+                latencies[type] = new LatencyHistogram();
+                responseTimes[type] = new LatencyHistogram();
+            }
+            latencies[type].record(sample.getLatencyMicrosecond());
+            responseTimes[type].record(sample.getResponseMicrosecond());
+        }
+
+        private void reset() {
+            for (int i = 0; i < latencies.length; i++) {
+                if (latencies[i] != null) {
+                    latencies[i].reset();
+                    responseTimes[i].reset();
                 }
             }
+        }
 
-            // Set up the next time window
+        /**
+         * @param txType Allows to filter transactions by type, INVALID means
+         *               all of them
+         */
+        public DistributionStatistics getLatencyStatistics(TransactionType txType) {
+            return DistributionStatistics.computeStatistics(histogram(latencies, txType));
+        }
 
-            nextStartNanosecond = endNanoseconds;
+        /**
+         * @param txType Allows to filter transactions by type, INVALID means
+         *               all of them
+         */
+        public DistributionStatistics getResponseTimeStatistics(TransactionType txType) {
+            return DistributionStatistics.computeStatistics(histogram(responseTimes, txType));
+        }
 
-            int[] l = new int[latencies.size()];
-            for (int i = 0; i < l.length; ++i) {
-                l[i] = latencies.get(i);
+        private LatencyHistogram histogram(LatencyHistogram[] byType, TransactionType txType) {
+            merged.reset();
+            for (int i = 0; i < byType.length; i++) {
+                if (byType[i] != null && (txType.equals(TransactionType.INVALID) || txType.getId() == i)) {
+                    merged.add(byType[i]);
+                }
             }
+            return merged;
+        }
+    }
+
+    private static final class TimeBucketIterator implements Iterator<DistributionStatistics> {
+        private final Iterator<Sample> samples;
+        private final TimeBucketCollector collector;
+        private final ArrayDeque<DistributionStatistics> windows = new ArrayDeque<>();
+        private boolean finished = false;
 
-            next = DistributionStatistics.computeStatistics(l);
+        /**
+         * @param samples
+         * @param windowSizeSeconds
+         * @param txType            Allows to filter transactions by type
+         * @param responseTime      Use response times instead of latencies
+         */
+        public TimeBucketIterator(Iterator<LatencyRecord.Sample> samples, int windowSizeSeconds,
+                TransactionType txType, boolean responseTime) {
+            this.samples = samples;
+            this.collector = new TimeBucketCollector(windowSizeSeconds, bucket -> windows.add(
+                    responseTime ? bucket.getResponseTimeStatistics(txType) : bucket.getLatencyStatistics(txType)));
         }
 
         @Override
         public boolean hasNext() {
-            return next != null;
+            while (windows.isEmpty() && !finished) {
+                if (samples.hasNext()) {
+                    collector.add(samples.next());
+                } else {
+                    collector.finish();
+                    finished = true;
+                }
+            }
+            return !windows.isEmpty();
         }
 
         @Override
         public DistributionStatistics next() {
-            if (next == null) {
+            if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            DistributionStatistics out = next;
-            next = null;
-            if (sample != null) {
-                calculateNext();
-            }
-            return out;
+            return windows.poll();
         }
 
         @Override
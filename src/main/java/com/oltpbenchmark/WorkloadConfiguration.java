@@ -56,6 +56,36 @@ public class WorkloadConfiguration {
      */
     private boolean newConnectionPerTxn = false;
 
+    /**
+     * If true, rate limited phases are driven open-loop: requests are stamped with their scheduled arrival time and
+     * are never dropped when the terminals fall behind, so response times include the queueing delay.
+     */
+    private boolean openLoop = false;
+
+    /**
+     * If true, run every terminal on a virtual thread instead of a platform thread (requires JDK 21), so that
+     * workloads with long keying and think times can drive tens of thousands of terminals from one JVM.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * If positive, each worker keeps up to this many PreparedStatements open on its connection and hands them out again
+     * to its procedures instead of preparing the SQL on every call. Least recently used statements are closed first.
+     */
+    private int statementCacheSize = 0;
+
+    /**
+     * If true, loaders that write through a RowSink use the native bulk load path of the database (COPY on
+     * PostgreSQL and CockroachDB, LOAD DATA LOCAL INFILE on MySQL) instead of batched INSERTs.
+     */
+    private boolean bulkLoad = false;
+
+    /**
+     * If true, loaders that write through a RowSink insert up to batchSize rows with each INSERT statement, as far as
+     * the parameter limit of the database allows. Used when bulkLoad is off or not available.
+     */
+    private boolean multiRowInsert = false;
+
     public String getBenchmarkName() {
         return benchmarkName;
     }
@@ -141,15 +171,87 @@ public class WorkloadConfiguration {
         this.newConnectionPerTxn = newConnectionPerTxn;
     }
 
+    /**
+     * @return @see openLoop member docs for behavior.
+     */
+    public boolean getOpenLoop() {
+        return openLoop;
+    }
+
+    /**
+     * @param openLoop @see openLoop member docs for behavior.
+     */
+    public void setOpenLoop(boolean openLoop) {
+        this.openLoop = openLoop;
+    }
+
+    /**
+     * @return @see virtualThreads member docs for behavior.
+     */
+    public boolean getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @param virtualThreads @see virtualThreads member docs for behavior.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * @return @see statementCacheSize member docs for behavior.
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * @param statementCacheSize @see statementCacheSize member docs for behavior.
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * @return @see bulkLoad member docs for behavior.
+     */
+    public boolean getBulkLoad() {
+        return bulkLoad;
+    }
+
+    /**
+     * @param bulkLoad @see bulkLoad member docs for behavior.
+     */
+    public void setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
+
+    /**
+     * @return @see multiRowInsert member docs for behavior.
+     */
+    public boolean getMultiRowInsert() {
+        return multiRowInsert;
+    }
+
+    /**
+     * @param multiRowInsert @see multiRowInsert member docs for behavior.
+     */
+    public void setMultiRowInsert(boolean multiRowInsert) {
+        this.multiRowInsert = multiRowInsert;
+    }
+
     /**
      * Initiate a new benchmark and workload state
      */
     public void initializeState(BenchmarkState benchmarkState) {
-        this.workloadState = new WorkloadState(benchmarkState, phases, terminals);
+        this.workloadState = new WorkloadState(benchmarkState, phases, terminals, openLoop);
     }
 
-    public void addPhase(int id, int time, int warmup, double rate, List<Double> weights, boolean rateLimited, boolean disabled, boolean serial, boolean timed, int active_terminals, Phase.Arrival arrival) {
-        phases.add(new Phase(benchmarkName, id, time, warmup, rate, weights, rateLimited, disabled, serial, timed, active_terminals, arrival));
+    public Phase addPhase(int id, int time, int warmup, double rate, List<Double> weights, boolean rateLimited, boolean disabled, boolean serial, boolean timed, int active_terminals, Phase.Arrival arrival) {
+        Phase phase = new Phase(benchmarkName, id, time, warmup, rate, weights, rateLimited, disabled, serial, timed, active_terminals, arrival);
+        phases.add(phase);
+        return phase;
     }
 
 
@@ -338,6 +440,11 @@ public class WorkloadConfiguration {
                ", driverClass='" + driverClass + '\'' +
                ", batchSize=" + batchSize +
                ", maxRetries=" + maxRetries +
+               ", openLoop=" + openLoop +
+               ", virtualThreads=" + virtualThreads +
+               ", statementCacheSize=" + statementCacheSize +
+               ", bulkLoad=" + bulkLoad +
+               ", multiRowInsert=" + multiRowInsert +
                ", scaleFactor=" + scaleFactor +
                ", selectivity=" + selectivity +
                ", terminals=" + terminals +
@@ -21,14 +21,23 @@ import com.oltpbenchmark.types.State;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class is used to share a state among the workers of a single
  * workload. Worker use it to ask for work and as interface to the global
  * BenchmarkState
+ * <p>
+ * Blocking is done with a ReentrantLock instead of the object's monitor, so
+ * that workers running on virtual threads release their carrier thread while
+ * they wait.
  *
  * @author alendit
  */
@@ -37,195 +46,399 @@ public class WorkloadState {
     private static final Logger LOG = LoggerFactory.getLogger(WorkloadState.class);
 
     private final BenchmarkState benchmarkState;
-    private final LinkedList<SubmittedProcedure> workQueue = new LinkedList<>();
+    private final int workload;
     private final int num_terminals;
-    private final Iterator<Phase> phaseIterator;
+    // Phases can be appended while the test runs, so they are not iterated
+    private final List<Phase> works;
+    private int nextPhase = 0;
+    private int skipPhases = 0;
+    private final boolean openLoop;
+
+    // Guards the phase switches and the work queue; stateChanged is
+    // signalled whenever a phase starts or the benchmark is done, and
+    // workAvailable whenever work is queued as well
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private final Condition workAvailable = lock.newCondition();
+    private final Deque<SubmittedProcedure> workQueue = new ArrayDeque<>();
 
     private int workersWaiting = 0;
-    private int workersWorking = 0;
-    private int workerNeedSleep;
-
-    private Phase currentPhase = null;
+    private int workersTaking = 0;
+    private final AtomicInteger workersWorking = new AtomicInteger(0);
+    // The number of terminals that should be awake, and that are asleep.
+    // Only changed under the lock, but read without it on every transaction.
+    private volatile int activeTerminals;
+    private volatile int workersAsleep = 0;
+    private boolean queueLimitWarned = false;
+    // Schedules the arrivals of the current phase while it queues work
+    private final SplittableRandom random = new SplittableRandom();
+    private ArrivalScheduler scheduler = null;
 
     public WorkloadState(BenchmarkState benchmarkState, List<Phase> works, int num_terminals) {
+        this(benchmarkState, works, num_terminals, false);
+    }
+
+    public WorkloadState(BenchmarkState benchmarkState, List<Phase> works, int num_terminals, boolean openLoop) {
         this.benchmarkState = benchmarkState;
+        this.workload = benchmarkState.addWorkload();
         this.num_terminals = num_terminals;
-        this.workerNeedSleep = num_terminals;
+        this.activeTerminals = 0;
+        this.openLoop = openLoop;
 
-        phaseIterator = works.iterator();
+        this.works = works;
     }
 
     /**
-     * Add a request to do work.
+     * Adds the work that has arrived by nowNs to the queue, and tells when
+     * the next work arrives. Work only arrives in phases that are enabled
+     * and rate limited.
+     * <p>
+     * In open-loop mode every procedure is stamped with its scheduled arrival
+     * time, and no arrivals are dropped when the terminals can't keep up, so
+     * that the queueing delay shows up in the measured response times.
+     *
+     * @param rate        The rate that the current phase is at by now
+     * @param resetQueues Whether a new phase has started, to drop the work
+     *                    and the arrivals of the previous one
+     * @return When the next work arrives, Long.MAX_VALUE if none will
      */
-    public void addToQueue(int amount, boolean resetQueues) {
-        int workAdded = 0;
-        
-        synchronized (this) {
+    public long addArrivals(long nowNs, double rate, boolean resetQueues) {
+        lock.lock();
+        try {
             if (resetQueues) {
                 workQueue.clear();
+                scheduler = null;
             }
 
             // Only use the work queue if the phase is enabled and rate limited.
+            Phase currentPhase = getCurrentPhase();
             if (currentPhase == null || currentPhase.isDisabled()
                     || !currentPhase.isRateLimited() || currentPhase.isSerial()) {
-                return;
+                scheduler = null;
+                return Long.MAX_VALUE;
             }
-            
-            // Add the specified number of procedures to the end of the queue.
-            // If we can't keep up with current rate, truncate transactions
-            for (int i = 0; i < amount && workQueue.size() <= RATE_QUEUE_LIMIT; ++i) {
-                workQueue.add(new SubmittedProcedure(currentPhase.chooseTransaction()));
-                workAdded++;
+            if (scheduler == null || !scheduler.continueWith(currentPhase)) {
+                scheduler = new ArrivalScheduler(currentPhase, nowNs, random.split());
             }
 
-            // Wake up sleeping workers to deal with the new work.
-            int numToWake = Math.min(workAdded, workersWaiting);
+            // If we can't keep up with current rate, truncate transactions
+            // (unless we are measuring open-loop response times)
+            long addedNs = System.nanoTime();
+            int queued = workQueue.size();
+            scheduler.release(nowNs, rate, (type, scheduledNs) -> {
+                if (openLoop) {
+                    workQueue.add(new SubmittedProcedure(type, scheduledNs));
+                } else if (workQueue.size() <= RATE_QUEUE_LIMIT) {
+                    workQueue.add(new SubmittedProcedure(type, addedNs));
+                }
+            });
+
+            // Wake up waiting workers to deal with the new work
+            int numToWake = Math.min(workQueue.size() - queued, workersTaking);
             while (numToWake-- > 0) {
-                this.notify();
+                workAvailable.signal();
+            }
+
+            if (openLoop && workQueue.size() > RATE_QUEUE_LIMIT && !queueLimitWarned) {
+                LOG.warn("Open-loop work queue has grown beyond {} pending requests; terminals can't keep up with the target rate", RATE_QUEUE_LIMIT);
+                queueLimitWarned = true;
             }
+            return scheduler.getNextArrivalNs();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The rate that work arrives at around nowNs, which varies around the
+     * rate of the phase with its arrival processes
+     */
+    public double getTargetRate(long nowNs, double rate) {
+        lock.lock();
+        try {
+            return scheduler == null ? rate : scheduler.getRate(nowNs, rate);
+        } finally {
+            lock.unlock();
         }
     }
 
     public void signalDone() {
         int current = this.benchmarkState.signalDone();
         if (current == 0) {
-            synchronized (this) {
+            lock.lock();
+            try {
                 if (workersWaiting > 0) {
-                    this.notifyAll();
+                    stateChanged.signalAll();
                 }
+                workAvailable.signalAll();
+            } finally {
+                lock.unlock();
             }
         }
     }
 
     /**
-     * Called by ThreadPoolThreads when waiting for work.
+     * Called by ThreadPoolThreads when waiting for work. Unless the phase is
+     * serial or rate limited, the work is chosen from snapshot without
+     * reading the state again.
      */
-    public SubmittedProcedure fetchWork() {
-        synchronized (this) {
-            if (currentPhase != null && currentPhase.isSerial()) {
+    public SubmittedProcedure fetchWork(BenchmarkState.Snapshot snapshot) {
+        Phase phase = getPhase(snapshot);
+
+        if (phase != null && phase.isSerial()) {
+            lock.lock();
+            try {
                 ++workersWaiting;
-                while (getGlobalState() == State.LATENCY_COMPLETE) {
+                while ((snapshot = getSnapshot()).getState() == State.LATENCY_COMPLETE) {
                     try {
-                        this.wait();
+                        stateChanged.await();
                     } catch (InterruptedException e) {
                         throw new RuntimeException(e);
                     }
                 }
                 --workersWaiting;
 
-                if (getGlobalState() == State.EXIT || getGlobalState() == State.DONE) {
+                if (snapshot.getState() == State.EXIT || snapshot.getState() == State.DONE) {
                     return null;
                 }
 
-                ++workersWorking;
-                return new SubmittedProcedure(currentPhase.chooseTransaction(getGlobalState() == State.COLD_QUERY));
+                workersWorking.incrementAndGet();
+                return new SubmittedProcedure(getPhase(snapshot).chooseTransaction(snapshot.getState() == State.COLD_QUERY));
+            } finally {
+                lock.unlock();
             }
         }
 
         // Unlimited-rate phases don't use the work queue.
-        if (currentPhase != null && !currentPhase.isRateLimited()) {
-            synchronized (this) {
-                ++workersWorking;
-            }
-            return new SubmittedProcedure(currentPhase.chooseTransaction(getGlobalState() == State.COLD_QUERY));
+        if (phase != null && !phase.isRateLimited()) {
+            workersWorking.incrementAndGet();
+            return new SubmittedProcedure(phase.chooseTransaction(snapshot.getState() == State.COLD_QUERY));
         }
 
-        synchronized (this) {
-            // Sleep until work is available.
-            if (workQueue.peek() == null) {
-                workersWaiting += 1;
-                while (workQueue.peek() == null) {
-                    if (this.benchmarkState.getState() == State.EXIT
-                            || this.benchmarkState.getState() == State.DONE) {
-                        return null;
-                    }
-
-                    try {
-                        this.wait();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
+        // Sleep until work is available, or the phase no longer queues work
+        lock.lock();
+        try {
+            SubmittedProcedure procedure;
+            while ((procedure = workQueue.poll()) == null) {
+                if (!isQueueingWork()) {
+                    return null;
+                }
+                ++workersTaking;
+                try {
+                    // Changes are signalled, the timeout only guards against
+                    // the end of the test, which isn't
+                    workAvailable.await(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    --workersTaking;
                 }
-                workersWaiting -= 1;
             }
+            workersWorking.incrementAndGet();
+            return procedure;
+        } finally {
+            lock.unlock();
+        }
+    }
 
+    private boolean isQueueingWork() {
+        BenchmarkState.Snapshot current = getSnapshot();
+        Phase currentPhase = getPhase(current);
+        return current.getState() != State.EXIT && current.getState() != State.DONE
+                && (currentPhase == null || (currentPhase.isRateLimited() && !currentPhase.isSerial()));
+    }
 
-            ++workersWorking;
+    public void finishedWork() {
+        workersWorking.decrementAndGet();
+    }
 
-            return workQueue.remove();
+    public Phase getNextPhase() {
+        // A rate search goes on with its next probe, if it has one and is
+        // not being skipped
+        Phase current = getCurrentPhase();
+        if (current != null && current.getSearch() != null && skipPhases == 0) {
+            Phase probe = current.getSearch().nextProbe();
+            if (probe != null) {
+                return probe;
+            }
+        }
+        nextPhase = Math.min(works.size(), nextPhase + Math.max(0, skipPhases - 1));
+        skipPhases = 0;
+        if (nextPhase < works.size()) {
+            Phase next = works.get(nextPhase++);
+            return next.getSearch() != null ? next.getSearch().nextProbe() : next;
         }
+        return null;
     }
 
-    public void finishedWork() {
-        synchronized (this) {
+    /**
+     * Makes the next switch skip the rest of the current phase (including a
+     * rate search) and count - 1 of the phases after it
+     */
+    void skipPhases(int count) {
+        lock.lock();
+        try {
+            skipPhases = count;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            --workersWorking;
+    /**
+     * Adds a phase after the last one, while the test runs
+     */
+    void appendPhase(Phase phase) {
+        lock.lock();
+        try {
+            works.add(phase);
+        } finally {
+            lock.unlock();
         }
     }
 
-    public Phase getNextPhase() {
-        if (phaseIterator.hasNext()) {
-            return phaseIterator.next();
+    /**
+     * Replaces the current phase with a changed copy of it, without
+     * resetting it. Like a switch, it is published in a new snapshot, so the
+     * transactions that straddle it are not recorded.
+     */
+    void replaceCurrentPhase(Phase phase) {
+        lock.lock();
+        try {
+            int active = phase.isDisabled() ? 0 : phase.getActiveTerminals();
+            if (active > activeTerminals) {
+                stateChanged.signalAll();
+            }
+            activeTerminals = active;
+            if (phase.isDisabled() || !phase.isRateLimited()) {
+                workQueue.clear();
+            }
+            benchmarkState.setPhase(workload, phase);
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
         }
-        return null;
     }
 
     public Phase getCurrentPhase() {
-        synchronized (benchmarkState) {
-            return currentPhase;
-        }
+        return getPhase(getSnapshot());
+    }
+
+    /**
+     * The state of the test and the current phase, as of one moment. Take
+     * the phase of this workload from it with {@link #getPhase}.
+     */
+    public BenchmarkState.Snapshot getSnapshot() {
+        return benchmarkState.getSnapshot();
     }
 
-    /*
-     * Called by workers to ask if they should stay awake in this phase
+    public Phase getPhase(BenchmarkState.Snapshot snapshot) {
+        return snapshot.getPhase(workload);
+    }
+
+    /**
+     * Called by workers to ask if they should stay awake in this phase. A
+     * worker sleeps as long as there are more awake than there should be.
+     * The lock is only taken when a worker might have to sleep, so a worker
+     * that stays awake only reads the two counts.
+     *
+     * @return true if the worker slept, so that what it read before is stale
      */
-    public void stayAwake() {
-        synchronized (this) {
-            while (workerNeedSleep > 0) {
-                workerNeedSleep--;
+    public boolean stayAwake() {
+        if (num_terminals - workersAsleep <= activeTerminals) {
+            return false;
+        }
+        boolean slept = false;
+        lock.lock();
+        try {
+            while (num_terminals - workersAsleep > activeTerminals) {
+                workersAsleep++;
+                slept = true;
                 try {
-                    this.wait();
+                    stateChanged.await();
                 } catch (InterruptedException e) {
                     LOG.error(e.getMessage(), e);
+                } finally {
+                    workersAsleep--;
                 }
             }
+        } finally {
+            lock.unlock();
+        }
+        return slept;
+    }
+
+    /**
+     * Changes the number of terminals that should be awake within the
+     * current phase, as it follows a ramp. Workers beyond it go to sleep
+     * the next time they ask, and sleeping ones are woken up to make up for
+     * an increase.
+     */
+    public void setActiveTerminals(int activeTerminals) {
+        lock.lock();
+        try {
+            activeTerminals = Math.max(0, Math.min(num_terminals, activeTerminals));
+            if (activeTerminals > this.activeTerminals) {
+                stateChanged.signalAll();
+            }
+            this.activeTerminals = activeTerminals;
+        } finally {
+            lock.unlock();
         }
     }
 
     public void switchToNextPhase() {
-        synchronized (this) {
-            this.currentPhase = this.getNextPhase();
+        lock.lock();
+        try {
+            Phase currentPhase = this.getNextPhase();
 
             // Clear the work from the previous phase.
             workQueue.clear();
+            queueLimitWarned = false;
 
-            // Determine how many workers need to sleep, then make sure they
-            // do.
-            if (this.currentPhase == null)
+            // Determine how many workers need to stay awake; the others go
+            // to sleep the next time they ask.
+            if (currentPhase == null)
             // Benchmark is over---wake everyone up so they can terminate
             {
-                workerNeedSleep = 0;
+                activeTerminals = this.num_terminals;
             } else {
-                this.currentPhase.resetSerial();
-                if (this.currentPhase.isDisabled())
+                currentPhase.resetSerial();
+                if (currentPhase.isDisabled())
                 // Phase disabled---everyone should sleep
                 {
-                    workerNeedSleep = this.num_terminals;
+                    activeTerminals = 0;
                 } else
-                // Phase running---activate the appropriate # of terminals
+                // Phase running---activate the appropriate # of terminals,
+                // which ThreadBench updates if they follow a ramp
                 {
-                    workerNeedSleep = this.num_terminals
-                            - this.currentPhase.getActiveTerminals();
+                    activeTerminals = currentPhase.getActiveTerminalsAt(0);
                 }
 
             }
 
+            // Publish the phase once it is reset
+            benchmarkState.setPhase(workload, currentPhase);
 
-            this.notifyAll();
+            stateChanged.signalAll();
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Takes the lock that guards phase switches, so that several calls (such
+     * as switching and then reading the new phase) don't interleave with
+     * addArrivals, stayAwake or a serial fetchWork. Reentrant.
+     */
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
     /**
      * Delegates pre-start blocking to the global state handler
      */
@@ -243,23 +456,29 @@ public class WorkloadState {
         return benchmarkState.getState();
     }
 
-    public void signalLatencyComplete() {
-
-        benchmarkState.signalLatencyComplete();
+    /**
+     * The transitions that workers make: each only happens if the state has
+     * not changed since seen, so that it can't undo one the master made in
+     * the meantime
+     */
+    public boolean signalLatencyComplete(BenchmarkState.Snapshot seen) {
+        return benchmarkState.transition(seen, State.LATENCY_COMPLETE);
     }
 
-    public void startColdQuery() {
-
-        benchmarkState.startColdQuery();
+    public boolean startColdQuery(BenchmarkState.Snapshot seen) {
+        return benchmarkState.transition(seen, State.COLD_QUERY);
     }
 
-    public void startHotQuery() {
-
-        benchmarkState.startHotQuery();
+    public boolean startHotQuery(BenchmarkState.Snapshot seen) {
+        return benchmarkState.transition(seen, State.MEASURE);
     }
 
     public long getTestStartNs() {
         return benchmarkState.getTestStartNs();
     }
 
+    public boolean isOpenLoop() {
+        return openLoop;
+    }
+
 }
@@ -20,8 +20,10 @@ package com.oltpbenchmark.api;
 
 import com.oltpbenchmark.WorkloadConfiguration;
 import com.oltpbenchmark.catalog.AbstractCatalog;
+import com.oltpbenchmark.catalog.HSQLDBCatalog;
 import com.oltpbenchmark.types.DatabaseType;
 import com.oltpbenchmark.util.ClassUtil;
+import com.oltpbenchmark.util.DDLScript;
 import com.oltpbenchmark.util.SQLUtil;
 import com.oltpbenchmark.util.ScriptRunner;
 import com.oltpbenchmark.util.ThreadUtil;
@@ -29,12 +31,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Base class for all benchmark implementations
@@ -70,6 +75,11 @@ public abstract class BenchmarkModule {
 
     private AbstractCatalog catalog = null;
 
+    /**
+     * Where the loader writes its rows while generating files
+     */
+    private volatile File generateDirectory = null;
+
     /**
      * Constructor!
      * @param workConf
@@ -148,6 +158,18 @@ public abstract class BenchmarkModule {
         return ret;
     }
 
+    /**
+     * Restarts the calling thread's Random generator from a seed derived from
+     * the one in the workload config file and key, so that whatever is
+     * generated for key does not depend on which thread generates it or on
+     * what that thread generated before. Does nothing if no seed is specified.
+     */
+    public void reseedRng(String key) {
+        if (this.workConf.getRandomSeed() != -1) {
+            rng.set(new Random(this.workConf.getRandomSeed() * 31L + key.hashCode()));
+        }
+    }
+
     private String convertBenchmarkClassToBenchmarkName() {
         return convertBenchmarkClassToBenchmarkName(this.getClass());
     }
@@ -249,26 +271,143 @@ public abstract class BenchmarkModule {
     }
 
 
+    /**
+     * Create only the tables of the Benchmark Database, without the secondary
+     * indexes and foreign keys, so that the loader does not have to maintain
+     * them. Run {@link #createDeferredDDL()} once the load is done.
+     *
+     * @see DDLScript
+     */
+    public final void createTables() throws SQLException, IOException {
+        long start = System.nanoTime();
+        DDLScript script = this.getDDLScript();
+        try (Connection conn = this.makeConnection()) {
+            new ScriptRunner(conn, true, true).runStatements(script.getCreateStatements());
+        }
+        LOG.info(String.format("Created the %s tables [time=%.02fs], deferring %d indexes and constraints until after the load",
+                this.getBenchmarkName().toUpperCase(), (System.nanoTime() - start) / 1e9, script.getPostLoadCount()));
+    }
+
+    /**
+     * Build the secondary indexes and foreign keys that {@link #createTables()}
+     * left out, first all indexes and then all foreign keys. The statements of
+     * different tables are run in parallel on up to loaderThreads connections.
+     * The other statements annotated with @post-load, such as ANALYZE, are run
+     * last, one after the other.
+     */
+    public final void createDeferredDDL() throws SQLException, IOException, InterruptedException {
+        DDLScript script = this.getDDLScript();
+        long start = System.nanoTime();
+        this.runInParallel(script.getIndexStatements());
+        long indexNanos = System.nanoTime() - start;
+        this.runInParallel(script.getConstraintStatements());
+        long constraintNanos = System.nanoTime() - start - indexNanos;
+        if (!script.getPostLoadStatements().isEmpty()) {
+            try (Connection conn = this.makeConnection()) {
+                new ScriptRunner(conn, true, true).runStatements(script.getPostLoadStatements());
+            }
+        }
+        long postLoadNanos = System.nanoTime() - start - indexNanos - constraintNanos;
+        LOG.info(String.format("Built the %s indexes [time=%.02fs] and foreign keys [time=%.02fs], ran the post-load statements [time=%.02fs]",
+                this.getBenchmarkName().toUpperCase(), indexNanos / 1e9, constraintNanos / 1e9, postLoadNanos / 1e9));
+    }
+
+    private DDLScript getDDLScript() throws IOException {
+        DatabaseType dbType = this.workConf.getDatabaseType();
+        if (workConf.getDDLPath() != null) {
+            try (Reader reader = new FileReader(workConf.getDDLPath())) {
+                return DDLScript.parse(reader);
+            }
+        }
+        String ddlPath = this.getDatabaseDDLPath(dbType);
+        try (InputStream in = this.getClass().getResourceAsStream(ddlPath)) {
+            return DDLScript.parse(new InputStreamReader(in));
+        }
+    }
+
+    private void runInParallel(Map<String, List<String>> statementsByTable) throws SQLException, InterruptedException {
+        if (statementsByTable.isEmpty()) {
+            return;
+        }
+        int poolSize = Math.max(1, Math.min(workConf.getLoaderThreads(), statementsByTable.size()));
+        ExecutorService service = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Map.Entry<String, List<String>> e : statementsByTable.entrySet()) {
+                futures.add(service.submit(() -> {
+                    try (Connection conn = this.makeConnection()) {
+                        new ScriptRunner(conn, true, true).runStatements(e.getValue());
+                    }
+                    LOG.debug("Built {} indexes and constraints on {}", e.getValue().size(), e.getKey());
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof SQLException) {
+                throw (SQLException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
     /**
      * Invoke this benchmark's database loader
      */
     public final Loader<? extends BenchmarkModule> loadDatabase() throws SQLException, InterruptedException {
+        return this.loadDatabase(null, false);
+    }
+
+    /**
+     * Invoke this benchmark's database loader. If the loader supports it, the
+     * units that have been loaded are recorded in journalFile, and with
+     * resume the units an earlier load recorded there as finished are skipped.
+     *
+     * @param journalFile The load journal, or null to not keep one
+     * @param resume      Resume the load recorded in journalFile
+     * @throws IllegalStateException if resume is set but the loader does not
+     *                               support it
+     * @see Loader#supportsResume()
+     */
+    public final Loader<? extends BenchmarkModule> loadDatabase(File journalFile, boolean resume) throws SQLException, InterruptedException {
         Loader<? extends BenchmarkModule> loader;
 
         loader = this.makeLoaderImpl();
         if (loader != null) {
+            if (resume && !loader.supportsResume()) {
+                throw new IllegalStateException(String.format("The %s loader does not support resuming a load", this.getBenchmarkName().toUpperCase()));
+            }
 
-
+            LoadJournal journal = null;
             try {
                 List<LoaderThread> loaderThreads = loader.createLoaderThreads();
                 int maxConcurrent = workConf.getLoaderThreads();
 
-                ThreadUtil.runLoaderThreads(loaderThreads, maxConcurrent);
+                LoaderScheduler scheduler = new LoaderScheduler(loaderThreads, loader.getTableDependencies());
+                if (journalFile != null && loader.supportsResume()) {
+                    journal = LoadJournal.open(journalFile, this.getLoadDescription(), resume);
+                    scheduler.setJournal(journal);
+                }
+
+                ThreadUtil.runLoaderThreads(scheduler, maxConcurrent);
 
                 if (!loader.getTableCounts().isEmpty()) {
                     LOG.debug("Table Counts:\n{}", loader.getTableCounts());
                 }
+            } catch (IOException ex) {
+                throw new RuntimeException("Unable to write the load journal " + journalFile, ex);
             } finally {
+                if (journal != null) {
+                    try {
+                        journal.close();
+                    } catch (IOException ex) {
+                        LOG.warn("Unable to close the load journal {}", journalFile, ex);
+                    }
+                }
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(String.format("Finished loading the %s database", this.getBenchmarkName().toUpperCase()));
                 }
@@ -278,6 +417,74 @@ public abstract class BenchmarkModule {
         return loader;
     }
 
+    /**
+     * Runs this benchmark's loader without a database and writes the rows of
+     * each table to files in directory instead, see
+     * {@link Loader#supportsFileGeneration()}. The catalog is taken from the
+     * DDL. With a randomSeed the same files are generated every time, so the
+     * parts of a large load can be generated on different machines.
+     *
+     * @param part  Only generate this part of the files, from 1 to parts
+     * @param parts The number of parts to split the files into, see
+     *              {@link LoaderScheduler#setPart(int, int)}
+     * @throws IllegalStateException if the loader cannot generate files, or
+     *                               not in several parts
+     */
+    public final Loader<? extends BenchmarkModule> generateFiles(File directory, int part, int parts) throws SQLException, InterruptedException {
+        if (this.catalog == null) {
+            this.catalog = new HSQLDBCatalog(this);
+        }
+        Loader<? extends BenchmarkModule> loader = this.makeLoaderImpl();
+        if (loader == null) {
+            return null;
+        }
+        if (!loader.supportsFileGeneration()) {
+            throw new IllegalStateException(String.format("The %s loader cannot generate files", this.getBenchmarkName().toUpperCase()));
+        }
+        if (parts > 1 && !loader.supportsResume()) {
+            throw new IllegalStateException(String.format("The %s loader cannot generate its files in parts", this.getBenchmarkName().toUpperCase()));
+        }
+        if (workConf.getRandomSeed() == -1) {
+            LOG.warn("No randomSeed is set, the generated files will be different every time");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new RuntimeException("Unable to create the directory " + directory);
+        }
+
+        List<LoaderThread> loaderThreads = loader.createLoaderThreads();
+        LoaderScheduler scheduler = new LoaderScheduler(loaderThreads, loader.getTableDependencies());
+        scheduler.setPart(part, parts);
+        // LoaderThreads that cannot be run on their own share the state of
+        // the loader, so they only generate the same rows in the same order
+        int maxConcurrent = loader.supportsResume() ? workConf.getLoaderThreads() : 1;
+
+        LOG.info("Generating {} files in {}", this.getBenchmarkName().toUpperCase(), directory);
+        this.generateDirectory = directory;
+        try {
+            ThreadUtil.runLoaderThreads(scheduler, maxConcurrent);
+        } finally {
+            this.generateDirectory = null;
+        }
+        return loader;
+    }
+
+    /**
+     * The directory that files are being generated in by
+     * {@link #generateFiles(File, int, int)}, or null when loading a database
+     */
+    public final File getGenerateDirectory() {
+        return this.generateDirectory;
+    }
+
+    /**
+     * What a load of this benchmark generates: only a load with the same
+     * description can resume from the journal of another
+     */
+    public String getLoadDescription() {
+        return String.format("benchmark=%s url=%s scalefactor=%s seed=%d", this.getBenchmarkName(),
+                workConf.getUrl(), workConf.getScaleFactor(), workConf.getRandomSeed());
+    }
+
     public final void clearDatabase() throws SQLException {
 
         try (Connection conn = this.makeConnection()) {
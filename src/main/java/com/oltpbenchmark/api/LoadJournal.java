@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A local file that records which loader units (see
+ * {@link LoaderScheduler#getUnit(int)}) a load has started and finished, so
+ * that a load that was stopped part way can be resumed. Every line is
+ * written through to disk before the unit it records is run or reported
+ * as finished.
+ * <p>
+ * The first line describes the load (benchmark, database, scale factor and
+ * seed). A journal is only resumed by a load with the same description.
+ */
+public class LoadJournal implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(LoadJournal.class);
+
+    private static final String HEADER_PREFIX = "# ";
+    private static final String START = "start ";
+    private static final String FINISH = "finish ";
+
+    private final File file;
+    private final FileChannel channel;
+
+    // State of the earlier load that is being resumed
+    private final Set<String> started = new HashSet<>();
+    private final Set<String> finished = new HashSet<>();
+
+    private LoadJournal(File file, String description, boolean resume) throws IOException {
+        this.file = file;
+        if (resume && file.exists()) {
+            String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+            List<String> lines = List.of(content.split("\n"));
+            if (!content.endsWith("\n") && lines.size() > 1) {
+                // The last line was cut short when the earlier load was killed
+                lines = lines.subList(0, lines.size() - 1);
+            }
+            String header = HEADER_PREFIX + description;
+            if (lines.isEmpty() || !lines.get(0).equals(header)) {
+                throw new IllegalStateException(String.format(
+                        "Cannot resume the load recorded in %s, it was for [%s] but this one is for [%s]",
+                        file, lines.isEmpty() ? "" : lines.get(0).substring(HEADER_PREFIX.length()), description));
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                if (line.startsWith(START)) {
+                    this.started.add(line.substring(START.length()));
+                } else if (line.startsWith(FINISH)) {
+                    this.finished.add(line.substring(FINISH.length()));
+                }
+            }
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (!content.endsWith("\n")) {
+                // Do not carry on from the partial last line
+                this.append("");
+            }
+            LOG.info("Resuming the load recorded in {}: {} units were finished and {} were partially loaded",
+                    file, this.finished.size(), this.getPartialCount());
+        } else {
+            if (resume) {
+                LOG.warn("There is no load journal at {} to resume from, loading everything", file);
+            }
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.append(HEADER_PREFIX + description);
+        }
+    }
+
+    /**
+     * Opens the journal at file. Unless resume is set, or there is no file
+     * yet, a new journal is started.
+     *
+     * @param description What is being loaded, see {@link BenchmarkModule#getLoadDescription()}
+     * @throws IllegalStateException if the journal to resume was written by a
+     *                               load with a different description
+     */
+    public static LoadJournal open(File file, String description, boolean resume) throws IOException {
+        return new LoadJournal(file, description, resume);
+    }
+
+    private synchronized void append(String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        this.channel.force(false);
+    }
+
+    /**
+     * True if the earlier load finished unit
+     */
+    public boolean isFinished(String unit) {
+        return this.finished.contains(unit);
+    }
+
+    /**
+     * True if the earlier load started unit but did not finish it, so it may
+     * have left some of its rows behind
+     */
+    public boolean isPartial(String unit) {
+        return this.started.contains(unit) && !this.finished.contains(unit);
+    }
+
+    private int getPartialCount() {
+        int count = 0;
+        for (String unit : this.started) {
+            if (!this.finished.contains(unit)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void start(String unit) throws IOException {
+        this.append(START + unit);
+    }
+
+    public void finish(String unit) throws IOException {
+        this.append(FINISH + unit);
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -22,17 +22,30 @@ import com.oltpbenchmark.WorkloadConfiguration;
 import com.oltpbenchmark.catalog.AbstractCatalog;
 import com.oltpbenchmark.catalog.Column;
 import com.oltpbenchmark.catalog.Table;
+import com.oltpbenchmark.jdbc.BatchRowSink;
+import com.oltpbenchmark.jdbc.MultiRowInsertSink;
+import com.oltpbenchmark.jdbc.MySQLLoadDataRowSink;
+import com.oltpbenchmark.jdbc.PostgresCopyRowSink;
+import com.oltpbenchmark.jdbc.TextFileRowSink;
 import com.oltpbenchmark.types.DatabaseType;
 import com.oltpbenchmark.util.Histogram;
 import com.oltpbenchmark.util.SQLUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author pavlo
@@ -45,24 +58,36 @@ public abstract class Loader<T extends BenchmarkModule> {
     protected final WorkloadConfiguration workConf;
     protected final double scaleFactor;
     private final Histogram<String> tableSizes = new Histogram<>(true);
+    private final Map<String, Set<String>> tableDependencies = new LinkedHashMap<>();
+    private volatile boolean bulkLoadFailed = false;
+    private final long loadTime;
+
+    // The LoaderThread unit that opened each generated file
+    private final Map<File, String> generatedFiles = new ConcurrentHashMap<>();
 
     public Loader(T benchmark) {
         this.benchmark = benchmark;
         this.workConf = benchmark.getWorkloadConfiguration();
         this.scaleFactor = workConf.getScaleFactor();
+        long now = System.currentTimeMillis();
+        this.loadTime = workConf.getRandomSeed() != -1 ? now - Math.floorMod(now, TimeUnit.DAYS.toMillis(1)) : now;
     }
 
     /**
      * Each Loader will generate a list of Runnable objects that
      * will perform the loading operation for the benchmark.
      * The number of threads that will be launched at the same time
-     * depends on the number of cores that are available. But they are
-     * guaranteed to execute in the order specified in the list.
-     * You will have to use your own protections if there are dependencies between
-     * threads (i.e., if one table needs to be loaded before another).
+     * depends on the number of cores that are available.
+     * If one table needs to be loaded before another, declare it with
+     * {@link #addTableDependency(String, String...)} and tag each LoaderThread
+     * with the tables it writes through {@link LoaderThread#loads(String...)}.
+     * A LoaderThread is then only started once every LoaderThread of the tables
+     * it depends on has finished, and those on the longest chain of dependent
+     * tables are started first. LoaderThreads that are not ordered this way
+     * are started in the order of the list.
      * <p>
      * Each LoaderThread will be given a Connection handle to the DBMS when
-     * it is invoked.
+     * it is invoked, or null when it generates files.
      * <p>
      * If the benchmark does <b>not</b> support multi-threaded loading yet,
      * then this method should return null.
@@ -71,6 +96,56 @@ public abstract class Loader<T extends BenchmarkModule> {
      */
     public abstract List<LoaderThread> createLoaderThreads() throws SQLException;
 
+    /**
+     * Declares that the rows of table can only be loaded after those of all
+     * of requiredTables, e.g. because of foreign keys or because they are
+     * generated from them. Dependencies on tables that no LoaderThread loads
+     * are ignored.
+     */
+    protected final void addTableDependency(String table, String... requiredTables) {
+        Set<String> required = this.tableDependencies.computeIfAbsent(table.toLowerCase(), t -> new LinkedHashSet<>());
+        for (String requiredTable : requiredTables) {
+            required.add(requiredTable.toLowerCase());
+        }
+    }
+
+    /**
+     * The lower-case names of the tables each table depends on
+     */
+    public Map<String, Set<String>> getTableDependencies() {
+        return Collections.unmodifiableMap(this.tableDependencies);
+    }
+
+    /**
+     * Whether a load that was stopped part way can be resumed: every
+     * LoaderThread must generate the same rows whenever it is run and must
+     * be able to delete the rows of an earlier, unfinished run with
+     * {@link LoaderThread#truncate(Connection)}. Loaders that build up state
+     * in memory while loading (e.g. a profile that is saved at the end) do
+     * not support this.
+     */
+    public boolean supportsResume() {
+        return false;
+    }
+
+    /**
+     * Whether the LoaderThreads only write rows through
+     * {@link #newRowSink(Connection, Table)}, so that they can generate files
+     * without a database connection, see {@link BenchmarkModule#generateFiles}.
+     */
+    public boolean supportsFileGeneration() {
+        return false;
+    }
+
+    /**
+     * The time to store in rows that record when they were created: when the
+     * load started, or midnight (UTC) of that day if a randomSeed is set, so
+     * that loads with the same seed on the same day write the same rows.
+     */
+    public long getLoadTime() {
+        return this.loadTime;
+    }
+
     public void addToTableCount(String tableName, int delta) {
         this.tableSizes.put(tableName, delta);
     }
@@ -83,6 +158,88 @@ public abstract class Loader<T extends BenchmarkModule> {
         return (this.workConf.getDatabaseType());
     }
 
+    /**
+     * Opens a sink that writes all the columns of a table. Unless bulkLoad is
+     * enabled, or the database does not have a native bulk load path, this
+     * is an INSERT that is sent in batches of batchSize rows. With
+     * multiRowInsert each INSERT carries as many of these rows as the
+     * database takes parameters instead.
+     *
+     * @param conn        The connection of the LoaderThread
+     * @param catalog_tbl The table to load
+     * @return A sink that must be closed to write the last rows
+     * @throws SQLException
+     */
+    public RowSink newRowSink(Connection conn, Table catalog_tbl) throws SQLException {
+        File directory = this.benchmark.getGenerateDirectory();
+        if (directory != null) {
+            return this.newFileRowSink(directory, catalog_tbl);
+        }
+        DatabaseType dbType = this.getDatabaseType();
+        if (this.workConf.getBulkLoad()) {
+            try {
+                switch (dbType) {
+                    case POSTGRES:
+                    case COCKROACHDB:
+                        return PostgresCopyRowSink.open(conn, catalog_tbl, dbType);
+                    case MYSQL:
+                        return MySQLLoadDataRowSink.open(conn, catalog_tbl, dbType);
+                    default:
+                        break;
+                }
+            } catch (SQLException ex) {
+                if (!this.bulkLoadFailed) {
+                    this.bulkLoadFailed = true;
+                    LOG.warn(String.format("Bulk load is not available for %s, falling back to batched INSERTs", dbType), ex);
+                }
+                // Starting the bulk load may have aborted the transaction
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                }
+            }
+        }
+        int batchSize = this.workConf.getBatchSize();
+        if (this.workConf.getMultiRowInsert()) {
+            int rowsPerStatement = MultiRowInsertSink.getRowsPerStatement(catalog_tbl, dbType, batchSize);
+            if (rowsPerStatement > 1) {
+                return new MultiRowInsertSink(conn, catalog_tbl, dbType, rowsPerStatement);
+            }
+        }
+        String sql = SQLUtil.getInsertSQL(catalog_tbl, dbType);
+        return new BatchRowSink(conn.prepareStatement(sql), batchSize);
+    }
+
+    /**
+     * Opens the file that the running LoaderThread generates the rows of a
+     * table into: table.tsv, or table.k.tsv for the k-th of several
+     * LoaderThreads that declare the table. mysqlimport takes the table from
+     * the file name up to the first dot. A LoaderThread that opens a table
+     * again appends to its file.
+     */
+    private RowSink newFileRowSink(File directory, Table catalog_tbl) throws SQLException {
+        LoaderThread current = LoaderThread.getCurrent();
+        String unit = String.valueOf(current != null ? current.getUnit() : null);
+        String name = catalog_tbl.getName().toLowerCase();
+        String part = current != null ? current.getTablePart(name) : null;
+        if (part != null) {
+            String[] split = part.split("/");
+            name += String.format(".%0" + split[1].length() + "d", Integer.parseInt(split[0]));
+        }
+        File file = new File(directory, name + ".tsv");
+        String owner = this.generatedFiles.putIfAbsent(file, unit);
+        if (owner != null && !owner.equals(unit)) {
+            throw new IllegalStateException(String.format("Loader Threads %s and %s both generate %s", owner, unit, file));
+        }
+        return TextFileRowSink.open(file, catalog_tbl.getColumnCount(), owner != null);
+    }
+
+    /**
+     * @see #newRowSink(Connection, Table)
+     */
+    public RowSink newRowSink(Connection conn, String tableName) throws SQLException {
+        return this.newRowSink(conn, this.benchmark.getCatalog().getTable(tableName));
+    }
+
     /**
      * Get the pre-seeded Random generator for this Loader invocation
      *
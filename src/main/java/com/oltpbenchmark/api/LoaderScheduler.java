@@ -0,0 +1,353 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs LoaderThreads in the order given by the dependencies between the
+ * tables they load. A LoaderThread is only handed to the pool once all the
+ * LoaderThreads of the tables it depends on have finished, so no pool thread
+ * is ever blocked waiting for another one. Of the LoaderThreads that can run,
+ * the one with the longest chain of dependents is started first; the rest
+ * are started in the order of the list.
+ * <p>
+ * Once all are done, the critical path, i.e. the chain of dependent
+ * LoaderThreads that took the longest, is logged. Nothing can load faster
+ * than that chain, however many loader threads are configured.
+ * <p>
+ * With a {@link LoadJournal}, the LoaderThreads that an earlier load
+ * finished are skipped and those that it started are truncated before they
+ * are run again.
+ */
+public class LoaderScheduler {
+    private static final Logger LOG = LoggerFactory.getLogger(LoaderScheduler.class);
+
+    private final List<LoaderThread> loaderThreads;
+    private final String[] units;
+    private final List<List<Integer>> dependencies = new ArrayList<>();
+    private final List<List<Integer>> dependents = new ArrayList<>();
+
+    /**
+     * The number of LoaderThreads on the longest chain that starts with each one
+     */
+    private final int[] height;
+
+    private final long[] startNanos;
+    private final long[] stopNanos;
+
+    private LoadJournal journal = null;
+    private int part = 1;
+    private int parts = 1;
+
+    /**
+     * @param loaderThreads     The LoaderThreads to run
+     * @param tableDependencies The tables each table depends on,
+     *                          see {@link Loader#getTableDependencies()}
+     * @throws IllegalStateException if the dependencies have a cycle
+     */
+    public LoaderScheduler(List<LoaderThread> loaderThreads, Map<String, Set<String>> tableDependencies) {
+        this.loaderThreads = new ArrayList<>(loaderThreads);
+        final int size = this.loaderThreads.size();
+        this.height = new int[size];
+        this.startNanos = new long[size];
+        this.stopNanos = new long[size];
+        this.units = new String[size];
+
+        Map<String, List<Integer>> producers = new HashMap<>();
+        Map<String, List<Integer>> names = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            for (String table : this.loaderThreads.get(i).getTables()) {
+                producers.computeIfAbsent(table, t -> new ArrayList<>()).add(i);
+            }
+            names.computeIfAbsent(this.loaderThreads.get(i).getName(), n -> new ArrayList<>()).add(i);
+            this.dependencies.add(new ArrayList<>());
+            this.dependents.add(new ArrayList<>());
+        }
+
+        for (Map.Entry<String, List<Integer>> e : producers.entrySet()) {
+            List<Integer> indexes = e.getValue();
+            for (int k = 0; indexes.size() > 1 && k < indexes.size(); k++) {
+                this.loaderThreads.get(indexes.get(k)).setTablePart(e.getKey(), k + 1, indexes.size());
+            }
+        }
+
+        for (Map.Entry<String, List<Integer>> e : names.entrySet()) {
+            List<Integer> indexes = e.getValue();
+            for (int k = 0; k < indexes.size(); k++) {
+                String unit = indexes.size() == 1 ? e.getKey() : String.format("%s#%d/%d", e.getKey(), k + 1, indexes.size());
+                this.units[indexes.get(k)] = unit;
+                this.loaderThreads.get(indexes.get(k)).setUnit(unit);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            Set<Integer> required = new TreeSet<>();
+            String partition = this.loaderThreads.get(i).getPartition();
+            for (String table : this.loaderThreads.get(i).getTables()) {
+                for (String requiredTable : tableDependencies.getOrDefault(table, Collections.emptySet())) {
+                    for (int j : producers.getOrDefault(requiredTable, Collections.emptyList())) {
+                        String requiredPartition = this.loaderThreads.get(j).getPartition();
+                        if (partition == null || requiredPartition == null || partition.equals(requiredPartition)) {
+                            required.add(j);
+                        }
+                    }
+                }
+            }
+            // A LoaderThread that loads several tables satisfies its own dependencies
+            required.remove(i);
+            for (int j : required) {
+                this.dependencies.get(i).add(j);
+                this.dependents.get(j).add(i);
+            }
+        }
+
+        List<Integer> order = topologicalOrder();
+        for (int k = order.size() - 1; k >= 0; k--) {
+            int i = order.get(k);
+            int longest = 0;
+            for (int j : this.dependents.get(i)) {
+                longest = Math.max(longest, this.height[j]);
+            }
+            this.height[i] = longest + 1;
+        }
+    }
+
+    /**
+     * Records the progress of the load in journal, and skips what an earlier
+     * load recorded as finished there
+     */
+    public void setJournal(LoadJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Only runs part of the LoaderThreads: every parts-th one, starting with
+     * the part-th. The others are skipped as if they had been run already.
+     *
+     * @param part  From 1 to parts
+     * @param parts The number of parts to split the LoaderThreads into
+     */
+    public void setPart(int part, int parts) {
+        if (parts < 1 || part < 1 || part > parts) {
+            throw new IllegalArgumentException(String.format("Invalid part %d of %d", part, parts));
+        }
+        this.part = part;
+        this.parts = parts;
+    }
+
+    public int size() {
+        return this.loaderThreads.size();
+    }
+
+    /**
+     * The name of a LoaderThread that is unique within this load: its
+     * tables, numbered if several LoaderThreads load the same tables
+     */
+    public String getUnit(int index) {
+        return this.units[index];
+    }
+
+    private List<Integer> topologicalOrder() {
+        final int size = this.loaderThreads.size();
+        int[] remaining = new int[size];
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            remaining[i] = this.dependencies.get(i).size();
+            if (remaining[i] == 0) {
+                ready.add(i);
+            }
+        }
+        List<Integer> order = new ArrayList<>(size);
+        while (!ready.isEmpty()) {
+            int i = ready.poll();
+            order.add(i);
+            for (int j : this.dependents.get(i)) {
+                if (--remaining[j] == 0) {
+                    ready.add(j);
+                }
+            }
+        }
+        if (order.size() < size) {
+            Set<String> cycle = new TreeSet<>();
+            for (int i = 0; i < size; i++) {
+                if (remaining[i] > 0) {
+                    cycle.add(this.loaderThreads.get(i).getName());
+                }
+            }
+            throw new IllegalStateException("The table dependencies of these Loader Threads have a cycle: " + cycle);
+        }
+        return order;
+    }
+
+    /**
+     * Runs all LoaderThreads on service, at most maxConcurrent at a time, and
+     * returns once they have all finished.
+     *
+     * @throws RuntimeException if a LoaderThread failed. No more LoaderThreads
+     *                          are started after that.
+     */
+    public void run(ExecutorService service, int maxConcurrent) throws InterruptedException {
+        final int size = this.loaderThreads.size();
+        final CompletionService<Integer> completionService = new ExecutorCompletionService<>(service);
+        final PriorityQueue<Integer> ready = new PriorityQueue<>(
+                Comparator.<Integer>comparingInt(i -> -this.height[i]).thenComparingInt(i -> i));
+
+        int[] remaining = new int[size];
+        for (int i = 0; i < size; i++) {
+            remaining[i] = this.dependencies.get(i).size();
+            if (remaining[i] == 0) {
+                ready.add(i);
+            }
+        }
+
+        int running = 0;
+        int finished = 0;
+        int skipped = 0;
+        int otherParts = 0;
+        while (finished < size) {
+            while (running < maxConcurrent && !ready.isEmpty()) {
+                final int i = ready.poll();
+                if (this.journal != null && this.journal.isFinished(this.units[i])) {
+                    // Loaded by an earlier run
+                    skipped++;
+                    finished++;
+                    release(i, remaining, ready);
+                    continue;
+                }
+                if (i % this.parts != this.part - 1) {
+                    otherParts++;
+                    finished++;
+                    release(i, remaining, ready);
+                    continue;
+                }
+                completionService.submit(() -> {
+                    this.startNanos[i] = System.nanoTime();
+                    try {
+                        runUnit(i);
+                    } finally {
+                        this.stopNanos[i] = System.nanoTime();
+                    }
+                    return i;
+                });
+                running++;
+            }
+            if (finished == size) {
+                break;
+            }
+
+            int i;
+            try {
+                i = completionService.take().get();
+            } catch (ExecutionException ex) {
+                throw new RuntimeException("Exception in Loader Thread with message: " + ex.getCause().getMessage(), ex.getCause());
+            }
+            running--;
+            finished++;
+            LOG.debug("Finished Loader Thread {} [{} / {}]", this.units[i], finished, size);
+            release(i, remaining, ready);
+        }
+
+        if (skipped > 0) {
+            LOG.info("Skipped {} Loader Threads that were finished by an earlier load", skipped);
+        }
+        if (otherParts > 0) {
+            LOG.info("Skipped {} Loader Threads that are not in part {} of {}", otherParts, this.part, this.parts);
+        }
+
+        if (LOG.isInfoEnabled() && size > 0) {
+            StringBuilder sb = new StringBuilder();
+            double total = 0;
+            for (int i : criticalPath()) {
+                double seconds = (this.stopNanos[i] - this.startNanos[i]) / 1e9;
+                total += seconds;
+                sb.append(sb.length() == 0 ? "" : " -> ").append(String.format("%s [%.02fs]", this.loaderThreads.get(i).getName(), seconds));
+            }
+            LOG.info(String.format("Critical path of Loader Threads [time=%.02fs]: %s", total, sb));
+        }
+    }
+
+    private void release(int i, int[] remaining, Queue<Integer> ready) {
+        for (int j : this.dependents.get(i)) {
+            if (--remaining[j] == 0) {
+                ready.add(j);
+            }
+        }
+    }
+
+    private void runUnit(int i) throws Exception {
+        LoaderThread loaderThread = this.loaderThreads.get(i);
+        if (this.journal != null) {
+            if (this.journal.isPartial(this.units[i])) {
+                LOG.info("Deleting the rows of {} that an earlier load did not finish", this.units[i]);
+                loaderThread.truncate();
+            }
+            this.journal.start(this.units[i]);
+        }
+        loaderThread.run();
+        if (this.journal != null) {
+            this.journal.finish(this.units[i]);
+        }
+    }
+
+    /**
+     * The chain of dependent LoaderThreads that took the longest to load in
+     * the last call to {@link #run(ExecutorService, int)}, in load order.
+     */
+    public List<LoaderThread> getCriticalPath() {
+        List<LoaderThread> path = new ArrayList<>();
+        for (int i : criticalPath()) {
+            path.add(this.loaderThreads.get(i));
+        }
+        return path;
+    }
+
+    private List<Integer> criticalPath() {
+        final int size = this.loaderThreads.size();
+        long[] pathNanos = new long[size];
+        int[] previous = new int[size];
+        int last = -1;
+        for (int i : topologicalOrder()) {
+            previous[i] = -1;
+            long longest = 0;
+            for (int j : this.dependencies.get(i)) {
+                if (pathNanos[j] > longest || previous[i] < 0) {
+                    longest = pathNanos[j];
+                    previous[i] = j;
+                }
+            }
+            pathNanos[i] = longest + (this.stopNanos[i] - this.startNanos[i]);
+            if (last < 0 || pathNanos[i] > pathNanos[last]) {
+                last = i;
+            }
+        }
+
+        LinkedList<Integer> path = new LinkedList<>();
+        for (int i = last; i >= 0; i = previous[i]) {
+            path.addFirst(i);
+        }
+        return path;
+    }
+}
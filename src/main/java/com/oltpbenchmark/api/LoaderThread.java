@@ -20,28 +20,142 @@ package com.oltpbenchmark.api;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.oltpbenchmark.catalog.Table;
+
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * A LoaderThread is responsible for loading some portion of a
  * benchmark's database.
  * Note that each LoaderThread has its own database Connection handle.
+ * <p>
+ * A LoaderThread should declare the tables it writes with {@link #loads(String...)}
+ * so that it is only started once the tables they depend on have been loaded,
+ * see {@link Loader#addTableDependency(String, String...)}. A LoaderThread
+ * that only loads part of its tables, e.g. the rows of one warehouse, can
+ * narrow these dependencies down with {@link #inPartition(Object)}.
  */
 public abstract class LoaderThread implements Runnable {
 
     private static final Logger LOG = LoggerFactory.getLogger(LoaderThread.class);
 
+    private static final ThreadLocal<LoaderThread> CURRENT = new ThreadLocal<>();
+
     private final BenchmarkModule benchmarkModule;
+    private final Set<String> tables = new LinkedHashSet<>();
+    private final Map<String, String> tableParts = new HashMap<>();
+    private String partition = null;
+    private String unit = null;
 
     public LoaderThread(BenchmarkModule benchmarkModule) {
         this.benchmarkModule = benchmarkModule;
     }
 
+    /**
+     * Declares the tables this LoaderThread writes rows to. Steps that do not
+     * fill a table of their own (e.g. computing a profile) can use any name
+     * that does not clash with one.
+     *
+     * @return this LoaderThread
+     */
+    public LoaderThread loads(String... tableNames) {
+        for (String tableName : tableNames) {
+            this.tables.add(tableName.toLowerCase());
+        }
+        return this;
+    }
+
+    /**
+     * Declares that this LoaderThread only loads the rows of one partition of
+     * its tables, e.g. a warehouse. It then only waits for the LoaderThreads
+     * of the tables it depends on that load the same partition, or that are
+     * not partitioned at all.
+     *
+     * @return this LoaderThread
+     */
+    public LoaderThread inPartition(Object partition) {
+        this.partition = String.valueOf(partition);
+        return this;
+    }
+
+    /**
+     * The partition declared with {@link #inPartition(Object)}, or null
+     */
+    public String getPartition() {
+        return this.partition;
+    }
+
+    /**
+     * The lower-case names of the tables declared with {@link #loads(String...)}
+     */
+    public Set<String> getTables() {
+        return Collections.unmodifiableSet(this.tables);
+    }
+
+    /**
+     * The declared tables and partition, or the class name for a LoaderThread
+     * without any tables
+     */
+    public String getName() {
+        if (this.tables.isEmpty()) {
+            String className = this.getClass().getName();
+            return className.substring(className.lastIndexOf('.') + 1);
+        }
+        String name = String.join(",", this.tables);
+        return this.partition == null ? name : name + "[" + this.partition + "]";
+    }
+
+    /**
+     * Set by the {@link LoaderScheduler}
+     */
+    void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    String getUnit() {
+        return this.unit;
+    }
+
+    /**
+     * Set by the {@link LoaderScheduler} when several LoaderThreads load
+     * the same table
+     */
+    void setTablePart(String tableName, int part, int parts) {
+        this.tableParts.put(tableName, part + "/" + parts);
+    }
+
+    /**
+     * Which of the LoaderThreads that load a table this one is, as "k/n", or
+     * null if it is the only one
+     */
+    String getTablePart(String tableName) {
+        return this.tableParts.get(tableName);
+    }
+
+    /**
+     * The LoaderThread that the calling thread is running, or null
+     */
+    static LoaderThread getCurrent() {
+        return CURRENT.get();
+    }
+
     @Override
     public final void run() {
+        if (this.unit != null) {
+            benchmarkModule.reseedRng(this.unit);
+        }
         beforeLoad();
-        try (Connection conn = benchmarkModule.makeConnection()) {
+        CURRENT.set(this);
+        // Files are generated without a connection
+        try (Connection conn = benchmarkModule.getGenerateDirectory() == null ? benchmarkModule.makeConnection() : null) {
             load(conn);
         } catch (SQLException ex) {
             SQLException next_ex = ex.getNextException();
@@ -49,6 +163,7 @@ public abstract class LoaderThread implements Runnable {
             LOG.error(msg, next_ex);
             throw new RuntimeException(ex);
         } finally {
+            CURRENT.remove();
             afterLoad();
         }
     }
@@ -56,11 +171,75 @@ public abstract class LoaderThread implements Runnable {
     /**
      * This is the method that each LoaderThread has to implement
      *
-     * @param conn
+     * @param conn The connection to load with, null when generating files
      * @throws SQLException
      */
     public abstract void load(Connection conn) throws SQLException;
 
+    /**
+     * Deletes the rows that an earlier load that was stopped while running
+     * this LoaderThread may have left behind, before a resumed load runs it
+     * again. By default all rows of the declared tables are deleted, so a
+     * LoaderThread that shares a table with others must override this to
+     * only delete its own rows.
+     *
+     * @see Loader#supportsResume()
+     */
+    public void truncate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String tableName : this.tables) {
+                stmt.executeUpdate("DELETE FROM " + getTableName(tableName));
+            }
+        }
+    }
+
+    /**
+     * Deletes the rows of a table where the column is between lo and hi
+     * (inclusive), for implementations of {@link #truncate(Connection)}
+     */
+    protected void deleteRange(Connection conn, String tableName, String columnName, long lo, long hi) throws SQLException {
+        String sql = String.format("DELETE FROM %s WHERE %s BETWEEN ? AND ?", getTableName(tableName), columnName);
+        delete(conn, tableName, sql, lo, hi);
+    }
+
+    /**
+     * Deletes the rows of a table where keyColumn is key and the column is
+     * between lo and hi (inclusive), e.g. a range of the districts of a
+     * warehouse
+     */
+    protected void deleteRange(Connection conn, String tableName, String keyColumn, long key, String columnName, long lo, long hi) throws SQLException {
+        String sql = String.format("DELETE FROM %s WHERE %s = ? AND %s BETWEEN ? AND ?", getTableName(tableName), keyColumn, columnName);
+        delete(conn, tableName, sql, key, lo, hi);
+    }
+
+    private void delete(Connection conn, String tableName, String sql, long... params) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setLong(i + 1, params[i]);
+            }
+            int deleted = stmt.executeUpdate();
+            LOG.debug("Deleted {} rows of {} left by an earlier load", deleted, tableName);
+        }
+    }
+
+    private String getTableName(String tableName) {
+        Table catalog_tbl = benchmarkModule.getCatalog().getTable(tableName);
+        boolean escape = benchmarkModule.getWorkloadConfiguration().getDatabaseType().shouldEscapeNames();
+        return escape ? catalog_tbl.getEscapedName() : catalog_tbl.getName();
+    }
+
+    /**
+     * Runs {@link #truncate(Connection)} on a connection of its own
+     */
+    final void truncate() throws SQLException {
+        try (Connection conn = benchmarkModule.makeConnection()) {
+            truncate(conn);
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+        }
+    }
+
     public void beforeLoad() {
         // useful for implementing waits for countdown latches, this ensures we open the connection right before its used to avoid stale connections
     }
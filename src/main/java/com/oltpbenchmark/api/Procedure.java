@@ -18,6 +18,7 @@
 package com.oltpbenchmark.api;
 
 import com.oltpbenchmark.jdbc.AutoIncrementPreparedStatement;
+import com.oltpbenchmark.jdbc.StatementCache;
 import com.oltpbenchmark.types.DatabaseType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +39,7 @@ public abstract class Procedure {
     private final String procName;
     private DatabaseType dbType;
     private Map<String, SQLStmt> name_stmt_xref;
+    private StatementCache statementCache;
 
     /**
      * Constructor
@@ -65,6 +67,14 @@ public abstract class Procedure {
         return ((T) this);
     }
 
+    /**
+     * Set by the Worker that owns this Procedure if statement caching is
+     * enabled for the workload.
+     */
+    final void setStatementCache(StatementCache statementCache) {
+        this.statementCache = statementCache;
+    }
+
     /**
      * Return the name of this Procedure
      */
@@ -76,7 +86,9 @@ public abstract class Procedure {
      * Return a PreparedStatement for the given SQLStmt handle
      * The underlying Procedure API will make sure that the proper SQL
      * for the target DBMS is used for this SQLStmt.
-     * This will automatically call setObject for all the parameters you pass in
+     * This will automatically call setObject for all the parameters you pass in.
+     * If the workload has a statement cache, the returned handle may be reused
+     * by later calls once it is closed.
      *
      * @param conn
      * @param stmt
@@ -116,7 +128,7 @@ public abstract class Procedure {
                 || this.dbType == DatabaseType.SQLAZURE
             )
         ) {
-            pStmt = new AutoIncrementPreparedStatement(this.dbType, conn.prepareStatement(stmt.getSQL()));
+            pStmt = new AutoIncrementPreparedStatement(this.dbType, this.prepareStatement(conn, stmt));
         }
         // Everyone else can use the regular getGeneratedKeys() method
         else if (is != null) {
@@ -124,12 +136,19 @@ public abstract class Procedure {
         }
         // They don't care about keys
         else {
-            pStmt = conn.prepareStatement(stmt.getSQL());
+            pStmt = this.prepareStatement(conn, stmt);
         }
 
         return (pStmt);
     }
 
+    private PreparedStatement prepareStatement(Connection conn, SQLStmt stmt) throws SQLException {
+        if (this.statementCache != null) {
+            return this.statementCache.prepare(conn, stmt);
+        }
+        return conn.prepareStatement(stmt.getSQL());
+    }
+
     /**
      * Fetch the SQL from the dialect map
      *
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.api;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Where a Loader writes the rows of one table. The setters mirror the ones of
+ * PreparedStatement, with 1-based column indexes, but the values of a row must
+ * be set in column order, so that implementations can encode them as they
+ * come. Use {@link Loader#newRowSink} to get the fastest one that the target
+ * database supports.
+ * <p>
+ * A sink decides on its own when to send the rows; they are all written
+ * once {@link #close()} returns.
+ */
+public interface RowSink extends AutoCloseable {
+
+    void setLong(int index, long value) throws SQLException;
+
+    void setInt(int index, int value) throws SQLException;
+
+    void setDouble(int index, double value) throws SQLException;
+
+    void setBoolean(int index, boolean value) throws SQLException;
+
+    void setString(int index, String value) throws SQLException;
+
+    void setBigDecimal(int index, BigDecimal value) throws SQLException;
+
+    void setDate(int index, Date value) throws SQLException;
+
+    void setTimestamp(int index, Timestamp value) throws SQLException;
+
+    /**
+     * @param sqlType The java.sql.Types of the column
+     */
+    void setNull(int index, int sqlType) throws SQLException;
+
+    /**
+     * Sets a value of any of the types supported by the other setters.
+     */
+    void setObject(int index, Object value) throws SQLException;
+
+    /**
+     * Ends the current row. All columns must have been set.
+     */
+    void addRow() throws SQLException;
+
+    /**
+     * Number of rows added so far
+     */
+    long getRowCount();
+
+    /**
+     * Writes all remaining rows and releases the resources of this sink.
+     */
+    @Override
+    void close() throws SQLException;
+}
@@ -19,6 +19,8 @@ package com.oltpbenchmark.api;
 
 import com.oltpbenchmark.*;
 import com.oltpbenchmark.api.Procedure.UserAbortException;
+import com.oltpbenchmark.jdbc.StatementCache;
+import com.oltpbenchmark.metrics.TransactionCounters;
 import com.oltpbenchmark.types.DatabaseType;
 import com.oltpbenchmark.types.State;
 import com.oltpbenchmark.types.TransactionStatus;
@@ -35,7 +37,6 @@ import java.util.Map.Entry;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import static com.oltpbenchmark.types.State.MEASURE;
 
 public abstract class Worker<T extends BenchmarkModule> implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(Worker.class);
@@ -64,6 +65,16 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
     private final Histogram<TransactionType> txnErrors = new Histogram<>();
     private final Histogram<TransactionType> txtRetryDifferent = new Histogram<>();
 
+    // Latencies and response times of the measured transactions, by type
+    private final Map<TransactionType, LatencyHistogram> latencyHistograms = new HashMap<>();
+    private final Map<TransactionType, LatencyHistogram> responseTimeHistograms = new HashMap<>();
+
+    // Live counters of every transaction, whatever the state of the workload
+    private final TransactionCounters transactionCounters;
+
+    // Shared by all the procedures of this worker, null if disabled
+    private final StatementCache statementCache;
+
     private boolean seenDone = false;
 
     public Worker(T benchmark, int id) {
@@ -73,6 +84,9 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
         this.workloadState = this.configuration.getWorkloadState();
         this.currStatement = null;
         this.transactionTypes = this.configuration.getTransTypes();
+        this.transactionCounters = new TransactionCounters(this.transactionTypes);
+        int statementCacheSize = this.configuration.getStatementCacheSize();
+        this.statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
 
         if (!this.configuration.getNewConnectionPerTxn()) {
             try {
@@ -90,6 +104,7 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
             Procedure proc = e.getValue();
             this.name_procedures.put(e.getKey().getName(), proc);
             this.class_procedures.put(proc.getClass(), proc);
+            proc.setStatementCache(this.statementCache);
         }
     }
 
@@ -128,10 +143,34 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
         return intervalRequests.getAndSet(0);
     }
 
-    public final Iterable<LatencyRecord.Sample> getLatencyRecords() {
+    public final LatencyRecord getLatencyRecords() {
         return latencies;
     }
 
+    /**
+     * The histogram of the latencies (service times) of the measured
+     * transactions of each type.
+     */
+    public final Map<TransactionType, LatencyHistogram> getLatencyHistograms() {
+        return latencyHistograms;
+    }
+
+    /**
+     * The histogram of the response times of the measured transactions of
+     * each type.
+     */
+    public final Map<TransactionType, LatencyHistogram> getResponseTimeHistograms() {
+        return responseTimeHistograms;
+    }
+
+    /**
+     * Cumulative counters of the statuses and latencies of all the
+     * transactions this worker ran so far, which can be read at any time.
+     */
+    public final TransactionCounters getTransactionCounters() {
+        return transactionCounters;
+    }
+
     public final Procedure getProcedure(TransactionType type) {
         return (this.procedures.get(type));
     }
@@ -190,6 +229,8 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
 
         // In case of reuse reset the measurements
         latencies = new LatencyRecord(workloadState.getTestStartNs());
+        latencyHistograms.clear();
+        responseTimeHistograms.clear();
 
         // Invoke initialize callback
         try {
@@ -205,7 +246,10 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
 
             // PART 1: Init and check if done
 
-            State preState = workloadState.getGlobalState();
+            // The state and phase are read together in one snapshot, which
+            // the rest of the pass works from
+            BenchmarkState.Snapshot pre = workloadState.getSnapshot();
+            State preState = pre.getState();
 
             // Do nothing
             if (preState == State.DONE) {
@@ -221,25 +265,35 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
 
             // PART 2: Wait for work
 
-            // Sleep if there's nothing to do.
-            workloadState.stayAwake();
-
-            Phase prePhase = workloadState.getCurrentPhase();
-            if (prePhase == null) {
+            // Sleep if there's nothing to do, and start over once woken up
+            if (workloadState.stayAwake()) {
                 continue;
             }
 
-            // Grab some work and update the state, in case it changed while we
-            // waited.
-
-            SubmittedProcedure pieceOfWork = workloadState.fetchWork();
-
-            prePhase = workloadState.getCurrentPhase();
+            Phase prePhase = workloadState.getPhase(pre);
             if (prePhase == null) {
                 continue;
             }
 
-            preState = workloadState.getGlobalState();
+            SubmittedProcedure pieceOfWork = workloadState.fetchWork(pre);
+            if (pieceOfWork == null) {
+                // The test is over, or the phase stopped queueing work while
+                // this worker waited for some
+                continue;
+            }
+            long fetched = System.nanoTime();
+
+            // Only serial and rate limited phases can block for work, so the
+            // state may have changed while we waited
+            if (prePhase.isSerial() || prePhase.isRateLimited()) {
+                pre = workloadState.getSnapshot();
+                prePhase = workloadState.getPhase(pre);
+                if (prePhase == null) {
+                    workloadState.finishedWork();
+                    continue;
+                }
+                preState = pre.getState();
+            }
 
             switch (preState) {
                 case DONE, EXIT, LATENCY_COMPLETE -> {
@@ -255,7 +309,7 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
 
             // PART 3: Execute work
 
-            TransactionType transactionType = getTransactionType(pieceOfWork, prePhase, preState, workloadState);
+            TransactionType transactionType = getTransactionType(pieceOfWork, prePhase, pre, workloadState);
 
             if (!transactionType.equals(TransactionType.INVALID)) {
 
@@ -283,39 +337,43 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
 
                 long end = System.nanoTime();
 
+                // The response time also covers the time this request sat in
+                // the queue before we picked it up (but not the keying time
+                // we spent in the pre-execution wait).
+                long intendedStart = start - Math.max(0, fetched - pieceOfWork.getStartTime());
+
+                transactionCounters.recordLatency(transactionType, (end - start + 500) / 1000);
+                transactionCounters.recordResponseTime(transactionType, (end - intendedStart + 500) / 1000);
+
                 // PART 4: Record results
 
-                State postState = workloadState.getGlobalState();
+                BenchmarkState.Snapshot post = workloadState.getSnapshot();
 
-                switch (postState) {
+                switch (post.getState()) {
                     case MEASURE:
                         // Non-serial measurement. Only measure if the state both
-                        // before and after was MEASURE, and the phase hasn't
-                        // changed, otherwise we're recording results for a query
-                        // that either started during the warmup phase or ended
-                        // after the timer went off.
-                        Phase postPhase = workloadState.getCurrentPhase();
-
-                        if (postPhase == null) {
-                            // Need a null check on postPhase since current phase being null is used in WorkloadState
-                            // and ThreadBench as the indication that the benchmark is over. However, there's a race
-                            // condition with postState not being changed from MEASURE to DONE yet, so we entered the
-                            // switch. In this scenario, just break from the switch.
-                            break;
-                        }
-                        if (preState == MEASURE && postPhase.getId() == prePhase.getId()) {
-                            latencies.addLatency(transactionType.getId(), start, end, this.id, prePhase.getId());
+                        // before and after was MEASURE, and the phase of this
+                        // workload hasn't changed, otherwise we're recording
+                        // results for a query that either started during the
+                        // warmup phase or ended after the timer went off. The
+                        // phases of the other workloads don't matter here.
+                        if (preState == State.MEASURE && workloadState.getPhase(post) == prePhase) {
+                            latencies.addLatency(transactionType.getId(), intendedStart, start, end, this.id, prePhase.getId());
+                            latencyHistograms.computeIfAbsent(transactionType, type -> new LatencyHistogram())
+                                    .record((end - start + 500) / 1000);
+                            responseTimeHistograms.computeIfAbsent(transactionType, type -> new LatencyHistogram())
+                                    .record((end - intendedStart + 500) / 1000);
                             intervalRequests.incrementAndGet();
                         }
                         if (prePhase.isLatencyRun()) {
-                            workloadState.startColdQuery();
+                            workloadState.startColdQuery(post);
                         }
                         break;
                     case COLD_QUERY:
                         // No recording for cold runs, but next time we will since
                         // it'll be a hot run.
                         if (preState == State.COLD_QUERY) {
-                            workloadState.startHotQuery();
+                            workloadState.startHotQuery(post);
                         }
                         break;
                     default:
@@ -345,7 +403,7 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
         tearDown();
     }
 
-    private TransactionType getTransactionType(SubmittedProcedure pieceOfWork, Phase phase, State state, WorkloadState workloadState) {
+    private TransactionType getTransactionType(SubmittedProcedure pieceOfWork, Phase phase, BenchmarkState.Snapshot snapshot, WorkloadState workloadState) {
         TransactionType type = TransactionType.INVALID;
 
         try {
@@ -356,7 +414,7 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
                 throw e;
             }
             if (phase.getId() == workloadState.getCurrentPhase().getId()) {
-                switch (state) {
+                switch (snapshot.getState()) {
                     case WARMUP -> {
                         // Don't quit yet: we haven't even begun!
                         LOG.info("[Serial] Resetting serial for phase.");
@@ -365,7 +423,7 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
                     case COLD_QUERY, MEASURE -> {
                         // The serial phase is over. Finish the run early.
                         LOG.info("[Serial] Updating workload state to {}.", State.LATENCY_COMPLETE);
-                        workloadState.signalLatencyComplete();
+                        workloadState.signalLatencyComplete(snapshot);
                     }
                     default -> throw e;
                 }
@@ -389,7 +447,9 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
             int retryCount = 0;
             int maxRetryCount = configuration.getMaxRetries();
 
-            while (retryCount < maxRetryCount && this.workloadState.getGlobalState() != State.DONE) {
+            // The caller has just seen that the test is not done, so the
+            // state is only read again before a retry
+            while (retryCount < maxRetryCount && (retryCount == 0 || this.workloadState.getGlobalState() != State.DONE)) {
 
                 TransactionStatus status = TransactionStatus.UNKNOWN;
 
@@ -455,6 +515,9 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
 
                 } finally {
                     if (this.configuration.getNewConnectionPerTxn() && this.conn != null) {
+                        if (this.statementCache != null) {
+                            this.statementCache.invalidate();
+                        }
                         try {
                             this.conn.close();
                             this.conn = null;
@@ -463,6 +526,7 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
                         }
                     }
 
+                    transactionCounters.recordStatus(transactionType, status);
                     switch (status) {
                         case UNKNOWN -> this.txnUnknown.put(transactionType);
                         case SUCCESS -> this.txnSuccess.put(transactionType);
@@ -535,6 +599,10 @@ public abstract class Worker<T extends BenchmarkModule> implements Runnable {
      * Called at the end of the test to do any clean up that may be required.
      */
     public void tearDown() {
+        if (this.statementCache != null) {
+            LOG.debug("{} {}", this, this.statementCache);
+            this.statementCache.close();
+        }
         if (!this.configuration.getNewConnectionPerTxn() && this.conn != null) {
             try {
                 conn.close();
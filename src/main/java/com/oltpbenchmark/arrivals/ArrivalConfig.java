@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.arrivals;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * How one stream of the arrivals of a phase arrives: either the stream of
+ * one transaction type, or the default stream of all the types without a
+ * stream of their own.
+ */
+public final class ArrivalConfig {
+
+    /**
+     * The transaction type of the default stream
+     */
+    public static final int ALL_TYPES = 0;
+
+    private final String type;
+    private final Map<String, String> params;
+    private final int transactionType;
+    private final String transactionName;
+    private final Long seed;
+
+    /**
+     * @param type            The type of the process, see {@link ArrivalProcess#create}
+     * @param params          The parameters of the process, and optionally the
+     *                        seed of its generator
+     * @param transactionType The index of the transaction type, as in the
+     *                        weights of the phase plus 1, or ALL_TYPES
+     * @param transactionName The name of the transaction type, for display
+     */
+    public ArrivalConfig(String type, Map<String, String> params, int transactionType, String transactionName) {
+        this.type = type;
+        this.params = new TreeMap<>(params);
+        this.transactionType = transactionType;
+        this.transactionName = transactionName;
+        String seed = this.params.remove("seed");
+        try {
+            this.seed = seed == null ? null : Long.parseLong(seed);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(String.format("seed must be a whole number, not '%s'", seed));
+        }
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public int getTransactionType() {
+        return transactionType;
+    }
+
+    /**
+     * Makes a process from the seed of the configuration if it has one, or
+     * else from random
+     *
+     * @throws IllegalArgumentException if the type or its parameters are
+     *                                  not valid
+     */
+    public ArrivalProcess create(SplittableRandom random) {
+        return ArrivalProcess.create(type, params, seed == null ? random : new SplittableRandom(seed));
+    }
+
+    /**
+     * Checks the type and its parameters without making the process
+     *
+     * @throws IllegalArgumentException if the type or its parameters are
+     *                                  not valid
+     */
+    public void validate() {
+        ArrivalProcess.validate(type, params);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(type);
+        if (transactionType != ALL_TYPES) {
+            sb.append(" for ").append(transactionName);
+        }
+        Map<String, String> shown = new TreeMap<>(params);
+        if (seed != null) {
+            shown.put("seed", seed.toString());
+        }
+        if (!shown.isEmpty()) {
+            sb.append(" ").append(shown);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.arrivals;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * When the requests of a rate limited phase arrive. A process is given the
+ * mean rate to arrive at, which can change as the phase runs, and decides
+ * how the arrivals are spread around it.
+ * <p>
+ * Each process draws from a generator of its own, which is only ever used
+ * by the thread that schedules the arrivals, so none of them share a lock.
+ * <p>
+ * Besides the built-in types, a type can be the name of a subclass with a
+ * public (Map&lt;String, String&gt;, SplittableRandom) constructor, which is
+ * given the attributes of its configuration.
+ */
+public abstract class ArrivalProcess {
+
+    protected final SplittableRandom random;
+
+    protected ArrivalProcess(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * @param previousNs When the previous arrival was, or when the process
+     *                   starts, as of System.nanoTime()
+     * @param rate       The mean number of arrivals per second
+     * @return When the next arrival is, Long.MAX_VALUE if there is none
+     */
+    public abstract long next(long previousNs, double rate);
+
+    /**
+     * The rate that the process arrives at around nowNs, for processes whose
+     * rate varies around the mean rate
+     */
+    public double getRate(long nowNs, double rate) {
+        return rate;
+    }
+
+    /**
+     * An exponentially distributed gap at rate, in nanoseconds
+     */
+    protected long exponentialNs(double rate) {
+        return (long) (-Math.log(1 - random.nextDouble()) / rate * 1e9);
+    }
+
+    /**
+     * Makes a process of one of the types regular, poisson, mmpp, pareto,
+     * sinusoidal and trace, or of the named class
+     *
+     * @throws IllegalArgumentException if the type or its parameters are
+     *                                  not valid
+     */
+    public static ArrivalProcess create(String type, Map<String, String> params, SplittableRandom random) {
+        switch (type.toLowerCase()) {
+            case "regular":
+                return new RegularArrivals(random);
+            case "poisson":
+                return new PoissonArrivals(random);
+            case "mmpp":
+                return new MarkovModulatedArrivals(params, random);
+            case "pareto":
+                return new ParetoOnOffArrivals(params, random);
+            case "sinusoidal":
+                return new SinusoidalArrivals(params, random);
+            case "trace":
+                return new TraceArrivals(params, random);
+            default:
+                break;
+        }
+        try {
+            Class<? extends ArrivalProcess> clazz = Class.forName(type).asSubclass(ArrivalProcess.class);
+            return clazz.getConstructor(Map.class, SplittableRandom.class).newInstance(params, random);
+        } catch (ClassNotFoundException | ClassCastException | NoSuchMethodException ex) {
+            throw new IllegalArgumentException(String.format("unknown arrival process '%s'", type));
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) ex.getCause();
+            }
+            throw new IllegalArgumentException(String.format("arrival process '%s' failed: %s", type, ex.getCause()), ex.getCause());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalArgumentException(String.format("arrival process '%s' can't be made: %s", type, ex));
+        }
+    }
+
+    /**
+     * Checks a type and its parameters the way {@link #create} does, but
+     * without making the process, so without reading a trace. A class type
+     * is only checked to have the constructor, since its parameters are up
+     * to the class.
+     *
+     * @throws IllegalArgumentException if the type or its parameters are
+     *                                  not valid
+     */
+    public static void validate(String type, Map<String, String> params) {
+        switch (type.toLowerCase()) {
+            case "regular":
+            case "poisson":
+                return;
+            case "mmpp":
+                MarkovModulatedArrivals.validate(params);
+                return;
+            case "pareto":
+                ParetoOnOffArrivals.validate(params);
+                return;
+            case "sinusoidal":
+                SinusoidalArrivals.validate(params);
+                return;
+            case "trace":
+                TraceArrivals.validate(params);
+                return;
+            default:
+                break;
+        }
+        try {
+            Class.forName(type).asSubclass(ArrivalProcess.class).getConstructor(Map.class, SplittableRandom.class);
+        } catch (ClassNotFoundException | ClassCastException | NoSuchMethodException ex) {
+            throw new IllegalArgumentException(String.format("unknown arrival process '%s'", type));
+        }
+    }
+
+    protected static double getDouble(Map<String, String> params, String name, double defaultValue) {
+        String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(String.format("%s must be a number, not '%s'", name, value));
+        }
+    }
+
+    protected static double[] getDoubles(Map<String, String> params, String name, String defaultValue) {
+        List<Double> values = new ArrayList<>();
+        for (String value : params.getOrDefault(name, defaultValue).split("\\s*,\\s*")) {
+            try {
+                values.add(Double.parseDouble(value));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(String.format("%s must be numbers separated by commas, not '%s'", name, params.get(name)));
+            }
+        }
+        return values.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.arrivals;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * A Markov-modulated Poisson process: Poisson arrivals whose rate depends
+ * on the state of a Markov chain, such as a quiet and a busy state.
+ * <ul>
+ * <li>factors: the rate of each state relative to the others, default 0.5,4</li>
+ * <li>sojourn: the mean number of seconds spent in each state before
+ * moving on to another one, picked at random, default 20,2</li>
+ * </ul>
+ * The factors are scaled so that the mean rate over time is the rate of the
+ * phase.
+ */
+public class MarkovModulatedArrivals extends ArrivalProcess {
+
+    private final double[] rates;
+    private final double[] sojourns;
+
+    private int state = -1;
+    private long stateEndNs;
+
+    public MarkovModulatedArrivals(Map<String, String> params, SplittableRandom random) {
+        super(random);
+        validate(params);
+        double[] factors = getDoubles(params, "factors", "0.5,4");
+        this.sojourns = getDoubles(params, "sojourn", "20,2");
+        double mean = meanFactor(factors, sojourns);
+        this.rates = new double[factors.length];
+        for (int i = 0; i < factors.length; i++) {
+            rates[i] = factors[i] / mean;
+        }
+    }
+
+    static void validate(Map<String, String> params) {
+        double[] factors = getDoubles(params, "factors", "0.5,4");
+        double[] sojourns = getDoubles(params, "sojourn", "20,2");
+        if (factors.length < 2 || factors.length != sojourns.length) {
+            throw new IllegalArgumentException("mmpp needs as many factors as sojourn times, for at least 2 states");
+        }
+        if (Arrays.stream(factors).anyMatch(f -> f < 0) || Arrays.stream(sojourns).anyMatch(s -> s <= 0)) {
+            throw new IllegalArgumentException("mmpp factors must not be negative and sojourn times must be positive");
+        }
+        if (meanFactor(factors, sojourns) <= 0) {
+            throw new IllegalArgumentException("mmpp needs a state with a positive factor");
+        }
+    }
+
+    /**
+     * Moving on to a state at random, the chain spends a share of the time
+     * in each state that is in proportion to its sojourn time
+     */
+    private static double meanFactor(double[] factors, double[] sojourns) {
+        double mean = 0;
+        double total = Arrays.stream(sojourns).sum();
+        for (int i = 0; i < factors.length; i++) {
+            mean += factors[i] * sojourns[i] / total;
+        }
+        return mean;
+    }
+
+    @Override
+    public long next(long previousNs, double rate) {
+        if (rate <= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (state < 0) {
+            enter(pickStart(), previousNs);
+        }
+        long t = previousNs;
+        while (true) {
+            double r = rate * rates[state];
+            long next = r > 0 ? t + exponentialNs(r) : Long.MAX_VALUE;
+            if (next <= stateEndNs) {
+                return next;
+            }
+            // Arrivals are memoryless, so start over from the switch
+            t = stateEndNs;
+            int other = random.nextInt(rates.length - 1);
+            enter(other < state ? other : other + 1, t);
+        }
+    }
+
+    private int pickStart() {
+        double total = Arrays.stream(sojourns).sum();
+        double x = random.nextDouble() * total;
+        for (int i = 0; i < sojourns.length - 1; i++) {
+            x -= sojourns[i];
+            if (x < 0) {
+                return i;
+            }
+        }
+        return sojourns.length - 1;
+    }
+
+    private void enter(int state, long nowNs) {
+        this.state = state;
+        this.stateEndNs = nowNs + exponentialNs(1 / sojourns[state]);
+    }
+
+    @Override
+    public double getRate(long nowNs, double rate) {
+        return state < 0 ? rate : rate * rates[state];
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.arrivals;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Sources that take turns being on, when they send Poisson arrivals, and
+ * off, when they send none, for Pareto distributed periods. The heavy tail
+ * of the periods makes the total traffic bursty on every time scale.
+ * <ul>
+ * <li>on: the mean length of an on period in seconds, default 1</li>
+ * <li>off: the mean length of an off period in seconds, default 1</li>
+ * <li>shape: the Pareto shape of both, between 1 and 2 for self-similar
+ * traffic, default 1.5</li>
+ * <li>sources: how many sources add up to the traffic, default 1</li>
+ * </ul>
+ * While on, a source arrives at the rate that makes the mean rate of all
+ * the sources the rate of the phase.
+ */
+public class ParetoOnOffArrivals extends ArrivalProcess {
+
+    private final double on;
+    private final double off;
+    private final double shape;
+
+    private final boolean[] isOn;
+    private final long[] periodStartNs;
+    private final long[] periodEndNs;
+    private final long[] nextNs;
+    private boolean started = false;
+
+    public ParetoOnOffArrivals(Map<String, String> params, SplittableRandom random) {
+        super(random);
+        validate(params);
+        this.on = getDouble(params, "on", 1);
+        this.off = getDouble(params, "off", 1);
+        this.shape = getDouble(params, "shape", 1.5);
+        this.isOn = new boolean[(int) getDouble(params, "sources", 1)];
+        this.periodStartNs = new long[isOn.length];
+        this.periodEndNs = new long[isOn.length];
+        this.nextNs = new long[isOn.length];
+    }
+
+    static void validate(Map<String, String> params) {
+        double on = getDouble(params, "on", 1);
+        double off = getDouble(params, "off", 1);
+        double shape = getDouble(params, "shape", 1.5);
+        double sources = getDouble(params, "sources", 1);
+        if (on <= 0 || off <= 0) {
+            throw new IllegalArgumentException("pareto on and off periods must be positive");
+        }
+        if (shape <= 1) {
+            throw new IllegalArgumentException("pareto shape must be greater than 1 for the periods to have a mean");
+        }
+        if (sources < 1 || sources != Math.rint(sources)) {
+            throw new IllegalArgumentException("pareto sources must be a positive whole number");
+        }
+    }
+
+    @Override
+    public long next(long previousNs, double rate) {
+        if (rate <= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (!started) {
+            for (int i = 0; i < isOn.length; i++) {
+                // Start each source part way through a period, so they do
+                // not all switch together
+                isOn[i] = random.nextDouble() < on / (on + off);
+                periodStartNs[i] = previousNs;
+                periodEndNs[i] = previousNs + (long) (random.nextDouble() * periodNs(isOn[i]));
+                nextNs[i] = previousNs;
+            }
+            started = true;
+        }
+
+        double peak = getPeak(rate);
+        int first = 0;
+        for (int i = 0; i < isOn.length; i++) {
+            if (nextNs[i] <= previousNs) {
+                nextNs[i] = advance(i, previousNs, peak);
+            }
+            if (nextNs[i] < nextNs[first]) {
+                first = i;
+            }
+        }
+        long next = nextNs[first];
+        // Taken, so the source draws again next time
+        nextNs[first] = previousNs;
+        return next;
+    }
+
+    /**
+     * The next arrival of source i after t
+     */
+    private long advance(int i, long t, double peak) {
+        while (true) {
+            if (t >= periodEndNs[i]) {
+                t = periodEndNs[i];
+                isOn[i] = !isOn[i];
+                periodStartNs[i] = t;
+                periodEndNs[i] = t + periodNs(isOn[i]);
+            }
+            if (!isOn[i]) {
+                t = periodEndNs[i];
+                continue;
+            }
+            long next = t + exponentialNs(peak);
+            if (next < periodEndNs[i]) {
+                return next;
+            }
+            t = periodEndNs[i];
+        }
+    }
+
+    private double getPeak(double rate) {
+        return rate / isOn.length * (on + off) / on;
+    }
+
+    private long periodNs(boolean on) {
+        double mean = on ? this.on : this.off;
+        double scale = mean * (shape - 1) / shape;
+        double period = scale / Math.pow(1 - random.nextDouble(), 1 / shape);
+        return (long) Math.min(period * 1e9, Long.MAX_VALUE / 4.0);
+    }
+
+    @Override
+    public double getRate(long nowNs, double rate) {
+        if (!started) {
+            return rate;
+        }
+        int sending = 0;
+        for (int i = 0; i < isOn.length; i++) {
+            // A source draws ahead into its next period, so by now it may
+            // still be in the one before it, or already in the one after
+            boolean inPeriod = nowNs >= periodStartNs[i] && nowNs < periodEndNs[i];
+            if (isOn[i] == inPeriod) {
+                sending++;
+            }
+        }
+        return sending * getPeak(rate);
+    }
+}
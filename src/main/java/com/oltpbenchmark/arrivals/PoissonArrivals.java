@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.arrivals;
+
+import java.util.SplittableRandom;
+
+/**
+ * Independent arrivals, with exponentially distributed gaps
+ */
+public class PoissonArrivals extends ArrivalProcess {
+
+    public PoissonArrivals(SplittableRandom random) {
+        super(random);
+    }
+
+    @Override
+    public long next(long previousNs, double rate) {
+        return rate > 0 ? previousNs + exponentialNs(rate) : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.arrivals;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Poisson arrivals whose rate rises and falls like a sine wave around the
+ * rate of the phase, such as a day of traffic squeezed into a phase.
+ * <ul>
+ * <li>amplitude: how far the rate swings, as a fraction of the rate,
+ * between 0 and 1, default 0.5</li>
+ * <li>period: the seconds that one swing takes, default 60</li>
+ * </ul>
+ */
+public class SinusoidalArrivals extends ArrivalProcess {
+
+    private final double amplitude;
+    private final double periodNs;
+
+    private long originNs;
+    private boolean started = false;
+
+    public SinusoidalArrivals(Map<String, String> params, SplittableRandom random) {
+        super(random);
+        validate(params);
+        this.amplitude = getDouble(params, "amplitude", 0.5);
+        this.periodNs = getDouble(params, "period", 60) * 1e9;
+    }
+
+    static void validate(Map<String, String> params) {
+        double amplitude = getDouble(params, "amplitude", 0.5);
+        double period = getDouble(params, "period", 60);
+        if (amplitude < 0 || amplitude > 1) {
+            throw new IllegalArgumentException("sinusoidal amplitude must be between 0 and 1");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("sinusoidal period must be positive");
+        }
+    }
+
+    @Override
+    public long next(long previousNs, double rate) {
+        if (rate <= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (!started) {
+            originNs = previousNs;
+            started = true;
+        }
+        // Thinning: draw at the peak rate and keep each arrival with the
+        // chance that the rate at its time is of the peak
+        double peak = rate * (1 + amplitude);
+        long t = previousNs;
+        while (true) {
+            t += exponentialNs(peak);
+            if (random.nextDouble() * peak <= getRate(t, rate)) {
+                return t;
+            }
+        }
+    }
+
+    @Override
+    public double getRate(long nowNs, double rate) {
+        if (!started) {
+            return rate;
+        }
+        return rate * (1 + amplitude * Math.sin(2 * Math.PI * (nowNs - originNs) / periodNs));
+    }
+}
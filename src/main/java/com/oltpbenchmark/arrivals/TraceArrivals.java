@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.arrivals;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Replays the gaps between arrivals recorded in a file, such as one taken
+ * from the log of a production system.
+ * <ul>
+ * <li>file: the file of gaps, one per line in the first field of the line,
+ * skipping empty lines and lines that start with #</li>
+ * <li>unit: the unit of the gaps, s, ms, us or ns, default ms</li>
+ * </ul>
+ * The gaps are scaled so that their mean rate is the rate of the phase, and
+ * so keep the shape of the trace at any rate; to replay the trace as it was
+ * recorded, set the rate of the phase to the mean rate of the trace. When
+ * the trace runs out it starts over.
+ */
+public class TraceArrivals extends ArrivalProcess {
+    private static final Logger LOG = LoggerFactory.getLogger(TraceArrivals.class);
+
+    private final double[] gaps;
+    private final double meanGap;
+    private final double unit;
+    private int position = 0;
+
+    public TraceArrivals(Map<String, String> params, SplittableRandom random) {
+        super(random);
+        validate(params);
+        String file = params.get("file");
+        this.unit = getUnit(params.getOrDefault("unit", "ms"));
+        this.gaps = read(Paths.get(file));
+        double sum = 0;
+        for (double gap : gaps) {
+            sum += gap;
+        }
+        if (gaps.length == 0 || sum <= 0) {
+            throw new IllegalArgumentException(String.format("trace %s has no gaps", file));
+        }
+        this.meanGap = sum / gaps.length;
+        LOG.info(String.format("The trace %s was recorded at %.2f requests/second", file, getRecordedRate()));
+    }
+
+    /**
+     * Checks the parameters and that the file can be read, without reading
+     * it
+     */
+    static void validate(Map<String, String> params) {
+        String file = params.get("file");
+        if (file == null) {
+            throw new IllegalArgumentException("trace needs a file");
+        }
+        getUnit(params.getOrDefault("unit", "ms"));
+        Path path = Paths.get(file);
+        if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+            throw new IllegalArgumentException(String.format("trace %s can't be read", file));
+        }
+    }
+
+    /**
+     * The mean rate of the trace as recorded, per second
+     */
+    public double getRecordedRate() {
+        return unit / meanGap;
+    }
+
+    @Override
+    public long next(long previousNs, double rate) {
+        if (rate <= 0) {
+            return Long.MAX_VALUE;
+        }
+        double gap = gaps[position];
+        position = (position + 1) % gaps.length;
+        return previousNs + (long) (gap / meanGap / rate * 1e9);
+    }
+
+    private static double getUnit(String unit) {
+        switch (unit) {
+            case "s":
+                return 1;
+            case "ms":
+                return 1e3;
+            case "us":
+                return 1e6;
+            case "ns":
+                return 1e9;
+            default:
+                throw new IllegalArgumentException(String.format("trace unit must be s, ms, us or ns, not '%s'", unit));
+        }
+    }
+
+    private static double[] read(Path file) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(String.format("trace %s can't be read: %s", file, ex.getMessage()), ex);
+        }
+        List<Double> gaps = new ArrayList<>();
+        int number = 0;
+        for (String line : lines) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String field = line.split("[\\s,;]+")[0];
+            try {
+                double gap = Double.parseDouble(field);
+                if (gap < 0) {
+                    throw new NumberFormatException();
+                }
+                gaps.add(gap);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(String.format("trace %s line %d has no gap: '%s'", file, number, line));
+            }
+        }
+        return gaps.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+}
@@ -164,9 +164,13 @@ public class AuctionMarkLoader extends Loader<AuctionMarkBenchmark> {
 
         final CountDownLatch loadLatch = new CountDownLatch(this.generators.size());
 
+        // The sub-generators consume the rows of their parent table while it
+        // is being generated, so they have to run at the same time as their
+        // parent. They are not declared as table dependencies but block on
+        // the latches of the generators, in the order they were registered.
         for (AbstractTableGenerator generator : this.generators.values()) {
             generator.init();
-            threads.add(new CountdownLoaderThread(this.benchmark, generator, loadLatch));
+            threads.add(new CountdownLoaderThread(this.benchmark, generator, loadLatch).loads(generator.getTableName()));
         }
 
         threads.add(new LoaderThread(this.benchmark) {
@@ -37,7 +37,6 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
-import java.util.concurrent.CountDownLatch;
 
 public class CHBenCHmarkLoader extends Loader<CHBenCHmark> {
     private static final RandomGenerator ran = new RandomGenerator(0);
@@ -66,7 +65,8 @@ public class CHBenCHmarkLoader extends Loader<CHBenCHmark> {
     public List<LoaderThread> createLoaderThreads() {
         List<LoaderThread> threads = new ArrayList<>();
 
-        final CountDownLatch regionLatch = new CountDownLatch(1);
+        addTableDependency("nation", "region");
+        addTableDependency("supplier", "nation");
 
         threads.add(new LoaderThread(this.benchmark) {
             @Override
@@ -76,14 +76,7 @@ public class CHBenCHmarkLoader extends Loader<CHBenCHmark> {
                     loadRegions(conn, statement);
                 }
             }
-
-            @Override
-            public void afterLoad() {
-                regionLatch.countDown();
-            }
-        });
-
-        final CountDownLatch nationLatch = new CountDownLatch(1);
+        }.loads("region"));
 
         threads.add(new LoaderThread(this.benchmark) {
             @Override
@@ -94,21 +87,7 @@ public class CHBenCHmarkLoader extends Loader<CHBenCHmark> {
                     loadNations(conn, statement);
                 }
             }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    regionLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-
-            @Override
-            public void afterLoad() {
-                nationLatch.countDown();
-            }
-        });
+        }.loads("nation"));
 
         threads.add(new LoaderThread(this.benchmark) {
             @Override
@@ -118,16 +97,7 @@ public class CHBenCHmarkLoader extends Loader<CHBenCHmark> {
                     loadSuppliers(conn, statement);
                 }
             }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    nationLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
+        }.loads("supplier"));
 
         return threads;
     }
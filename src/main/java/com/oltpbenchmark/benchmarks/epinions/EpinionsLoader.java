@@ -30,7 +30,6 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
 
 public class EpinionsLoader extends Loader<EpinionsBenchmark> {
 
@@ -62,8 +61,8 @@ public class EpinionsLoader extends Loader<EpinionsBenchmark> {
         final int numUserThreads = (int) Math.ceil((double) this.num_users / loadPerThread);
         final int numItemThreads = (int) Math.ceil((double) this.num_items / loadPerThread);
 
-        final CountDownLatch userLatch = new CountDownLatch(numUserThreads);
-        final CountDownLatch itemLatch = new CountDownLatch(numItemThreads);
+        addTableDependency("trust", "useracct");
+        addTableDependency("review", "useracct", "item");
 
         // USERACCT
         for (int i = 0; i < numUserThreads; i++) {
@@ -76,12 +75,7 @@ public class EpinionsLoader extends Loader<EpinionsBenchmark> {
                     loadUsers(conn, lo, hi);
 
                 }
-
-                @Override
-                public void afterLoad() {
-                    userLatch.countDown();
-                }
-            });
+            }.loads("useracct"));
         }
 
         // ITEM
@@ -95,12 +89,7 @@ public class EpinionsLoader extends Loader<EpinionsBenchmark> {
                     loadItems(conn, lo, hi);
 
                 }
-
-                @Override
-                public void afterLoad() {
-                    itemLatch.countDown();
-                }
-            });
+            }.loads("item"));
         }
 
         // TRUST depends on USERACCT
@@ -118,16 +107,7 @@ public class EpinionsLoader extends Loader<EpinionsBenchmark> {
                 public void load(Connection conn) throws SQLException {
                     loadTrust(conn, lo, hi, firstLoader);
                 }
-
-                @Override
-                public void beforeLoad() {
-                    try {
-                        userLatch.await();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            });
+            }.loads("trust"));
         }
 
         // REVIEWS depends on USERACCT, ITEM
@@ -140,17 +120,7 @@ public class EpinionsLoader extends Loader<EpinionsBenchmark> {
                 public void load(Connection conn) throws SQLException {
                     loadReviews(conn, lo, hi);
                 }
-
-                @Override
-                public void beforeLoad() {
-                    try {
-                        userLatch.await();
-                        itemLatch.await();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            });
+            }.loads("review"));
         }
 
         return threads;
@@ -32,7 +32,6 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
 
 /**
  * OtterTune Metrics Timeseries Benchmark
@@ -50,19 +49,15 @@ public class OTMetricsLoader extends Loader<OTMetricsBenchmark> {
         final int numLoaders = this.benchmark.getWorkloadConfiguration().getLoaderThreads();
         final int loadPerThread = Math.max(this.benchmark.num_sessions / numLoaders, 1);
 
+        addTableDependency(OTMetricsConstants.TABLENAME_SESSIONS, OTMetricsConstants.TABLENAME_SOURCES, OTMetricsConstants.TABLENAME_TYPES);
+
         // SOURCES
-        final CountDownLatch sourcesLatch = new CountDownLatch(1);
-        final CountDownLatch typesLatch = new CountDownLatch(1);
         threads.add(new LoaderThread(this.benchmark) {
             @Override
             public void load(Connection conn) throws SQLException {
                 loadSources(conn);
             }
-            @Override
-            public void afterLoad() {
-                sourcesLatch.countDown();
-            }
-        });
+        }.loads(OTMetricsConstants.TABLENAME_SOURCES));
 
         // TYPES
         threads.add(new LoaderThread(this.benchmark) {
@@ -70,11 +65,7 @@ public class OTMetricsLoader extends Loader<OTMetricsBenchmark> {
             public void load(Connection conn) throws SQLException {
                 loadTypes(conn);
             }
-            @Override
-            public void afterLoad() {
-                typesLatch.countDown();
-            }
-        });
+        }.loads(OTMetricsConstants.TABLENAME_TYPES));
 
         // SESSIONS
         for (int i = 0; i < numLoaders; i++) {
@@ -86,17 +77,7 @@ public class OTMetricsLoader extends Loader<OTMetricsBenchmark> {
                 public void load(Connection conn) throws SQLException {
                     loadSessions(conn, lo, hi);
                 }
-
-                @Override
-                public void beforeLoad() {
-                    try {
-                        sourcesLatch.await();
-                        typesLatch.await();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            });
+            }.loads(OTMetricsConstants.TABLENAME_SESSIONS, OTMetricsConstants.TABLENAME_OBSERVATIONS));
         }
 
         return threads;
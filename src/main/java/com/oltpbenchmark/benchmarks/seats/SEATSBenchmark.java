@@ -31,10 +31,12 @@ import java.util.List;
 
 public class SEATSBenchmark extends BenchmarkModule {
 
-    private final RandomGenerator rng = new RandomGenerator((int) System.currentTimeMillis());
+    private final RandomGenerator rng;
 
     public SEATSBenchmark(WorkloadConfiguration workConf) {
         super(workConf);
+        int seed = workConf.getRandomSeed();
+        this.rng = new RandomGenerator(seed != -1 ? seed : (int) System.currentTimeMillis());
         this.registerSupplementalProcedure(LoadConfig.class);
     }
 
@@ -19,6 +19,7 @@ package com.oltpbenchmark.benchmarks.seats;
 
 import com.oltpbenchmark.api.Loader;
 import com.oltpbenchmark.api.LoaderThread;
+import com.oltpbenchmark.api.RowSink;
 import com.oltpbenchmark.benchmarks.seats.util.*;
 import com.oltpbenchmark.catalog.Column;
 import com.oltpbenchmark.catalog.Table;
@@ -33,7 +34,6 @@ import org.apache.commons.collections4.set.ListOrderedSet;
 import java.sql.*;
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -44,6 +44,13 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
     // INTERNAL DATA MEMBERS
     // -----------------------------------------------------------------
 
+    /**
+     * Names of the loading steps that do not fill a table
+     */
+    private static final String HISTOGRAMS = "histograms";
+    private static final String SCALING_PREP = "scaling_prep";
+    private static final String PROFILE = "profile";
+
     protected final SEATSProfile profile;
 
     /**
@@ -96,32 +103,36 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
     // LOADING METHODS
     // -----------------------------------------------------------------
 
+    @Override
+    public boolean supportsFileGeneration() {
+        return true;
+    }
+
     @Override
     public List<LoaderThread> createLoaderThreads() {
         List<LoaderThread> threads = new ArrayList<>();
 
-        // High level locking overview, where step N+1 depends on step N
-        // and latches are countDown()'d from top to bottom:
+        // High level overview, where step N+1 depends on step N:
         //
-        // 1. [histLatch] Histograms will be loaded on their own
+        // 1. Histograms will be loaded on their own
         //
-        // FIXED TABLES [fixedLatch]
+        // FIXED TABLES
         // 2.
-        // [countryLatch] Country will be loaded on their own
+        // COUNTRY will be loaded on their own
         // AIRPORT depends on COUNTRY
         // AIRLINE depends on COUNTRY
         //
-        // 3. [scalePrepLatch]
+        // 3. [scaling prep]
         // We need to load fixed table data into histograms before we
         // start to load scaling tables
         //
         // SCALING TABLES
         // 4.
-        // [custLatch] CUSTOMER depends on AIRPORT
-        // [distanceLatch] AIRPORT_DISTANCE depends on AIRPORT
-        // [flightLatch] FLIGHT depends on AIRLINE, AIRPORT, AIRPORT_DISTANCE
+        // CUSTOMER depends on AIRPORT
+        // AIRPORT_DISTANCE depends on AIRPORT
+        // FLIGHT depends on AIRLINE, AIRPORT, AIRPORT_DISTANCE
         //
-        // 5. [loadLatch]
+        // 5.
         // RESERVATIONS depends on FLIGHT, CUSTOMER
         // FREQUENT_FLYER depends on FLIGHT, CUSTOMER, AIRLINE
         //
@@ -132,268 +143,64 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
         //
         // 6. Then we save the profile
 
-        final CountDownLatch histLatch = new CountDownLatch(1);
-
-        // 1. [histLatch] HISTOGRAMS
+        addTableDependency(SEATSConstants.TABLENAME_COUNTRY, HISTOGRAMS);
+        addTableDependency(SEATSConstants.TABLENAME_AIRPORT, SEATSConstants.TABLENAME_COUNTRY);
+        addTableDependency(SEATSConstants.TABLENAME_AIRLINE, SEATSConstants.TABLENAME_COUNTRY);
+        // The scaling prep guards all of the fixed tables, the scaling
+        // tables depend on it instead of on the individual fixed tables
+        addTableDependency(SCALING_PREP, SEATSConstants.TABLENAME_COUNTRY, SEATSConstants.TABLENAME_AIRPORT, SEATSConstants.TABLENAME_AIRLINE);
+        addTableDependency(SEATSConstants.TABLENAME_CUSTOMER, SCALING_PREP);
+        addTableDependency(SEATSConstants.TABLENAME_AIRPORT_DISTANCE, SCALING_PREP);
+        addTableDependency(SEATSConstants.TABLENAME_FLIGHT, SEATSConstants.TABLENAME_AIRPORT_DISTANCE);
+        addTableDependency(SEATSConstants.TABLENAME_RESERVATION, SEATSConstants.TABLENAME_FLIGHT, SEATSConstants.TABLENAME_CUSTOMER);
+        addTableDependency(SEATSConstants.TABLENAME_FREQUENT_FLYER, SEATSConstants.TABLENAME_FLIGHT, SEATSConstants.TABLENAME_CUSTOMER);
+        addTableDependency(PROFILE, SEATSConstants.TABLENAME_RESERVATION, SEATSConstants.TABLENAME_FREQUENT_FLYER);
+
+        // 1. HISTOGRAMS
         threads.add(new LoaderThread(this.benchmark) {
             @Override
             public void load(Connection conn) {
                 loadHistograms();
             }
+        }.loads(HISTOGRAMS));
 
-            @Override
-            public void afterLoad() {
-                histLatch.countDown();
-            }
-        });
-
-        final CountDownLatch fixedLatch = new CountDownLatch(3);
-        final CountDownLatch countryLatch = new CountDownLatch(1);
-
-        // 2. [countryLatch] COUNTRY
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) {
-                loadFixedTable(conn, SEATSConstants.TABLENAME_COUNTRY);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    histLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-
-            @Override
-            public void afterLoad() {
-                fixedLatch.countDown();
-                countryLatch.countDown();
-            }
-        });
-
-        // 2. AIRPORT depends on COUNTRY
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) {
-                loadFixedTable(conn, SEATSConstants.TABLENAME_AIRPORT);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    countryLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-
-            @Override
-            public void afterLoad() {
-                fixedLatch.countDown();
-            }
-        });
-
-        // 2. AIRLINE depends on COUNTRY
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) {
-                loadFixedTable(conn, SEATSConstants.TABLENAME_AIRLINE);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    countryLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
+        // 2. FIXED TABLES
+        for (String tableName : new String[]{SEATSConstants.TABLENAME_COUNTRY, SEATSConstants.TABLENAME_AIRPORT, SEATSConstants.TABLENAME_AIRLINE}) {
+            threads.add(new LoaderThread(this.benchmark) {
+                @Override
+                public void load(Connection conn) {
+                    loadFixedTable(conn, tableName);
                 }
+            }.loads(tableName));
+        }
 
-            }
-
-            @Override
-            public void afterLoad() {
-                fixedLatch.countDown();
-            }
-        });
-
-        final CountDownLatch scalingPrepLatch = new CountDownLatch(1);
-
-        // 3. [scalingPrepLatch] guards all of the fixed tables and should
-        // be used from this point onwards instead of individual fixed locks
+        // 3. SCALING PREP
         threads.add(new LoaderThread(this.benchmark) {
             @Override
             public void load(Connection conn) {
                 // Setup the # of flights per airline
                 flights_per_airline.putAll(SEATSLoader.this.profile.getAirlineCodes(), 0);
             }
+        }.loads(SCALING_PREP));
 
-            @Override
-            public void beforeLoad() {
-                try {
-                    fixedLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-
-            @Override
-            public void afterLoad() {
-                scalingPrepLatch.countDown();
-            }
-        });
-
-        final CountDownLatch custLatch = new CountDownLatch(1);
-        final CountDownLatch distanceLatch = new CountDownLatch(1);
-        final CountDownLatch flightLatch = new CountDownLatch(1);
-
-        // 4. [custLatch] CUSTOMER depends on AIRPORT
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) {
-
-                loadScalingTable(conn, SEATSConstants.TABLENAME_CUSTOMER);
-
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    scalingPrepLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-
-            }
-
-            @Override
-            public void afterLoad() {
-                custLatch.countDown();
-            }
-        });
-
-        // 4. AIRPORT_DISTANCE depends on AIRPORT
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) {
-
-
-                loadScalingTable(conn, SEATSConstants.TABLENAME_AIRPORT_DISTANCE);
-
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    scalingPrepLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-
-            @Override
-            public void afterLoad() {
-                distanceLatch.countDown();
-            }
-        });
-
-        // 4. [flightLatch] FLIGHT depends on AIRPORT_DISTANCE, AIRLINE, AIRPORT
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) {
-
-
-                loadScalingTable(conn, SEATSConstants.TABLENAME_FLIGHT);
-
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    distanceLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-
-            @Override
-            public void afterLoad() {
-                flightLatch.countDown();
-            }
-        });
-
-        final CountDownLatch loadLatch = new CountDownLatch(2);
-
-        // 5. RESERVATIONS depends on FLIGHT, CUSTOMER
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) {
-
-
-                loadScalingTable(conn, SEATSConstants.TABLENAME_RESERVATION);
-
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    flightLatch.await();
-                    custLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-
-            @Override
-            public void afterLoad() {
-                loadLatch.countDown();
-            }
-        });
-
-        // 5. FREQUENT_FLYER depends on FLIGHT, CUSTOMER, AIRLINE
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) {
-
-                loadScalingTable(conn, SEATSConstants.TABLENAME_FREQUENT_FLYER);
-
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    flightLatch.await();
-                    custLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
+        // 4. + 5. SCALING TABLES
+        for (String tableName : new String[]{SEATSConstants.TABLENAME_CUSTOMER, SEATSConstants.TABLENAME_AIRPORT_DISTANCE, SEATSConstants.TABLENAME_FLIGHT,
+                SEATSConstants.TABLENAME_RESERVATION, SEATSConstants.TABLENAME_FREQUENT_FLYER}) {
+            threads.add(new LoaderThread(this.benchmark) {
+                @Override
+                public void load(Connection conn) {
+                    loadScalingTable(conn, tableName);
                 }
+            }.loads(tableName));
+        }
 
-            }
-
-            @Override
-            public void afterLoad() {
-                loadLatch.countDown();
-            }
-        });
-
+        // 6. PROFILE
         threads.add(new LoaderThread(this.benchmark) {
             @Override
             public void load(Connection conn) throws SQLException {
-                profile.saveProfile(conn);
+                profile.saveProfile(SEATSLoader.this, conn);
             }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    loadLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-
-            }
-
-        });
+        }.loads(PROFILE));
 
         return threads;
     }
@@ -471,7 +278,7 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
         try {
             Table catalog_tbl = this.benchmark.getCatalog().getTable(table_name);
             try (FixedDataIterable iterable = this.getFixedIterable(catalog_tbl)) {
-                this.loadTable(conn, catalog_tbl, iterable, workConf.getBatchSize());
+                this.loadTable(conn, catalog_tbl, iterable);
             }
 
         } catch (Throwable ex) {
@@ -490,7 +297,7 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
         try {
             Table catalog_tbl = this.benchmark.getCatalog().getTable(table_name);
             Iterable<Object[]> iterable = this.getScalingIterable(catalog_tbl);
-            this.loadTable(conn, catalog_tbl, iterable, workConf.getBatchSize());
+            this.loadTable(conn, catalog_tbl, iterable);
         } catch (Throwable ex) {
             throw new RuntimeException("Failed to load data files for scaling-sized table '" + table_name + "'", ex);
         }
@@ -499,12 +306,12 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
     /**
      * @param catalog_tbl
      */
-    public void loadTable(Connection conn, Table catalog_tbl, Iterable<Object[]> iterable, int batch_size) {
+    public void loadTable(Connection conn, Table catalog_tbl, Iterable<Object[]> iterable) {
         // Special Case: Airport Locations
         final boolean is_airport = catalog_tbl.getName().equalsIgnoreCase(SEATSConstants.TABLENAME_AIRPORT);
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug(String.format("Generating new records for table %s [batchSize=%d]", catalog_tbl.getName().toLowerCase(), batch_size));
+            LOG.debug(String.format("Generating new records for table %s", catalog_tbl.getName().toLowerCase()));
         }
         final List<Column> columns = catalog_tbl.getColumns();
 
@@ -539,10 +346,8 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
         }
 
         int row_idx = 0;
-        int row_batch = 0;
 
-        String insert_sql = SQLUtil.getInsertSQL(catalog_tbl, this.getDatabaseType());
-        try (PreparedStatement insert_stmt = conn.prepareStatement(insert_sql)) {
+        try (RowSink sink = this.newRowSink(conn, catalog_tbl)) {
             int[] sqlTypes = catalog_tbl.getColumnTypes();
 
             for (Object[] tuple : iterable) {
@@ -612,29 +417,17 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
                 for (int i = 0; i < tuple.length; i++) {
                     try {
                         if (tuple[i] != null) {
-                            insert_stmt.setObject(i + 1, tuple[i]);
+                            sink.setObject(i + 1, tuple[i]);
                         } else {
-                            insert_stmt.setNull(i + 1, sqlTypes[i]);
+                            sink.setNull(i + 1, sqlTypes[i]);
                         }
                     } catch (SQLDataException ex) {
                         LOG.error("INVALID {} TUPLE: {}", catalog_tbl.getName().toLowerCase(), Arrays.toString(tuple));
                         throw new RuntimeException("Failed to set value for " + catalog_tbl.getColumn(i).getName().toLowerCase(), ex);
                     }
                 }
-                insert_stmt.addBatch();
+                sink.addRow();
                 row_idx++;
-
-                if (++row_batch >= batch_size) {
-                    LOG.trace(String.format("Loading %s batch [total=%d]", catalog_tbl.getName().toLowerCase(), row_idx));
-                    insert_stmt.executeBatch();
-                    insert_stmt.clearBatch();
-                    row_batch = 0;
-                }
-
-            }
-
-            if (row_batch > 0) {
-                insert_stmt.executeBatch();
             }
 
         } catch (Exception ex) {
@@ -771,6 +564,11 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
         protected long total;
         private long last_id = 0;
 
+        /**
+         * Generates the values of the columns that are not special
+         */
+        protected RandomGenerator rng = SEATSLoader.this.rng;
+
         /**
          * @param catalog_tbl
          * @param total
@@ -856,12 +654,12 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
                             // SQLite incorrectly reports that the size of the column was massive for the customer
                             // table, so then we would allocate 2GB strings.
                             int max_len = catalog_col.getSize();
-                            int min_len = SEATSLoader.this.rng.nextInt(max_len - 1);
-                            ScalingDataIterable.this.data[i] = SEATSLoader.this.rng.astring(min_len, max_len);
+                            int min_len = ScalingDataIterable.this.rng.nextInt(max_len - 1);
+                            ScalingDataIterable.this.data[i] = ScalingDataIterable.this.rng.astring(min_len, max_len);
 
                         // Ints/Longs
                         } else {
-                            ScalingDataIterable.this.data[i] = SEATSLoader.this.rng.number(0, 1 << 30);
+                            ScalingDataIterable.this.data[i] = ScalingDataIterable.this.rng.number(0, 1 << 30);
                         }
                     }
                     ScalingDataIterable.this.last_id++;
@@ -1221,7 +1019,7 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
             this.flight_times = new FlatHistogram<>(SEATSLoader.this.rng, histogram);
 
             // Figure out how many flights that we want for each day
-            this.today = new Timestamp(System.currentTimeMillis());
+            this.today = new Timestamp(getLoadTime());
 
             // Sometimes there are more flights per day, and sometimes there are
             // fewer
@@ -1435,7 +1233,7 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
     // RESERVATIONS
     // ----------------------------------------------------------------
     protected class ReservationIterable extends ScalingDataIterable {
-        private final RandomDistribution.Flat prices = new RandomDistribution.Flat(SEATSLoader.this.rng, SEATSConstants.RESERVATION_PRICE_MIN, SEATSConstants.RESERVATION_PRICE_MAX);
+        private final RandomDistribution.Flat prices;
 
         /**
          * For each airport id, store a list of ReturnFlight objects that
@@ -1475,6 +1273,12 @@ public class SEATSLoader extends Loader<SEATSBenchmark> {
                 this.airport_returns.put(airport_id, new TreeSet<>());
             }
 
+            // The values that are generated here, rather than in the data
+            // generation thread, come from a generator of their own so that
+            // the two threads do not race for the same one
+            this.rng = new RandomGenerator(SEATSLoader.this.rng.nextInt());
+            this.prices = new RandomDistribution.Flat(this.rng, SEATSConstants.RESERVATION_PRICE_MIN, SEATSConstants.RESERVATION_PRICE_MAX);
+
             // Data Generation Thread
             // Ok, hang on tight. We are going to fork off a separate thread to
             // generate our tuples because it's easier than trying to pick up
@@ -17,6 +17,7 @@
 
 package com.oltpbenchmark.benchmarks.seats;
 
+import com.oltpbenchmark.api.RowSink;
 import com.oltpbenchmark.benchmarks.seats.procedures.Config;
 import com.oltpbenchmark.benchmarks.seats.procedures.LoadConfig;
 import com.oltpbenchmark.benchmarks.seats.util.CustomerId;
@@ -30,7 +31,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.*;
@@ -192,42 +192,38 @@ public class SEATSProfile {
     /**
      * Save the profile information into the database
      */
-    protected final void saveProfile(Connection conn) throws SQLException {
+    protected final void saveProfile(SEATSLoader loader, Connection conn) throws SQLException {
 
         // CONFIG_PROFILE
         Table profileTable = benchmark.getCatalog().getTable(SEATSConstants.TABLENAME_CONFIG_PROFILE);
-        String profileSql = SQLUtil.getInsertSQL(profileTable, this.benchmark.getWorkloadConfiguration().getDatabaseType());
-
-        try (PreparedStatement stmt = conn.prepareStatement(profileSql)) {
+        try (RowSink sink = loader.newRowSink(conn, profileTable)) {
             int param_idx = 1;
-            stmt.setObject(param_idx++, this.scale_factor); // CFP_SCALE_FACTOR
-            stmt.setObject(param_idx++, this.airport_max_customer_id.toJSONString()); // CFP_AIPORT_MAX_CUSTOMER
-            stmt.setObject(param_idx++, this.flight_start_date); // CFP_FLIGHT_START
-            stmt.setObject(param_idx++, this.flight_upcoming_date); // CFP_FLIGHT_UPCOMING
-            stmt.setObject(param_idx++, this.flight_past_days); // CFP_FLIGHT_PAST_DAYS
-            stmt.setObject(param_idx++, this.flight_future_days); // CFP_FLIGHT_FUTURE_DAYS
-            stmt.setObject(param_idx++, this.flight_upcoming_offset); // CFP_FLIGHT_OFFSET
-            stmt.setObject(param_idx++, this.reservation_upcoming_offset); // CFP_RESERVATION_OFFSET
-            stmt.setObject(param_idx++, this.num_reservations); // CFP_NUM_RESERVATIONS
-            stmt.setObject(param_idx, JSONUtil.toJSONString(this.code_id_xref)); // CFP_CODE_ID_XREF
-            int result = stmt.executeUpdate();
+            sink.setObject(param_idx++, this.scale_factor); // CFP_SCALE_FACTOR
+            sink.setObject(param_idx++, this.airport_max_customer_id.toJSONString()); // CFP_AIPORT_MAX_CUSTOMER
+            sink.setObject(param_idx++, this.flight_start_date); // CFP_FLIGHT_START
+            sink.setObject(param_idx++, this.flight_upcoming_date); // CFP_FLIGHT_UPCOMING
+            sink.setObject(param_idx++, this.flight_past_days); // CFP_FLIGHT_PAST_DAYS
+            sink.setObject(param_idx++, this.flight_future_days); // CFP_FLIGHT_FUTURE_DAYS
+            sink.setObject(param_idx++, this.flight_upcoming_offset); // CFP_FLIGHT_OFFSET
+            sink.setObject(param_idx++, this.reservation_upcoming_offset); // CFP_RESERVATION_OFFSET
+            sink.setObject(param_idx++, this.num_reservations); // CFP_NUM_RESERVATIONS
+            sink.setObject(param_idx, JSONUtil.toJSONString(this.code_id_xref)); // CFP_CODE_ID_XREF
+            sink.addRow();
+        }
 
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Saved profile information into {}", profileTable.getName());
-            }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Saved profile information into {}", profileTable.getName());
         }
 
         // CONFIG_HISTOGRAMS
         Table histogramsTable = benchmark.getCatalog().getTable(SEATSConstants.TABLENAME_CONFIG_HISTOGRAMS);
-        String histogramSql = SQLUtil.getInsertSQL(histogramsTable, this.benchmark.getWorkloadConfiguration().getDatabaseType());
-        try (PreparedStatement stmt = conn.prepareStatement(histogramSql)) {
+        try (RowSink sink = loader.newRowSink(conn, histogramsTable)) {
             for (Entry<String, Histogram<String>> e : this.airport_histograms.entrySet()) {
                 int param_idx = 1;
-                stmt.setObject(param_idx++, e.getKey()); // CFH_NAME
-                stmt.setObject(param_idx++, e.getValue().toJSONString()); // CFH_DATA
-                stmt.setObject(param_idx, 1); // CFH_IS_AIRPORT
-                int result = stmt.executeUpdate();
-
+                sink.setObject(param_idx++, e.getKey()); // CFH_NAME
+                sink.setObject(param_idx++, e.getValue().toJSONString()); // CFH_DATA
+                sink.setObject(param_idx, 1); // CFH_IS_AIRPORT
+                sink.addRow();
             }
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Saved airport histogram information into {}", histogramsTable.getName());
@@ -235,11 +231,10 @@ public class SEATSProfile {
 
             for (Entry<String, Histogram<String>> e : this.histograms.entrySet()) {
                 int param_idx = 1;
-                stmt.setObject(param_idx++, e.getKey()); // CFH_NAME
-                stmt.setObject(param_idx++, e.getValue().toJSONString()); // CFH_DATA
-                stmt.setObject(param_idx, 0); // CFH_IS_AIRPORT
-                int result = stmt.executeUpdate();
-
+                sink.setObject(param_idx++, e.getKey()); // CFH_NAME
+                sink.setObject(param_idx++, e.getValue().toJSONString()); // CFH_DATA
+                sink.setObject(param_idx, 0); // CFH_IS_AIRPORT
+                sink.addRow();
             }
 
             if (LOG.isDebugEnabled()) {
@@ -28,7 +28,6 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
 
 public class TATPLoader extends Loader<TATPBenchmark> {
     private final long subscriberSize;
@@ -47,7 +46,9 @@ public class TATPLoader extends Loader<TATPBenchmark> {
         final int numLoaders = this.benchmark.getWorkloadConfiguration().getLoaderThreads();
         final long itemsPerThread = Math.max(this.subscriberSize / numLoaders, 1);
         final int numSubThreads = (int) Math.ceil((double) this.subscriberSize / itemsPerThread);
-        final CountDownLatch subLatch = new CountDownLatch(numSubThreads);
+        addTableDependency(TATPConstants.TABLENAME_ACCESS_INFO, TATPConstants.TABLENAME_SUBSCRIBER);
+        addTableDependency(TATPConstants.TABLENAME_SPECIAL_FACILITY, TATPConstants.TABLENAME_SUBSCRIBER);
+        addTableDependency(TATPConstants.TABLENAME_CALL_FORWARDING, TATPConstants.TABLENAME_SPECIAL_FACILITY);
 
         // SUBSCRIBER
         for (int i = 0; i < numSubThreads; i++) {
@@ -60,12 +61,7 @@ public class TATPLoader extends Loader<TATPBenchmark> {
                     genSubscriber(conn, lo, hi);
 
                 }
-
-                @Override
-                public void afterLoad() {
-                    subLatch.countDown();
-                }
-            });
+            }.loads(TATPConstants.TABLENAME_SUBSCRIBER));
         }
 
         // ACCESS_INFO depends on SUBSCRIBER
@@ -74,16 +70,7 @@ public class TATPLoader extends Loader<TATPBenchmark> {
             public void load(Connection conn) throws SQLException {
                 genAccessInfo(conn);
             }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    subLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
+        }.loads(TATPConstants.TABLENAME_ACCESS_INFO));
 
         // SPECIAL_FACILITY SPE and CALL_FORWARDING CAL
         // SPE depends on SUBSCRIBER, CAL depends on SPE
@@ -92,16 +79,7 @@ public class TATPLoader extends Loader<TATPBenchmark> {
             public void load(Connection conn) throws SQLException {
                 genSpeAndCal(conn);
             }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    subLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
+        }.loads(TATPConstants.TABLENAME_SPECIAL_FACILITY, TATPConstants.TABLENAME_CALL_FORWARDING));
 
         return threads;
     }
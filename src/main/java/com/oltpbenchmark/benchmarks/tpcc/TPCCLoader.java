@@ -20,15 +20,13 @@ package com.oltpbenchmark.benchmarks.tpcc;
 
 import com.oltpbenchmark.api.Loader;
 import com.oltpbenchmark.api.LoaderThread;
+import com.oltpbenchmark.api.RowSink;
 import com.oltpbenchmark.benchmarks.tpcc.pojo.*;
-import com.oltpbenchmark.catalog.Table;
-import com.oltpbenchmark.util.SQLUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.CountDownLatch;
 
 /**
  * TPC-C Benchmark Loader
@@ -37,6 +35,11 @@ public class TPCCLoader extends Loader<TPCCBenchmark> {
 
     private static final int FIRST_UNPROCESSED_O_ID = 2101;
 
+    /**
+     * The STOCK of a warehouse is loaded in this many ranges of items
+     */
+    private static final int STOCK_PARTS = 10;
+
     private final long numWarehouses;
 
     public TPCCLoader(TPCCBenchmark benchmark) {
@@ -44,119 +47,157 @@ public class TPCCLoader extends Loader<TPCCBenchmark> {
         numWarehouses = Math.max(Math.round(TPCCConfig.configWhseCount * this.scaleFactor), 1);
     }
 
+    @Override
+    public boolean supportsResume() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsFileGeneration() {
+        return true;
+    }
+
     @Override
     public List<LoaderThread> createLoaderThreads() {
         List<LoaderThread> threads = new ArrayList<>();
-        final CountDownLatch itemLatch = new CountDownLatch(1);
+
+        // Each table of a warehouse is loaded by LoaderThreads of its own, for
+        // each district or range of items where it has them. They are in the
+        // warehouse's partition, so they only wait for the tables they
+        // reference in the same warehouse, and for ITEM.
+        addTableDependency(TPCCConstants.TABLENAME_DISTRICT, TPCCConstants.TABLENAME_WAREHOUSE);
+        addTableDependency(TPCCConstants.TABLENAME_STOCK, TPCCConstants.TABLENAME_WAREHOUSE, TPCCConstants.TABLENAME_ITEM);
+        addTableDependency(TPCCConstants.TABLENAME_CUSTOMER, TPCCConstants.TABLENAME_DISTRICT);
+        addTableDependency(TPCCConstants.TABLENAME_HISTORY, TPCCConstants.TABLENAME_CUSTOMER);
+        addTableDependency(TPCCConstants.TABLENAME_OPENORDER, TPCCConstants.TABLENAME_CUSTOMER);
+        addTableDependency(TPCCConstants.TABLENAME_NEWORDER, TPCCConstants.TABLENAME_OPENORDER);
+        addTableDependency(TPCCConstants.TABLENAME_ORDERLINE, TPCCConstants.TABLENAME_OPENORDER, TPCCConstants.TABLENAME_STOCK);
 
         // ITEM
-        // This will be invoked first and executed in a single thread.
         threads.add(new LoaderThread(this.benchmark) {
             @Override
             public void load(Connection conn) {
                 loadItems(conn, TPCCConfig.configItemCount);
             }
-
-            @Override
-            public void afterLoad() {
-                itemLatch.countDown();
-            }
-        });
+        }.loads(TPCCConstants.TABLENAME_ITEM));
 
         // WAREHOUSES
-        // We use a separate thread per warehouse. Each thread will load
-        // all of the tables that depend on that warehouse. They all have
-        // to wait until the ITEM table is loaded first though.
+        int itemsPerPart = (TPCCConfig.configItemCount + STOCK_PARTS - 1) / STOCK_PARTS;
         for (int w = 1; w <= numWarehouses; w++) {
             final int w_id = w;
-            LoaderThread t = new LoaderThread(this.benchmark) {
+
+            threads.add(new WarehouseLoaderThread(TPCCConstants.TABLENAME_WAREHOUSE, "w_id", w_id) {
                 @Override
                 public void load(Connection conn) {
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Starting to load WAREHOUSE {}", w_id);
-                    }
-                    // WAREHOUSE
                     loadWarehouse(conn, w_id);
+                }
+            });
 
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Starting to load STOCK {}", w_id);
-                    }
-                    // STOCK
-                    loadStock(conn, w_id, TPCCConfig.configItemCount);
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Starting to load DISTRICT {}", w_id);
-                    }
-                    // DISTRICT
+            threads.add(new WarehouseLoaderThread(TPCCConstants.TABLENAME_DISTRICT, "d_w_id", w_id) {
+                @Override
+                public void load(Connection conn) {
                     loadDistricts(conn, w_id, TPCCConfig.configDistPerWhse);
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Starting to load CUSTOMER {}", w_id);
+                }
+            });
+
+            for (int i = 1; i <= TPCCConfig.configItemCount; i += itemsPerPart) {
+                int lastItem = Math.min(i + itemsPerPart - 1, TPCCConfig.configItemCount);
+                threads.add(new WarehouseLoaderThread(TPCCConstants.TABLENAME_STOCK, "s_w_id", w_id, "s_i_id", i, lastItem) {
+                    @Override
+                    public void load(Connection conn) {
+                        loadStock(conn, w_id, this.lo, this.hi);
                     }
-                    // CUSTOMER
-                    loadCustomers(conn, w_id, TPCCConfig.configDistPerWhse, TPCCConfig.configCustPerDist);
+                });
+            }
 
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Starting to load CUSTOMER HISTORY {}", w_id);
-                    }
-                    // CUSTOMER HISTORY
-                    loadCustomerHistory(conn, w_id, TPCCConfig.configDistPerWhse, TPCCConfig.configCustPerDist);
+            for (int d = 1; d <= TPCCConfig.configDistPerWhse; d++) {
+                final int d_id = d;
 
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Starting to load ORDERS {}", w_id);
+                threads.add(new WarehouseLoaderThread(TPCCConstants.TABLENAME_CUSTOMER, "c_w_id", w_id, "c_d_id", d_id, d_id) {
+                    @Override
+                    public void load(Connection conn) {
+                        loadCustomers(conn, w_id, d_id, TPCCConfig.configCustPerDist);
                     }
-                    // ORDERS
-                    loadOpenOrders(conn, w_id, TPCCConfig.configDistPerWhse, TPCCConfig.configCustPerDist);
+                });
 
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Starting to load NEW ORDERS {}", w_id);
+                threads.add(new WarehouseLoaderThread(TPCCConstants.TABLENAME_HISTORY, "h_w_id", w_id, "h_d_id", d_id, d_id) {
+                    @Override
+                    public void load(Connection conn) {
+                        loadCustomerHistory(conn, w_id, d_id, TPCCConfig.configCustPerDist);
                     }
-                    // NEW ORDERS
-                    loadNewOrders(conn, w_id, TPCCConfig.configDistPerWhse, TPCCConfig.configCustPerDist);
+                });
 
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Starting to load ORDER LINES {}", w_id);
+                threads.add(new WarehouseLoaderThread(TPCCConstants.TABLENAME_OPENORDER, "o_w_id", w_id, "o_d_id", d_id, d_id) {
+                    @Override
+                    public void load(Connection conn) {
+                        loadOpenOrders(conn, w_id, d_id, TPCCConfig.configCustPerDist);
                     }
-                    // ORDER LINES
-                    loadOrderLines(conn, w_id, TPCCConfig.configDistPerWhse, TPCCConfig.configCustPerDist);
-
-                }
+                });
 
-                @Override
-                public void beforeLoad() {
-
-                    // Make sure that we load the ITEM table first
+                threads.add(new WarehouseLoaderThread(TPCCConstants.TABLENAME_NEWORDER, "no_w_id", w_id, "no_d_id", d_id, d_id) {
+                    @Override
+                    public void load(Connection conn) {
+                        loadNewOrders(conn, w_id, d_id, TPCCConfig.configCustPerDist);
+                    }
+                });
 
-                    try {
-                        itemLatch.await();
-                    } catch (InterruptedException ex) {
-                        throw new RuntimeException(ex);
+                threads.add(new WarehouseLoaderThread(TPCCConstants.TABLENAME_ORDERLINE, "ol_w_id", w_id, "ol_d_id", d_id, d_id) {
+                    @Override
+                    public void load(Connection conn) {
+                        loadOrderLines(conn, w_id, d_id, TPCCConfig.configCustPerDist);
                     }
-                }
-            };
-            threads.add(t);
+                });
+            }
         }
         return (threads);
     }
 
-    private PreparedStatement getInsertStatement(Connection conn, String tableName) throws SQLException {
-        Table catalog_tbl = benchmark.getCatalog().getTable(tableName);
-        String sql = SQLUtil.getInsertSQL(catalog_tbl, this.getDatabaseType());
-        return conn.prepareStatement(sql);
-    }
+    /**
+     * Loads the rows of one table for a warehouse, or for a range of its
+     * districts or items. A resumed load deletes them by the same columns.
+     */
+    private abstract class WarehouseLoaderThread extends LoaderThread {
+        private final String tableName;
+        private final String warehouseColumn;
+        private final String rangeColumn;
+        protected final int w_id;
+        protected final int lo;
+        protected final int hi;
+
+        WarehouseLoaderThread(String tableName, String warehouseColumn, int w_id) {
+            this(tableName, warehouseColumn, w_id, null, 0, 0);
+        }
 
+        WarehouseLoaderThread(String tableName, String warehouseColumn, int w_id, String rangeColumn, int lo, int hi) {
+            super(TPCCLoader.this.benchmark);
+            this.tableName = tableName;
+            this.warehouseColumn = warehouseColumn;
+            this.rangeColumn = rangeColumn;
+            this.w_id = w_id;
+            this.lo = lo;
+            this.hi = hi;
+            this.loads(tableName).inPartition(w_id);
+        }
+
+        @Override
+        public void truncate(Connection conn) throws SQLException {
+            if (this.rangeColumn == null) {
+                deleteRange(conn, this.tableName, this.warehouseColumn, this.w_id, this.w_id);
+            } else {
+                deleteRange(conn, this.tableName, this.warehouseColumn, this.w_id, this.rangeColumn, this.lo, this.hi);
+            }
+        }
+    }
 
     protected void loadItems(Connection conn, int itemCount) {
 
-        try (PreparedStatement itemPrepStmt = getInsertStatement(conn, TPCCConstants.TABLENAME_ITEM)) {
+        try (RowSink itemSink = newRowSink(conn, TPCCConstants.TABLENAME_ITEM)) {
 
-            int batchSize = 0;
             for (int i = 1; i <= itemCount; i++) {
 
                 Item item = new Item();
                 item.i_id = i;
-                item.i_name = TPCCUtil.randomStr(TPCCUtil.randomNumber(14, 24, benchmark.rng()));
+                item.i_name = TPCCUtil.randomStr(TPCCUtil.randomNumber(14, 24, benchmark.rng()), benchmark.rng());
                 item.i_price = TPCCUtil.randomNumber(100, 10000, benchmark.rng()) / 100.0;
 
                 // i_data
@@ -164,40 +205,27 @@ public class TPCCLoader extends Loader<TPCCBenchmark> {
                 int len = TPCCUtil.randomNumber(26, 50, benchmark.rng());
                 if (randPct > 10) {
                     // 90% of time i_data isa random string of length [26 .. 50]
-                    item.i_data = TPCCUtil.randomStr(len);
+                    item.i_data = TPCCUtil.randomStr(len, benchmark.rng());
                 } else {
                     // 10% of time i_data has "ORIGINAL" crammed somewhere in
                     // middle
                     int startORIGINAL = TPCCUtil.randomNumber(2, (len - 8), benchmark.rng());
-                    item.i_data = TPCCUtil.randomStr(startORIGINAL - 1) + "ORIGINAL" + TPCCUtil.randomStr(len - startORIGINAL - 9);
+                    item.i_data = TPCCUtil.randomStr(startORIGINAL - 1, benchmark.rng()) + "ORIGINAL" + TPCCUtil.randomStr(len - startORIGINAL - 9, benchmark.rng());
                 }
 
                 item.i_im_id = TPCCUtil.randomNumber(1, 10000, benchmark.rng());
 
                 int idx = 1;
-                itemPrepStmt.setLong(idx++, item.i_id);
-                itemPrepStmt.setString(idx++, item.i_name);
-                itemPrepStmt.setDouble(idx++, item.i_price);
-                itemPrepStmt.setString(idx++, item.i_data);
-                itemPrepStmt.setLong(idx, item.i_im_id);
-                itemPrepStmt.addBatch();
-                batchSize++;
-
-                if (batchSize == workConf.getBatchSize()) {
-                    itemPrepStmt.executeBatch();
-                    itemPrepStmt.clearBatch();
-                    batchSize = 0;
-                }
-            }
-
-
-            if (batchSize > 0) {
-                itemPrepStmt.executeBatch();
-                itemPrepStmt.clearBatch();
+                itemSink.setLong(idx++, item.i_id);
+                itemSink.setString(idx++, item.i_name);
+                itemSink.setDouble(idx++, item.i_price);
+                itemSink.setString(idx++, item.i_data);
+                itemSink.setLong(idx, item.i_im_id);
+                itemSink.addRow();
             }
 
         } catch (SQLException se) {
-            LOG.error(se.getMessage());
+            throw new RuntimeException(se);
         }
 
     }
@@ -205,7 +233,7 @@ public class TPCCLoader extends Loader<TPCCBenchmark> {
 
     protected void loadWarehouse(Connection conn, int w_id) {
 
-        try (PreparedStatement whsePrepStmt = getInsertStatement(conn, TPCCConstants.TABLENAME_WAREHOUSE)) {
+        try (RowSink whseSink = newRowSink(conn, TPCCConstants.TABLENAME_WAREHOUSE)) {
             Warehouse warehouse = new Warehouse();
 
             warehouse.w_id = w_id;
@@ -213,38 +241,35 @@ public class TPCCLoader extends Loader<TPCCBenchmark> {
 
             // random within [0.0000 .. 0.2000]
             warehouse.w_tax = (TPCCUtil.randomNumber(0, 2000, benchmark.rng())) / 10000.0;
-            warehouse.w_name = TPCCUtil.randomStr(TPCCUtil.randomNumber(6, 10, benchmark.rng()));
-            warehouse.w_street_1 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()));
-            warehouse.w_street_2 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()));
-            warehouse.w_city = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()));
-            warehouse.w_state = TPCCUtil.randomStr(3).toUpperCase();
+            warehouse.w_name = TPCCUtil.randomStr(TPCCUtil.randomNumber(6, 10, benchmark.rng()), benchmark.rng());
+            warehouse.w_street_1 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()), benchmark.rng());
+            warehouse.w_street_2 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()), benchmark.rng());
+            warehouse.w_city = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()), benchmark.rng());
+            warehouse.w_state = TPCCUtil.randomStr(3, benchmark.rng()).toUpperCase();
             warehouse.w_zip = "123456789";
 
             int idx = 1;
-            whsePrepStmt.setLong(idx++, warehouse.w_id);
-            whsePrepStmt.setDouble(idx++, warehouse.w_ytd);
-            whsePrepStmt.setDouble(idx++, warehouse.w_tax);
-            whsePrepStmt.setString(idx++, warehouse.w_name);
-            whsePrepStmt.setString(idx++, warehouse.w_street_1);
-            whsePrepStmt.setString(idx++, warehouse.w_street_2);
-            whsePrepStmt.setString(idx++, warehouse.w_city);
-            whsePrepStmt.setString(idx++, warehouse.w_state);
-            whsePrepStmt.setString(idx, warehouse.w_zip);
-            whsePrepStmt.execute();
-
+            whseSink.setLong(idx++, warehouse.w_id);
+            whseSink.setDouble(idx++, warehouse.w_ytd);
+            whseSink.setDouble(idx++, warehouse.w_tax);
+            whseSink.setString(idx++, warehouse.w_name);
+            whseSink.setString(idx++, warehouse.w_street_1);
+            whseSink.setString(idx++, warehouse.w_street_2);
+            whseSink.setString(idx++, warehouse.w_city);
+            whseSink.setString(idx++, warehouse.w_state);
+            whseSink.setString(idx, warehouse.w_zip);
+            whseSink.addRow();
         } catch (SQLException se) {
-            LOG.error(se.getMessage());
+            throw new RuntimeException(se);
         }
 
     }
 
-    protected void loadStock(Connection conn, int w_id, int numItems) {
+    protected void loadStock(Connection conn, int w_id, int firstItem, int lastItem) {
 
-        int k = 0;
+        try (RowSink stockSink = newRowSink(conn, TPCCConstants.TABLENAME_STOCK)) {
 
-        try (PreparedStatement stockPreparedStatement = getInsertStatement(conn, TPCCConstants.TABLENAME_STOCK)) {
-
-            for (int i = 1; i <= numItems; i++) {
+            for (int i = firstItem; i <= lastItem; i++) {
                 Stock stock = new Stock();
                 stock.s_i_id = i;
                 stock.s_w_id = w_id;
@@ -259,54 +284,44 @@ public class TPCCLoader extends Loader<TPCCBenchmark> {
                 if (randPct > 10) {
                     // 90% of time i_data isa random string of length [26 ..
                     // 50]
-                    stock.s_data = TPCCUtil.randomStr(len);
+                    stock.s_data = TPCCUtil.randomStr(len, benchmark.rng());
                 } else {
                     // 10% of time i_data has "ORIGINAL" crammed somewhere
                     // in middle
                     int startORIGINAL = TPCCUtil.randomNumber(2, (len - 8), benchmark.rng());
-                    stock.s_data = TPCCUtil.randomStr(startORIGINAL - 1) + "ORIGINAL" + TPCCUtil.randomStr(len - startORIGINAL - 9);
+                    stock.s_data = TPCCUtil.randomStr(startORIGINAL - 1, benchmark.rng()) + "ORIGINAL" + TPCCUtil.randomStr(len - startORIGINAL - 9, benchmark.rng());
                 }
 
                 int idx = 1;
-                stockPreparedStatement.setLong(idx++, stock.s_w_id);
-                stockPreparedStatement.setLong(idx++, stock.s_i_id);
-                stockPreparedStatement.setLong(idx++, stock.s_quantity);
-                stockPreparedStatement.setDouble(idx++, stock.s_ytd);
-                stockPreparedStatement.setLong(idx++, stock.s_order_cnt);
-                stockPreparedStatement.setLong(idx++, stock.s_remote_cnt);
-                stockPreparedStatement.setString(idx++, stock.s_data);
-                stockPreparedStatement.setString(idx++, TPCCUtil.randomStr(24));
-                stockPreparedStatement.setString(idx++, TPCCUtil.randomStr(24));
-                stockPreparedStatement.setString(idx++, TPCCUtil.randomStr(24));
-                stockPreparedStatement.setString(idx++, TPCCUtil.randomStr(24));
-                stockPreparedStatement.setString(idx++, TPCCUtil.randomStr(24));
-                stockPreparedStatement.setString(idx++, TPCCUtil.randomStr(24));
-                stockPreparedStatement.setString(idx++, TPCCUtil.randomStr(24));
-                stockPreparedStatement.setString(idx++, TPCCUtil.randomStr(24));
-                stockPreparedStatement.setString(idx++, TPCCUtil.randomStr(24));
-                stockPreparedStatement.setString(idx, TPCCUtil.randomStr(24));
-                stockPreparedStatement.addBatch();
-
-                k++;
-
-                if (k != 0 && (k % workConf.getBatchSize()) == 0) {
-                    stockPreparedStatement.executeBatch();
-                    stockPreparedStatement.clearBatch();
-                }
+                stockSink.setLong(idx++, stock.s_w_id);
+                stockSink.setLong(idx++, stock.s_i_id);
+                stockSink.setLong(idx++, stock.s_quantity);
+                stockSink.setDouble(idx++, stock.s_ytd);
+                stockSink.setLong(idx++, stock.s_order_cnt);
+                stockSink.setLong(idx++, stock.s_remote_cnt);
+                stockSink.setString(idx++, stock.s_data);
+                stockSink.setString(idx++, TPCCUtil.randomStr(24, benchmark.rng()));
+                stockSink.setString(idx++, TPCCUtil.randomStr(24, benchmark.rng()));
+                stockSink.setString(idx++, TPCCUtil.randomStr(24, benchmark.rng()));
+                stockSink.setString(idx++, TPCCUtil.randomStr(24, benchmark.rng()));
+                stockSink.setString(idx++, TPCCUtil.randomStr(24, benchmark.rng()));
+                stockSink.setString(idx++, TPCCUtil.randomStr(24, benchmark.rng()));
+                stockSink.setString(idx++, TPCCUtil.randomStr(24, benchmark.rng()));
+                stockSink.setString(idx++, TPCCUtil.randomStr(24, benchmark.rng()));
+                stockSink.setString(idx++, TPCCUtil.randomStr(24, benchmark.rng()));
+                stockSink.setString(idx, TPCCUtil.randomStr(24, benchmark.rng()));
+                stockSink.addRow();
             }
 
-            stockPreparedStatement.executeBatch();
-            stockPreparedStatement.clearBatch();
-
         } catch (SQLException se) {
-            LOG.error(se.getMessage());
+            throw new RuntimeException(se);
         }
 
     }
 
     protected void loadDistricts(Connection conn, int w_id, int districtsPerWarehouse) {
 
-        try (PreparedStatement distPrepStmt = getInsertStatement(conn, TPCCConstants.TABLENAME_DISTRICT)) {
+        try (RowSink distSink = newRowSink(conn, TPCCConstants.TABLENAME_DISTRICT)) {
 
             for (int d = 1; d <= districtsPerWarehouse; d++) {
                 District district = new District();
@@ -318,246 +333,202 @@ public class TPCCLoader extends Loader<TPCCBenchmark> {
                 district.d_tax = (float) ((TPCCUtil.randomNumber(0, 2000, benchmark.rng())) / 10000.0);
 
                 district.d_next_o_id = TPCCConfig.configCustPerDist + 1;
-                district.d_name = TPCCUtil.randomStr(TPCCUtil.randomNumber(6, 10, benchmark.rng()));
-                district.d_street_1 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()));
-                district.d_street_2 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()));
-                district.d_city = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()));
-                district.d_state = TPCCUtil.randomStr(3).toUpperCase();
+                district.d_name = TPCCUtil.randomStr(TPCCUtil.randomNumber(6, 10, benchmark.rng()), benchmark.rng());
+                district.d_street_1 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()), benchmark.rng());
+                district.d_street_2 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()), benchmark.rng());
+                district.d_city = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()), benchmark.rng());
+                district.d_state = TPCCUtil.randomStr(3, benchmark.rng()).toUpperCase();
                 district.d_zip = "123456789";
 
                 int idx = 1;
-                distPrepStmt.setLong(idx++, district.d_w_id);
-                distPrepStmt.setLong(idx++, district.d_id);
-                distPrepStmt.setDouble(idx++, district.d_ytd);
-                distPrepStmt.setDouble(idx++, district.d_tax);
-                distPrepStmt.setLong(idx++, district.d_next_o_id);
-                distPrepStmt.setString(idx++, district.d_name);
-                distPrepStmt.setString(idx++, district.d_street_1);
-                distPrepStmt.setString(idx++, district.d_street_2);
-                distPrepStmt.setString(idx++, district.d_city);
-                distPrepStmt.setString(idx++, district.d_state);
-                distPrepStmt.setString(idx, district.d_zip);
-                distPrepStmt.executeUpdate();
+                distSink.setLong(idx++, district.d_w_id);
+                distSink.setLong(idx++, district.d_id);
+                distSink.setDouble(idx++, district.d_ytd);
+                distSink.setDouble(idx++, district.d_tax);
+                distSink.setLong(idx++, district.d_next_o_id);
+                distSink.setString(idx++, district.d_name);
+                distSink.setString(idx++, district.d_street_1);
+                distSink.setString(idx++, district.d_street_2);
+                distSink.setString(idx++, district.d_city);
+                distSink.setString(idx++, district.d_state);
+                distSink.setString(idx, district.d_zip);
+                distSink.addRow();
             }
 
         } catch (SQLException se) {
-            LOG.error(se.getMessage());
+            throw new RuntimeException(se);
         }
 
     }
 
-    protected void loadCustomers(Connection conn, int w_id, int districtsPerWarehouse, int customersPerDistrict) {
+    protected void loadCustomers(Connection conn, int w_id, int d, int customersPerDistrict) {
 
-        int k = 0;
+        try (RowSink custSink = newRowSink(conn, TPCCConstants.TABLENAME_CUSTOMER)) {
 
-        try (PreparedStatement custPrepStmt = getInsertStatement(conn, TPCCConstants.TABLENAME_CUSTOMER)) {
+            for (int c = 1; c <= customersPerDistrict; c++) {
+                Timestamp sysdate = new Timestamp(getLoadTime());
 
-            for (int d = 1; d <= districtsPerWarehouse; d++) {
-                for (int c = 1; c <= customersPerDistrict; c++) {
-                    Timestamp sysdate = new Timestamp(System.currentTimeMillis());
-
-                    Customer customer = new Customer();
-                    customer.c_id = c;
-                    customer.c_d_id = d;
-                    customer.c_w_id = w_id;
-
-                    // discount is random between [0.0000 ... 0.5000]
-                    customer.c_discount = (float) (TPCCUtil.randomNumber(1, 5000, benchmark.rng()) / 10000.0);
+                Customer customer = new Customer();
+                customer.c_id = c;
+                customer.c_d_id = d;
+                customer.c_w_id = w_id;
 
-                    if (TPCCUtil.randomNumber(1, 100, benchmark.rng()) <= 10) {
-                        customer.c_credit = "BC"; // 10% Bad Credit
-                    } else {
-                        customer.c_credit = "GC"; // 90% Good Credit
-                    }
-                    if (c <= 1000) {
-                        customer.c_last = TPCCUtil.getLastName(c - 1);
-                    } else {
-                        customer.c_last = TPCCUtil.getNonUniformRandomLastNameForLoad(benchmark.rng());
-                    }
-                    customer.c_first = TPCCUtil.randomStr(TPCCUtil.randomNumber(8, 16, benchmark.rng()));
-                    customer.c_credit_lim = 50000;
-
-                    customer.c_balance = -10;
-                    customer.c_ytd_payment = 10;
-                    customer.c_payment_cnt = 1;
-                    customer.c_delivery_cnt = 0;
-
-                    customer.c_street_1 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()));
-                    customer.c_street_2 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()));
-                    customer.c_city = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()));
-                    customer.c_state = TPCCUtil.randomStr(3).toUpperCase();
-                    // TPC-C 4.3.2.7: 4 random digits + "11111"
-                    customer.c_zip = TPCCUtil.randomNStr(4) + "11111";
-                    customer.c_phone = TPCCUtil.randomNStr(16);
-                    customer.c_since = sysdate;
-                    customer.c_middle = "OE";
-                    customer.c_data = TPCCUtil.randomStr(TPCCUtil.randomNumber(300, 500, benchmark.rng()));
+                // discount is random between [0.0000 ... 0.5000]
+                customer.c_discount = (float) (TPCCUtil.randomNumber(1, 5000, benchmark.rng()) / 10000.0);
 
-                    int idx = 1;
-                    custPrepStmt.setLong(idx++, customer.c_w_id);
-                    custPrepStmt.setLong(idx++, customer.c_d_id);
-                    custPrepStmt.setLong(idx++, customer.c_id);
-                    custPrepStmt.setDouble(idx++, customer.c_discount);
-                    custPrepStmt.setString(idx++, customer.c_credit);
-                    custPrepStmt.setString(idx++, customer.c_last);
-                    custPrepStmt.setString(idx++, customer.c_first);
-                    custPrepStmt.setDouble(idx++, customer.c_credit_lim);
-                    custPrepStmt.setDouble(idx++, customer.c_balance);
-                    custPrepStmt.setDouble(idx++, customer.c_ytd_payment);
-                    custPrepStmt.setLong(idx++, customer.c_payment_cnt);
-                    custPrepStmt.setLong(idx++, customer.c_delivery_cnt);
-                    custPrepStmt.setString(idx++, customer.c_street_1);
-                    custPrepStmt.setString(idx++, customer.c_street_2);
-                    custPrepStmt.setString(idx++, customer.c_city);
-                    custPrepStmt.setString(idx++, customer.c_state);
-                    custPrepStmt.setString(idx++, customer.c_zip);
-                    custPrepStmt.setString(idx++, customer.c_phone);
-                    custPrepStmt.setTimestamp(idx++, customer.c_since);
-                    custPrepStmt.setString(idx++, customer.c_middle);
-                    custPrepStmt.setString(idx, customer.c_data);
-                    custPrepStmt.addBatch();
-
-                    k++;
-
-                    if (k != 0 && (k % workConf.getBatchSize()) == 0) {
-                        custPrepStmt.executeBatch();
-                        custPrepStmt.clearBatch();
-                    }
+                if (TPCCUtil.randomNumber(1, 100, benchmark.rng()) <= 10) {
+                    customer.c_credit = "BC"; // 10% Bad Credit
+                } else {
+                    customer.c_credit = "GC"; // 90% Good Credit
                 }
-            }
+                if (c <= 1000) {
+                    customer.c_last = TPCCUtil.getLastName(c - 1);
+                } else {
+                    customer.c_last = TPCCUtil.getNonUniformRandomLastNameForLoad(benchmark.rng());
+                }
+                customer.c_first = TPCCUtil.randomStr(TPCCUtil.randomNumber(8, 16, benchmark.rng()), benchmark.rng());
+                customer.c_credit_lim = 50000;
+
+                customer.c_balance = -10;
+                customer.c_ytd_payment = 10;
+                customer.c_payment_cnt = 1;
+                customer.c_delivery_cnt = 0;
+
+                customer.c_street_1 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()), benchmark.rng());
+                customer.c_street_2 = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()), benchmark.rng());
+                customer.c_city = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 20, benchmark.rng()), benchmark.rng());
+                customer.c_state = TPCCUtil.randomStr(3, benchmark.rng()).toUpperCase();
+                // TPC-C 4.3.2.7: 4 random digits + "11111"
+                customer.c_zip = TPCCUtil.randomNStr(4, benchmark.rng()) + "11111";
+                customer.c_phone = TPCCUtil.randomNStr(16, benchmark.rng());
+                customer.c_since = sysdate;
+                customer.c_middle = "OE";
+                customer.c_data = TPCCUtil.randomStr(TPCCUtil.randomNumber(300, 500, benchmark.rng()), benchmark.rng());
 
-            custPrepStmt.executeBatch();
-            custPrepStmt.clearBatch();
+                int idx = 1;
+                custSink.setLong(idx++, customer.c_w_id);
+                custSink.setLong(idx++, customer.c_d_id);
+                custSink.setLong(idx++, customer.c_id);
+                custSink.setDouble(idx++, customer.c_discount);
+                custSink.setString(idx++, customer.c_credit);
+                custSink.setString(idx++, customer.c_last);
+                custSink.setString(idx++, customer.c_first);
+                custSink.setDouble(idx++, customer.c_credit_lim);
+                custSink.setDouble(idx++, customer.c_balance);
+                custSink.setDouble(idx++, customer.c_ytd_payment);
+                custSink.setLong(idx++, customer.c_payment_cnt);
+                custSink.setLong(idx++, customer.c_delivery_cnt);
+                custSink.setString(idx++, customer.c_street_1);
+                custSink.setString(idx++, customer.c_street_2);
+                custSink.setString(idx++, customer.c_city);
+                custSink.setString(idx++, customer.c_state);
+                custSink.setString(idx++, customer.c_zip);
+                custSink.setString(idx++, customer.c_phone);
+                custSink.setTimestamp(idx++, customer.c_since);
+                custSink.setString(idx++, customer.c_middle);
+                custSink.setString(idx, customer.c_data);
+                custSink.addRow();
+            }
 
         } catch (SQLException se) {
-            LOG.error(se.getMessage());
+            throw new RuntimeException(se);
         }
 
     }
 
-    protected void loadCustomerHistory(Connection conn, int w_id, int districtsPerWarehouse, int customersPerDistrict) {
-
-        int k = 0;
+    protected void loadCustomerHistory(Connection conn, int w_id, int d, int customersPerDistrict) {
 
-        try (PreparedStatement histPrepStmt = getInsertStatement(conn, TPCCConstants.TABLENAME_HISTORY)) {
+        try (RowSink histSink = newRowSink(conn, TPCCConstants.TABLENAME_HISTORY)) {
 
-            for (int d = 1; d <= districtsPerWarehouse; d++) {
-                for (int c = 1; c <= customersPerDistrict; c++) {
-                    Timestamp sysdate = new Timestamp(System.currentTimeMillis());
+            for (int c = 1; c <= customersPerDistrict; c++) {
+                Timestamp sysdate = new Timestamp(getLoadTime());
 
-                    History history = new History();
-                    history.h_c_id = c;
-                    history.h_c_d_id = d;
-                    history.h_c_w_id = w_id;
-                    history.h_d_id = d;
-                    history.h_w_id = w_id;
-                    history.h_date = sysdate;
-                    history.h_amount = 10;
-                    history.h_data = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 24, benchmark.rng()));
+                History history = new History();
+                history.h_c_id = c;
+                history.h_c_d_id = d;
+                history.h_c_w_id = w_id;
+                history.h_d_id = d;
+                history.h_w_id = w_id;
+                history.h_date = sysdate;
+                history.h_amount = 10;
+                history.h_data = TPCCUtil.randomStr(TPCCUtil.randomNumber(10, 24, benchmark.rng()), benchmark.rng());
 
 
-                    int idx = 1;
-                    histPrepStmt.setInt(idx++, history.h_c_id);
-                    histPrepStmt.setInt(idx++, history.h_c_d_id);
-                    histPrepStmt.setInt(idx++, history.h_c_w_id);
-                    histPrepStmt.setInt(idx++, history.h_d_id);
-                    histPrepStmt.setInt(idx++, history.h_w_id);
-                    histPrepStmt.setTimestamp(idx++, history.h_date);
-                    histPrepStmt.setDouble(idx++, history.h_amount);
-                    histPrepStmt.setString(idx, history.h_data);
-                    histPrepStmt.addBatch();
-
-                    k++;
-
-                    if (k != 0 && (k % workConf.getBatchSize()) == 0) {
-                        histPrepStmt.executeBatch();
-                        histPrepStmt.clearBatch();
-                    }
-                }
+                int idx = 1;
+                histSink.setInt(idx++, history.h_c_id);
+                histSink.setInt(idx++, history.h_c_d_id);
+                histSink.setInt(idx++, history.h_c_w_id);
+                histSink.setInt(idx++, history.h_d_id);
+                histSink.setInt(idx++, history.h_w_id);
+                histSink.setTimestamp(idx++, history.h_date);
+                histSink.setDouble(idx++, history.h_amount);
+                histSink.setString(idx, history.h_data);
+                histSink.addRow();
             }
 
-            histPrepStmt.executeBatch();
-            histPrepStmt.clearBatch();
-
         } catch (SQLException se) {
-            LOG.error(se.getMessage());
+            throw new RuntimeException(se);
         }
 
     }
 
-    protected void loadOpenOrders(Connection conn, int w_id, int districtsPerWarehouse, int customersPerDistrict) {
+    protected void loadOpenOrders(Connection conn, int w_id, int d, int customersPerDistrict) {
 
-        int k = 0;
+        try (RowSink openOrderSink = newRowSink(conn, TPCCConstants.TABLENAME_OPENORDER)) {
 
-        try (PreparedStatement openOrderStatement = getInsertStatement(conn, TPCCConstants.TABLENAME_OPENORDER)) {
+            // TPC-C 4.3.3.1: o_c_id must be a permutation of [1, 3000]
+            int[] c_ids = new int[customersPerDistrict];
+            for (int i = 0; i < customersPerDistrict; ++i) {
+                c_ids[i] = i + 1;
+            }
+            // Collections.shuffle exists, but there is no
+            // Arrays.shuffle
+            for (int i = 0; i < c_ids.length - 1; ++i) {
+                int remaining = c_ids.length - i - 1;
+                int swapIndex = benchmark.rng().nextInt(remaining) + i + 1;
+
+                int temp = c_ids[swapIndex];
+                c_ids[swapIndex] = c_ids[i];
+                c_ids[i] = temp;
+            }
 
-            for (int d = 1; d <= districtsPerWarehouse; d++) {
-                // TPC-C 4.3.3.1: o_c_id must be a permutation of [1, 3000]
-                int[] c_ids = new int[customersPerDistrict];
-                for (int i = 0; i < customersPerDistrict; ++i) {
-                    c_ids[i] = i + 1;
-                }
-                // Collections.shuffle exists, but there is no
-                // Arrays.shuffle
-                for (int i = 0; i < c_ids.length - 1; ++i) {
-                    int remaining = c_ids.length - i - 1;
-                    int swapIndex = benchmark.rng().nextInt(remaining) + i + 1;
-
-                    int temp = c_ids[swapIndex];
-                    c_ids[swapIndex] = c_ids[i];
-                    c_ids[i] = temp;
+            for (int c = 1; c <= customersPerDistrict; c++) {
+
+                Oorder oorder = new Oorder();
+                oorder.o_id = c;
+                oorder.o_w_id = w_id;
+                oorder.o_d_id = d;
+                oorder.o_c_id = c_ids[c - 1];
+                // o_carrier_id is set *only* for orders with ids < 2101
+                // [4.3.3.1]
+                if (oorder.o_id < FIRST_UNPROCESSED_O_ID) {
+                    oorder.o_carrier_id = TPCCUtil.randomNumber(1, 10, benchmark.rng());
+                } else {
+                    oorder.o_carrier_id = null;
                 }
+                oorder.o_ol_cnt = getRandomCount(w_id, c, d);
+                oorder.o_all_local = 1;
+                oorder.o_entry_d = new Timestamp(getLoadTime());
 
-                for (int c = 1; c <= customersPerDistrict; c++) {
-
-                    Oorder oorder = new Oorder();
-                    oorder.o_id = c;
-                    oorder.o_w_id = w_id;
-                    oorder.o_d_id = d;
-                    oorder.o_c_id = c_ids[c - 1];
-                    // o_carrier_id is set *only* for orders with ids < 2101
-                    // [4.3.3.1]
-                    if (oorder.o_id < FIRST_UNPROCESSED_O_ID) {
-                        oorder.o_carrier_id = TPCCUtil.randomNumber(1, 10, benchmark.rng());
-                    } else {
-                        oorder.o_carrier_id = null;
-                    }
-                    oorder.o_ol_cnt = getRandomCount(w_id, c, d);
-                    oorder.o_all_local = 1;
-                    oorder.o_entry_d = new Timestamp(System.currentTimeMillis());
-
-
-                    int idx = 1;
-                    openOrderStatement.setInt(idx++, oorder.o_w_id);
-                    openOrderStatement.setInt(idx++, oorder.o_d_id);
-                    openOrderStatement.setInt(idx++, oorder.o_id);
-                    openOrderStatement.setInt(idx++, oorder.o_c_id);
-                    if (oorder.o_carrier_id != null) {
-                        openOrderStatement.setInt(idx++, oorder.o_carrier_id);
-                    } else {
-                        openOrderStatement.setNull(idx++, Types.INTEGER);
-                    }
-                    openOrderStatement.setInt(idx++, oorder.o_ol_cnt);
-                    openOrderStatement.setInt(idx++, oorder.o_all_local);
-                    openOrderStatement.setTimestamp(idx, oorder.o_entry_d);
-                    openOrderStatement.addBatch();
-
-                    k++;
-
-                    if (k != 0 && (k % workConf.getBatchSize()) == 0) {
-                        openOrderStatement.executeBatch();
-                        openOrderStatement.clearBatch();
-                    }
 
+                int idx = 1;
+                openOrderSink.setInt(idx++, oorder.o_w_id);
+                openOrderSink.setInt(idx++, oorder.o_d_id);
+                openOrderSink.setInt(idx++, oorder.o_id);
+                openOrderSink.setInt(idx++, oorder.o_c_id);
+                if (oorder.o_carrier_id != null) {
+                    openOrderSink.setInt(idx++, oorder.o_carrier_id);
+                } else {
+                    openOrderSink.setNull(idx++, Types.INTEGER);
                 }
-
+                openOrderSink.setInt(idx++, oorder.o_ol_cnt);
+                openOrderSink.setInt(idx++, oorder.o_all_local);
+                openOrderSink.setTimestamp(idx, oorder.o_entry_d);
+                openOrderSink.addRow();
             }
 
-            openOrderStatement.executeBatch();
-            openOrderStatement.clearBatch();
-
         } catch (SQLException se) {
-            LOG.error(se.getMessage(), se);
+            throw new RuntimeException(se);
         }
 
     }
@@ -573,118 +544,85 @@ public class TPCCLoader extends Loader<TPCCBenchmark> {
         return TPCCUtil.randomNumber(5, 15, random);
     }
 
-    protected void loadNewOrders(Connection conn, int w_id, int districtsPerWarehouse, int customersPerDistrict) {
-
-        int k = 0;
-
-        try (PreparedStatement newOrderStatement = getInsertStatement(conn, TPCCConstants.TABLENAME_NEWORDER)) {
-
-            for (int d = 1; d <= districtsPerWarehouse; d++) {
-
-                for (int c = 1; c <= customersPerDistrict; c++) {
-
-                    // 900 rows in the NEW-ORDER table corresponding to the last
-                    // 900 rows in the ORDER table for that district (i.e.,
-                    // with NO_O_ID between 2,101 and 3,000)
-                    if (c >= FIRST_UNPROCESSED_O_ID) {
-                        NewOrder new_order = new NewOrder();
-                        new_order.no_w_id = w_id;
-                        new_order.no_d_id = d;
-                        new_order.no_o_id = c;
+    protected void loadNewOrders(Connection conn, int w_id, int d, int customersPerDistrict) {
 
-                        int idx = 1;
-                        newOrderStatement.setInt(idx++, new_order.no_w_id);
-                        newOrderStatement.setInt(idx++, new_order.no_d_id);
-                        newOrderStatement.setInt(idx, new_order.no_o_id);
-                        newOrderStatement.addBatch();
+        try (RowSink newOrderSink = newRowSink(conn, TPCCConstants.TABLENAME_NEWORDER)) {
 
-                        k++;
-                    }
+            for (int c = 1; c <= customersPerDistrict; c++) {
 
-                    if (k != 0 && (k % workConf.getBatchSize()) == 0) {
-                        newOrderStatement.executeBatch();
-                        newOrderStatement.clearBatch();
-                    }
+                // 900 rows in the NEW-ORDER table corresponding to the last
+                // 900 rows in the ORDER table for that district (i.e.,
+                // with NO_O_ID between 2,101 and 3,000)
+                if (c >= FIRST_UNPROCESSED_O_ID) {
+                    NewOrder new_order = new NewOrder();
+                    new_order.no_w_id = w_id;
+                    new_order.no_d_id = d;
+                    new_order.no_o_id = c;
 
+                    int idx = 1;
+                    newOrderSink.setInt(idx++, new_order.no_w_id);
+                    newOrderSink.setInt(idx++, new_order.no_d_id);
+                    newOrderSink.setInt(idx, new_order.no_o_id);
+                    newOrderSink.addRow();
                 }
 
             }
 
-            newOrderStatement.executeBatch();
-            newOrderStatement.clearBatch();
-
         } catch (SQLException se) {
-            LOG.error(se.getMessage(), se);
+            throw new RuntimeException(se);
         }
 
     }
 
-    protected void loadOrderLines(Connection conn, int w_id, int districtsPerWarehouse, int customersPerDistrict) {
+    protected void loadOrderLines(Connection conn, int w_id, int d, int customersPerDistrict) {
 
-        int k = 0;
+        try (RowSink orderLineSink = newRowSink(conn, TPCCConstants.TABLENAME_ORDERLINE)) {
 
-        try (PreparedStatement orderLineStatement = getInsertStatement(conn, TPCCConstants.TABLENAME_ORDERLINE)) {
+            for (int c = 1; c <= customersPerDistrict; c++) {
 
-            for (int d = 1; d <= districtsPerWarehouse; d++) {
-
-                for (int c = 1; c <= customersPerDistrict; c++) {
-
-                    int count = getRandomCount(w_id, c, d);
-
-                    for (int l = 1; l <= count; l++) {
-                        OrderLine order_line = new OrderLine();
-                        order_line.ol_w_id = w_id;
-                        order_line.ol_d_id = d;
-                        order_line.ol_o_id = c;
-                        order_line.ol_number = l; // ol_number
-                        order_line.ol_i_id = TPCCUtil.randomNumber(1, TPCCConfig.configItemCount, benchmark.rng());
-                        if (order_line.ol_o_id < FIRST_UNPROCESSED_O_ID) {
-                            order_line.ol_delivery_d = new Timestamp(System.currentTimeMillis());
-                            order_line.ol_amount = 0;
-                        } else {
-                            order_line.ol_delivery_d = null;
-                            // random within [0.01 .. 9,999.99]
-                            order_line.ol_amount = (float) (TPCCUtil.randomNumber(1, 999999, benchmark.rng()) / 100.0);
-                        }
-                        order_line.ol_supply_w_id = order_line.ol_w_id;
-                        order_line.ol_quantity = 5;
-                        order_line.ol_dist_info = TPCCUtil.randomStr(24);
-
-                        int idx = 1;
-                        orderLineStatement.setInt(idx++, order_line.ol_w_id);
-                        orderLineStatement.setInt(idx++, order_line.ol_d_id);
-                        orderLineStatement.setInt(idx++, order_line.ol_o_id);
-                        orderLineStatement.setInt(idx++, order_line.ol_number);
-                        orderLineStatement.setLong(idx++, order_line.ol_i_id);
-                        if (order_line.ol_delivery_d != null) {
-                            orderLineStatement.setTimestamp(idx++, order_line.ol_delivery_d);
-                        } else {
-                            orderLineStatement.setNull(idx++, 0);
-                        }
-                        orderLineStatement.setDouble(idx++, order_line.ol_amount);
-                        orderLineStatement.setLong(idx++, order_line.ol_supply_w_id);
-                        orderLineStatement.setDouble(idx++, order_line.ol_quantity);
-                        orderLineStatement.setString(idx, order_line.ol_dist_info);
-                        orderLineStatement.addBatch();
-
-                        k++;
-
-                        if (k != 0 && (k % workConf.getBatchSize()) == 0) {
-                            orderLineStatement.executeBatch();
-                            orderLineStatement.clearBatch();
-                        }
+                int count = getRandomCount(w_id, c, d);
 
+                for (int l = 1; l <= count; l++) {
+                    OrderLine order_line = new OrderLine();
+                    order_line.ol_w_id = w_id;
+                    order_line.ol_d_id = d;
+                    order_line.ol_o_id = c;
+                    order_line.ol_number = l; // ol_number
+                    order_line.ol_i_id = TPCCUtil.randomNumber(1, TPCCConfig.configItemCount, benchmark.rng());
+                    if (order_line.ol_o_id < FIRST_UNPROCESSED_O_ID) {
+                        order_line.ol_delivery_d = new Timestamp(getLoadTime());
+                        order_line.ol_amount = 0;
+                    } else {
+                        order_line.ol_delivery_d = null;
+                        // random within [0.01 .. 9,999.99]
+                        order_line.ol_amount = (float) (TPCCUtil.randomNumber(1, 999999, benchmark.rng()) / 100.0);
                     }
+                    order_line.ol_supply_w_id = order_line.ol_w_id;
+                    order_line.ol_quantity = 5;
+                    order_line.ol_dist_info = TPCCUtil.randomStr(24, benchmark.rng());
 
+                    int idx = 1;
+                    orderLineSink.setInt(idx++, order_line.ol_w_id);
+                    orderLineSink.setInt(idx++, order_line.ol_d_id);
+                    orderLineSink.setInt(idx++, order_line.ol_o_id);
+                    orderLineSink.setInt(idx++, order_line.ol_number);
+                    orderLineSink.setLong(idx++, order_line.ol_i_id);
+                    if (order_line.ol_delivery_d != null) {
+                        orderLineSink.setTimestamp(idx++, order_line.ol_delivery_d);
+                    } else {
+                        orderLineSink.setNull(idx++, 0);
+                    }
+                    orderLineSink.setDouble(idx++, order_line.ol_amount);
+                    orderLineSink.setLong(idx++, order_line.ol_supply_w_id);
+                    orderLineSink.setDouble(idx++, order_line.ol_quantity);
+                    orderLineSink.setString(idx, order_line.ol_dist_info);
+                    orderLineSink.addRow();
                 }
 
             }
 
-            orderLineStatement.executeBatch();
-            orderLineStatement.clearBatch();
-
         } catch (SQLException se) {
-            LOG.error(se.getMessage(), se);
+            throw new RuntimeException(se);
         }
 
     }
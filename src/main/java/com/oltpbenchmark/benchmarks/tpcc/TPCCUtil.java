@@ -19,7 +19,6 @@
 package com.oltpbenchmark.benchmarks.tpcc;
 
 import com.oltpbenchmark.benchmarks.tpcc.pojo.Customer;
-import com.oltpbenchmark.util.RandomGenerator;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -59,24 +58,30 @@ public class TPCCUtil {
         return c;
     }
 
-    private static final RandomGenerator ran = new RandomGenerator(0);
-
-    public static String randomStr(int strLen) {
+    public static String randomStr(int strLen, Random r) {
         if (strLen > 1) {
-            return ran.astring(strLen - 1, strLen - 1);
+            return randomString(strLen - 1, 'a', 26, r);
         } else {
             return "";
         }
     }
 
-    public static String randomNStr(int stringLength) {
+    public static String randomNStr(int stringLength, Random r) {
         if (stringLength > 0) {
-            return ran.nstring(stringLength, stringLength);
+            return randomString(stringLength, '0', 10, r);
         } else {
             return "";
         }
     }
 
+    private static String randomString(int length, char base, int numCharacters, Random r) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (base + r.nextInt(numCharacters));
+        }
+        return new String(chars);
+    }
+
     public static String getCurrentTime() {
         return dateFormat.format(new java.util.Date());
     }
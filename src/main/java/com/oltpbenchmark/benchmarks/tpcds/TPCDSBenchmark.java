@@ -21,7 +21,7 @@ import com.oltpbenchmark.WorkloadConfiguration;
 import com.oltpbenchmark.api.BenchmarkModule;
 import com.oltpbenchmark.api.Loader;
 import com.oltpbenchmark.api.Worker;
-import com.oltpbenchmark.benchmarks.tpcds.procedures.Test;
+import com.oltpbenchmark.benchmarks.tpcds.procedures.Q3;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,7 +37,7 @@ public class TPCDSBenchmark extends BenchmarkModule {
 
     @Override
     protected Package getProcedurePackageImpl() {
-        return (Test.class.getPackage());
+        return (Q3.class.getPackage());
     }
 
     @Override
@@ -19,22 +19,24 @@ package com.oltpbenchmark.benchmarks.tpcds;
 
 import com.oltpbenchmark.api.Loader;
 import com.oltpbenchmark.api.LoaderThread;
-import com.oltpbenchmark.catalog.Table;
-import com.oltpbenchmark.util.SQLUtil;
+import com.oltpbenchmark.api.RowSink;
+import com.oltpbenchmark.util.FlatFileReader;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 public class TPCDSLoader extends Loader<TPCDSBenchmark> {
+    /**
+     * Files are only split into parts of at least this many bytes
+     */
+    private static final long MIN_PART_SIZE = 16 * 1024 * 1024;
+
     public TPCDSLoader(TPCDSBenchmark benchmark) {
         super(benchmark);
     }
@@ -42,391 +44,110 @@ public class TPCDSLoader extends Loader<TPCDSBenchmark> {
     @Override
     public List<LoaderThread> createLoaderThreads() {
         List<LoaderThread> threads = new ArrayList<>();
-        final CountDownLatch custAddrLatch = new CountDownLatch(1);
-        final CountDownLatch custDemLatch = new CountDownLatch(1);
-        final CountDownLatch dateLatch = new CountDownLatch(1);
-        final CountDownLatch incomeLatch = new CountDownLatch(1);
-        final CountDownLatch itemLatch = new CountDownLatch(1);
-        final CountDownLatch reasonLatch = new CountDownLatch(1);
-        final CountDownLatch shipModeLatch = new CountDownLatch(1);
-        final CountDownLatch timeLatch = new CountDownLatch(1);
-        final CountDownLatch warehouseLatch = new CountDownLatch(1);
-        final CountDownLatch promoLatch = new CountDownLatch(1);
-        final CountDownLatch householdLatch = new CountDownLatch(1);
-        final CountDownLatch storeLatch = new CountDownLatch(1);
-        final CountDownLatch customerLatch = new CountDownLatch(1);
-        final CountDownLatch webPageLatch = new CountDownLatch(1);
-        final CountDownLatch webSiteLatch = new CountDownLatch(1);
-        final CountDownLatch callCenterLatch = new CountDownLatch(1);
-        final CountDownLatch catalogPageLatch = new CountDownLatch(1);
-        final CountDownLatch storeSalesLatch = new CountDownLatch(1);
-        final CountDownLatch catalogSalesLatch = new CountDownLatch(1);
-        final CountDownLatch webSalesLatch = new CountDownLatch(1);
-
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_CALLCENTER, TPCDSConstants.callcenterTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    callCenterLatch.countDown();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_CATALOGPAGE, TPCDSConstants.catalogpageTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    catalogPageLatch.countDown();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_STORE, TPCDSConstants.storeTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    storeLatch.countDown();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_WEBSITE, TPCDSConstants.websiteTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    webSiteLatch.countDown();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
 
-                loadTable(conn, TPCDSConstants.TABLENAME_HOUSEHOLDDEM, TPCDSConstants.householddemTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    incomeLatch.await();
-                    householdLatch.countDown();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_PROMOTION, TPCDSConstants.promotionTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    itemLatch.await();
-                    promoLatch.countDown();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_INVENTORY, TPCDSConstants.inventoryTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    itemLatch.await();
-                    warehouseLatch.await();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_CUSTOMER, TPCDSConstants.customerTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    custAddrLatch.await();
-                    custDemLatch.await();
-                    householdLatch.await();
-                    customerLatch.countDown();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-                loadTable(conn, TPCDSConstants.TABLENAME_WEBPAGE, TPCDSConstants.webpageTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    customerLatch.await();
-                    webPageLatch.countDown();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_STORESALES, TPCDSConstants.storesalesTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    custAddrLatch.await();
-                    custDemLatch.await();
-                    customerLatch.await();
-                    householdLatch.await();
-                    itemLatch.await();
-                    promoLatch.await();
-                    timeLatch.await();
-                    storeLatch.await();
-                    storeSalesLatch.countDown();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_STORERETURNS, TPCDSConstants.storereturnsTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    custAddrLatch.await();
-                    custDemLatch.await();
-                    customerLatch.await();
-                    householdLatch.await();
-                    itemLatch.await();
-                    reasonLatch.await();
-                    timeLatch.await();
-                    storeLatch.await();
-                    storeSalesLatch.await();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_WEBSALES, TPCDSConstants.websalesTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    custAddrLatch.await();
-                    custDemLatch.await();
-                    customerLatch.await();
-                    householdLatch.await();
-                    itemLatch.await();
-                    promoLatch.await();
-                    timeLatch.await();
-                    webPageLatch.await();
-                    shipModeLatch.await();
-                    warehouseLatch.await();
-                    webSiteLatch.await();
-                    webSalesLatch.countDown();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-
-
-                loadTable(conn, TPCDSConstants.TABLENAME_WEBRETURNS, TPCDSConstants.webreturnsTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    custAddrLatch.await();
-                    custDemLatch.await();
-                    customerLatch.await();
-                    householdLatch.await();
-                    itemLatch.await();
-                    reasonLatch.await();
-                    timeLatch.await();
-                    webPageLatch.await();
-                    webSalesLatch.await();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-                loadTable(conn, TPCDSConstants.TABLENAME_CATALOGSALES, TPCDSConstants.catalogsalesTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    custAddrLatch.await();
-                    custDemLatch.await();
-                    customerLatch.await();
-                    callCenterLatch.await();
-                    householdLatch.await();
-                    itemLatch.await();
-                    promoLatch.await();
-                    timeLatch.await();
-                    shipModeLatch.await();
-                    warehouseLatch.await();
-                    catalogPageLatch.await();
-                    catalogSalesLatch.countDown();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-                loadTable(conn, TPCDSConstants.TABLENAME_CATALOGRETURNS, TPCDSConstants.catalogreturnsTypes);
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    dateLatch.await();
-                    custAddrLatch.await();
-                    custDemLatch.await();
-                    customerLatch.await();
-                    callCenterLatch.await();
-                    householdLatch.await();
-                    itemLatch.await();
-                    reasonLatch.await();
-                    timeLatch.await();
-                    shipModeLatch.await();
-                    warehouseLatch.await();
-                    catalogPageLatch.await();
-                    catalogSalesLatch.await();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
+        addTableDependency(TPCDSConstants.TABLENAME_CALLCENTER, TPCDSConstants.TABLENAME_DATEDIM);
+        addTableDependency(TPCDSConstants.TABLENAME_CATALOGPAGE, TPCDSConstants.TABLENAME_DATEDIM);
+        addTableDependency(TPCDSConstants.TABLENAME_STORE, TPCDSConstants.TABLENAME_DATEDIM);
+        addTableDependency(TPCDSConstants.TABLENAME_WEBSITE, TPCDSConstants.TABLENAME_DATEDIM);
+        addTableDependency(TPCDSConstants.TABLENAME_HOUSEHOLDDEM, TPCDSConstants.TABLENAME_INCOMEBAND);
+        addTableDependency(TPCDSConstants.TABLENAME_PROMOTION, TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.TABLENAME_ITEM);
+        addTableDependency(TPCDSConstants.TABLENAME_INVENTORY, TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.TABLENAME_ITEM,
+                TPCDSConstants.TABLENAME_WAREHOUSE);
+        addTableDependency(TPCDSConstants.TABLENAME_CUSTOMER, TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.TABLENAME_CUSTOMERADDRESS,
+                TPCDSConstants.TABLENAME_CUSTOMERDEM, TPCDSConstants.TABLENAME_HOUSEHOLDDEM);
+        addTableDependency(TPCDSConstants.TABLENAME_WEBPAGE, TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.TABLENAME_CUSTOMER);
+
+        // The fact tables depend on most of the dimensions, and the returns
+        // on their sales
+        addTableDependency(TPCDSConstants.TABLENAME_STORESALES, TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.TABLENAME_CUSTOMERADDRESS,
+                TPCDSConstants.TABLENAME_CUSTOMERDEM, TPCDSConstants.TABLENAME_CUSTOMER, TPCDSConstants.TABLENAME_HOUSEHOLDDEM,
+                TPCDSConstants.TABLENAME_ITEM, TPCDSConstants.TABLENAME_PROMOTION, TPCDSConstants.TABLENAME_TIMEDIM,
+                TPCDSConstants.TABLENAME_STORE);
+        addTableDependency(TPCDSConstants.TABLENAME_STORERETURNS, TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.TABLENAME_CUSTOMERADDRESS,
+                TPCDSConstants.TABLENAME_CUSTOMERDEM, TPCDSConstants.TABLENAME_CUSTOMER, TPCDSConstants.TABLENAME_HOUSEHOLDDEM,
+                TPCDSConstants.TABLENAME_ITEM, TPCDSConstants.TABLENAME_REASON, TPCDSConstants.TABLENAME_TIMEDIM,
+                TPCDSConstants.TABLENAME_STORE, TPCDSConstants.TABLENAME_STORESALES);
+        addTableDependency(TPCDSConstants.TABLENAME_WEBSALES, TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.TABLENAME_CUSTOMERADDRESS,
+                TPCDSConstants.TABLENAME_CUSTOMERDEM, TPCDSConstants.TABLENAME_CUSTOMER, TPCDSConstants.TABLENAME_HOUSEHOLDDEM,
+                TPCDSConstants.TABLENAME_ITEM, TPCDSConstants.TABLENAME_PROMOTION, TPCDSConstants.TABLENAME_TIMEDIM,
+                TPCDSConstants.TABLENAME_WEBPAGE, TPCDSConstants.TABLENAME_SHIPMODE, TPCDSConstants.TABLENAME_WAREHOUSE,
+                TPCDSConstants.TABLENAME_WEBSITE);
+        addTableDependency(TPCDSConstants.TABLENAME_WEBRETURNS, TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.TABLENAME_CUSTOMERADDRESS,
+                TPCDSConstants.TABLENAME_CUSTOMERDEM, TPCDSConstants.TABLENAME_CUSTOMER, TPCDSConstants.TABLENAME_HOUSEHOLDDEM,
+                TPCDSConstants.TABLENAME_ITEM, TPCDSConstants.TABLENAME_REASON, TPCDSConstants.TABLENAME_TIMEDIM,
+                TPCDSConstants.TABLENAME_WEBPAGE, TPCDSConstants.TABLENAME_WEBSALES);
+        addTableDependency(TPCDSConstants.TABLENAME_CATALOGSALES, TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.TABLENAME_CUSTOMERADDRESS,
+                TPCDSConstants.TABLENAME_CUSTOMERDEM, TPCDSConstants.TABLENAME_CUSTOMER, TPCDSConstants.TABLENAME_CALLCENTER,
+                TPCDSConstants.TABLENAME_HOUSEHOLDDEM, TPCDSConstants.TABLENAME_ITEM, TPCDSConstants.TABLENAME_PROMOTION,
+                TPCDSConstants.TABLENAME_TIMEDIM, TPCDSConstants.TABLENAME_SHIPMODE, TPCDSConstants.TABLENAME_WAREHOUSE,
+                TPCDSConstants.TABLENAME_CATALOGPAGE);
+        addTableDependency(TPCDSConstants.TABLENAME_CATALOGRETURNS, TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.TABLENAME_CUSTOMERADDRESS,
+                TPCDSConstants.TABLENAME_CUSTOMERDEM, TPCDSConstants.TABLENAME_CUSTOMER, TPCDSConstants.TABLENAME_CALLCENTER,
+                TPCDSConstants.TABLENAME_HOUSEHOLDDEM, TPCDSConstants.TABLENAME_ITEM, TPCDSConstants.TABLENAME_REASON,
+                TPCDSConstants.TABLENAME_TIMEDIM, TPCDSConstants.TABLENAME_SHIPMODE, TPCDSConstants.TABLENAME_WAREHOUSE,
+                TPCDSConstants.TABLENAME_CATALOGPAGE, TPCDSConstants.TABLENAME_CATALOGSALES);
+
+        final Map<String, TPCDSConstants.CastTypes[]> tables = new LinkedHashMap<>();
+        tables.put(TPCDSConstants.TABLENAME_CALLCENTER, TPCDSConstants.callcenterTypes);
+        tables.put(TPCDSConstants.TABLENAME_CATALOGPAGE, TPCDSConstants.catalogpageTypes);
+        tables.put(TPCDSConstants.TABLENAME_CATALOGRETURNS, TPCDSConstants.catalogreturnsTypes);
+        tables.put(TPCDSConstants.TABLENAME_CATALOGSALES, TPCDSConstants.catalogsalesTypes);
+        tables.put(TPCDSConstants.TABLENAME_CUSTOMER, TPCDSConstants.customerTypes);
+        tables.put(TPCDSConstants.TABLENAME_CUSTOMERADDRESS, TPCDSConstants.customeraddressTypes);
+        tables.put(TPCDSConstants.TABLENAME_CUSTOMERDEM, TPCDSConstants.customerdemTypes);
+        tables.put(TPCDSConstants.TABLENAME_DATEDIM, TPCDSConstants.datedimTypes);
+        tables.put(TPCDSConstants.TABLENAME_HOUSEHOLDDEM, TPCDSConstants.householddemTypes);
+        tables.put(TPCDSConstants.TABLENAME_INCOMEBAND, TPCDSConstants.incomebandTypes);
+        tables.put(TPCDSConstants.TABLENAME_INVENTORY, TPCDSConstants.inventoryTypes);
+        tables.put(TPCDSConstants.TABLENAME_ITEM, TPCDSConstants.itemTypes);
+        tables.put(TPCDSConstants.TABLENAME_PROMOTION, TPCDSConstants.promotionTypes);
+        tables.put(TPCDSConstants.TABLENAME_REASON, TPCDSConstants.reasonTypes);
+        tables.put(TPCDSConstants.TABLENAME_SHIPMODE, TPCDSConstants.shipmodeTypes);
+        tables.put(TPCDSConstants.TABLENAME_STORE, TPCDSConstants.storeTypes);
+        tables.put(TPCDSConstants.TABLENAME_STORERETURNS, TPCDSConstants.storereturnsTypes);
+        tables.put(TPCDSConstants.TABLENAME_STORESALES, TPCDSConstants.storesalesTypes);
+        tables.put(TPCDSConstants.TABLENAME_TIMEDIM, TPCDSConstants.timedimTypes);
+        tables.put(TPCDSConstants.TABLENAME_WAREHOUSE, TPCDSConstants.warehouseTypes);
+        tables.put(TPCDSConstants.TABLENAME_WEBPAGE, TPCDSConstants.webpageTypes);
+        tables.put(TPCDSConstants.TABLENAME_WEBRETURNS, TPCDSConstants.webreturnsTypes);
+        tables.put(TPCDSConstants.TABLENAME_WEBSALES, TPCDSConstants.websalesTypes);
+        tables.put(TPCDSConstants.TABLENAME_WEBSITE, TPCDSConstants.websiteTypes);
+
+        // Large files are split into ranges of lines that are loaded in
+        // parallel, each on a connection of its own
+        final String format = getFileFormat();
+        for (Map.Entry<String, TPCDSConstants.CastTypes[]> e : tables.entrySet()) {
+            final String tableName = e.getKey();
+            final TPCDSConstants.CastTypes[] types = e.getValue();
+            File file = new File(workConf.getDataDir(), tableName + "." + format);
+            for (FlatFileReader.Range range : splitFile(file)) {
+                threads.add(new LoaderThread(this.benchmark) {
+                    @Override
+                    public void load(Connection conn) throws SQLException {
+                        loadData(conn, tableName, types, range, format);
+                    }
+                }.loads(tableName));
             }
-        });
+        }
 
         return threads;
     }
 
+    private List<FlatFileReader.Range> splitFile(File file) {
+        if (!file.isFile()) {
+            // Reported when it is loaded
+            return List.of(new FlatFileReader.Range(file, 0, 0));
+        }
+        long parts = Math.min(this.workConf.getLoaderThreads(), file.length() / MIN_PART_SIZE);
+        try {
+            return FlatFileReader.split(file, (int) Math.max(1, parts));
+        } catch (IOException ex) {
+            throw new RuntimeException("Unable to read " + file, ex);
+        }
+    }
+
     private String getFileFormat() {
-        String format = workConf.getXmlConfig().getString("fileFormat");
+        String format = workConf.getXmlConfig() == null ? null : workConf.getXmlConfig().getString("fileFormat");
             /*
                Previouse configuration migh not have a fileFormat and assume
                 that the files are csv.
@@ -442,143 +163,40 @@ public class TPCDSLoader extends Loader<TPCDSBenchmark> {
         return format;
     }
 
-    private Pattern getFormatPattern(String format) {
-
-        if ("csv".equals(format)) {
-            // The following pattern parses the lines by commas, except for
-            // ones surrounded by double-quotes. Further, strings that are
-            // double-quoted have the quotes dropped (we don't need them).
-            return Pattern.compile("\\s*(\"[^\"]*\"|[^,]*)\\s*,?");
-        } else {
-            return Pattern.compile("[^\\|]*\\|");
+    private void loadData(Connection conn, String table, TPCDSConstants.CastTypes[] types, FlatFileReader.Range range, String format) {
+        File file = range.getFile();
+        if (!file.isFile()) {
+            LOG.error("Invalid file: {}", file.getPath());
+            return;
         }
-    }
-
-    private int getFormatGroup(String format) {
-        if ("csv".equals(format)) {
-            return 1;
-        } else {
-            return 0;
-        }
-    }
-
-
-    private void loadData(Connection conn, String table, PreparedStatement ps, TPCDSConstants.CastTypes[] types) {
-
-        int batchSize = 0;
-        String line = "";
-        String field = "";
-        String format = getFileFormat();
-        File file = new File(workConf.getDataDir()
-                , table + "."
-                + format);
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            Pattern pattern = getFormatPattern(format);
-            int group = getFormatGroup(format);
-            Matcher matcher;
-            while ((line = br.readLine()) != null) {
-                matcher = pattern.matcher(line);
-                try {
-                    for (int i = 0; i < types.length; ++i) {
-                        matcher.find();
-                        field = matcher.group(group);
-                        if (field.charAt(0) == '\"') {
-                            field = field.substring(1, field.length() - 1);
-                        }
-
-                        if (group == 0) {
-                            field = field.substring(0, field.length() - 1);
-                        }
-                        //LOG.error(field + " " + i);
-                        switch (types[i]) {
-                            case DOUBLE:
-                                if ("".equals(field)) {
-                                    ps.setDouble(i + 1, Double.NaN);
-                                } else {
-                                    ps.setDouble(i + 1, Double.parseDouble(field));
-                                }
-                                break;
-                            case LONG:
-                                if ("".equals(field)) {
-                                    ps.setLong(i + 1, Long.MIN_VALUE);
-                                } else {
-                                    ps.setLong(i + 1, Long.parseLong(field));
-                                }
-                                break;
-                            case STRING:
-                                ps.setString(i + 1, field);
-                                break;
-                            case DATE:
-                                // Four possible formats for date
-                                // yyyy-mm-dd
-                                Pattern isoFmt = Pattern.compile("^\\s*(\\d{4})-(\\d{2})-(\\d{2})\\s*$");
-                                Matcher isoMatcher = isoFmt.matcher(field);
-                                // yyyymmdd
-                                Pattern nondelimFmt = Pattern.compile("^\\s*(\\d{4})(\\d{2})(\\d{2})\\s*$");
-                                Matcher nondelimMatcher = nondelimFmt.matcher(field);
-                                // mm/dd/yyyy
-                                Pattern usaFmt = Pattern.compile("^\\s*(\\d{2})/(\\d{2})/(\\d{4})\\s*$");
-                                Matcher usaMatcher = usaFmt.matcher(field);
-                                // dd.mm.yyyy
-                                Pattern eurFmt = Pattern.compile("^\\s*(\\d{2})\\.(\\d{2})\\.(\\d{4})\\s*$");
-                                Matcher eurMatcher = eurFmt.matcher(field);
-
-                                String isoFmtDate = "";
-                                java.sql.Date fieldAsDate;
-                                if (isoMatcher.find()) {
-                                    isoFmtDate = field;
-                                } else if (nondelimMatcher.find()) {
-                                    isoFmtDate = nondelimMatcher.group(1) + "-"
-                                            + nondelimMatcher.group(2) + "-"
-                                            + nondelimMatcher.group(3);
-                                } else if (usaMatcher.find()) {
-                                    isoFmtDate = usaMatcher.group(3) + "-"
-                                            + usaMatcher.group(1) + "-"
-                                            + usaMatcher.group(2);
-                                } else if (eurMatcher.find()) {
-                                    isoFmtDate = eurMatcher.group(3) + "-"
-                                            + eurMatcher.group(2) + "-"
-                                            + eurMatcher.group(1);
-                                } else if (!"".equals(field)) {
-                                    throw new RuntimeException("Unrecognized date \""
-                                            + field + "\" in file: "
-                                            + file.getPath());
-                                }
-                                fieldAsDate = "".equals(field) ? null : java.sql.Date.valueOf(isoFmtDate);
-                                ps.setDate(i + 1, fieldAsDate, null);
-                                break;
-                            default:
-                                throw new RuntimeException("Unrecognized type for prepared statement");
-                        }
-
+        FlatFileReader.Format fileFormat = "csv".equals(format) ? FlatFileReader.Format.CSV : FlatFileReader.Format.PIPE;
+        try (FlatFileReader reader = new FlatFileReader(range, fileFormat);
+             RowSink sink = newRowSink(conn, table)) {
+            while (reader.nextLine()) {
+                // A sink cannot take back the columns of a row that was only
+                // partially set
+                if (reader.countFields() < types.length) {
+                    LOG.error("Invalid line {} of file: {}", reader.getLineNumber(), range);
+                    continue;
+                }
+                for (int i = 0; i < types.length; ++i) {
+                    reader.nextField();
+                    try {
+                        setField(sink, i + 1, types[i], reader);
+                    } catch (IllegalArgumentException ex) {
+                        throw new RuntimeException(String.format("%s in line %d of file: %s", ex.getMessage(), reader.getLineNumber(), range), ex);
                     }
-
-                    ps.addBatch();
-                    if (++batchSize % workConf.getBatchSize() == 0) {
-                        ps.executeBatch();
-                        ps.clearBatch();
-                        this.addToTableCount(table, batchSize);
-                        batchSize = 0;
-                    }
-
-                } catch (IllegalStateException e) {
-                    // This happens if there wasn't a match against the regex.
-                    LOG.error("Invalid file: {}", file.getPath());
                 }
+                sink.addRow();
             }
 
-            if (batchSize > 0) {
-                this.addToTableCount(table, batchSize);
-                ps.executeBatch();
-                ps.clearBatch();
-            }
-            ps.close();
+            this.addToTableCount(table, (int) sink.getRowCount());
             if (LOG.isDebugEnabled()) {
-                LOG.debug("{} loaded", table);
+                LOG.debug("{} loaded from {}", table, range);
             }
 
         } catch (SQLException se) {
-            LOG.error("Failed to load data for TPC-DS: {}, LINE {}", field, line, se);
+            LOG.error("Failed to load data for TPC-DS: {}", range, se);
             se = se.getNextException();
             if (se != null) {
                 LOG.error("{} Cause => {}", se.getClass().getSimpleName(), se.getMessage());
@@ -588,12 +206,22 @@ public class TPCDSLoader extends Loader<TPCDSBenchmark> {
         }
     }
 
-    private void loadTable(Connection conn, String tableName, TPCDSConstants.CastTypes[] types) throws SQLException {
-        Table catalog_tbl = benchmark.getCatalog().getTable(tableName);
-
-
-        String sql = SQLUtil.getInsertSQL(catalog_tbl, this.getDatabaseType());
-        PreparedStatement prepStmt = conn.prepareStatement(sql);
-        loadData(conn, tableName, prepStmt, types);
+    private static void setField(RowSink sink, int index, TPCDSConstants.CastTypes type, FlatFileReader reader) throws SQLException {
+        switch (type) {
+            case DOUBLE:
+                sink.setDouble(index, reader.isEmpty() ? Double.NaN : reader.getDouble());
+                break;
+            case LONG:
+                sink.setLong(index, reader.isEmpty() ? Long.MIN_VALUE : reader.getLong());
+                break;
+            case STRING:
+                sink.setString(index, reader.getString());
+                break;
+            case DATE:
+                sink.setDate(index, reader.isEmpty() ? null : reader.getDate());
+                break;
+            default:
+                throw new RuntimeException("Unrecognized type for prepared statement");
+        }
     }
 }
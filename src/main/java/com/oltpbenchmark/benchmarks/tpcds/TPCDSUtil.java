@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.benchmarks.tpcds;
+
+import com.oltpbenchmark.util.RandomGenerator;
+
+public class TPCDSUtil {
+
+    public static final String[] GENDERS = {"M", "F"};
+
+    public static final String[] MARITAL_STATUSES = {"M", "S", "D", "W", "U"};
+
+    public static final String[] EDUCATION_STATUSES = {
+            "Primary", "Secondary", "College", "2 yr Degree", "4 yr Degree", "Advanced Degree", "Unknown"};
+
+    public static final String[] RETURN_REASONS = {
+            "Package was damaged", "Stopped working", "Did not get it on time", "Not the product that was ordered",
+            "Parts missing", "Does not work with a product that I have", "Gift exchange", "Did not like the color",
+            "Did not like the model", "Did not like the make", "Did not like the warranty",
+            "No service location in my area", "Found a better price in a store",
+            "Found a better extended warranty in a store", "Not working any more", "Did not fit", "Wrong size",
+            "Lost my job"};
+
+    /**
+     * The years that qgen draws from for the sales of the fact tables
+     */
+    public static final int MIN_YEAR = 1998;
+    public static final int MAX_YEAR = 2002;
+
+    /**
+     * The d_month_seq of January of MIN_YEAR, and of the last January of a
+     * twelve month window that ends in MAX_YEAR
+     */
+    public static final int MIN_MONTH_SEQ = 1176;
+    public static final int MAX_MONTH_SEQ = 1224;
+
+    /**
+     * Returns a random element of the array
+     */
+    public static <T> T choice(T[] array, RandomGenerator rand) {
+        return array[rand.number(1, array.length) - 1];
+    }
+
+    public static int year(RandomGenerator rand) {
+        return rand.number(MIN_YEAR, MAX_YEAR);
+    }
+}
@@ -20,17 +20,35 @@ package com.oltpbenchmark.benchmarks.tpcds;
 import com.oltpbenchmark.api.Procedure;
 import com.oltpbenchmark.api.TransactionType;
 import com.oltpbenchmark.api.Worker;
+import com.oltpbenchmark.benchmarks.tpcds.procedures.GenericQuery;
 import com.oltpbenchmark.types.TransactionStatus;
+import com.oltpbenchmark.util.RandomGenerator;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 
 
 public class TPCDSWorker extends Worker<TPCDSBenchmark> {
+
+    private final RandomGenerator rand;
+
     public TPCDSWorker(TPCDSBenchmark benchmarkModule, int id) {
         super(benchmarkModule, id);
+        // Each worker is a query stream, which draws the same substitution
+        // parameters every time for the same randomSeed
+        long seed = this.configuration.getRandomSeed();
+        this.rand = new RandomGenerator(seed != -1 ? (int) (seed * 31 + id) : this.rng().nextInt());
     }
 
-    protected TransactionStatus executeWork(Connection conn, TransactionType txnType) throws Procedure.UserAbortException {
-        return null;
+    @Override
+    protected TransactionStatus executeWork(Connection conn, TransactionType txnType) throws Procedure.UserAbortException, SQLException {
+        try {
+            GenericQuery proc = (GenericQuery) this.getProcedure(txnType.getProcedureClass());
+            proc.run(conn, this.rand, this.configuration.getScaleFactor());
+        } catch (ClassCastException e) {
+            throw new RuntimeException(e);
+        }
+
+        return (TransactionStatus.SUCCESS);
     }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.benchmarks.tpcds.procedures;
+
+import com.oltpbenchmark.api.SQLStmt;
+import com.oltpbenchmark.benchmarks.tpcds.TPCDSUtil;
+import com.oltpbenchmark.util.RandomGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class Q15 extends GenericQuery {
+
+    public final SQLStmt query_stmt = new SQLStmt("""
+            SELECT
+               ca_zip,
+               SUM(cs_sales_price)
+            FROM
+               catalog_sales,
+               customer,
+               customer_address,
+               date_dim
+            WHERE
+               cs_bill_customer_sk = c_customer_sk
+               AND c_current_addr_sk = ca_address_sk
+               AND (SUBSTR(ca_zip, 1, 5) IN ('85669', '86197', '88274', '83405', '86475', '85392', '85460', '80348', '81792')
+                  OR ca_state IN ('CA', 'WA', 'GA')
+                  OR cs_sales_price > 500)
+               AND cs_sold_date_sk = d_date_sk
+               AND d_qoy = ?
+               AND d_year = ?
+            GROUP BY
+               ca_zip
+            ORDER BY
+               ca_zip LIMIT 100
+            """
+    );
+
+    @Override
+    protected PreparedStatement getStatement(Connection conn, RandomGenerator rand, double scaleFactor) throws SQLException {
+        PreparedStatement stmt = this.getPreparedStatement(conn, query_stmt);
+        stmt.setInt(1, rand.number(1, 2));
+        stmt.setInt(2, TPCDSUtil.year(rand));
+        return stmt;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.benchmarks.tpcds.procedures;
+
+import com.oltpbenchmark.api.SQLStmt;
+import com.oltpbenchmark.benchmarks.tpcds.TPCDSUtil;
+import com.oltpbenchmark.util.RandomGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class Q19 extends GenericQuery {
+
+    public final SQLStmt query_stmt = new SQLStmt("""
+            SELECT
+               i_brand_id brand_id,
+               i_brand brand,
+               i_manufact_id,
+               i_manufact,
+               SUM(ss_ext_sales_price) ext_price
+            FROM
+               date_dim,
+               store_sales,
+               item,
+               customer,
+               customer_address,
+               store
+            WHERE
+               d_date_sk = ss_sold_date_sk
+               AND ss_item_sk = i_item_sk
+               AND i_manager_id = ?
+               AND d_moy = ?
+               AND d_year = ?
+               AND ss_customer_sk = c_customer_sk
+               AND c_current_addr_sk = ca_address_sk
+               AND SUBSTR(ca_zip, 1, 5) <> SUBSTR(s_zip, 1, 5)
+               AND ss_store_sk = s_store_sk
+            GROUP BY
+               i_brand,
+               i_brand_id,
+               i_manufact_id,
+               i_manufact
+            ORDER BY
+               ext_price DESC,
+               i_brand,
+               i_brand_id,
+               i_manufact_id,
+               i_manufact LIMIT 100
+            """
+    );
+
+    @Override
+    protected PreparedStatement getStatement(Connection conn, RandomGenerator rand, double scaleFactor) throws SQLException {
+        PreparedStatement stmt = this.getPreparedStatement(conn, query_stmt);
+        stmt.setInt(1, rand.number(1, 100));
+        stmt.setInt(2, rand.number(11, 12));
+        stmt.setInt(3, TPCDSUtil.year(rand));
+        return stmt;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.benchmarks.tpcds.procedures;
+
+import com.oltpbenchmark.api.SQLStmt;
+import com.oltpbenchmark.util.RandomGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class Q3 extends GenericQuery {
+
+    public final SQLStmt query_stmt = new SQLStmt("""
+            SELECT
+               dt.d_year,
+               item.i_brand_id brand_id,
+               item.i_brand brand,
+               SUM(ss_ext_sales_price) sum_agg
+            FROM
+               date_dim dt,
+               store_sales,
+               item
+            WHERE
+               dt.d_date_sk = store_sales.ss_sold_date_sk
+               AND store_sales.ss_item_sk = item.i_item_sk
+               AND item.i_manufact_id = ?
+               AND dt.d_moy = ?
+            GROUP BY
+               dt.d_year,
+               item.i_brand,
+               item.i_brand_id
+            ORDER BY
+               dt.d_year,
+               sum_agg DESC,
+               brand_id LIMIT 100
+            """
+    );
+
+    @Override
+    protected PreparedStatement getStatement(Connection conn, RandomGenerator rand, double scaleFactor) throws SQLException {
+        int manufact = rand.number(1, 1000);
+        int month = rand.number(11, 12);
+
+        PreparedStatement stmt = this.getPreparedStatement(conn, query_stmt);
+        stmt.setInt(1, manufact);
+        stmt.setInt(2, month);
+        return stmt;
+    }
+}
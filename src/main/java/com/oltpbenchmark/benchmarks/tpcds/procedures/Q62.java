@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.benchmarks.tpcds.procedures;
+
+import com.oltpbenchmark.api.SQLStmt;
+import com.oltpbenchmark.benchmarks.tpcds.TPCDSUtil;
+import com.oltpbenchmark.util.RandomGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class Q62 extends GenericQuery {
+
+    public final SQLStmt query_stmt = new SQLStmt("""
+            SELECT
+               SUBSTR(w_warehouse_name, 1, 20),
+               sm_type,
+               web_name,
+               SUM(CASE WHEN (ws_ship_date_sk - ws_sold_date_sk <= 30) THEN 1 ELSE 0 END) AS days_30,
+               SUM(CASE WHEN (ws_ship_date_sk - ws_sold_date_sk > 30) AND (ws_ship_date_sk - ws_sold_date_sk <= 60) THEN 1 ELSE 0 END) AS days_31_60,
+               SUM(CASE WHEN (ws_ship_date_sk - ws_sold_date_sk > 60) AND (ws_ship_date_sk - ws_sold_date_sk <= 90) THEN 1 ELSE 0 END) AS days_61_90,
+               SUM(CASE WHEN (ws_ship_date_sk - ws_sold_date_sk > 90) AND (ws_ship_date_sk - ws_sold_date_sk <= 120) THEN 1 ELSE 0 END) AS days_91_120,
+               SUM(CASE WHEN (ws_ship_date_sk - ws_sold_date_sk > 120) THEN 1 ELSE 0 END) AS days_over_120
+            FROM
+               web_sales,
+               warehouse,
+               ship_mode,
+               web_site,
+               date_dim
+            WHERE
+               d_month_seq BETWEEN ? AND ?
+               AND ws_ship_date_sk = d_date_sk
+               AND ws_warehouse_sk = w_warehouse_sk
+               AND ws_ship_mode_sk = sm_ship_mode_sk
+               AND ws_web_site_sk = web_site_sk
+            GROUP BY
+               SUBSTR(w_warehouse_name, 1, 20),
+               sm_type,
+               web_name
+            ORDER BY
+               SUBSTR(w_warehouse_name, 1, 20),
+               sm_type,
+               web_name LIMIT 100
+            """
+    );
+
+    @Override
+    protected PreparedStatement getStatement(Connection conn, RandomGenerator rand, double scaleFactor) throws SQLException {
+        int monthSeq = rand.number(TPCDSUtil.MIN_MONTH_SEQ, TPCDSUtil.MAX_MONTH_SEQ);
+
+        PreparedStatement stmt = this.getPreparedStatement(conn, query_stmt);
+        stmt.setInt(1, monthSeq);
+        stmt.setInt(2, monthSeq + 11);
+        return stmt;
+    }
+}
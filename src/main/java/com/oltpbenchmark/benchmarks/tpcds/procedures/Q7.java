@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.benchmarks.tpcds.procedures;
+
+import com.oltpbenchmark.api.SQLStmt;
+import com.oltpbenchmark.benchmarks.tpcds.TPCDSUtil;
+import com.oltpbenchmark.util.RandomGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class Q7 extends GenericQuery {
+
+    public final SQLStmt query_stmt = new SQLStmt("""
+            SELECT
+               i_item_id,
+               AVG(ss_quantity) agg1,
+               AVG(ss_list_price) agg2,
+               AVG(ss_coupon_amt) agg3,
+               AVG(ss_sales_price) agg4
+            FROM
+               store_sales,
+               customer_demographics,
+               date_dim,
+               item,
+               promotion
+            WHERE
+               ss_sold_date_sk = d_date_sk
+               AND ss_item_sk = i_item_sk
+               AND ss_cdemo_sk = cd_demo_sk
+               AND ss_promo_sk = p_promo_sk
+               AND cd_gender = ?
+               AND cd_marital_status = ?
+               AND cd_education_status = ?
+               AND (p_channel_email = 'N' OR p_channel_event = 'N')
+               AND d_year = ?
+            GROUP BY
+               i_item_id
+            ORDER BY
+               i_item_id LIMIT 100
+            """
+    );
+
+    @Override
+    protected PreparedStatement getStatement(Connection conn, RandomGenerator rand, double scaleFactor) throws SQLException {
+        PreparedStatement stmt = this.getPreparedStatement(conn, query_stmt);
+        stmt.setString(1, TPCDSUtil.choice(TPCDSUtil.GENDERS, rand));
+        stmt.setString(2, TPCDSUtil.choice(TPCDSUtil.MARITAL_STATUSES, rand));
+        stmt.setString(3, TPCDSUtil.choice(TPCDSUtil.EDUCATION_STATUSES, rand));
+        stmt.setInt(4, TPCDSUtil.year(rand));
+        return stmt;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.benchmarks.tpcds.procedures;
+
+import com.oltpbenchmark.api.SQLStmt;
+import com.oltpbenchmark.benchmarks.tpcds.TPCDSUtil;
+import com.oltpbenchmark.util.RandomGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class Q93 extends GenericQuery {
+
+    public final SQLStmt query_stmt = new SQLStmt("""
+            SELECT
+               ss_customer_sk,
+               SUM(act_sales) sumsales
+            FROM
+               (
+                  SELECT
+                     ss_item_sk,
+                     ss_ticket_number,
+                     ss_customer_sk,
+                     CASE
+                        WHEN sr_return_quantity IS NOT NULL THEN (ss_quantity - sr_return_quantity) * ss_sales_price
+                        ELSE (ss_quantity * ss_sales_price)
+                     END act_sales
+                  FROM
+                     store_sales
+                     LEFT OUTER JOIN store_returns
+                        ON (sr_item_sk = ss_item_sk AND sr_ticket_number = ss_ticket_number),
+                     reason
+                  WHERE
+                     sr_reason_sk = r_reason_sk
+                     AND r_reason_desc = ?
+               ) t
+            GROUP BY
+               ss_customer_sk
+            ORDER BY
+               sumsales,
+               ss_customer_sk LIMIT 100
+            """
+    );
+
+    @Override
+    protected PreparedStatement getStatement(Connection conn, RandomGenerator rand, double scaleFactor) throws SQLException {
+        PreparedStatement stmt = this.getPreparedStatement(conn, query_stmt);
+        stmt.setString(1, TPCDSUtil.choice(TPCDSUtil.RETURN_REASONS, rand));
+        return stmt;
+    }
+}
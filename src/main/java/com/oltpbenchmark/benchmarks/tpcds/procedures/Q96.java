@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.benchmarks.tpcds.procedures;
+
+import com.oltpbenchmark.api.SQLStmt;
+import com.oltpbenchmark.util.RandomGenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class Q96 extends GenericQuery {
+
+    public final SQLStmt query_stmt = new SQLStmt("""
+            SELECT
+               COUNT(*)
+            FROM
+               store_sales,
+               household_demographics,
+               time_dim,
+               store
+            WHERE
+               ss_sold_time_sk = time_dim.t_time_sk
+               AND ss_hdemo_sk = household_demographics.hd_demo_sk
+               AND ss_store_sk = s_store_sk
+               AND time_dim.t_hour = ?
+               AND time_dim.t_minute >= 30
+               AND household_demographics.hd_dep_count = ?
+               AND store.s_store_name = 'ese'
+            ORDER BY
+               COUNT(*) LIMIT 100
+            """
+    );
+
+    @Override
+    protected PreparedStatement getStatement(Connection conn, RandomGenerator rand, double scaleFactor) throws SQLException {
+        PreparedStatement stmt = this.getPreparedStatement(conn, query_stmt);
+        stmt.setInt(1, rand.number(8, 20));
+        stmt.setInt(2, rand.number(0, 9));
+        return stmt;
+    }
+}
@@ -27,6 +27,7 @@ package com.oltpbenchmark.benchmarks.tpch;
 
 import com.oltpbenchmark.api.Loader;
 import com.oltpbenchmark.api.LoaderThread;
+import com.oltpbenchmark.api.RowSink;
 import static com.oltpbenchmark.benchmarks.tpch.TPCHConstants.*;
 import com.oltpbenchmark.benchmarks.tpch.util.RegionGenerator;
 import com.oltpbenchmark.benchmarks.tpch.util.NationGenerator;
@@ -34,15 +35,20 @@ import com.oltpbenchmark.benchmarks.tpch.util.PartGenerator;
 import com.oltpbenchmark.benchmarks.tpch.util.PartSupplierGenerator;
 import com.oltpbenchmark.benchmarks.tpch.util.OrderGenerator;
 import com.oltpbenchmark.benchmarks.tpch.util.CustomerGenerator;
+import com.oltpbenchmark.benchmarks.tpch.util.GenerateUtils;
 import com.oltpbenchmark.benchmarks.tpch.util.LineItemGenerator;
 import com.oltpbenchmark.benchmarks.tpch.util.SupplierGenerator;
-import com.oltpbenchmark.util.SQLUtil;
-import com.oltpbenchmark.catalog.Table;
+import com.oltpbenchmark.util.FlatFileReader;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.function.IntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.regex.Pattern;
 
 public class TPCHLoader extends Loader<TPCHBenchmark> {
     public TPCHLoader(TPCHBenchmark benchmark) {
@@ -130,257 +136,244 @@ public class TPCHLoader extends Loader<TPCHBenchmark> {
             CastTypes.STRING, // s_comment
     };
 
-    private PreparedStatement getInsertStatement(Connection conn, String tableName) throws SQLException {
-        Table catalog_tbl = benchmark.getCatalog().getTable(tableName);
-        String sql = SQLUtil.getInsertSQL(catalog_tbl, this.getDatabaseType());
-        return conn.prepareStatement(sql);
+    /**
+     * Tables are split into parts of this many rows. The parts do not depend
+     * on loaderThreads, so that a resumed load or the machines of a
+     * --generate-part load all see the same parts.
+     */
+    private static final long ROWS_PER_PART = 100_000;
+
+    /**
+     * Files are only split into parts of at least this many bytes
+     */
+    private static final long MIN_PART_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The format of the dbgen files in the datadir to load, or null to
+     * generate the data
+     */
+    private String getFileFormat() {
+        return this.workConf.getXmlConfig() == null ? null : this.workConf.getXmlConfig().getString("fileFormat");
+    }
+
+    @Override
+    public boolean supportsResume() {
+        return getFileFormat() == null;
+    }
+
+    @Override
+    public boolean supportsFileGeneration() {
+        return getFileFormat() == null;
     }
 
     @Override
     public List<LoaderThread> createLoaderThreads() {
         List<LoaderThread> threads = new ArrayList<>();
 
-        final CountDownLatch regionLatch = new CountDownLatch(1);
-        final CountDownLatch nationLatch = new CountDownLatch(1);
-        final CountDownLatch ordersLatch = new CountDownLatch(1);
-        final CountDownLatch customerLatch = new CountDownLatch(1);
-        final CountDownLatch partsLatch = new CountDownLatch(1);
-        final CountDownLatch supplierLatch = new CountDownLatch(1);
-        final CountDownLatch partsSuppLatch = new CountDownLatch(1);
+        addTableDependency(TABLENAME_NATION, TABLENAME_REGION);
+        addTableDependency(TABLENAME_SUPPLIER, TABLENAME_NATION);
+        addTableDependency(TABLENAME_CUSTOMER, TABLENAME_NATION);
+        addTableDependency(TABLENAME_ORDER, TABLENAME_CUSTOMER);
+        addTableDependency(TABLENAME_PARTSUPP, TABLENAME_PART, TABLENAME_SUPPLIER);
+        addTableDependency(TABLENAME_LINEITEM, TABLENAME_ORDER, TABLENAME_PARTSUPP);
+
+        final String format = getFileFormat();
+        if (format != null) {
+            addFileTable(threads, TABLENAME_REGION, regionTypes, format);
+            addFileTable(threads, TABLENAME_PART, partTypes, format);
+            addFileTable(threads, TABLENAME_NATION, nationTypes, format);
+            addFileTable(threads, TABLENAME_SUPPLIER, supplierTypes, format);
+            addFileTable(threads, TABLENAME_CUSTOMER, customerTypes, format);
+            addFileTable(threads, TABLENAME_ORDER, ordersTypes, format);
+            addFileTable(threads, TABLENAME_PARTSUPP, partsuppTypes, format);
+            addFileTable(threads, TABLENAME_LINEITEM, lineitemTypes, format);
+            return threads;
+        }
 
         final double scaleFactor = this.workConf.getScaleFactor();
 
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-                try (PreparedStatement statement = getInsertStatement(conn, TABLENAME_REGION)) {
-                    List<Iterable<List<Object>>> regionGenerators = new ArrayList<>();
-                    regionGenerators.add(new RegionGenerator());
-
-                    genTable(conn, statement, regionGenerators, regionTypes, TABLENAME_REGION);
-                }
-            }
+        // The generators can produce any slice of a table on their own, so the
+        // large tables are split into parts that are loaded in parallel. A part
+        // only depends on the table and part number, so the loaded data is the
+        // same whatever the number of parts.
+        final int partParts = partCount(PartGenerator.SCALE_BASE * scaleFactor);
+        final int supplierParts = partCount(SupplierGenerator.SCALE_BASE * scaleFactor);
+        final int customerParts = partCount(CustomerGenerator.SCALE_BASE * scaleFactor);
+        final int orderParts = partCount(OrderGenerator.SCALE_BASE * scaleFactor);
 
-            @Override
-            public void afterLoad() {
-                regionLatch.countDown();
-            }
-        });
+        addTable(threads, TABLENAME_REGION, regionTypes, 1,
+                part -> new RegionGenerator(), 0, null, null);
 
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-                try (PreparedStatement statement = getInsertStatement(conn, TABLENAME_PART)) {
-                    List<Iterable<List<Object>>> partGenerators = new ArrayList<>();
-                    partGenerators.add(new PartGenerator(scaleFactor, 1, 1));
+        addTable(threads, TABLENAME_PART, partTypes, partParts,
+                part -> new PartGenerator(scaleFactor, part, partParts),
+                PartGenerator.SCALE_BASE, "p_partkey", row -> row);
 
-                    genTable(conn, statement, partGenerators, partTypes, TABLENAME_PART);
-                }
-            }
+        addTable(threads, TABLENAME_NATION, nationTypes, 1,
+                part -> new NationGenerator(), 0, null, null);
 
-            @Override
-            public void afterLoad() {
-                partsLatch.countDown();
-            }
-        });
+        addTable(threads, TABLENAME_SUPPLIER, supplierTypes, supplierParts,
+                part -> new SupplierGenerator(scaleFactor, part, supplierParts),
+                SupplierGenerator.SCALE_BASE, "s_suppkey", row -> row);
 
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-                try (PreparedStatement statement = getInsertStatement(conn, TABLENAME_NATION)) {
-                    List<Iterable<List<Object>>> nationGenerators = new ArrayList<>();
-                    nationGenerators.add(new NationGenerator());
+        addTable(threads, TABLENAME_CUSTOMER, customerTypes, customerParts,
+                part -> new CustomerGenerator(scaleFactor, part, customerParts),
+                CustomerGenerator.SCALE_BASE, "c_custkey", row -> row);
 
-                    genTable(conn, statement, nationGenerators, nationTypes, TABLENAME_NATION);
-                }
-            }
+        addTable(threads, TABLENAME_ORDER, ordersTypes, orderParts,
+                part -> new OrderGenerator(scaleFactor, part, orderParts),
+                OrderGenerator.SCALE_BASE, "o_orderkey", OrderGenerator::makeOrderKey);
 
-            @Override
-            public void beforeLoad() {
-                try {
-                    regionLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        // PARTSUPP has the rows for each part together
+        addTable(threads, TABLENAME_PARTSUPP, partsuppTypes, partParts,
+                part -> new PartSupplierGenerator(scaleFactor, part, partParts),
+                PartGenerator.SCALE_BASE, "ps_partkey", row -> row);
 
-            @Override
-            public void afterLoad() {
-                nationLatch.countDown();
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-                try (PreparedStatement statement = getInsertStatement(conn, TABLENAME_SUPPLIER)) {
-                    List<Iterable<List<Object>>> supplierGenerators = new ArrayList<>();
-                    supplierGenerators.add(new SupplierGenerator(scaleFactor, 1, 1));
-
-                    genTable(conn, statement, supplierGenerators, supplierTypes, TABLENAME_SUPPLIER);
-                }
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    nationLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-
-            @Override
-            public void afterLoad() {
-                supplierLatch.countDown();
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-                try (PreparedStatement statement = getInsertStatement(conn, TABLENAME_CUSTOMER)) {
-                    List<Iterable<List<Object>>> customerGenerators = new ArrayList<>();
-                    customerGenerators.add(new CustomerGenerator(scaleFactor, 1, 1));
-
-                    genTable(conn, statement, customerGenerators, customerTypes, TABLENAME_CUSTOMER);
-                }
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    nationLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        // LINEITEM is generated along with the orders, so it is split the same way
+        addTable(threads, TABLENAME_LINEITEM, lineitemTypes, orderParts,
+                part -> new LineItemGenerator(scaleFactor, part, orderParts),
+                OrderGenerator.SCALE_BASE, "l_orderkey", OrderGenerator::makeOrderKey);
 
-            @Override
-            public void afterLoad() {
-                customerLatch.countDown();
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-                try (PreparedStatement statement = getInsertStatement(conn, TABLENAME_ORDER)) {
-                    List<Iterable<List<Object>>> orderGenerators = new ArrayList<>();
-                    orderGenerators.add(new OrderGenerator(scaleFactor, 1, 1));
+        return threads;
+    }
 
-                    genTable(conn, statement, orderGenerators, ordersTypes, TABLENAME_ORDER);
-                }
-            }
+    /**
+     * Number of parts to split a table with rowCount rows into
+     */
+    private static int partCount(double rowCount) {
+        long parts = ((long) rowCount + ROWS_PER_PART - 1) / ROWS_PER_PART;
+        return (int) Math.max(1, parts);
+    }
 
-            @Override
-            public void beforeLoad() {
-                try {
-                    customerLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
+    /**
+     * Adds one LoaderThread for each of the partCount parts of a table. A
+     * part covers a range of the scaleBase * scaleFactor rows of the table,
+     * and rowKey gives the value of keyColumn for the 1-based number of a row.
+     * The key range of a part is used to delete its rows when a load is
+     * resumed, tables with only one part are simply emptied.
+     */
+    private void addTable(List<LoaderThread> threads, String tableName, CastTypes[] types, int partCount,
+            IntFunction<Iterable<List<Object>>> generator, int scaleBase, String keyColumn, LongUnaryOperator rowKey) {
+        for (int i = 1; i <= partCount; i++) {
+            final int part = i;
+            threads.add(new LoaderThread(this.benchmark) {
+                @Override
+                public void load(Connection conn) throws SQLException {
+                    LOG.debug("Loading part {} of {} of table {}", part, partCount, tableName);
+
+                    genTable(conn, generator.apply(part), types, tableName);
                 }
-            }
 
-            @Override
-            public void afterLoad() {
-                ordersLatch.countDown();
-            }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-                try (PreparedStatement statement = getInsertStatement(conn, TABLENAME_PARTSUPP)) {
-                    List<Iterable<List<Object>>> partSuppGenerators = new ArrayList<>();
-                    partSuppGenerators.add(new PartSupplierGenerator(scaleFactor, 1, 1));
-
-                    genTable(conn, statement, partSuppGenerators, partsuppTypes, TABLENAME_PARTSUPP);
+                @Override
+                public void truncate(Connection conn) throws SQLException {
+                    if (keyColumn == null) {
+                        super.truncate(conn);
+                        return;
+                    }
+                    long start = GenerateUtils.calculateStartIndex(scaleBase, scaleFactor, part, partCount);
+                    long rows = GenerateUtils.calculateRowCount(scaleBase, scaleFactor, part, partCount);
+                    deleteRange(conn, tableName, keyColumn, rowKey.applyAsLong(start + 1), rowKey.applyAsLong(start + rows));
                 }
-            }
+            }.loads(tableName));
+        }
+    }
 
-            @Override
-            public void beforeLoad() {
-                try {
-                    partsLatch.await();
-                    supplierLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
+    /**
+     * Adds LoaderThreads for the dbgen files of a table in the datadir: the
+     * table name with the format as extension, or numbered chunks of it as
+     * written by dbgen -C. Large files are split into ranges of lines that
+     * are loaded in parallel.
+     */
+    private void addFileTable(List<LoaderThread> threads, String tableName, CastTypes[] types, String format) {
+        File dir = new File(this.workConf.getDataDir());
+        String fileName = tableName + "." + format;
+        File[] files = dir.listFiles((d, name) -> name.equals(fileName) || name.matches(Pattern.quote(fileName) + "\\.\\d+"));
+        if (files == null || files.length == 0) {
+            throw new RuntimeException(String.format("There is no %s file for table %s in %s", format, tableName, dir));
+        }
+        Arrays.sort(files);
+        FlatFileReader.Format fileFormat = "csv".equals(format) ? FlatFileReader.Format.CSV : FlatFileReader.Format.PIPE;
+        for (File file : files) {
+            long parts = Math.min(this.workConf.getLoaderThreads(), file.length() / MIN_PART_SIZE);
+            List<FlatFileReader.Range> ranges;
+            try {
+                ranges = FlatFileReader.split(file, (int) Math.max(1, parts));
+            } catch (IOException ex) {
+                throw new RuntimeException("Unable to read " + file, ex);
             }
+            for (FlatFileReader.Range range : ranges) {
+                threads.add(new LoaderThread(this.benchmark) {
+                    @Override
+                    public void load(Connection conn) throws SQLException {
+                        LOG.debug("Loading table {} from {}", tableName, range);
 
-            @Override
-            public void afterLoad() {
-                partsSuppLatch.countDown();
+                        loadFile(conn, range, fileFormat, types, tableName);
+                    }
+                }.loads(tableName));
             }
-        });
-
-        threads.add(new LoaderThread(this.benchmark) {
-            @Override
-            public void load(Connection conn) throws SQLException {
-                try (PreparedStatement statement = getInsertStatement(conn, TABLENAME_LINEITEM)) {
-                    List<Iterable<List<Object>>> lineItemGenerators = new ArrayList<>();
-                    lineItemGenerators.add(new LineItemGenerator(scaleFactor, 1, 1));
+        }
+    }
 
-                    genTable(conn, statement, lineItemGenerators, lineitemTypes, TABLENAME_LINEITEM);
+    private void loadFile(Connection conn, FlatFileReader.Range range, FlatFileReader.Format format, CastTypes[] types, String tableName) {
+        try (FlatFileReader reader = new FlatFileReader(range, format);
+             RowSink sink = newRowSink(conn, tableName)) {
+            while (reader.nextLine()) {
+                if (reader.countFields() < types.length) {
+                    throw new RuntimeException(String.format("Line %d of %s has fewer than %d fields", reader.getLineNumber(), range, types.length));
                 }
-            }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    ordersLatch.await();
-                    partsSuppLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
+                for (int idx = 0; idx < types.length; idx++) {
+                    reader.nextField();
+                    switch (types[idx]) {
+                        case DOUBLE:
+                            sink.setDouble(idx + 1, reader.getDouble());
+                            break;
+                        case LONG:
+                            sink.setLong(idx + 1, reader.getLong());
+                            break;
+                        case STRING:
+                            sink.setString(idx + 1, reader.getString());
+                            break;
+                        case DATE:
+                            sink.setDate(idx + 1, reader.getDate());
+                            break;
+                        default:
+                            throw new RuntimeException("Unrecognized type for prepared statement");
+                    }
                 }
+                sink.addRow();
             }
-        });
-
-        return threads;
+            LOG.debug("wrote {} rows for table {}", sink.getRowCount(), tableName);
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
-    private void genTable(Connection conn, PreparedStatement prepStmt, List<Iterable<List<Object>>> generators,
-            CastTypes[] types, String tableName) {
-        for (Iterable<List<Object>> generator : generators) {
-            try {
-                int recordsRead = 0;
-                for (List<Object> elems : generator) {
-                    for (int idx = 0; idx < types.length; idx++) {
-                        final CastTypes type = types[idx];
-                        switch (type) {
-                            case DOUBLE:
-                                prepStmt.setDouble(idx + 1, (Double) elems.get(idx));
-                                break;
-                            case LONG:
-                                prepStmt.setLong(idx + 1, (Long) elems.get(idx));
-                                break;
-                            case STRING:
-                                prepStmt.setString(idx + 1, (String) elems.get(idx));
-                                break;
-                            case DATE:
-                                prepStmt.setDate(idx + 1, (Date) elems.get(idx));
-                                break;
-                            default:
-                                throw new RuntimeException("Unrecognized type for prepared statement");
-                        }
-                    }
-
-                    ++recordsRead;
-                    prepStmt.addBatch();
-                    if ((recordsRead % workConf.getBatchSize()) == 0) {
-
-                        LOG.debug("writing batch {} for table {}", recordsRead, tableName);
-
-                        prepStmt.executeBatch();
-                        prepStmt.clearBatch();
+    private void genTable(Connection conn, Iterable<List<Object>> generator, CastTypes[] types, String tableName) {
+        try (RowSink sink = newRowSink(conn, tableName)) {
+            for (List<Object> elems : generator) {
+                for (int idx = 0; idx < types.length; idx++) {
+                    final CastTypes type = types[idx];
+                    switch (type) {
+                        case DOUBLE:
+                            sink.setDouble(idx + 1, (Double) elems.get(idx));
+                            break;
+                        case LONG:
+                            sink.setLong(idx + 1, (Long) elems.get(idx));
+                            break;
+                        case STRING:
+                            sink.setString(idx + 1, (String) elems.get(idx));
+                            break;
+                        case DATE:
+                            sink.setDate(idx + 1, (Date) elems.get(idx));
+                            break;
+                        default:
+                            throw new RuntimeException("Unrecognized type for prepared statement");
                     }
                 }
-
-                prepStmt.executeBatch();
-            } catch (Exception e) {
-                LOG.error(e.getMessage(), e);
+                sink.addRow();
             }
+            LOG.debug("wrote {} rows for table {}", sink.getRowCount(), tableName);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
         }
     }
 }
@@ -234,7 +234,7 @@ public class OrderGenerator
         return new RowRandomBoundedInt(1066728069L, ORDER_DATE_MIN, ORDER_DATE_MAX);
     }
 
-    static long makeOrderKey(long orderIndex) {
+    public static long makeOrderKey(long orderIndex) {
         long lowBits = orderIndex & ((1 << ORDER_KEY_SPARSE_KEEP) - 1);
 
         long ok = orderIndex;
@@ -33,7 +33,6 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
 
 public class TwitterLoader extends Loader<TwitterBenchmark> {
     private final int num_users;
@@ -63,7 +62,9 @@ public class TwitterLoader extends Loader<TwitterBenchmark> {
         final long tweetsPerThread = Math.max(this.num_tweets / numLoaders, 1);
         final int numTweetThreads = (int) Math.ceil((double) this.num_tweets / tweetsPerThread);
 
-        final CountDownLatch userLatch = new CountDownLatch(numUserThreads);
+        addTableDependency(TwitterConstants.TABLENAME_FOLLOWS, TwitterConstants.TABLENAME_USER);
+        addTableDependency(TwitterConstants.TABLENAME_FOLLOWERS, TwitterConstants.TABLENAME_USER);
+        addTableDependency(TwitterConstants.TABLENAME_TWEETS, TwitterConstants.TABLENAME_USER);
 
         // USERS
         for (int i = 0; i < numUserThreads; i++) {
@@ -76,12 +77,7 @@ public class TwitterLoader extends Loader<TwitterBenchmark> {
                     loadUsers(conn, lo, hi);
 
                 }
-
-                @Override
-                public void afterLoad() {
-                    userLatch.countDown();
-                }
-            });
+            }.loads(TwitterConstants.TABLENAME_USER));
         }
 
         // FOLLOW_DATA depends on USERS
@@ -95,17 +91,7 @@ public class TwitterLoader extends Loader<TwitterBenchmark> {
 
                     loadFollowData(conn, lo, hi);
                 }
-
-                @Override
-                public void beforeLoad() {
-                    try {
-                        userLatch.await();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-
-                }
-            });
+            }.loads(TwitterConstants.TABLENAME_FOLLOWS, TwitterConstants.TABLENAME_FOLLOWERS));
         }
 
         // TWEETS depends on USERS
@@ -120,16 +106,7 @@ public class TwitterLoader extends Loader<TwitterBenchmark> {
 
                     loadTweets(conn, lo, hi);
                 }
-
-                @Override
-                public void beforeLoad() {
-                    try {
-                        userLatch.await();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            });
+            }.loads(TwitterConstants.TABLENAME_TWEETS));
         }
 
         return threads;
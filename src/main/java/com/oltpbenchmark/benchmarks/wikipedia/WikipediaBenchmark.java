@@ -24,6 +24,7 @@ import com.oltpbenchmark.api.Worker;
 import com.oltpbenchmark.benchmarks.wikipedia.data.RevisionHistograms;
 import com.oltpbenchmark.benchmarks.wikipedia.procedures.AddWatchList;
 import com.oltpbenchmark.util.RandomDistribution.FlatHistogram;
+import com.oltpbenchmark.util.RandomDistribution.ZipfTable;
 import com.oltpbenchmark.util.TextGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +42,9 @@ public class WikipediaBenchmark extends BenchmarkModule {
     protected final int num_users;
     protected final int num_pages;
 
+    // Shared by all workers, built on first use
+    private ZipfTable pageIds;
+
     @SuppressWarnings("unchecked")
     public WikipediaBenchmark(WorkloadConfiguration workConf) {
         super(workConf);
@@ -56,6 +60,16 @@ public class WikipediaBenchmark extends BenchmarkModule {
         this.num_pages = (int) Math.ceil(WikipediaConstants.PAGES * this.getWorkloadConfiguration().getScaleFactor());
     }
 
+    /**
+     * The distribution of the pages that the workers access
+     */
+    protected synchronized ZipfTable getPageIdTable() {
+        if (this.pageIds == null) {
+            this.pageIds = new ZipfTable(1, this.num_pages, WikipediaConstants.USER_ID_SIGMA);
+        }
+        return (this.pageIds);
+    }
+
     /**
      * Special function that takes in a char field that represents the last
      * version of the page and then do some permutation on it. This ensures that
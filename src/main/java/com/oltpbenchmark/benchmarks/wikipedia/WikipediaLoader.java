@@ -37,7 +37,6 @@ import java.sql.JDBCType;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
 
 /**
  * Synthetic Wikipedia Data Loader
@@ -47,6 +46,11 @@ import java.util.concurrent.CountDownLatch;
  */
 public class WikipediaLoader extends Loader<WikipediaBenchmark> {
 
+    /**
+     * Name of the step that loads the anonymous user into USERACCT
+     */
+    private static final String ANONYMOUS_USER = "anonymous_user";
+
     /**
      * UserId -> # of Revisions
      */
@@ -93,9 +97,13 @@ public class WikipediaLoader extends Loader<WikipediaBenchmark> {
         final int numUserThreads = (int) Math.ceil((double) this.benchmark.num_users / itemsPerThread);
         final int numPageThreads = (int) Math.ceil((double) this.benchmark.num_pages / itemsPerThread);
 
-        final CountDownLatch userPageLatch = new CountDownLatch(numUserThreads + numPageThreads);
+        // The anonymous user is loaded on its own, ahead of all the other users
+        addTableDependency(WikipediaConstants.TABLENAME_USER, ANONYMOUS_USER);
+        addTableDependency(WikipediaConstants.TABLENAME_PAGE, ANONYMOUS_USER);
+        // WATCHLIST and REVISIONS depends on USERS and PAGES
+        addTableDependency(WikipediaConstants.TABLENAME_WATCHLIST, WikipediaConstants.TABLENAME_USER, WikipediaConstants.TABLENAME_PAGE);
+        addTableDependency(WikipediaConstants.TABLENAME_REVISION, WikipediaConstants.TABLENAME_USER, WikipediaConstants.TABLENAME_PAGE);
 
-        final CountDownLatch anonUserLatch = new CountDownLatch(1);
         threads.add(new LoaderThread(this.benchmark) {
             @Override
             public void load(Connection conn) throws SQLException {
@@ -129,12 +137,7 @@ public class WikipediaLoader extends Loader<WikipediaBenchmark> {
 
                 SQLUtil.setIdentityInsert(conn, getDatabaseType(), catalog_tbl, false);
             }
-
-            @Override
-            public void afterLoad() {
-                anonUserLatch.countDown();
-            }
-        });
+        }.loads(ANONYMOUS_USER));
 
 
         // USERS
@@ -148,21 +151,7 @@ public class WikipediaLoader extends Loader<WikipediaBenchmark> {
                 public void load(Connection conn) throws SQLException {
                     loadUsers(conn, lo, hi);
                 }
-
-                @Override
-                public void afterLoad() {
-                    userPageLatch.countDown();
-                }
-
-                @Override
-                public void beforeLoad() {
-                    try {
-                        anonUserLatch.await();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            });
+            }.loads(WikipediaConstants.TABLENAME_USER));
         }
 
         // PAGES
@@ -176,43 +165,16 @@ public class WikipediaLoader extends Loader<WikipediaBenchmark> {
                 public void load(Connection conn) throws SQLException {
                     loadPages(conn, lo, hi);
                 }
-
-                @Override
-                public void afterLoad() {
-                    userPageLatch.countDown();
-                }
-
-                @Override
-                public void beforeLoad() {
-                    try {
-                        anonUserLatch.await();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-
-                }
-            });
+            }.loads(WikipediaConstants.TABLENAME_PAGE));
         }
 
-        // WATCHLIST and REVISIONS depends on USERS and PAGES
-
         // WATCHLIST
         threads.add(new LoaderThread(this.benchmark) {
             @Override
             public void load(Connection conn) throws SQLException {
                 loadWatchlist(conn);
             }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    userPageLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-
-            }
-        });
+        }.loads(WikipediaConstants.TABLENAME_WATCHLIST));
 
         // REVISIONS
         threads.add(new LoaderThread(this.benchmark) {
@@ -220,17 +182,7 @@ public class WikipediaLoader extends Loader<WikipediaBenchmark> {
             public void load(Connection conn) throws SQLException {
                 loadRevision(conn);
             }
-
-            @Override
-            public void beforeLoad() {
-                try {
-                    userPageLatch.await();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-
-            }
-        });
+        }.loads(WikipediaConstants.TABLENAME_REVISION, WikipediaConstants.TABLENAME_TEXT));
 
         return threads;
     }
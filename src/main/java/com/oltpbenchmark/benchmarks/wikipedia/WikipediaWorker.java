@@ -34,6 +34,7 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 
 public class WikipediaWorker extends Worker<WikipediaBenchmark> {
@@ -41,9 +42,16 @@ public class WikipediaWorker extends Worker<WikipediaBenchmark> {
 
     private Set<Integer> addedWatchlistPages = new HashSet<>();
 
+    private final Flat z_users;
+    private final Zipf z_pages;
+
     public WikipediaWorker(WikipediaBenchmark benchmarkModule, int id) {
         super(benchmarkModule, id);
 
+        // The page distribution is shared, only the random state is our own
+        Random random = new Random(this.rng().nextLong());
+        this.z_users = new Flat(random, 1, benchmarkModule.num_users);
+        this.z_pages = new Zipf(random, benchmarkModule.getPageIdTable());
     }
 
     private String generateUserIP() {
@@ -52,9 +60,6 @@ public class WikipediaWorker extends Worker<WikipediaBenchmark> {
 
     @Override
     protected TransactionStatus executeWork(Connection conn, TransactionType nextTransaction) throws UserAbortException, SQLException {
-        Flat z_users = new Flat(this.rng(), 1, this.getBenchmark().num_users);
-        Zipf z_pages = new Zipf(this.rng(), 1, this.getBenchmark().num_pages, WikipediaConstants.USER_ID_SIGMA);
-
         Class<? extends Procedure> procClass = nextTransaction.getProcedureClass();
         boolean needUser = (procClass.equals(AddWatchList.class) || procClass.equals(RemoveWatchList.class) || procClass.equals(GetPageAuthenticated.class));
 
@@ -23,6 +23,7 @@ import com.oltpbenchmark.api.Loader;
 import com.oltpbenchmark.api.Worker;
 import com.oltpbenchmark.benchmarks.ycsb.procedures.InsertRecord;
 import com.oltpbenchmark.catalog.Table;
+import com.oltpbenchmark.distributions.ZipfianGenerator;
 import com.oltpbenchmark.util.SQLUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +49,21 @@ public class YCSBBenchmark extends BenchmarkModule {
      */
     protected final double skewFactor;
 
+    /**
+     * How the workers pick the keys that they read, update and delete: zipfian (the default), latest or hotspot
+     */
+    protected final String requestDistribution;
+
+    /**
+     * The fraction of the keys in the hot set of the hotspot distribution
+     */
+    protected final double hotspotDataFraction;
+
+    /**
+     * The fraction of the operations that access the hot set of the hotspot distribution
+     */
+    protected final double hotspotOpnFraction;
+
     public YCSBBenchmark(WorkloadConfiguration workConf) {
         super(workConf);
 
@@ -68,6 +84,29 @@ public class YCSBBenchmark extends BenchmarkModule {
             }
         }
         this.skewFactor = skewFactor;
+
+        String requestDistribution = YCSBConstants.REQUEST_DISTRIBUTION_ZIPFIAN;
+        double hotspotDataFraction = 0.2;
+        double hotspotOpnFraction = 0.8;
+        if (workConf.getXmlConfig() != null) {
+            requestDistribution = workConf.getXmlConfig().getString("requestDistribution", requestDistribution).toLowerCase();
+            hotspotDataFraction = workConf.getXmlConfig().getDouble("hotspotDataFraction", hotspotDataFraction);
+            hotspotOpnFraction = workConf.getXmlConfig().getDouble("hotspotOpnFraction", hotspotOpnFraction);
+        }
+        if (!requestDistribution.equals(YCSBConstants.REQUEST_DISTRIBUTION_ZIPFIAN)
+                && !requestDistribution.equals(YCSBConstants.REQUEST_DISTRIBUTION_LATEST)
+                && !requestDistribution.equals(YCSBConstants.REQUEST_DISTRIBUTION_HOTSPOT)) {
+            throw new RuntimeException("Invalid YCSB requestDistribution '" + requestDistribution + "'");
+        }
+        if (hotspotDataFraction < 0 || hotspotDataFraction > 1) {
+            throw new RuntimeException("Invalid YCSB hotspotDataFraction '" + hotspotDataFraction + "'");
+        }
+        if (hotspotOpnFraction < 0 || hotspotOpnFraction > 1) {
+            throw new RuntimeException("Invalid YCSB hotspotOpnFraction '" + hotspotOpnFraction + "'");
+        }
+        this.requestDistribution = requestDistribution;
+        this.hotspotDataFraction = hotspotDataFraction;
+        this.hotspotOpnFraction = hotspotOpnFraction;
     }
 
     @Override
@@ -87,6 +126,10 @@ public class YCSBBenchmark extends BenchmarkModule {
                     init_record_count = res.getInt(1);
                 }
 
+                // Sum zeta once up front, every worker then builds its generators in constant time
+                ZipfianGenerator.zetaCached(init_record_count + 1, this.skewFactor);
+                ZipfianGenerator.zetaCached(YCSBConstants.MAX_SCAN, this.skewFactor);
+
                 for (int i = 0; i < workConf.getTerminals(); ++i) {
                     workers.add(new YCSBWorker(this, i, init_record_count + 1));
                 }
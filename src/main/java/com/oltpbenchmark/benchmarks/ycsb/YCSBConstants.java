@@ -38,4 +38,11 @@ public abstract class YCSBConstants {
 
     public static final String TABLE_NAME = "usertable";
 
+    /**
+     * Request distributions for the keys of the existing records.
+     */
+    public static final String REQUEST_DISTRIBUTION_ZIPFIAN = "zipfian";
+    public static final String REQUEST_DISTRIBUTION_LATEST = "latest";
+    public static final String REQUEST_DISTRIBUTION_HOTSPOT = "hotspot";
+
 }
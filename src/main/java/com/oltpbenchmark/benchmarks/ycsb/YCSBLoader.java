@@ -19,12 +19,11 @@ package com.oltpbenchmark.benchmarks.ycsb;
 
 import com.oltpbenchmark.api.Loader;
 import com.oltpbenchmark.api.LoaderThread;
+import com.oltpbenchmark.api.RowSink;
 import com.oltpbenchmark.catalog.Table;
-import com.oltpbenchmark.util.SQLUtil;
 import com.oltpbenchmark.util.TextGenerator;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -40,6 +39,16 @@ class YCSBLoader extends Loader<YCSBBenchmark> {
         }
     }
 
+    @Override
+    public boolean supportsResume() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsFileGeneration() {
+        return true;
+    }
+
     @Override
     public List<LoaderThread> createLoaderThreads() {
         List<LoaderThread> threads = new ArrayList<>();
@@ -55,7 +64,12 @@ class YCSBLoader extends Loader<YCSBBenchmark> {
                     }
                     loadRecords(conn, start, stop);
                 }
-            });
+
+                @Override
+                public void truncate(Connection conn) throws SQLException {
+                    deleteRange(conn, YCSBConstants.TABLE_NAME, "ycsb_key", start, stop - 1);
+                }
+            }.loads(YCSBConstants.TABLE_NAME));
             count = stop;
         }
         return (threads);
@@ -64,32 +78,16 @@ class YCSBLoader extends Loader<YCSBBenchmark> {
     private void loadRecords(Connection conn, int start, int stop) throws SQLException {
         Table catalog_tbl = benchmark.getCatalog().getTable("USERTABLE");
 
-
-        String sql = SQLUtil.getInsertSQL(catalog_tbl, this.getDatabaseType());
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            long total = 0;
-            int batch = 0;
+        try (RowSink sink = newRowSink(conn, catalog_tbl)) {
             for (int i = start; i < stop; i++) {
-                stmt.setInt(1, i);
+                sink.setInt(1, i);
                 for (int j = 0; j < YCSBConstants.NUM_FIELDS; j++) {
-                    stmt.setString(j + 2, TextGenerator.randomStr(rng(), benchmark.fieldSize));
-                }
-                stmt.addBatch();
-                total++;
-                if (++batch >= workConf.getBatchSize()) {
-                    int[] result = stmt.executeBatch();
-
-                    batch = 0;
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug(String.format("Records Loaded %d / %d", total, this.num_record));
-                    }
+                    sink.setString(j + 2, TextGenerator.randomStr(rng(), benchmark.fieldSize));
                 }
+                sink.addRow();
             }
-            if (batch > 0) {
-                stmt.executeBatch();
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug(String.format("Records Loaded %d / %d", total, this.num_record));
-                }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Records Loaded %d / %d", sink.getRowCount(), this.num_record));
             }
         }
         if (LOG.isDebugEnabled()) {
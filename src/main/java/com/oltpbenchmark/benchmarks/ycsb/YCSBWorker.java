@@ -23,6 +23,9 @@ import com.oltpbenchmark.api.TransactionType;
 import com.oltpbenchmark.api.Worker;
 import com.oltpbenchmark.benchmarks.ycsb.procedures.*;
 import com.oltpbenchmark.distributions.CounterGenerator;
+import com.oltpbenchmark.distributions.HotspotIntegerGenerator;
+import com.oltpbenchmark.distributions.IntegerGenerator;
+import com.oltpbenchmark.distributions.SkewedLatestGenerator;
 import com.oltpbenchmark.distributions.ZipfianGenerator;
 import com.oltpbenchmark.types.TransactionStatus;
 import com.oltpbenchmark.util.TextGenerator;
@@ -40,7 +43,7 @@ import java.util.Random;
  */
 class YCSBWorker extends Worker<YCSBBenchmark> {
 
-    private final ZipfianGenerator readRecord;
+    private final IntegerGenerator readRecord;
     private static CounterGenerator insertRecord;
     private final ZipfianGenerator randScan;
 
@@ -58,7 +61,6 @@ class YCSBWorker extends Worker<YCSBBenchmark> {
     public YCSBWorker(YCSBBenchmark benchmarkModule, int id, int init_record_count) {
         super(benchmarkModule, id);
         this.data = new char[benchmarkModule.fieldSize];
-        this.readRecord = new ZipfianGenerator(rng(), init_record_count, benchmarkModule.skewFactor);// pool for read keys
         this.randScan = new ZipfianGenerator(rng(), YCSBConstants.MAX_SCAN, benchmarkModule.skewFactor);
 
         synchronized (YCSBWorker.class) {
@@ -68,6 +70,15 @@ class YCSBWorker extends Worker<YCSBBenchmark> {
             }
         }
 
+        // pool for read keys
+        this.readRecord = switch (benchmarkModule.requestDistribution) {
+            case YCSBConstants.REQUEST_DISTRIBUTION_LATEST ->
+                    new SkewedLatestGenerator(rng(), insertRecord, benchmarkModule.skewFactor);
+            case YCSBConstants.REQUEST_DISTRIBUTION_HOTSPOT ->
+                    new HotspotIntegerGenerator(rng(), 0, init_record_count - 1, benchmarkModule.hotspotDataFraction, benchmarkModule.hotspotOpnFraction);
+            default -> new ZipfianGenerator(rng(), init_record_count, benchmarkModule.skewFactor);
+        };
+
         // This is a minor speed-up to avoid having to invoke the hashmap look-up
         // everytime we want to execute a txn. This is important to do on 
         // a client machine with not a lot of cores
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.distributions;
+
+import java.util.Random;
+
+/**
+ * Generate integers resembling a hotspot distribution where x% of operations access y% of data items. The parameters
+ * specify the bounds for the numbers, the percentage of the interval which comprises the hot set and the percentage of
+ * operations that access the hot set. Numbers of the hot set are always smaller than any number in the cold set.
+ * Elements from the hot set and the cold set are chosen using a uniform distribution.
+ */
+public class HotspotIntegerGenerator extends IntegerGenerator {
+    final Random rng;
+    final int lowerBound;
+    final int upperBound;
+    final int hotInterval;
+    final int coldInterval;
+    final double hotsetFraction;
+    final double hotOpnFraction;
+
+    /**
+     * Create a generator for hotspot distributions.
+     *
+     * @param rng            The random number generator of this generator.
+     * @param lowerBound     Lower bound of the distribution (inclusive).
+     * @param upperBound     Upper bound of the distribution (inclusive).
+     * @param hotsetFraction Fraction of the data items in the hot set, between 0 and 1.
+     * @param hotOpnFraction Fraction of the operations that access the hot set, between 0 and 1.
+     */
+    public HotspotIntegerGenerator(Random rng, int lowerBound, int upperBound, double hotsetFraction, double hotOpnFraction) {
+        if (hotsetFraction < 0.0 || hotsetFraction > 1.0) {
+            throw new IllegalArgumentException("Hotset fraction out of range: " + hotsetFraction);
+        }
+        if (hotOpnFraction < 0.0 || hotOpnFraction > 1.0) {
+            throw new IllegalArgumentException("Hot operation fraction out of range: " + hotOpnFraction);
+        }
+        if (lowerBound > upperBound) {
+            throw new IllegalArgumentException("Invalid range [" + lowerBound + " > " + upperBound + "]");
+        }
+        this.rng = rng;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.hotsetFraction = hotsetFraction;
+        this.hotOpnFraction = hotOpnFraction;
+        int interval = upperBound - lowerBound + 1;
+        this.hotInterval = (int) (interval * hotsetFraction);
+        this.coldInterval = interval - this.hotInterval;
+    }
+
+    @Override
+    public int nextInt() {
+        int value;
+        if (this.coldInterval == 0 || (this.hotInterval > 0 && this.rng.nextDouble() < this.hotOpnFraction)) {
+            // Choose a value from the hot set.
+            value = this.lowerBound + this.rng.nextInt(this.hotInterval);
+        } else {
+            // Choose a value from the cold set.
+            value = this.lowerBound + this.hotInterval + this.rng.nextInt(this.coldInterval);
+        }
+        setLastInt(value);
+        return value;
+    }
+
+    @Override
+    public double mean() {
+        return this.hotOpnFraction * (this.lowerBound + this.hotInterval / 2.0)
+                + (1 - this.hotOpnFraction) * (this.lowerBound + this.hotInterval + this.coldInterval / 2.0);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.distributions;
+
+import java.util.Random;
+
+/**
+ * Generate a popularity distribution of items, skewed to favor recent items significantly more than older items. The most
+ * recent item is the last value handed out by the basis counter, e.g. the last key that was inserted, and the age of the
+ * item that is picked follows a zipfian distribution.
+ */
+public class SkewedLatestGenerator extends IntegerGenerator {
+    final CounterGenerator basis;
+    final ZipfianGenerator zipfian;
+
+    /**
+     * Create a generator that favors the most recent values of basis.
+     *
+     * @param rng              The random number generator of this generator.
+     * @param basis            The counter of the items, usually shared by all the workers.
+     * @param _zipfianconstant The zipfian constant to use.
+     */
+    public SkewedLatestGenerator(Random rng, CounterGenerator basis, double _zipfianconstant) {
+        this.basis = basis;
+        this.zipfian = new ZipfianGenerator(rng, Math.max(basis.lastInt(), 2), _zipfianconstant);
+        nextInt();
+    }
+
+    /**
+     * Generate the next item, between 0 and the last value of the basis counter.
+     */
+    @Override
+    public int nextInt() {
+        int max = this.basis.lastInt();
+        int nextint = Math.max(0, max - this.zipfian.nextInt(max));
+        setLastInt(nextint);
+        return nextint;
+    }
+
+    @Override
+    public double mean() {
+        throw new UnsupportedOperationException("Can't compute mean of non-stationary distribution!");
+    }
+}
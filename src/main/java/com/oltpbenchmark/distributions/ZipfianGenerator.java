@@ -20,7 +20,9 @@ package com.oltpbenchmark.distributions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A generator of a zipfian distribution. It produces a sequence of items, such that some items are more popular than others, according
@@ -32,19 +34,35 @@ import java.util.Random;
  * popular, min+1 the next most popular, etc.) If you don't want this clustering, and instead want the popular items scattered throughout the
  * item space, then use ScrambledZipfianGenerator instead.
  * <p>
- * Be aware: initializing this generator may take a long time if there are lots of items to choose from (e.g. over a minute
- * for 100 million objects). This is because certain mathematical values need to be computed to properly generate a zipfian skew, and one of those
- * values (zeta) is a sum sequence from 1 to n, where n is the itemcount. Note that if you increase the number of items in the set, we can compute
- * a new zeta incrementally, so it should be fast unless you have added millions of items. However, if you decrease the number of items, we recompute
- * zeta from scratch, so this can take a long time.
+ * Certain mathematical values need to be computed to properly generate a zipfian skew, and one of those values (zeta) is a sum sequence
+ * from 1 to n, where n is the itemcount. The constructors look it up in a cache shared by all generators, keyed by n and the zipfian
+ * constant, so that e.g. every worker of a benchmark only pays for it once; beyond {@link #ZETA_EXACT_LIMIT} items it is approximated in
+ * closed form instead of summed. Note that if you increase the number of items in the set, we can compute a new zeta incrementally, so it
+ * should be fast unless you have added millions of items. However, if you decrease the number of items, we recompute zeta from scratch, so
+ * this can take a long time.
  * <p>
  * The algorithm used here is from "Quickly Generating Billion-Record Synthetic Databases", Jim Gray et al, SIGMOD 1994.
  */
 public class ZipfianGenerator extends IntegerGenerator {
     public static final double ZIPFIAN_CONSTANT = 0.99;
 
+    /**
+     * Zeta is summed exactly up to this many items and approximated beyond.
+     */
+    public static final long ZETA_EXACT_LIMIT = 10000000L;
+
+    /**
+     * Number of leading terms that are always summed exactly by the approximation.
+     */
+    private static final long ZETA_APPROXIMATION_HEAD = 1000L;
+
     private static final Logger LOG = LoggerFactory.getLogger(ZipfianGenerator.class);
 
+    /**
+     * Zeta by zipfian constant and item count
+     */
+    private static final Map<Double, Map<Long, Double>> ZETA_CACHE = new ConcurrentHashMap<>();
+
     final Random rng;
 
     /**
@@ -119,7 +137,7 @@ public class ZipfianGenerator extends IntegerGenerator {
      * @param _zipfianconstant The zipfian constant to use.
      */
     public ZipfianGenerator(Random rng, long min, long max, double _zipfianconstant) {
-        this(rng, min, max, _zipfianconstant, zetastatic(max - min + 1, _zipfianconstant));
+        this(rng, min, max, _zipfianconstant, zetaCached(max - min + 1, _zipfianconstant));
     }
 
     /**
@@ -176,6 +194,48 @@ public class ZipfianGenerator extends IntegerGenerator {
         return zetastatic(0, n, theta, 0);
     }
 
+    /**
+     * Return the zeta constant for a distribution with n items and the zipfian constant theta, computing it only
+     * if no generator has needed it before. Safe to call from any thread.
+     *
+     * @param n     The number of items to compute zeta over.
+     * @param theta The zipfian constant.
+     */
+    public static double zetaCached(long n, double theta) {
+        return ZETA_CACHE.computeIfAbsent(theta, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(n, items -> items <= ZETA_EXACT_LIMIT ? zetastatic(items, theta) : zetaApproximation(items, theta));
+    }
+
+    /**
+     * Approximate the zeta constant for a distribution with n items and the zipfian constant theta. The first
+     * terms are summed exactly and the tail is replaced by its Euler-Maclaurin expansion, which for n beyond
+     * a few thousand items agrees with the exact sum to about the precision of a double.
+     *
+     * @param n     The number of items to compute zeta over.
+     * @param theta The zipfian constant.
+     */
+    static double zetaApproximation(long n, double theta) {
+        long m = ZETA_APPROXIMATION_HEAD;
+        if (n <= m) {
+            return zetastatic(n, theta);
+        }
+        double sum = zetastatic(m, theta);
+
+        // sum(f(i), i = m+1..n) with f(x) = x^-theta is integral(f, m..n) + (f(n) - f(m)) / 2
+        // + (f'(n) - f'(m)) / 12 - (f'''(n) - f'''(m)) / 720 + ...
+        double integral;
+        if (theta == 1.0) {
+            integral = Math.log(n) - Math.log(m);
+        } else {
+            integral = (Math.pow(n, 1 - theta) - Math.pow(m, 1 - theta)) / (1 - theta);
+        }
+        double f = Math.pow(n, -theta) - Math.pow(m, -theta);
+        double f1 = -theta * (Math.pow(n, -theta - 1) - Math.pow(m, -theta - 1));
+        double f3 = -theta * (theta + 1) * (theta + 2) * (Math.pow(n, -theta - 3) - Math.pow(m, -theta - 3));
+
+        return sum + integral + f / 2 + f1 / 12 - f3 / 720;
+    }
+
     /**
      * Compute the zeta constant needed for the distribution. Do this incrementally for a distribution that
      * has n items now but used to have st items. Use the zipfian constant theta. Remember the new value of
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.jdbc;
+
+import com.oltpbenchmark.api.RowSink;
+
+import java.math.BigDecimal;
+import java.sql.*;
+
+/**
+ * Writes rows through a regular INSERT PreparedStatement, sending a JDBC
+ * batch every batchSize rows. Works with any database.
+ */
+public class BatchRowSink implements RowSink {
+
+    private final PreparedStatement stmt;
+    private final int batchSize;
+
+    private int batched = 0;
+    private long rows = 0;
+
+    /**
+     * @param stmt      An INSERT statement with one parameter per column. It is
+     *                  closed along with this sink.
+     * @param batchSize The number of rows per batch
+     */
+    public BatchRowSink(PreparedStatement stmt, int batchSize) {
+        this.stmt = stmt;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void setLong(int index, long value) throws SQLException {
+        this.stmt.setLong(index, value);
+    }
+
+    @Override
+    public void setInt(int index, int value) throws SQLException {
+        this.stmt.setInt(index, value);
+    }
+
+    @Override
+    public void setDouble(int index, double value) throws SQLException {
+        this.stmt.setDouble(index, value);
+    }
+
+    @Override
+    public void setBoolean(int index, boolean value) throws SQLException {
+        this.stmt.setBoolean(index, value);
+    }
+
+    @Override
+    public void setString(int index, String value) throws SQLException {
+        this.stmt.setString(index, value);
+    }
+
+    @Override
+    public void setBigDecimal(int index, BigDecimal value) throws SQLException {
+        this.stmt.setBigDecimal(index, value);
+    }
+
+    @Override
+    public void setDate(int index, Date value) throws SQLException {
+        this.stmt.setDate(index, value);
+    }
+
+    @Override
+    public void setTimestamp(int index, Timestamp value) throws SQLException {
+        this.stmt.setTimestamp(index, value);
+    }
+
+    @Override
+    public void setNull(int index, int sqlType) throws SQLException {
+        this.stmt.setNull(index, sqlType);
+    }
+
+    @Override
+    public void setObject(int index, Object value) throws SQLException {
+        this.stmt.setObject(index, value);
+    }
+
+    @Override
+    public void addRow() throws SQLException {
+        this.stmt.addBatch();
+        this.rows++;
+        if (++this.batched >= this.batchSize) {
+            executeBatch();
+        }
+    }
+
+    private void executeBatch() throws SQLException {
+        this.stmt.executeBatch();
+        this.stmt.clearBatch();
+        this.batched = 0;
+    }
+
+    @Override
+    public long getRowCount() {
+        return this.rows;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (this.batched > 0) {
+                executeBatch();
+            }
+        } finally {
+            this.stmt.close();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.jdbc;
+
+import com.oltpbenchmark.api.RowSink;
+import com.oltpbenchmark.catalog.Table;
+import com.oltpbenchmark.types.DatabaseType;
+import com.oltpbenchmark.util.SQLUtil;
+
+import java.math.BigDecimal;
+import java.sql.*;
+
+/**
+ * Writes rows with INSERT statements that carry several rows of VALUES each,
+ * so that drivers which do not rewrite batches still need only one round
+ * trip per statement. Rows are buffered until a statement is full; the last
+ * rows are sent on close with a statement sized to fit them.
+ */
+public class MultiRowInsertSink implements RowSink {
+
+    /**
+     * Some databases (e.g. SQL Server) do not take more rows of VALUES than
+     * this, and larger statements do not load any faster.
+     */
+    public static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final Connection conn;
+    private final Table table;
+    private final DatabaseType dbType;
+    private final int numColumns;
+    private final int rowsPerStatement;
+
+    // Row-major values of the buffered rows, nulls keep their SQL type
+    private final Object[] values;
+    private final int[] nullTypes;
+
+    private PreparedStatement stmt = null;
+    private int buffered = 0;
+    private int nextColumn = 1;
+    private long rows = 0;
+
+    /**
+     * @param rowsPerStatement The number of rows in each INSERT, see
+     *                         {@link #getRowsPerStatement(Table, DatabaseType, int)}
+     */
+    public MultiRowInsertSink(Connection conn, Table table, DatabaseType dbType, int rowsPerStatement) {
+        if (rowsPerStatement < 1) {
+            throw new IllegalArgumentException("Rows per statement must be positive: " + rowsPerStatement);
+        }
+        this.conn = conn;
+        this.table = table;
+        this.dbType = dbType;
+        this.numColumns = table.getColumnCount();
+        this.rowsPerStatement = rowsPerStatement;
+        this.values = new Object[rowsPerStatement * this.numColumns];
+        this.nullTypes = new int[rowsPerStatement * this.numColumns];
+    }
+
+    /**
+     * The number of rows to put in each INSERT for table: at most batchSize,
+     * and no more than the parameter limit of the database allows. Returns 1
+     * if the database does not support multi-row inserts at all.
+     */
+    public static int getRowsPerStatement(Table table, DatabaseType dbType, int batchSize) {
+        if (!dbType.supportsMultiRowInsert()) {
+            return 1;
+        }
+        int rows = dbType.getMaxInsertParameters() / Math.max(1, table.getColumnCount());
+        return Math.max(1, Math.min(Math.min(rows, batchSize), MAX_ROWS_PER_STATEMENT));
+    }
+
+    private void set(int index, Object value, int sqlType) {
+        if (index != this.nextColumn) {
+            throw new IllegalStateException(String.format(
+                    "Columns must be set in order: expected %d but got %d", this.nextColumn, index));
+        }
+        if (index > this.numColumns) {
+            throw new IllegalStateException(String.format(
+                    "Column %d is out of range, there are only %d", index, this.numColumns));
+        }
+        int offset = this.buffered * this.numColumns + index - 1;
+        this.values[offset] = value;
+        this.nullTypes[offset] = sqlType;
+        this.nextColumn++;
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        set(index, value, Types.BIGINT);
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        set(index, value, Types.INTEGER);
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        set(index, value, Types.DOUBLE);
+    }
+
+    @Override
+    public void setBoolean(int index, boolean value) {
+        set(index, value, Types.BOOLEAN);
+    }
+
+    @Override
+    public void setString(int index, String value) {
+        set(index, value, Types.VARCHAR);
+    }
+
+    @Override
+    public void setBigDecimal(int index, BigDecimal value) {
+        set(index, value, Types.DECIMAL);
+    }
+
+    @Override
+    public void setDate(int index, Date value) {
+        set(index, value, Types.DATE);
+    }
+
+    @Override
+    public void setTimestamp(int index, Timestamp value) {
+        set(index, value, Types.TIMESTAMP);
+    }
+
+    @Override
+    public void setNull(int index, int sqlType) {
+        set(index, null, sqlType);
+    }
+
+    @Override
+    public void setObject(int index, Object value) {
+        set(index, value, Types.NULL);
+    }
+
+    @Override
+    public void addRow() throws SQLException {
+        if (this.nextColumn != this.numColumns + 1) {
+            throw new IllegalStateException(String.format(
+                    "Row has %d columns but the table has %d", this.nextColumn - 1, this.numColumns));
+        }
+        this.nextColumn = 1;
+        this.rows++;
+        if (++this.buffered == this.rowsPerStatement) {
+            if (this.stmt == null) {
+                this.stmt = prepare(this.rowsPerStatement);
+            }
+            execute(this.stmt);
+        }
+    }
+
+    private PreparedStatement prepare(int rowCount) throws SQLException {
+        return this.conn.prepareStatement(SQLUtil.getInsertSQL(this.table, this.dbType, rowCount, new int[0]));
+    }
+
+    private void execute(PreparedStatement stmt) throws SQLException {
+        int count = this.buffered * this.numColumns;
+        for (int i = 0; i < count; i++) {
+            Object value = this.values[i];
+            if (value == null) {
+                stmt.setNull(i + 1, this.nullTypes[i]);
+            } else {
+                stmt.setObject(i + 1, value);
+            }
+            this.values[i] = null;
+        }
+        stmt.executeUpdate();
+        this.buffered = 0;
+    }
+
+    public int getRowsPerStatement() {
+        return this.rowsPerStatement;
+    }
+
+    @Override
+    public long getRowCount() {
+        return this.rows;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (this.buffered > 0) {
+                try (PreparedStatement last = prepare(this.buffered)) {
+                    execute(last);
+                }
+            }
+        } finally {
+            if (this.stmt != null) {
+                this.stmt.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.jdbc;
+
+import com.oltpbenchmark.catalog.Table;
+import com.oltpbenchmark.types.DatabaseType;
+import com.oltpbenchmark.util.SQLUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Sends rows with LOAD DATA LOCAL INFILE, reading each chunk from memory
+ * through the setLocalInfileInputStream() extension of MySQL Connector/J.
+ * The driver is only on the classpath when its profile is built, so that
+ * method is looked up by reflection. The connection must be opened with
+ * allowLoadLocalInfile=true and the server must have local_infile enabled.
+ */
+public final class MySQLLoadDataRowSink extends TextRowSink {
+    private static final Logger LOG = LoggerFactory.getLogger(MySQLLoadDataRowSink.class);
+
+    private static final int FLUSH_SIZE = 4 * 1024 * 1024;
+
+    private final Statement stmt;
+    private final Method setLocalInfileInputStream;
+    private final String sql;
+
+    private MySQLLoadDataRowSink(int numColumns, Statement stmt, Method setLocalInfileInputStream, String sql) {
+        super(numColumns, FLUSH_SIZE);
+        this.stmt = stmt;
+        this.setLocalInfileInputStream = setLocalInfileInputStream;
+        this.sql = sql;
+    }
+
+    /**
+     * Creates a sink for table on conn, which must be a MySQL Connector/J
+     * connection. An empty LOAD DATA is sent first, so that a connection
+     * without allowLoadLocalInfile=true or a server without local_infile
+     * fails here, where the loader can still fall back to INSERTs.
+     */
+    public static MySQLLoadDataRowSink open(Connection conn, Table table, DatabaseType dbType) throws SQLException {
+        String sql = String.format("LOAD DATA LOCAL INFILE 'rows' INTO TABLE %s CHARACTER SET utf8mb4 (%s)",
+                dbType.shouldEscapeNames() ? table.getEscapedName() : table.getName(),
+                SQLUtil.getColumnNames(table, dbType));
+
+        Method method;
+        Statement stmt = conn.createStatement();
+        try {
+            Class<?> jdbcStatementClass = Class.forName("com.mysql.cj.jdbc.JdbcStatement", true, conn.getClass().getClassLoader());
+            method = jdbcStatementClass.getMethod("setLocalInfileInputStream", InputStream.class);
+            stmt = stmt.unwrap(jdbcStatementClass.asSubclass(Statement.class));
+        } catch (ReflectiveOperationException | SQLException ex) {
+            stmt.close();
+            throw new SQLException("MySQL JDBC driver does not support LOAD DATA from a stream", ex);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(sql);
+        }
+        MySQLLoadDataRowSink sink = new MySQLLoadDataRowSink(table.getColumnCount(), stmt, method, sql);
+        try {
+            sink.flush(new byte[0], 0);
+        } catch (SQLException ex) {
+            sink.abort();
+            throw new SQLException("LOAD DATA LOCAL INFILE is not enabled on the connection or the server", ex);
+        }
+        return sink;
+    }
+
+    @Override
+    protected void flush(byte[] buffer, int length) throws SQLException {
+        try {
+            this.setLocalInfileInputStream.invoke(this.stmt, new ByteArrayInputStream(buffer, 0, length));
+        } catch (InvocationTargetException ex) {
+            throw new SQLException(ex.getCause());
+        } catch (IllegalAccessException ex) {
+            throw new SQLException(ex);
+        }
+        this.stmt.executeUpdate(this.sql);
+    }
+
+    @Override
+    protected void finish() throws SQLException {
+        this.stmt.close();
+    }
+
+    @Override
+    protected void abort() {
+        try {
+            this.stmt.close();
+        } catch (SQLException ex) {
+            LOG.debug("Failed to close statement", ex);
+        }
+    }
+}
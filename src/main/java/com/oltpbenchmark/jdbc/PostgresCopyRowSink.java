@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.jdbc;
+
+import com.oltpbenchmark.catalog.Table;
+import com.oltpbenchmark.types.DatabaseType;
+import com.oltpbenchmark.util.SQLUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Streams rows into a table with COPY ... FROM STDIN through the CopyManager
+ * of the PostgreSQL JDBC driver. The driver is only on the classpath when
+ * its profile is built, so its API is looked up by reflection.
+ */
+public final class PostgresCopyRowSink extends TextRowSink {
+    private static final Logger LOG = LoggerFactory.getLogger(PostgresCopyRowSink.class);
+
+    private static final int FLUSH_SIZE = 64 * 1024;
+
+    private final Object copyIn;
+    private final Method writeToCopy;
+    private final Method endCopy;
+    private final Method cancelCopy;
+
+    private PostgresCopyRowSink(int numColumns, Object copyIn, Class<?> copyInClass) throws ReflectiveOperationException {
+        super(numColumns, FLUSH_SIZE);
+        this.copyIn = copyIn;
+        this.writeToCopy = copyInClass.getMethod("writeToCopy", byte[].class, int.class, int.class);
+        this.endCopy = copyInClass.getMethod("endCopy");
+        this.cancelCopy = copyInClass.getMethod("cancelCopy");
+    }
+
+    /**
+     * Starts a COPY into table on conn, which must be a PostgreSQL JDBC
+     * connection. Nothing else can be executed on conn until the sink is
+     * closed.
+     */
+    public static PostgresCopyRowSink open(Connection conn, Table table, DatabaseType dbType) throws SQLException {
+        String sql = String.format("COPY %s (%s) FROM STDIN",
+                dbType.shouldEscapeNames() ? table.getEscapedName() : table.getName(),
+                SQLUtil.getColumnNames(table, dbType));
+        try {
+            ClassLoader loader = conn.getClass().getClassLoader();
+            Class<?> pgConnectionClass = Class.forName("org.postgresql.PGConnection", true, loader);
+            Class<?> copyManagerClass = Class.forName("org.postgresql.copy.CopyManager", true, loader);
+            Class<?> copyInClass = Class.forName("org.postgresql.copy.CopyIn", true, loader);
+
+            Object copyManager = pgConnectionClass.getMethod("getCopyAPI").invoke(conn.unwrap(pgConnectionClass));
+            Object copyIn = copyManagerClass.getMethod("copyIn", String.class).invoke(copyManager, sql);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(sql);
+            }
+            return new PostgresCopyRowSink(table.getColumnCount(), copyIn, copyInClass);
+        } catch (InvocationTargetException ex) {
+            throw unwrap(ex);
+        } catch (ReflectiveOperationException ex) {
+            throw new SQLException("PostgreSQL JDBC driver does not support COPY", ex);
+        }
+    }
+
+    private static SQLException unwrap(InvocationTargetException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof SQLException) {
+            return (SQLException) cause;
+        }
+        return new SQLException(cause);
+    }
+
+    @Override
+    protected void flush(byte[] buffer, int length) throws SQLException {
+        invoke(this.writeToCopy, buffer, 0, length);
+    }
+
+    @Override
+    protected void finish() throws SQLException {
+        invoke(this.endCopy);
+    }
+
+    @Override
+    protected void abort() {
+        try {
+            invoke(this.cancelCopy);
+        } catch (SQLException ex) {
+            LOG.debug("Failed to cancel COPY", ex);
+        }
+    }
+
+    private void invoke(Method method, Object... args) throws SQLException {
+        try {
+            method.invoke(this.copyIn, args);
+        } catch (InvocationTargetException ex) {
+            throw unwrap(ex);
+        } catch (IllegalAccessException ex) {
+            throw new SQLException(ex);
+        }
+    }
+}
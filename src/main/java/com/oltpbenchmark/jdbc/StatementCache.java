@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.jdbc;
+
+import com.oltpbenchmark.api.SQLStmt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A bounded LRU cache of the PreparedStatements of a single worker, keyed by
+ * SQLStmt. The cache belongs to one connection at a time: asking for a
+ * statement on a different connection (or calling {@link #invalidate()})
+ * closes everything that was prepared on the previous one.
+ * <p>
+ * Not thread-safe, each worker has its own.
+ */
+public final class StatementCache implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(StatementCache.class);
+
+    private final int capacity;
+    private final LinkedHashMap<SQLStmt, CachedPreparedStatement> statements;
+
+    private Connection conn = null;
+    private long hits = 0;
+    private long misses = 0;
+
+    public StatementCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Statement cache capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached statement for stmt on conn, preparing it first if
+     * needed. If the cached statement has not been closed by its previous
+     * user yet (e.g. the same SQLStmt is executed inside its own ResultSet
+     * loop), a plain uncached statement is returned instead.
+     */
+    public PreparedStatement prepare(Connection conn, SQLStmt stmt) throws SQLException {
+        if (conn != this.conn) {
+            invalidate();
+            this.conn = conn;
+        }
+
+        String sql = stmt.getSQL();
+        CachedPreparedStatement cached = this.statements.get(stmt);
+        if (cached != null && !cached.getSQL().equals(sql)) {
+            this.statements.remove(stmt);
+            cached.evict();
+            cached = null;
+        }
+
+        if (cached == null) {
+            this.misses++;
+            cached = new CachedPreparedStatement(conn.prepareStatement(sql), sql);
+            this.statements.put(stmt, cached);
+            evictEldest();
+        } else if (cached.isCheckedOut()) {
+            this.misses++;
+            return conn.prepareStatement(sql);
+        } else {
+            this.hits++;
+        }
+
+        cached.checkOut();
+        return cached;
+    }
+
+    private void evictEldest() throws SQLException {
+        Iterator<CachedPreparedStatement> it = this.statements.values().iterator();
+        while (this.statements.size() > this.capacity) {
+            CachedPreparedStatement eldest = it.next();
+            it.remove();
+            eldest.evict();
+        }
+    }
+
+    /**
+     * Closes all cached statements. Must be called when the connection they
+     * were prepared on is closed or replaced.
+     */
+    public void invalidate() {
+        if (this.statements.isEmpty()) {
+            this.conn = null;
+            return;
+        }
+        List<CachedPreparedStatement> evicted = new ArrayList<>(this.statements.values());
+        this.statements.clear();
+        this.conn = null;
+        for (CachedPreparedStatement cached : evicted) {
+            try {
+                cached.evict();
+            } catch (SQLException ex) {
+                // The connection is usually gone already
+                LOG.debug("Failed to close cached statement", ex);
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public int size() {
+        return this.statements.size();
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getMisses() {
+        return this.misses;
+    }
+
+    @Override
+    public void close() {
+        invalidate();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StatementCache{size=%d, capacity=%d, hits=%d, misses=%d}",
+                this.statements.size(), this.capacity, this.hits, this.misses);
+    }
+}
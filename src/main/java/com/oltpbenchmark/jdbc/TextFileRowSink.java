@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.jdbc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+
+/**
+ * Writes rows to a local file instead of a database, in the text format of
+ * {@link TextRowSink}, so that they can be loaded later with COPY, LOAD DATA
+ * or mysqlimport.
+ */
+public final class TextFileRowSink extends TextRowSink {
+
+    private static final int FLUSH_SIZE = 1024 * 1024;
+
+    private final File file;
+    private final FileChannel channel;
+
+    private TextFileRowSink(int numColumns, File file, FileChannel channel) {
+        super(numColumns, FLUSH_SIZE);
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens file for a table with numColumns columns. Unless append is set,
+     * the file is created or emptied first.
+     */
+    public static TextFileRowSink open(File file, int numColumns, boolean append) throws SQLException {
+        try {
+            FileChannel channel = append
+                    ? FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+                    : FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            return new TextFileRowSink(numColumns, file, channel);
+        } catch (IOException ex) {
+            throw new SQLException("Unable to open " + file, ex);
+        }
+    }
+
+    @Override
+    protected void flush(byte[] buffer, int length) throws SQLException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, length);
+        try {
+            while (bytes.hasRemaining()) {
+                this.channel.write(bytes);
+            }
+        } catch (IOException ex) {
+            throw new SQLException("Unable to write " + this.file, ex);
+        }
+    }
+
+    @Override
+    protected void finish() throws SQLException {
+        try {
+            this.channel.close();
+        } catch (IOException ex) {
+            throw new SQLException("Unable to write " + this.file, ex);
+        }
+    }
+
+    @Override
+    protected void abort() {
+        try {
+            this.channel.close();
+        } catch (IOException ex) {
+            // The write already failed
+        }
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+}
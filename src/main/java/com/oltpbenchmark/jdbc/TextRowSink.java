@@ -0,0 +1,377 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.jdbc;
+
+import com.oltpbenchmark.api.RowSink;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Encodes rows straight into a byte buffer in the tab-separated text format
+ * understood by both PostgreSQL's COPY and MySQL's LOAD DATA: columns are
+ * separated by tabs, rows end with a newline, NULL is written as \N and
+ * backslashes, tabs and line breaks inside values are escaped with a
+ * backslash. Everything is encoded as UTF-8.
+ * <p>
+ * Subclasses get the buffer through {@link #flush(byte[], int)} once it holds
+ * at least flushSize bytes, and then again with the remaining rows on close.
+ */
+public abstract class TextRowSink implements RowSink {
+
+    private static final byte[] NULL = {'\\', 'N'};
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes();
+
+    private final int numColumns;
+    private final int flushSize;
+
+    private byte[] buffer;
+    private int length = 0;
+    private int rowStart = 0;
+
+    private int nextColumn = 1;
+    private long rows = 0;
+    private boolean closed = false;
+
+    protected TextRowSink(int numColumns, int flushSize) {
+        this.numColumns = numColumns;
+        this.flushSize = flushSize;
+        this.buffer = new byte[flushSize + (flushSize >> 2)];
+    }
+
+    /**
+     * Sends the first length bytes of buffer, which always end on a row
+     * boundary. The buffer is reused once this returns.
+     */
+    protected abstract void flush(byte[] buffer, int length) throws SQLException;
+
+    /**
+     * Called on close after the last flush.
+     */
+    protected abstract void finish() throws SQLException;
+
+    /**
+     * Called on close instead of finish when sending failed.
+     */
+    protected void abort() {
+        // Nothing to do by default
+    }
+
+    private void startColumn(int index) {
+        if (index != this.nextColumn) {
+            throw new IllegalStateException(String.format(
+                    "Columns must be set in order: expected %d but got %d", this.nextColumn, index));
+        }
+        if (index > this.numColumns) {
+            throw new IllegalStateException(String.format(
+                    "Column %d is out of range, there are only %d", index, this.numColumns));
+        }
+        if (index > 1) {
+            put((byte) '\t');
+        }
+        this.nextColumn++;
+    }
+
+    private void ensureCapacity(int extra) {
+        int required = this.length + extra;
+        if (required > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(required, this.buffer.length << 1));
+        }
+    }
+
+    private void put(byte b) {
+        ensureCapacity(1);
+        this.buffer[this.length++] = b;
+    }
+
+    private void put(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.length, bytes.length);
+        this.length += bytes.length;
+    }
+
+    private void putAscii(String value) {
+        int n = value.length();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            this.buffer[this.length++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void putLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            put(MIN_LONG);
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            this.buffer[this.length++] = '-';
+            value = -value;
+        }
+        int start = this.length;
+        do {
+            this.buffer[this.length++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        // Digits were written backwards
+        for (int i = start, j = this.length - 1; i < j; i++, j--) {
+            byte tmp = this.buffer[i];
+            this.buffer[i] = this.buffer[j];
+            this.buffer[j] = tmp;
+        }
+    }
+
+    private void putPadded(int value, int digits) {
+        ensureCapacity(digits);
+        for (int i = digits - 1; i >= 0; i--) {
+            this.buffer[this.length + i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        this.length += digits;
+    }
+
+    private void putDate(LocalDate date) {
+        putPadded(date.getYear(), 4);
+        put((byte) '-');
+        putPadded(date.getMonthValue(), 2);
+        put((byte) '-');
+        putPadded(date.getDayOfMonth(), 2);
+    }
+
+    private void putEscaped(String value) {
+        int n = value.length();
+        // At most three bytes per char: an escape takes two and a surrogate
+        // pair takes four for two chars
+        ensureCapacity(n * 3);
+        byte[] buf = this.buffer;
+        int pos = this.length;
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                byte escaped = escape(c);
+                if (escaped != 0) {
+                    buf[pos++] = '\\';
+                    buf[pos++] = escaped;
+                } else {
+                    buf[pos++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, same replacement as String.getBytes()
+                buf[pos++] = '?';
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        this.length = pos;
+    }
+
+    private static byte escape(char c) {
+        switch (c) {
+            case '\\':
+                return '\\';
+            case '\t':
+                return 't';
+            case '\n':
+                return 'n';
+            case '\r':
+                return 'r';
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        startColumn(index);
+        putLong(value);
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        startColumn(index);
+        putLong(value);
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        startColumn(index);
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            putLong((long) value);
+        } else {
+            putAscii(Double.toString(value));
+        }
+    }
+
+    @Override
+    public void setBoolean(int index, boolean value) {
+        startColumn(index);
+        put(value ? (byte) '1' : (byte) '0');
+    }
+
+    @Override
+    public void setString(int index, String value) {
+        startColumn(index);
+        if (value == null) {
+            put(NULL);
+        } else {
+            putEscaped(value);
+        }
+    }
+
+    @Override
+    public void setBigDecimal(int index, BigDecimal value) {
+        startColumn(index);
+        if (value == null) {
+            put(NULL);
+        } else {
+            putAscii(value.toPlainString());
+        }
+    }
+
+    @Override
+    public void setDate(int index, Date value) {
+        startColumn(index);
+        if (value == null) {
+            put(NULL);
+        } else {
+            putDate(value.toLocalDate());
+        }
+    }
+
+    @Override
+    public void setTimestamp(int index, Timestamp value) {
+        startColumn(index);
+        if (value == null) {
+            put(NULL);
+            return;
+        }
+        LocalDateTime time = value.toLocalDateTime();
+        putDate(time.toLocalDate());
+        put((byte) ' ');
+        putPadded(time.getHour(), 2);
+        put((byte) ':');
+        putPadded(time.getMinute(), 2);
+        put((byte) ':');
+        putPadded(time.getSecond(), 2);
+        int micros = time.getNano() / 1000;
+        if (micros != 0) {
+            put((byte) '.');
+            putPadded(micros, 6);
+        }
+    }
+
+    @Override
+    public void setNull(int index, int sqlType) {
+        startColumn(index);
+        put(NULL);
+    }
+
+    @Override
+    public void setObject(int index, Object value) {
+        if (value == null) {
+            setNull(index, java.sql.Types.NULL);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            setLong(index, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            setDouble(index, ((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            setBigDecimal(index, (BigDecimal) value);
+        } else if (value instanceof Boolean) {
+            setBoolean(index, (Boolean) value);
+        } else if (value instanceof Timestamp) {
+            setTimestamp(index, (Timestamp) value);
+        } else if (value instanceof Date) {
+            setDate(index, (Date) value);
+        } else if (value instanceof java.util.Date) {
+            setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+        } else {
+            setString(index, value.toString());
+        }
+    }
+
+    @Override
+    public void addRow() throws SQLException {
+        if (this.nextColumn != this.numColumns + 1) {
+            throw new IllegalStateException(String.format(
+                    "Row has %d columns but the table has %d", this.nextColumn - 1, this.numColumns));
+        }
+        put((byte) '\n');
+        this.rowStart = this.length;
+        this.nextColumn = 1;
+        this.rows++;
+        if (this.length >= this.flushSize) {
+            flushRows();
+        }
+    }
+
+    private void flushRows() throws SQLException {
+        flush(this.buffer, this.rowStart);
+        int partial = this.length - this.rowStart;
+        System.arraycopy(this.buffer, this.rowStart, this.buffer, 0, partial);
+        this.length = partial;
+        this.rowStart = 0;
+    }
+
+    @Override
+    public long getRowCount() {
+        return this.rows;
+    }
+
+    /**
+     * The number of bytes of complete rows that have not been flushed yet
+     */
+    protected int getPendingBytes() {
+        return this.rowStart;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        boolean success = false;
+        try {
+            if (this.rowStart > 0) {
+                flushRows();
+            }
+            finish();
+            success = true;
+        } finally {
+            if (!success) {
+                abort();
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.metrics;
+
+import com.oltpbenchmark.LatencyHistogram;
+import com.oltpbenchmark.types.TransactionStatus;
+
+import java.util.List;
+
+/**
+ * What happened during one reporting interval of a running benchmark, for
+ * each transaction type and for all of them together.
+ */
+public final class IntervalMetrics {
+
+    /**
+     * The name under which all the transaction types are reported together.
+     */
+    public static final String ALL_TRANSACTIONS = "All";
+
+    private final long timestampMillis;
+    private final double elapsedSeconds;
+    private final double intervalSeconds;
+    private final List<Transaction> transactions;
+
+    IntervalMetrics(long timestampMillis, double elapsedSeconds, double intervalSeconds, List<Transaction> transactions) {
+        this.timestampMillis = timestampMillis;
+        this.elapsedSeconds = elapsedSeconds;
+        this.intervalSeconds = intervalSeconds;
+        this.transactions = transactions;
+    }
+
+    /**
+     * The wall clock time at the end of the interval.
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * The time from the start of the workload to the end of the interval.
+     */
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    public double getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    /**
+     * The metrics of every transaction type, followed by those of
+     * ALL_TRANSACTIONS.
+     */
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public static final class Transaction {
+        private final String name;
+        private final long[] statuses;
+        private final long[] totalStatuses;
+        private final LatencyHistogram latencies;
+
+        Transaction(String name, long[] statuses, long[] totalStatuses, LatencyHistogram latencies) {
+            this.name = name;
+            this.statuses = statuses;
+            this.totalStatuses = totalStatuses;
+            this.latencies = latencies;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The number of attempts that ended with status during the interval.
+         */
+        public long getCount(TransactionStatus status) {
+            return statuses[status.ordinal()];
+        }
+
+        /**
+         * The number of attempts that ended with status since the start of
+         * the workload.
+         */
+        public long getTotalCount(TransactionStatus status) {
+            return totalStatuses[status.ordinal()];
+        }
+
+        /**
+         * The latencies of the transactions completed during the interval.
+         * They were counted by bucket, so every value is an approximation
+         * within the resolution of the histogram.
+         */
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.metrics;
+
+import com.oltpbenchmark.LatencyHistogram;
+import com.oltpbenchmark.api.TransactionType;
+import com.oltpbenchmark.api.Worker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Periodically sums up the TransactionCounters of all the workers and hands
+ * what changed since the last interval to the reporters, while the benchmark
+ * is running. Reading the counters never blocks the workers.
+ */
+public final class LiveMetrics extends Thread {
+    private static final Logger LOG = LoggerFactory.getLogger(LiveMetrics.class);
+
+    private final List<? extends Worker<?>> workers;
+    private final List<TransactionType> transactionTypes;
+    private final long intervalMillis;
+    private final List<MetricsReporter> reporters;
+
+    // The cumulative counts at the end of the previous interval
+    private final long[][] lastStatuses;
+    private final long[][] lastLatencyBuckets;
+    private final long startNanos = System.nanoTime();
+    private long lastNanos = startNanos;
+
+    private volatile boolean stopped = false;
+
+    {
+        this.setDaemon(true);
+    }
+
+    /**
+     * @param intervalMillis How long to wait between reports in milliseconds
+     */
+    public LiveMetrics(List<? extends Worker<?>> workers, long intervalMillis, List<MetricsReporter> reporters) {
+        super("LiveMetrics");
+        this.workers = workers;
+        this.intervalMillis = intervalMillis;
+        this.reporters = reporters;
+
+        Set<TransactionType> types = new LinkedHashSet<>();
+        for (Worker<?> w : workers) {
+            types.addAll(w.getTransactionCounters().getTransactionTypes());
+        }
+        this.transactionTypes = new ArrayList<>(types);
+        this.lastStatuses = new long[transactionTypes.size()][TransactionCounters.NUM_STATUSES];
+        this.lastLatencyBuckets = new long[transactionTypes.size()][LatencyHistogram.BUCKET_COUNT];
+    }
+
+    @Override
+    public void run() {
+        LOG.info("Starting LiveMetrics Interval [{}ms]", intervalMillis);
+        while (!stopped) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException ex) {
+                // Report the last partial interval below
+            }
+            report();
+        }
+    }
+
+    /**
+     * Reports the last (partial) interval, stops the thread and closes the
+     * reporters.
+     */
+    public void shutdown() throws InterruptedException {
+        stopped = true;
+        interrupt();
+        join();
+        for (MetricsReporter reporter : reporters) {
+            try {
+                reporter.close();
+            } catch (IOException ex) {
+                LOG.warn("Failed to close metrics reporter {}", reporter, ex);
+            }
+        }
+    }
+
+    private void report() {
+        long now = System.nanoTime();
+        double intervalSeconds = (now - lastNanos) / 1e9;
+        lastNanos = now;
+
+        List<IntervalMetrics.Transaction> transactions = new ArrayList<>(transactionTypes.size() + 1);
+        long[] allStatuses = new long[TransactionCounters.NUM_STATUSES];
+        long[] allTotalStatuses = new long[TransactionCounters.NUM_STATUSES];
+        LatencyHistogram allLatencies = new LatencyHistogram();
+
+        for (int t = 0; t < transactionTypes.size(); t++) {
+            TransactionType type = transactionTypes.get(t);
+            long[] totalStatuses = new long[TransactionCounters.NUM_STATUSES];
+            long[] latencyBuckets = new long[LatencyHistogram.BUCKET_COUNT];
+            for (Worker<?> w : workers) {
+                w.getTransactionCounters().addTo(type, totalStatuses, latencyBuckets);
+            }
+
+            long[] statuses = new long[TransactionCounters.NUM_STATUSES];
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = totalStatuses[i] - lastStatuses[t][i];
+                allStatuses[i] += statuses[i];
+                allTotalStatuses[i] += totalStatuses[i];
+            }
+            LatencyHistogram latencies = new LatencyHistogram();
+            for (int i = 0; i < latencyBuckets.length; i++) {
+                latencies.recordBucket(i, latencyBuckets[i] - lastLatencyBuckets[t][i]);
+            }
+            allLatencies.add(latencies);
+
+            lastStatuses[t] = totalStatuses;
+            lastLatencyBuckets[t] = latencyBuckets;
+            transactions.add(new IntervalMetrics.Transaction(type.getName(), statuses, totalStatuses, latencies));
+        }
+        transactions.add(new IntervalMetrics.Transaction(IntervalMetrics.ALL_TRANSACTIONS, allStatuses, allTotalStatuses, allLatencies));
+
+        IntervalMetrics metrics = new IntervalMetrics(System.currentTimeMillis(), (now - startNanos) / 1e9,
+                intervalSeconds, Collections.unmodifiableList(transactions));
+        for (MetricsReporter reporter : reporters) {
+            try {
+                reporter.report(metrics);
+            } catch (IOException ex) {
+                LOG.warn("Failed to report live metrics to {}", reporter, ex);
+            }
+        }
+    }
+}
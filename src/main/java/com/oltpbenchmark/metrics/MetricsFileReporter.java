@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.metrics;
+
+import com.oltpbenchmark.LatencyHistogram;
+import com.oltpbenchmark.types.TransactionStatus;
+import com.oltpbenchmark.util.StringUtil;
+import org.json.JSONObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Appends the live metrics of every interval to a CSV (one row per
+ * transaction type) or JSON lines (one object per interval) file, picked by
+ * the file extension. Once the file grows beyond a size limit it is renamed
+ * to file.1, file.2, ... and a new one is started, so that multi-hour runs
+ * can be tailed and cleaned up as they go.
+ */
+public final class MetricsFileReporter implements MetricsReporter {
+
+    public static final long DEFAULT_MAX_FILE_BYTES = 64L * 1024 * 1024;
+
+    private static final double[] QUANTILES = {0.0, 0.5, 0.9, 0.95, 0.99, 1.0};
+    private static final String[] QUANTILE_KEYS = {"min", "p50", "p90", "p95", "p99", "max"};
+
+    private static final String[] CSV_HEADER = {
+            "Timestamp (milliseconds)",
+            "Time (seconds)",
+            "Transaction Type",
+            "Throughput (requests/second)",
+            "Unknown",
+            "Success",
+            "Aborted",
+            "Retried",
+            "Retried Different",
+            "Errors",
+            "Minimum Latency (microseconds)",
+            "Median Latency (microseconds)",
+            "90th Percentile Latency (microseconds)",
+            "95th Percentile Latency (microseconds)",
+            "99th Percentile Latency (microseconds)",
+            "Maximum Latency (microseconds)"
+    };
+
+    private final Path path;
+    private final boolean csv;
+    private final long maxFileBytes;
+
+    private PrintStream out;
+    private long written;
+    private int rolled = 0;
+
+    public MetricsFileReporter(String fileName) throws IOException {
+        this(fileName, DEFAULT_MAX_FILE_BYTES);
+    }
+
+    public MetricsFileReporter(String fileName, long maxFileBytes) throws IOException {
+        String lowerName = fileName.toLowerCase(Locale.ROOT);
+        if (lowerName.endsWith(".csv")) {
+            this.csv = true;
+        } else if (lowerName.endsWith(".jsonl") || lowerName.endsWith(".json")) {
+            this.csv = false;
+        } else {
+            throw new IllegalArgumentException("Live metrics file must end with .csv or .jsonl: " + fileName);
+        }
+        this.path = Paths.get(fileName);
+        this.maxFileBytes = maxFileBytes;
+        open();
+    }
+
+    private void open() throws IOException {
+        out = new PrintStream(new BufferedOutputStream(Files.newOutputStream(path)), false, StandardCharsets.UTF_8);
+        written = 0;
+        if (csv) {
+            write(StringUtil.join(",", CSV_HEADER));
+        }
+    }
+
+    private void roll() throws IOException {
+        out.close();
+        rolled++;
+        Files.move(path, Paths.get(path + "." + rolled));
+        open();
+    }
+
+    private void write(String line) {
+        out.println(line);
+        written += line.length() + 1;
+    }
+
+    @Override
+    public void report(IntervalMetrics metrics) throws IOException {
+        if (written >= maxFileBytes) {
+            roll();
+        }
+        for (String line : csv ? csvRows(metrics) : List.of(jsonLine(metrics))) {
+            write(line);
+        }
+        out.flush();
+        if (out.checkError()) {
+            throw new IOException("Failed to write live metrics to " + path);
+        }
+    }
+
+    private static List<String> csvRows(IntervalMetrics metrics) {
+        List<String> rows = new ArrayList<>();
+        for (IntervalMetrics.Transaction txn : metrics.getTransactions()) {
+            LatencyHistogram latencies = txn.getLatencies();
+            List<String> row = new ArrayList<>();
+            row.add(Long.toString(metrics.getTimestampMillis()));
+            row.add(String.format("%.3f", metrics.getElapsedSeconds()));
+            row.add(txn.getName());
+            row.add(String.format("%.3f", latencies.getCount() / metrics.getIntervalSeconds()));
+            for (TransactionStatus status : TransactionStatus.values()) {
+                row.add(Long.toString(txn.getCount(status)));
+            }
+            for (double quantile : QUANTILES) {
+                row.add(Long.toString(latencies.getValueAtQuantile(quantile)));
+            }
+            rows.add(StringUtil.join(",", row));
+        }
+        return rows;
+    }
+
+    private static String jsonLine(IntervalMetrics metrics) {
+        JSONObject json = new JSONObject();
+        json.put("timestamp", metrics.getTimestampMillis());
+        json.put("elapsedSeconds", metrics.getElapsedSeconds());
+        json.put("intervalSeconds", metrics.getIntervalSeconds());
+        JSONObject transactions = new JSONObject();
+        for (IntervalMetrics.Transaction txn : metrics.getTransactions()) {
+            LatencyHistogram latencies = txn.getLatencies();
+            JSONObject t = new JSONObject();
+            t.put("throughput", latencies.getCount() / metrics.getIntervalSeconds());
+            for (TransactionStatus status : TransactionStatus.values()) {
+                t.put(status.name().toLowerCase(), txn.getCount(status));
+            }
+            JSONObject latency = new JSONObject();
+            for (int i = 0; i < QUANTILES.length; i++) {
+                latency.put(QUANTILE_KEYS[i], latencies.getValueAtQuantile(QUANTILES[i]));
+            }
+            t.put("latencyMicroseconds", latency);
+            transactions.put(txn.getName(), t);
+        }
+        json.put("transactions", transactions);
+        return json.toString();
+    }
+
+    @Override
+    public void close() {
+        out.close();
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsFileReporter<" + path + ">";
+    }
+}
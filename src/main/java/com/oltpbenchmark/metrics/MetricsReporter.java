@@ -15,15 +15,18 @@
  *
  */
 
-package com.oltpbenchmark.benchmarks.tpcds.procedures;
+package com.oltpbenchmark.metrics;
 
+import java.io.Closeable;
+import java.io.IOException;
 
-import com.oltpbenchmark.api.Procedure;
-
-import java.sql.Connection;
-
-public class Test extends Procedure {
+/**
+ * Somewhere to publish the live metrics of a running benchmark to.
+ */
+public interface MetricsReporter extends Closeable {
 
-    public void run(Connection conn, long incomeID) {
-    }
+    /**
+     * Called by the LiveMetrics thread at the end of every interval.
+     */
+    void report(IntervalMetrics metrics) throws IOException;
 }
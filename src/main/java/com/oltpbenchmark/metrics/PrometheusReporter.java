@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.metrics;
+
+import com.oltpbenchmark.LatencyHistogram;
+import com.oltpbenchmark.types.TransactionStatus;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the latest live metrics over HTTP at /metrics on localhost in the
+ * Prometheus text exposition format, so that they can be scraped (or just curled)
+ * while the benchmark runs. Status counts are cumulative counters; the
+ * throughput and latency percentiles are gauges over the last interval.
+ */
+public final class PrometheusReporter implements MetricsReporter {
+    private static final Logger LOG = LoggerFactory.getLogger(PrometheusReporter.class);
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.75, 0.9, 0.95, 0.99, 1.0};
+
+    private final HttpServer server;
+    private volatile byte[] page = new byte[0];
+
+    public PrometheusReporter(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.server.createContext("/metrics", this::handle);
+        this.server.start();
+        LOG.info("Serving live metrics at http://localhost:{}/metrics", server.getAddress().getPort());
+    }
+
+    /**
+     * The port the endpoint listens on, which is picked by the OS if 0 was
+     * requested.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = page;
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    @Override
+    public void report(IntervalMetrics metrics) {
+        page = format(metrics).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String format(IntervalMetrics metrics) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("# HELP benchbase_transactions_total Transaction attempts by type and final status.\n");
+        sb.append("# TYPE benchbase_transactions_total counter\n");
+        for (IntervalMetrics.Transaction txn : metrics.getTransactions()) {
+            for (TransactionStatus status : TransactionStatus.values()) {
+                sb.append("benchbase_transactions_total{type=\"").append(escape(txn.getName()))
+                        .append("\",status=\"").append(status.name().toLowerCase()).append("\"} ")
+                        .append(txn.getTotalCount(status)).append('\n');
+            }
+        }
+
+        sb.append("# HELP benchbase_throughput_transactions_per_second Completed transactions per second over the last interval.\n");
+        sb.append("# TYPE benchbase_throughput_transactions_per_second gauge\n");
+        for (IntervalMetrics.Transaction txn : metrics.getTransactions()) {
+            double throughput = txn.getLatencies().getCount() / metrics.getIntervalSeconds();
+            sb.append("benchbase_throughput_transactions_per_second{type=\"").append(escape(txn.getName()))
+                    .append("\"} ").append(throughput).append('\n');
+        }
+
+        sb.append("# HELP benchbase_latency_microseconds Latency percentiles of the transactions completed over the last interval.\n");
+        sb.append("# TYPE benchbase_latency_microseconds gauge\n");
+        for (IntervalMetrics.Transaction txn : metrics.getTransactions()) {
+            LatencyHistogram latencies = txn.getLatencies();
+            if (latencies.getCount() == 0) {
+                continue;
+            }
+            for (double quantile : QUANTILES) {
+                sb.append("benchbase_latency_microseconds{type=\"").append(escape(txn.getName()))
+                        .append("\",quantile=\"").append(quantile).append("\"} ")
+                        .append(latencies.getValueAtQuantile(quantile)).append('\n');
+            }
+        }
+
+        sb.append("# HELP benchbase_elapsed_seconds Time since the start of the workload.\n");
+        sb.append("# TYPE benchbase_elapsed_seconds gauge\n");
+        sb.append("benchbase_elapsed_seconds ").append(metrics.getElapsedSeconds()).append('\n');
+        return sb.toString();
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    @Override
+    public String toString() {
+        return "PrometheusReporter<" + getPort() + ">";
+    }
+}
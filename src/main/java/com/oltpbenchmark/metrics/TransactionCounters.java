@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.metrics;
+
+import com.oltpbenchmark.LatencyHistogram;
+import com.oltpbenchmark.api.TransactionType;
+import com.oltpbenchmark.types.TransactionStatus;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cumulative counts of the transaction statuses, latencies and response times
+ * of a single worker, by transaction type. Only the worker updates them, so an increment
+ * is a plain read followed by an ordered write instead of a CAS, and any
+ * other thread can read them at any time without locking. Readers compute
+ * interval values by subtracting their previous reading.
+ */
+public final class TransactionCounters {
+
+    static final int NUM_STATUSES = TransactionStatus.values().length;
+
+    private final Map<TransactionType, Counters> counters;
+
+    private static final class Counters {
+        private final AtomicLongArray statuses = new AtomicLongArray(NUM_STATUSES);
+
+        // Only grown as far as the slowest transaction needs. The worker
+        // copies it before publishing a larger one, so a reader that still
+        // sees the old one just lags behind.
+        private volatile AtomicLongArray latencyBuckets = new AtomicLongArray(0);
+        private volatile AtomicLongArray responseTimeBuckets = new AtomicLongArray(0);
+    }
+
+    public TransactionCounters(Collection<TransactionType> transactionTypes) {
+        Map<TransactionType, Counters> counters = new LinkedHashMap<>();
+        for (TransactionType type : transactionTypes) {
+            if (!type.equals(TransactionType.INVALID)) {
+                counters.put(type, new Counters());
+            }
+        }
+        this.counters = Collections.unmodifiableMap(counters);
+    }
+
+    public Set<TransactionType> getTransactionTypes() {
+        return counters.keySet();
+    }
+
+    /**
+     * Counts one attempt of a transaction that ended with status. Must only
+     * be called by the owning worker.
+     */
+    public void recordStatus(TransactionType type, TransactionStatus status) {
+        Counters c = counters.get(type);
+        if (c != null) {
+            increment(c.statuses, status.ordinal());
+        }
+    }
+
+    /**
+     * Counts one completed transaction. Must only be called by the owning
+     * worker.
+     */
+    public void recordLatency(TransactionType type, long latencyMicroseconds) {
+        Counters c = counters.get(type);
+        if (c != null) {
+            c.latencyBuckets = record(c.latencyBuckets, latencyMicroseconds);
+        }
+    }
+
+    /**
+     * Counts the response time of one completed transaction, which includes
+     * the time it waited in the queue in open-loop mode. Must only be called
+     * by the owning worker.
+     */
+    public void recordResponseTime(TransactionType type, long responseTimeMicroseconds) {
+        Counters c = counters.get(type);
+        if (c != null) {
+            c.responseTimeBuckets = record(c.responseTimeBuckets, responseTimeMicroseconds);
+        }
+    }
+
+    /**
+     * Increments the bucket of microseconds, and returns buckets or a grown
+     * copy of it that the caller must publish
+     */
+    private static AtomicLongArray record(AtomicLongArray buckets, long microseconds) {
+        long value = Math.max(0, Math.min(microseconds, Integer.MAX_VALUE));
+        int index = LatencyHistogram.bucketIndex(value);
+        if (index >= buckets.length()) {
+            AtomicLongArray grown = new AtomicLongArray(index + 1);
+            for (int i = 0; i < buckets.length(); i++) {
+                grown.lazySet(i, buckets.get(i));
+            }
+            buckets = grown;
+        }
+        increment(buckets, index);
+        return buckets;
+    }
+
+    private static void increment(AtomicLongArray array, int index) {
+        array.lazySet(index, array.get(index) + 1);
+    }
+
+    /**
+     * Adds the current counts of type to statuses (indexed by
+     * TransactionStatus ordinal) and latencyBuckets (indexed by
+     * LatencyHistogram bucket). Can be called from any thread.
+     */
+    public void addTo(TransactionType type, long[] statuses, long[] latencyBuckets) {
+        Counters c = counters.get(type);
+        if (c == null) {
+            return;
+        }
+        for (int i = 0; i < NUM_STATUSES; i++) {
+            statuses[i] += c.statuses.get(i);
+        }
+        addBuckets(c.latencyBuckets, latencyBuckets);
+    }
+
+    /**
+     * Adds the current response time counts of type to responseTimeBuckets
+     * (indexed by LatencyHistogram bucket). Can be called from any thread.
+     */
+    public void addResponseTimesTo(TransactionType type, long[] responseTimeBuckets) {
+        Counters c = counters.get(type);
+        if (c != null) {
+            addBuckets(c.responseTimeBuckets, responseTimeBuckets);
+        }
+    }
+
+    private static void addBuckets(AtomicLongArray buckets, long[] to) {
+        for (int i = 0; i < buckets.length(); i++) {
+            to[i] += buckets.get(i);
+        }
+    }
+}
@@ -31,31 +31,36 @@ public enum DatabaseType {
 
     AMAZONRDS(true, false),
     CASSANDRA(true, true),
-    COCKROACHDB(false, false, true),
-    DB2(true, false),
-    H2(true, false),
-    HSQLDB(false, false),
-    POSTGRES(false, false, true),
-    MARIADB(true, false),
+    COCKROACHDB(false, false, true, 32767),
+    DB2(true, false, false, 32767),
+    H2(true, false, false, 32767),
+    HSQLDB(false, false, false, 32767),
+    POSTGRES(false, false, true, 32767),
+    MARIADB(true, false, false, 65535),
     MONETDB(false, false),
-    MYROCKS(true, false),
-    MYSQL(true, false),
+    MYROCKS(true, false, false, 65535),
+    MYSQL(true, false, false, 65535),
     NOISEPAGE(false, false),
     NUODB(true, false),
     ORACLE(true, false),
-    SINGLESTORE(true, false),
-    SPANNER(false, true),
-    SQLAZURE(true, true, true),
-    SQLITE(true, false),
-    SQLSERVER(true, true, true),
+    SINGLESTORE(true, false, false, 65535),
+    SPANNER(false, true, false, 950),
+    SQLAZURE(true, true, true, 2099),
+    SQLITE(true, false, false, 999),
+    SQLSERVER(true, true, true, 2099),
     TIMESTEN(true, false),
     PHOENIX(true, true);
 
 
-    DatabaseType(boolean escapeNames, boolean includeColNames, boolean loadNeedsUpdateColumnSequence) {
+    DatabaseType(boolean escapeNames, boolean includeColNames, boolean loadNeedsUpdateColumnSequence, int maxInsertParameters) {
         this.escapeNames = escapeNames;
         this.includeColNames = includeColNames;
         this.loadNeedsUpdateColumnSequence = loadNeedsUpdateColumnSequence;
+        this.maxInsertParameters = maxInsertParameters;
+    }
+
+    DatabaseType(boolean escapeNames, boolean includeColNames, boolean loadNeedsUpdateColumnSequence) {
+        this(escapeNames, includeColNames, loadNeedsUpdateColumnSequence, 0);
     }
 
     DatabaseType(boolean escapeNames, boolean includeColNames) {
@@ -80,6 +85,13 @@ public enum DatabaseType {
      */
     private final boolean loadNeedsUpdateColumnSequence;
 
+    /**
+     * The largest number of parameters that the framework will bind in a
+     * single multi-row INSERT ... VALUES statement, or 0 if the database
+     * does not support them.
+     */
+    private final int maxInsertParameters;
+
 
     // ---------------------------------------------------------------
     // ACCESSORS
@@ -109,6 +121,22 @@ public enum DatabaseType {
         return (this.loadNeedsUpdateColumnSequence);
     }
 
+    /**
+     * @return True if the framework can load data with INSERT statements that
+     * have multiple rows of VALUES.
+     */
+    public boolean supportsMultiRowInsert() {
+        return (this.maxInsertParameters > 0);
+    }
+
+    /**
+     * @return The largest number of parameters allowed in a single multi-row
+     * INSERT statement, or 0 if they are not supported.
+     */
+    public int getMaxInsertParameters() {
+        return (this.maxInsertParameters);
+    }
+
     // ----------------------------------------------------------------
     // STATIC METHODS + MEMBERS
     // ----------------------------------------------------------------
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A DDL script split into the statements that have to run before a load and
+ * those that can wait until after it, so that the loader does not pay for
+ * maintaining secondary indexes and checking foreign keys on every row.
+ * <p>
+ * Statements are split the same way as by {@link ScriptRunner}. These are
+ * deferred:
+ * <ul>
+ * <li>CREATE [UNIQUE] INDEX, and ALTER TABLE ... ADD [CONSTRAINT c] UNIQUE
+ * or FOREIGN KEY</li>
+ * <li>The UNIQUE, FOREIGN KEY and MySQL style KEY / INDEX elements of a
+ * CREATE TABLE, which are cut out of it and added with ALTER TABLE or
+ * CREATE INDEX instead</li>
+ * <li>Any statement that follows a <code>-- @post-load</code> comment</li>
+ * </ul>
+ * Primary keys are kept, as the loaders rely on them.
+ */
+public class DDLScript {
+
+    /**
+     * Put on the line before a statement to run it after the load
+     */
+    public static final String POST_LOAD_ANNOTATION = "@post-load";
+
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+            "^CREATE\\s+(?:\\w+\\s+)*?TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?([^\\s(]+)\\s*\\(", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "^CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+.*?\\s+ON\\s+([^\\s(]+)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern ALTER_TABLE_ADD = Pattern.compile(
+            "^ALTER\\s+TABLE\\s+([^\\s(]+)\\s+ADD\\s+(.*)$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern FOREIGN_KEY = Pattern.compile(
+            "^(?:CONSTRAINT\\s+\\S+\\s+)?FOREIGN\\s+KEY\\b.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern UNIQUE = Pattern.compile(
+            "^(?:CONSTRAINT\\s+\\S+\\s+)?UNIQUE\\b.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    // Not a column named key, whose type can have a length in parentheses
+    private static final Pattern KEY = Pattern.compile(
+            "^(?:KEY|INDEX)\\s+([^\\s(]+)\\s*(\\(\\s*[^\\d\\s].*)$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final List<String> createStatements = new ArrayList<>();
+    private final Map<String, List<String>> indexStatements = new LinkedHashMap<>();
+    private final Map<String, List<String>> constraintStatements = new LinkedHashMap<>();
+    private final List<String> postLoadStatements = new ArrayList<>();
+
+    private DDLScript() {
+        // Use parse()
+    }
+
+    public static DDLScript parse(Reader reader) throws IOException {
+        DDLScript script = new DDLScript();
+        StringBuilder command = new StringBuilder();
+        boolean postLoad = false;
+        try (BufferedReader lineReader = new BufferedReader(reader)) {
+            String line;
+            while ((line = lineReader.readLine()) != null) {
+                String trimmedLine = line.trim();
+                if (trimmedLine.startsWith("--") || trimmedLine.startsWith("//")) {
+                    if (trimmedLine.substring(2).trim().equalsIgnoreCase(POST_LOAD_ANNOTATION)) {
+                        postLoad = true;
+                    }
+                    continue;
+                }
+                if (trimmedLine.isEmpty()) {
+                    continue;
+                }
+                line = line.replaceAll("--.*$", "");
+                if (trimmedLine.endsWith(";")) {
+                    command.append(line, 0, line.lastIndexOf(';'));
+                    script.add(command.toString().trim(), postLoad);
+                    command.setLength(0);
+                    postLoad = false;
+                } else {
+                    command.append(line).append(' ');
+                }
+            }
+        }
+        return script;
+    }
+
+    private void add(String sql, boolean postLoad) {
+        Matcher index = CREATE_INDEX.matcher(sql);
+        Matcher alter = ALTER_TABLE_ADD.matcher(sql);
+        Matcher create = CREATE_TABLE.matcher(sql);
+        if (index.find()) {
+            addTo(this.indexStatements, index.group(1), sql);
+        } else if (alter.find() && FOREIGN_KEY.matcher(alter.group(2)).matches()) {
+            addTo(this.constraintStatements, alter.group(1), sql);
+        } else if (alter.find(0) && UNIQUE.matcher(alter.group(2)).matches()) {
+            addTo(this.indexStatements, alter.group(1), sql);
+        } else if (postLoad) {
+            this.postLoadStatements.add(sql);
+        } else if (create.find()) {
+            this.createStatements.add(splitCreateTable(sql, create.group(1), create.end()));
+        } else {
+            this.createStatements.add(sql);
+        }
+    }
+
+    /**
+     * Moves the elements of a CREATE TABLE that can be added later into
+     * statements of their own, and returns what is left of it
+     */
+    private String splitCreateTable(String sql, String table, int bodyStart) {
+        List<String> elements = new ArrayList<>();
+        int depth = 0;
+        int start = bodyStart;
+        int end = -1;
+        char quote = 0;
+        for (int i = bodyStart; i < sql.length() && end < 0; i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && depth > 0) {
+                depth--;
+            } else if (c == ')' || (c == ',' && depth == 0)) {
+                elements.add(sql.substring(start, i).trim());
+                start = i + 1;
+                if (c == ')') {
+                    end = i;
+                }
+            }
+        }
+        if (end < 0) {
+            // Not something this can take apart
+            return sql;
+        }
+
+        List<String> kept = new ArrayList<>();
+        for (String element : elements) {
+            Matcher key = KEY.matcher(element);
+            if (FOREIGN_KEY.matcher(element).matches()) {
+                addTo(this.constraintStatements, table, String.format("ALTER TABLE %s ADD %s", table, element));
+            } else if (UNIQUE.matcher(element).matches()) {
+                addTo(this.indexStatements, table, String.format("ALTER TABLE %s ADD %s", table, element));
+            } else if (key.matches()) {
+                addTo(this.indexStatements, table, String.format("CREATE INDEX %s ON %s %s", key.group(1), table, key.group(2)));
+            } else {
+                kept.add(element);
+            }
+        }
+        if (kept.size() == elements.size()) {
+            return sql;
+        }
+        return sql.substring(0, bodyStart) + "\n    " + String.join(",\n    ", kept) + "\n" + sql.substring(end);
+    }
+
+    private static void addTo(Map<String, List<String>> statements, String table, String sql) {
+        String name = table.replaceAll("[\"`\\[\\]]", "").toLowerCase();
+        statements.computeIfAbsent(name, t -> new ArrayList<>()).add(sql);
+    }
+
+    /**
+     * The statements that create the tables, in the order of the script
+     */
+    public List<String> getCreateStatements() {
+        return Collections.unmodifiableList(this.createStatements);
+    }
+
+    /**
+     * The indexes and unique constraints to build after the load, by table
+     */
+    public Map<String, List<String>> getIndexStatements() {
+        return Collections.unmodifiableMap(this.indexStatements);
+    }
+
+    /**
+     * The foreign keys to add after the indexes, by table
+     */
+    public Map<String, List<String>> getConstraintStatements() {
+        return Collections.unmodifiableMap(this.constraintStatements);
+    }
+
+    /**
+     * The other annotated statements, to run in the order of the script once
+     * the indexes and foreign keys exist
+     */
+    public List<String> getPostLoadStatements() {
+        return Collections.unmodifiableList(this.postLoadStatements);
+    }
+
+    /**
+     * The number of statements that are run after the load
+     */
+    public int getPostLoadCount() {
+        int count = 0;
+        for (List<String> statements : this.indexStatements.values()) {
+            count += statements.size();
+        }
+        for (List<String> statements : this.constraintStatements.values()) {
+            count += statements.size();
+        }
+        return count + this.postLoadStatements.size();
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the fields of a range of lines of a delimited flat file, such as the
+ * .dat / .tbl files of the TPC-DS and TPC-H generators, through a memory
+ * mapping. Fields are parsed straight from the mapped bytes; only string
+ * fields are turned into Strings.
+ * <p>
+ * A file is cut into ranges that start and end on line boundaries with
+ * {@link #split(File, int)}, so that they can be read by several threads at
+ * once.
+ */
+public class FlatFileReader implements AutoCloseable {
+
+    public enum Format {
+        /**
+         * Comma separated, fields may be double-quoted and are trimmed
+         */
+        CSV(','),
+        /**
+         * Separated, and usually also terminated, by '|'
+         */
+        PIPE('|');
+
+        private final byte delimiter;
+
+        Format(char delimiter) {
+            this.delimiter = (byte) delimiter;
+        }
+    }
+
+    /**
+     * The lines from byte start up to end of a file
+     */
+    public static class Range {
+        private final File file;
+        private final long start;
+        private final long end;
+
+        public Range(File file, long start, long end) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+
+        public File getFile() {
+            return this.file;
+        }
+
+        public long getStart() {
+            return this.start;
+        }
+
+        public long getEnd() {
+            return this.end;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[%d-%d]", this.file, this.start, this.end);
+        }
+    }
+
+    /**
+     * How much of a range is mapped at a time. A line must fit in it.
+     */
+    static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L};
+
+    private final Range range;
+    private final Format format;
+    private final int windowSize;
+    private final FileChannel channel;
+
+    private MappedByteBuffer window = null;
+    private long windowStart;
+    private int limit;
+
+    // The current line and field, as positions in the window
+    private int lineStart = 0;
+    private int lineEnd = -1;
+    private int next = 0;
+    private int fieldStart;
+    private int fieldEnd;
+    private long lineNumber = 0;
+
+    private byte[] scratch = new byte[256];
+
+    public FlatFileReader(Range range, Format format) throws IOException {
+        this(range, format, WINDOW_SIZE);
+    }
+
+    FlatFileReader(Range range, Format format, int windowSize) throws IOException {
+        this.range = range;
+        this.format = format;
+        this.windowSize = windowSize;
+        this.channel = FileChannel.open(range.getFile().toPath(), StandardOpenOption.READ);
+        this.map(range.getStart());
+    }
+
+    /**
+     * Splits file into at most parts ranges of about the same size, each
+     * starting at the beginning of a line
+     */
+    public static List<Range> split(File file, int parts) throws IOException {
+        List<Range> ranges = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long start = 0;
+            for (int i = 1; i < parts && start < size; i++) {
+                long end = Math.max(start, size * i / parts);
+                // Move on to the start of the next line
+                boolean found = false;
+                while (!found && end < size) {
+                    buffer.clear();
+                    int read = channel.read(buffer, end);
+                    for (int j = 0; j < read && !found; j++) {
+                        if (buffer.get(j) == '\n') {
+                            found = true;
+                            end += j + 1;
+                        }
+                    }
+                    if (!found) {
+                        end += read;
+                    }
+                }
+                if (end > start && end < size) {
+                    ranges.add(new Range(file, start, end));
+                    start = end;
+                }
+            }
+            ranges.add(new Range(file, start, size));
+        }
+        return ranges;
+    }
+
+    private void map(long position) throws IOException {
+        this.windowStart = position;
+        long length = Math.min(this.windowSize, this.range.getEnd() - position);
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        this.limit = (int) length;
+        this.next = 0;
+        this.lineEnd = -1;
+    }
+
+    /**
+     * Moves on to the next line of the range
+     *
+     * @return false at the end of the range
+     */
+    public boolean nextLine() throws IOException {
+        int start = this.lineEnd < 0 ? this.next : this.lineEnd + 1;
+        int end = indexOfNewline(start);
+        if (end < 0 && this.windowStart + this.limit < this.range.getEnd()) {
+            // The line goes past the window
+            this.map(this.windowStart + start);
+            start = 0;
+            end = indexOfNewline(start);
+            if (end < 0 && this.windowStart + this.limit < this.range.getEnd()) {
+                throw new IOException(String.format("Line %d of %s is longer than %d bytes",
+                        this.lineNumber + 1, this.range, this.windowSize));
+            }
+        }
+        if (end < 0) {
+            if (start >= this.limit) {
+                this.lineEnd = this.limit;
+                return false;
+            }
+            // The last line has no newline
+            end = this.limit;
+        }
+        this.lineStart = start;
+        this.lineEnd = end;
+        this.next = start;
+        this.lineNumber++;
+        return true;
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < this.limit; i++) {
+            if (this.window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves on to the next field of the current line. A {@link Format#PIPE}
+     * line that ends in the delimiter has no extra empty field.
+     *
+     * @return false if there are no more fields on the line
+     */
+    public boolean nextField() {
+        int end = this.lineEnd;
+        if (end > 0 && this.window.get(end - 1) == '\r') {
+            end--;
+        }
+        int i = this.next;
+        if (i > end || (i == end && i > this.lineStart && this.format == Format.PIPE)) {
+            return false;
+        }
+        if (this.format == Format.CSV) {
+            while (i < end && this.window.get(i) == ' ') {
+                i++;
+            }
+            if (i < end && this.window.get(i) == '"') {
+                int close = i + 1;
+                while (close < end && this.window.get(close) != '"') {
+                    close++;
+                }
+                this.fieldStart = i + 1;
+                this.fieldEnd = close;
+                i = Math.min(close + 1, end);
+                while (i < end && this.window.get(i) != this.format.delimiter) {
+                    i++;
+                }
+                this.next = i + 1;
+                return true;
+            }
+        }
+        int start = i;
+        while (i < end && this.window.get(i) != this.format.delimiter) {
+            i++;
+        }
+        this.next = i + 1;
+        if (this.format == Format.CSV) {
+            while (i > start && this.window.get(i - 1) == ' ') {
+                i--;
+            }
+        }
+        this.fieldStart = start;
+        this.fieldEnd = i;
+        return true;
+    }
+
+    /**
+     * The number of fields of the current line, without moving on from the
+     * current field
+     */
+    public int countFields() {
+        int next = this.next;
+        int fieldStart = this.fieldStart;
+        int fieldEnd = this.fieldEnd;
+        this.next = this.lineStart;
+        int count = 0;
+        while (nextField()) {
+            count++;
+        }
+        this.next = next;
+        this.fieldStart = fieldStart;
+        this.fieldEnd = fieldEnd;
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return this.fieldEnd == this.fieldStart;
+    }
+
+    /**
+     * The 1-based number of the current line within the range
+     */
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    public String getString() {
+        int length = this.fieldEnd - this.fieldStart;
+        if (length > this.scratch.length) {
+            this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+        }
+        this.window.get(this.fieldStart, this.scratch, 0, length);
+        return new String(this.scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public long getLong() {
+        int i = this.fieldStart;
+        boolean negative = i < this.fieldEnd && this.window.get(i) == '-';
+        if (negative || (i < this.fieldEnd && this.window.get(i) == '+')) {
+            i++;
+        }
+        if (i == this.fieldEnd) {
+            throw new NumberFormatException(String.format("Not a number: \"%s\"", getString()));
+        }
+        long value = 0;
+        for (; i < this.fieldEnd; i++) {
+            int digit = this.window.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(String.format("Not a number: \"%s\"", getString()));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Plain decimals of up to 15 significant digits are parsed directly,
+     * which rounds them the same as {@link Double#parseDouble(String)};
+     * anything else is handed to it
+     */
+    public double getDouble() {
+        int i = this.fieldStart;
+        boolean negative = i < this.fieldEnd && this.window.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < this.fieldEnd; i++) {
+            byte b = this.window.get(i);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+            } else if (b >= '0' && b <= '9' && digits < 15 && scale < POWERS_OF_TEN.length - 1) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits += mantissa > 0 ? 1 : 0;
+                scale += scale >= 0 ? 1 : 0;
+            } else {
+                return Double.parseDouble(getString());
+            }
+        }
+        if (i == this.fieldStart + (negative ? 1 : 0)) {
+            throw new NumberFormatException("Empty number");
+        }
+        double value = scale > 0 ? (double) mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * A date as yyyy-mm-dd, yyyymmdd, mm/dd/yyyy or dd.mm.yyyy
+     */
+    public Date getDate() {
+        int length = this.fieldEnd - this.fieldStart;
+        int year;
+        int month;
+        int day;
+        if (length == 10 && byteAt(4) == '-' && byteAt(7) == '-') {
+            year = digits(0, 4);
+            month = digits(5, 2);
+            day = digits(8, 2);
+        } else if (length == 8) {
+            year = digits(0, 4);
+            month = digits(4, 2);
+            day = digits(6, 2);
+        } else if (length == 10 && byteAt(2) == '/' && byteAt(5) == '/') {
+            month = digits(0, 2);
+            day = digits(3, 2);
+            year = digits(6, 4);
+        } else if (length == 10 && byteAt(2) == '.' && byteAt(5) == '.') {
+            day = digits(0, 2);
+            month = digits(3, 2);
+            year = digits(6, 4);
+        } else {
+            throw new IllegalArgumentException(String.format("Unrecognized date \"%s\"", getString()));
+        }
+        return Date.valueOf(LocalDate.of(year, month, day));
+    }
+
+    private byte byteAt(int offset) {
+        return this.window.get(this.fieldStart + offset);
+    }
+
+    private int digits(int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = byteAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException(String.format("Unrecognized date \"%s\"", getString()));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
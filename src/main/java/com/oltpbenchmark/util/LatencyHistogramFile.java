@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.util;
+
+import com.oltpbenchmark.DistributionStatistics;
+import com.oltpbenchmark.LatencyHistogram;
+import com.oltpbenchmark.Results;
+import com.oltpbenchmark.api.TransactionType;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * The contents of a .histograms.json result file: the latency and response
+ * time histograms of every transaction type of a run. The histograms of runs
+ * done by several driver processes against the same database can be merged
+ * exactly, which per-process percentiles can't.
+ *
+ * <pre>
+ * java -cp benchbase.jar com.oltpbenchmark.util.LatencyHistogramFile merged.histograms.json a.histograms.json b.histograms.json
+ * </pre>
+ */
+public class LatencyHistogramFile {
+
+    public static final String ALL_TRANSACTIONS = "All";
+
+    private static final String ELAPSED = "Elapsed Time (nanoseconds)";
+    private static final String REQUESTS = "Measured Requests";
+    private static final String LATENCIES = "Latency Histograms (microseconds)";
+    private static final String RESPONSE_TIMES = "Response Time Histograms (microseconds)";
+
+    private long nanoseconds;
+    private long measuredRequests;
+    private final Map<String, LatencyHistogram> latencies = new TreeMap<>();
+    private final Map<String, LatencyHistogram> responseTimes = new TreeMap<>();
+
+    public LatencyHistogramFile() {
+    }
+
+    public LatencyHistogramFile(Results results) {
+        this.nanoseconds = results.getNanoseconds();
+        this.measuredRequests = results.getMeasuredRequests();
+        addAll(latencies, results.getLatencyHistograms());
+        addAll(responseTimes, results.getResponseTimeHistograms());
+    }
+
+    private static void addAll(Map<String, LatencyHistogram> into, Map<TransactionType, LatencyHistogram> from) {
+        for (Map.Entry<TransactionType, LatencyHistogram> e : from.entrySet()) {
+            into.computeIfAbsent(e.getKey().getName(), name -> new LatencyHistogram()).add(e.getValue());
+        }
+    }
+
+    /**
+     * Adds the histograms of another run. The runs are assumed to have run
+     * concurrently, so the elapsed time is the longest of the two.
+     */
+    public void add(LatencyHistogramFile other) {
+        nanoseconds = Math.max(nanoseconds, other.nanoseconds);
+        measuredRequests += other.measuredRequests;
+        for (Map.Entry<String, LatencyHistogram> e : other.latencies.entrySet()) {
+            latencies.computeIfAbsent(e.getKey(), name -> new LatencyHistogram()).add(e.getValue());
+        }
+        for (Map.Entry<String, LatencyHistogram> e : other.responseTimes.entrySet()) {
+            responseTimes.computeIfAbsent(e.getKey(), name -> new LatencyHistogram()).add(e.getValue());
+        }
+    }
+
+    public long getNanoseconds() {
+        return nanoseconds;
+    }
+
+    public long getMeasuredRequests() {
+        return measuredRequests;
+    }
+
+    /**
+     * The latency histogram of a transaction type, or of all of them for
+     * ALL_TRANSACTIONS.
+     */
+    public LatencyHistogram getLatencies(String txnName) {
+        return get(latencies, txnName);
+    }
+
+    /**
+     * The response time histogram of a transaction type, or of all of them
+     * for ALL_TRANSACTIONS.
+     */
+    public LatencyHistogram getResponseTimes(String txnName) {
+        return get(responseTimes, txnName);
+    }
+
+    private static LatencyHistogram get(Map<String, LatencyHistogram> histograms, String txnName) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        if (txnName.equals(ALL_TRANSACTIONS)) {
+            histograms.values().forEach(histogram::add);
+        } else if (histograms.containsKey(txnName)) {
+            histogram.add(histograms.get(txnName));
+        }
+        return histogram;
+    }
+
+    public JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put(ELAPSED, nanoseconds);
+        json.put(REQUESTS, measuredRequests);
+        json.put(LATENCIES, toJSON(latencies));
+        json.put(RESPONSE_TIMES, toJSON(responseTimes));
+        return json;
+    }
+
+    private static JSONObject toJSON(Map<String, LatencyHistogram> histograms) throws JSONException {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+            json.put(e.getKey(), e.getValue().toJSON());
+        }
+        return json;
+    }
+
+    public static LatencyHistogramFile fromJSON(JSONObject json) throws JSONException {
+        LatencyHistogramFile file = new LatencyHistogramFile();
+        file.nanoseconds = json.getLong(ELAPSED);
+        file.measuredRequests = json.getLong(REQUESTS);
+        fromJSON(json.getJSONObject(LATENCIES), file.latencies);
+        fromJSON(json.getJSONObject(RESPONSE_TIMES), file.responseTimes);
+        return file;
+    }
+
+    private static void fromJSON(JSONObject json, Map<String, LatencyHistogram> histograms) throws JSONException {
+        for (String name : json.keySet()) {
+            histograms.put(name, LatencyHistogram.fromJSON(json.getJSONObject(name)));
+        }
+    }
+
+    public static LatencyHistogramFile read(File file) throws IOException {
+        return fromJSON(new JSONObject(Files.readString(file.toPath())));
+    }
+
+    public void write(PrintStream os) {
+        os.println(toJSON());
+    }
+
+    /**
+     * The latency and response time distribution of every transaction type
+     * and of all of them together.
+     */
+    public Map<String, Object> summarize() {
+        Set<String> names = new TreeSet<>(latencies.keySet());
+        names.add(ALL_TRANSACTIONS);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("Throughput (requests/second)", (double) measuredRequests / (double) nanoseconds * 1e9);
+        for (String name : names) {
+            Map<String, Object> distributions = new LinkedHashMap<>();
+            distributions.put("Latency Distribution", DistributionStatistics.computeStatistics(getLatencies(name)).toMap());
+            distributions.put("Response Time Distribution", DistributionStatistics.computeStatistics(getResponseTimes(name)).toMap());
+            summary.put(name, distributions);
+        }
+        return summary;
+    }
+
+    /**
+     * Merges the histogram files given after the output file into it, and
+     * prints the distributions of the merged histograms.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: LatencyHistogramFile <output file> <input file>...");
+            System.exit(1);
+        }
+        LatencyHistogramFile merged = new LatencyHistogramFile();
+        for (int i = 1; i < args.length; i++) {
+            merged.add(read(new File(args[i])));
+        }
+        try (PrintStream ps = new PrintStream(args[0])) {
+            merged.write(ps);
+        }
+        System.out.println(JSONUtil.format(JSONUtil.toJSONString(merged.summarize())));
+    }
+}
@@ -270,9 +270,7 @@ public class RandomDistribution {
      */
     public static class Zipf extends DiscreteRNG {
         private static final long serialVersionUID = 1L;
-        private static final double DEFAULT_EPSILON = 0.001;
-        private final ArrayList<Long> k;
-        private final ArrayList<Double> v;
+        private final ZipfTable table;
 
         /**
          * Constructor
@@ -283,7 +281,7 @@ public class RandomDistribution {
          * @param sigma parameter sigma. (sigma > 1.0)
          */
         public Zipf(Random r, long min, long max, double sigma) {
-            this(r, min, max, sigma, DEFAULT_EPSILON);
+            this(r, new ZipfTable(min, max, sigma));
         }
 
         /**
@@ -296,61 +294,143 @@ public class RandomDistribution {
          * @param epsilon Allowable error percentage (0 < epsilon < 1.0).
          */
         public Zipf(Random r, long min, long max, double sigma, double epsilon) {
-            super(r, min, max);
+            this(r, new ZipfTable(min, max, sigma, epsilon));
+        }
+
+        /**
+         * Constructor that shares a precomputed table, e.g. between the
+         * workers of a benchmark. Only the random number generator is
+         * specific to this instance.
+         *
+         * @param r     The random number generator.
+         * @param table The precomputed distribution.
+         */
+        public Zipf(Random r, ZipfTable table) {
+            super(r, table.min, table.max);
+            this.table = table;
+        }
+
+        public ZipfTable getTable() {
+            return (this.table);
+        }
+
+        /**
+         * @see DiscreteRNG#nextInt()
+         */
+        @Override
+        protected long nextLongImpl() {
+            return (this.table.next(this.random));
+        }
+    }
+
+    /**
+     * The cumulative distribution function of a {@link Zipf} distribution.
+     * Building it takes time linear in the size of the range, but only
+     * every (1 / (1 - epsilon))-th key is kept, in primitive arrays, and
+     * sampling is a binary search. It is immutable, so one table can be
+     * shared by any number of threads that each bring their own Random.
+     */
+    public static final class ZipfTable {
+        private static final double DEFAULT_EPSILON = 0.001;
+
+        private final long min;
+        private final long max;
+        private final long[] k;
+        private final double[] v;
+
+        /**
+         * @param min   minimum integer (inclusvie)
+         * @param max   maximum integer (exclusive)
+         * @param sigma parameter sigma. (sigma > 1.0)
+         */
+        public ZipfTable(long min, long max, double sigma) {
+            this(min, max, sigma, DEFAULT_EPSILON);
+        }
+
+        /**
+         * @param min     minimum integer (inclusvie)
+         * @param max     maximum integer (exclusive)
+         * @param sigma   parameter sigma. (sigma > 1.0)
+         * @param epsilon Allowable error percentage (0 < epsilon < 1.0).
+         */
+        public ZipfTable(long min, long max, double sigma, double epsilon) {
             if ((max <= min) || (sigma <= 1) || (epsilon <= 0) || (epsilon >= 0.5)) {
                 throw new IllegalArgumentException("Invalid arguments [min=" + min + ", max=" + max + ", sigma=" + sigma + ", epsilon=" + epsilon + "]");
             }
-            k = new ArrayList<>();
-            v = new ArrayList<>();
+            this.min = min;
+            this.max = max;
+
+            long[] keys = new long[16];
+            double[] values = new double[16];
+            int size = 0;
 
             double sum = 0;
             long last = -1;
             for (long i = min; i < max; ++i) {
                 sum += Math.exp(-sigma * Math.log(i - min + 1));
                 if ((last == -1) || i * (1 - epsilon) > last) {
-                    k.add(i);
-                    v.add(sum);
+                    if (size == keys.length) {
+                        keys = Arrays.copyOf(keys, size * 2);
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    keys[size] = i;
+                    values[size] = sum;
+                    size++;
                     last = i;
                 }
             }
 
             if (last != max - 1) {
-                k.add(max - 1);
-                v.add(sum);
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size + 1);
+                    values = Arrays.copyOf(values, size + 1);
+                }
+                keys[size] = max - 1;
+                values[size] = sum;
+                size++;
             }
 
-            v.set(v.size() - 1, 1.0);
+            values[size - 1] = 1.0;
 
-            for (int i = v.size() - 2; i >= 0; --i) {
-                v.set(i, v.get(i) / sum);
+            for (int i = size - 2; i >= 0; --i) {
+                values[i] = values[i] / sum;
             }
+
+            this.k = Arrays.copyOf(keys, size);
+            this.v = Arrays.copyOf(values, size);
+        }
+
+        public long getMin() {
+            return (this.min);
         }
 
+        public long getMax() {
+            return (this.max);
+        }
 
         /**
-         * @see DiscreteRNG#nextInt()
+         * Draws the next value using random.
          */
-        @Override
-        protected long nextLongImpl() {
+        public long next(Random random) {
             double d = random.nextDouble();
-            int idx = Collections.binarySearch(v, d);
+            int idx = Arrays.binarySearch(v, d);
 
             if (idx > 0) {
                 ++idx;
-            } else {
+            } else if (idx < 0) {
                 idx = -(idx + 1);
             }
 
-            if (idx >= v.size()) {
-                idx = v.size() - 1;
+            if (idx >= v.length) {
+                idx = v.length - 1;
             }
 
             if (idx == 0) {
-                return k.get(0);
+                return k[0];
             }
 
-            long ceiling = k.get(idx);
-            long lower = k.get(idx - 1);
+            long ceiling = k[idx];
+            long lower = k[idx - 1];
 
             return ceiling - DiscreteRNG.nextLong(random, ceiling - lower);
         }
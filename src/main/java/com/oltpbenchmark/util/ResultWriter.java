@@ -19,6 +19,7 @@ package com.oltpbenchmark.util;
 
 import com.oltpbenchmark.DistributionStatistics;
 import com.oltpbenchmark.LatencyRecord;
+import com.oltpbenchmark.RateSearch;
 import com.oltpbenchmark.Results;
 import com.oltpbenchmark.ThreadBench;
 import com.oltpbenchmark.api.TransactionType;
@@ -98,6 +99,21 @@ public class ResultWriter {
         handler.save(os);
     }
 
+    /**
+     * Writes the latency and response time histograms of every transaction
+     * type, which can be merged with those of other driver processes.
+     */
+    public void writeLatencyHistograms(PrintStream os) {
+        new LatencyHistogramFile(results).write(os);
+    }
+
+    /**
+     * Writes the curve of the index-th rate search
+     */
+    public void writeRateSearch(int index, PrintStream os) {
+        results.getRateSearches().get(index).writeCurve(os);
+    }
+
     public void writeSummary(PrintStream os) {
         Map<String, Object> summaryMap = new TreeMap<>();
         TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
@@ -107,51 +123,95 @@ public class ResultWriter {
         summaryMap.put("DBMS Version", collector.collectVersion());
         summaryMap.put("Benchmark Type", benchType);
         summaryMap.put("Latency Distribution", results.getDistributionStatistics().toMap());
+        summaryMap.put("Response Time Distribution", results.getResponseTimeStatistics().toMap());
         summaryMap.put("Throughput (requests/second)", results.requestsPerSecondThroughput());
         summaryMap.put("Goodput (requests/second)", results.requestsPerSecondGoodput());
+        if (!results.getRateSearches().isEmpty()) {
+            List<Map<String, Object>> searches = new ArrayList<>();
+            for (RateSearch search : results.getRateSearches()) {
+                searches.add(search.toMap());
+            }
+            summaryMap.put("Rate Search", searches);
+        }
+        if (!results.getAnnotations().isEmpty()) {
+            // As milliseconds since the epoch, like the current timestamp
+            long offsetNs = System.nanoTime() - now.getTime() * 1000000L;
+            List<Map<String, Object>> annotations = new ArrayList<>();
+            for (Map.Entry<Long, String> e : results.getAnnotations().entrySet()) {
+                Map<String, Object> annotation = new LinkedHashMap<>();
+                annotation.put("Timestamp (milliseconds)", (e.getKey() - offsetNs) / 1000000L);
+                annotation.put("Annotation", e.getValue());
+                annotations.add(annotation);
+            }
+            summaryMap.put("Annotations", annotations);
+        }
         for (String field : BENCHMARK_KEY_FIELD) {
             summaryMap.put(field, expConf.getString(field));
         }
         os.println(JSONUtil.format(JSONUtil.toJSONString(summaryMap)));
     }
 
+    private static final String[] RESULTS_HEADER = {
+            "Time (seconds)",
+            "Throughput (requests/second)",
+            "Average Latency (millisecond)",
+            "Minimum Latency (millisecond)",
+            "25th Percentile Latency (millisecond)",
+            "Median Latency (millisecond)",
+            "75th Percentile Latency (millisecond)",
+            "90th Percentile Latency (millisecond)",
+            "95th Percentile Latency (millisecond)",
+            "99th Percentile Latency (millisecond)",
+            "Maximum Latency (millisecond)",
+            "tp (req/s) scaled",
+            "Average Response Time (millisecond)",
+            "Minimum Response Time (millisecond)",
+            "25th Percentile Response Time (millisecond)",
+            "Median Response Time (millisecond)",
+            "75th Percentile Response Time (millisecond)",
+            "90th Percentile Response Time (millisecond)",
+            "95th Percentile Response Time (millisecond)",
+            "99th Percentile Response Time (millisecond)",
+            "Maximum Response Time (millisecond)",
+            "Annotations",
+            "Target Rate (requests/second)"
+    };
+
+    private static final String[] SAMPLES_HEADER = {
+            "Time (seconds)",
+            "Requests",
+            "Throughput (requests/second)",
+            "Minimum Latency (microseconds)",
+            "25th Percentile Latency (microseconds)",
+            "Median Latency (microseconds)",
+            "Average Latency (microseconds)",
+            "75th Percentile Latency (microseconds)",
+            "90th Percentile Latency (microseconds)",
+            "95th Percentile Latency (microseconds)",
+            "99th Percentile Latency (microseconds)",
+            "Maximum Latency (microseconds)"
+    };
+
+    private static final String[] RAW_HEADER = {
+            "Transaction Type Index",
+            "Transaction Name",
+            "Start Time (microseconds)",
+            "Latency (microseconds)",
+            "Worker Id (start number)",
+            "Phase Id (index in config file)",
+            "Response Time (microseconds)"
+    };
+
     public void writeResults(int windowSizeSeconds, PrintStream out) {
         writeResults(windowSizeSeconds, out, TransactionType.INVALID);
     }
 
     public void writeResults(int windowSizeSeconds, PrintStream out, TransactionType txType) {
-        String[] header = {
-                "Time (seconds)",
-                "Throughput (requests/second)",
-                "Average Latency (millisecond)",
-                "Minimum Latency (millisecond)",
-                "25th Percentile Latency (millisecond)",
-                "Median Latency (millisecond)",
-                "75th Percentile Latency (millisecond)",
-                "90th Percentile Latency (millisecond)",
-                "95th Percentile Latency (millisecond)",
-                "99th Percentile Latency (millisecond)",
-                "Maximum Latency (millisecond)",
-                "tp (req/s) scaled"
-        };
-        out.println(StringUtil.join(",", header));
-        int i = 0;
-        for (DistributionStatistics s : new ThreadBench.TimeBucketIterable(results.getLatencySamples(), windowSizeSeconds, txType)) {
-            out.printf("%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n",
-                    i * windowSizeSeconds,
-                    (double) s.getCount() / windowSizeSeconds,
-                    s.getAverage() / MILLISECONDS_FACTOR,
-                    s.getMinimum() / MILLISECONDS_FACTOR,
-                    s.get25thPercentile() / MILLISECONDS_FACTOR,
-                    s.getMedian() / MILLISECONDS_FACTOR,
-                    s.get75thPercentile() / MILLISECONDS_FACTOR,
-                    s.get90thPercentile() / MILLISECONDS_FACTOR,
-                    s.get95thPercentile() / MILLISECONDS_FACTOR,
-                    s.get99thPercentile() / MILLISECONDS_FACTOR,
-                    s.getMaximum() / MILLISECONDS_FACTOR,
-                    MILLISECONDS_FACTOR / s.getAverage());
-            i += 1;
+        ThreadBench.TimeBucketCollector collector = resultsCollector(windowSizeSeconds, Map.of(txType, out), results);
+        for (LatencyRecord.Sample s : results.getLatencySamples()) {
+            collector.add(s);
         }
+        collector.finish();
     }
 
     public void writeSamples(PrintStream out) {
@@ -159,25 +219,115 @@ public class ResultWriter {
     }
 
     public void writeSamples(int windowSizeSeconds, PrintStream out, TransactionType txType) {
-        String[] header = {
-                "Time (seconds)",
-                "Requests",
-                "Throughput (requests/second)",
-                "Minimum Latency (microseconds)",
-                "25th Percentile Latency (microseconds)",
-                "Median Latency (microseconds)",
-                "Average Latency (microseconds)",
-                "75th Percentile Latency (microseconds)",
-                "90th Percentile Latency (microseconds)",
-                "95th Percentile Latency (microseconds)",
-                "99th Percentile Latency (microseconds)",
-                "Maximum Latency (microseconds)"
-        };
-        out.println(StringUtil.join(",", header));
-        int i = 0;
-        for (DistributionStatistics s : new ThreadBench.TimeBucketIterable(results.getLatencySamples(), windowSizeSeconds, txType)) {
+        ThreadBench.TimeBucketCollector collector = samplesCollector(windowSizeSeconds, out, txType);
+        for (LatencyRecord.Sample s : results.getLatencySamples()) {
+            collector.add(s);
+        }
+        collector.finish();
+    }
+
+    public void writeRaw(List<TransactionType> activeTXTypes, PrintStream out) {
+        double offset = rawTimeOffset();
+        out.println(StringUtil.join(",", RAW_HEADER));
+        for (LatencyRecord.Sample s : results.getLatencySamples()) {
+            writeRawRow(activeTXTypes, offset, s, out);
+        }
+    }
+
+    /**
+     * Writes the raw samples, the per-second samples, the windowed results
+     * and the windowed results of each transaction type all in a single pass
+     * over the merged latency samples, instead of one pass per output.
+     */
+    public void writeSampleOutputs(List<TransactionType> activeTXTypes, int windowSizeSeconds, PrintStream rawOut,
+                                   PrintStream samplesOut, PrintStream resultsOut, Map<TransactionType, PrintStream> txTypeResultsOut) {
+        double offset = rawTimeOffset();
+        rawOut.println(StringUtil.join(",", RAW_HEADER));
+
+        // The overall and the per transaction type results share the same
+        // windows, as they are all derived from the same histograms
+        Map<TransactionType, PrintStream> resultsOuts = new LinkedHashMap<>();
+        resultsOuts.put(TransactionType.INVALID, resultsOut);
+        resultsOuts.putAll(txTypeResultsOut);
+
+        List<ThreadBench.TimeBucketCollector> collectors = new ArrayList<>();
+        collectors.add(samplesCollector(1, samplesOut, TransactionType.INVALID));
+        collectors.add(resultsCollector(windowSizeSeconds, resultsOuts, results));
+
+        for (LatencyRecord.Sample s : results.getLatencySamples()) {
+            writeRawRow(activeTXTypes, offset, s, rawOut);
+            for (ThreadBench.TimeBucketCollector collector : collectors) {
+                collector.add(s);
+            }
+        }
+        for (ThreadBench.TimeBucketCollector collector : collectors) {
+            collector.finish();
+        }
+    }
+
+    /**
+     * @param outs The output of each transaction type, INVALID for all of
+     *             them. Only the latter has a target rate, and only if the
+     *             rate was limited for the whole window, and the annotations
+     *             of the changes made during the window.
+     */
+    private static ThreadBench.TimeBucketCollector resultsCollector(int windowSizeSeconds, Map<TransactionType, PrintStream> outs, Results results) {
+        for (PrintStream out : outs.values()) {
+            out.println(StringUtil.join(",", RESULTS_HEADER));
+        }
+        int[] i = {0};
+        return new ThreadBench.TimeBucketCollector(windowSizeSeconds, bucket -> {
+            for (Map.Entry<TransactionType, PrintStream> e : outs.entrySet()) {
+                DistributionStatistics s = bucket.getLatencyStatistics(e.getKey());
+                DistributionStatistics r = bucket.getResponseTimeStatistics(e.getKey());
+                boolean all = e.getKey().equals(TransactionType.INVALID);
+                double targetRate = all ? results.getTargetRate(bucket.getStartNanosecond(), bucket.getEndNanosecond()) : Double.NaN;
+                String annotations = all ? annotations(results, bucket) : "";
+                e.getValue().printf("%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%s,%s\n",
+                        i[0] * windowSizeSeconds,
+                        (double) s.getCount() / windowSizeSeconds,
+                        s.getAverage() / MILLISECONDS_FACTOR,
+                        s.getMinimum() / MILLISECONDS_FACTOR,
+                        s.get25thPercentile() / MILLISECONDS_FACTOR,
+                        s.getMedian() / MILLISECONDS_FACTOR,
+                        s.get75thPercentile() / MILLISECONDS_FACTOR,
+                        s.get90thPercentile() / MILLISECONDS_FACTOR,
+                        s.get95thPercentile() / MILLISECONDS_FACTOR,
+                        s.get99thPercentile() / MILLISECONDS_FACTOR,
+                        s.getMaximum() / MILLISECONDS_FACTOR,
+                        MILLISECONDS_FACTOR / s.getAverage(),
+                        r.getAverage() / MILLISECONDS_FACTOR,
+                        r.getMinimum() / MILLISECONDS_FACTOR,
+                        r.get25thPercentile() / MILLISECONDS_FACTOR,
+                        r.getMedian() / MILLISECONDS_FACTOR,
+                        r.get75thPercentile() / MILLISECONDS_FACTOR,
+                        r.get90thPercentile() / MILLISECONDS_FACTOR,
+                        r.get95thPercentile() / MILLISECONDS_FACTOR,
+                        r.get99thPercentile() / MILLISECONDS_FACTOR,
+                        r.getMaximum() / MILLISECONDS_FACTOR,
+                        annotations,
+                        Double.isNaN(targetRate) ? "" : String.format("%.3f", targetRate));
+            }
+            i[0] += 1;
+        });
+    }
+
+    private static String annotations(Results results, ThreadBench.TimeBucket bucket) {
+        Collection<String> annotations = results.getAnnotations()
+                .subMap(bucket.getStartNanosecond(), true, bucket.getEndNanosecond(), false).values();
+        if (annotations.isEmpty()) {
+            return "";
+        }
+        return "\"" + String.join("; ", annotations).replace("\"", "\"\"") + "\"";
+    }
+
+    private static ThreadBench.TimeBucketCollector samplesCollector(int windowSizeSeconds, PrintStream out, TransactionType txType) {
+        out.println(StringUtil.join(",", SAMPLES_HEADER));
+        int[] i = {0};
+        return new ThreadBench.TimeBucketCollector(windowSizeSeconds, bucket -> {
+            DistributionStatistics s = bucket.getLatencyStatistics(txType);
             out.printf("%d,%d,%.3f,%d,%d,%d,%d,%d,%d,%d,%d,%d\n",
-                    i * windowSizeSeconds,
+                    i[0] * windowSizeSeconds,
                     s.getCount(),
                     (double) s.getCount() / windowSizeSeconds,
                     (int) s.getMinimum(),
@@ -189,42 +339,32 @@ public class ResultWriter {
                     (int) s.get95thPercentile(),
                     (int) s.get99thPercentile(),
                     (int) s.getMaximum());
-            i += 1;
-        }
+            i[0] += 1;
+        });
     }
 
-    public void writeRaw(List<TransactionType> activeTXTypes, PrintStream out) {
-
+    private static double rawTimeOffset() {
         // This is needed because nanTime does not guarantee offset... we
         // ground it (and round it) to ms from 1970-01-01 like currentTime
         double x = ((double) System.nanoTime() / (double) 1000000000);
         double y = ((double) System.currentTimeMillis() / (double) 1000);
-        double offset = x - y;
-
-        // long startNs = latencySamples.get(0).startNs;
-        String[] header = {
-                "Transaction Type Index",
-                "Transaction Name",
-                "Start Time (microseconds)",
-                "Latency (microseconds)",
-                "Worker Id (start number)",
-                "Phase Id (index in config file)"
+        return x - y;
+    }
+
+    private static void writeRawRow(List<TransactionType> activeTXTypes, double offset, LatencyRecord.Sample s, PrintStream out) {
+        double startUs = ((double) s.getStartNanosecond() / (double) 1000000000);
+        String[] row = {
+                Integer.toString(s.getTransactionType()),
+                // Important!
+                // The TxnType offsets start at 1!
+                activeTXTypes.get(s.getTransactionType() - 1).getName(),
+                String.format("%10.6f", startUs - offset),
+                Integer.toString(s.getLatencyMicrosecond()),
+                Integer.toString(s.getWorkerId()),
+                Integer.toString(s.getPhaseId()),
+                Integer.toString(s.getResponseMicrosecond()),
         };
-        out.println(StringUtil.join(",", header));
-        for (LatencyRecord.Sample s : results.getLatencySamples()) {
-            double startUs = ((double) s.getStartNanosecond() / (double) 1000000000);
-            String[] row = {
-                    Integer.toString(s.getTransactionType()),
-                    // Important!
-                    // The TxnType offsets start at 1!
-                    activeTXTypes.get(s.getTransactionType() - 1).getName(),
-                    String.format("%10.6f", startUs - offset),
-                    Integer.toString(s.getLatencyMicrosecond()),
-                    Integer.toString(s.getWorkerId()),
-                    Integer.toString(s.getPhaseId()),
-            };
-            out.println(StringUtil.join(",", row));
-        }
+        out.println(StringUtil.join(",", row));
     }
 
 
@@ -458,12 +458,35 @@ WHERE t.name='%s' AND c.name='%s'
         // Values
         sb.append(" VALUES ");
         for (int i = 0; i < batchSize; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
             sb.append("(").append(values.toString()).append(")");
         }
 
         return (sb.toString());
     }
 
+    /**
+     * Comma-separated names of all the columns of this table, escaped if the
+     * database needs it
+     *
+     * @param catalog_tbl
+     * @param db_type
+     * @return
+     */
+    public static String getColumnNames(Table catalog_tbl, DatabaseType db_type) {
+        boolean escape_names = db_type.shouldEscapeNames();
+        StringBuilder sb = new StringBuilder();
+        for (Column catalog_col : catalog_tbl.getColumns()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(escape_names ? catalog_col.getEscapedName() : catalog_col.getName());
+        }
+        return (sb.toString());
+    }
+
     public static String getMaxColSQL(DatabaseType dbType, Table catalog_tbl, String col) {
         String tableName = (dbType.shouldEscapeNames() ? catalog_tbl.getEscapedName() : catalog_tbl.getName());
         return String.format("SELECT MAX(%s) FROM %s", col, tableName);
@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.sql.*;
+import java.util.List;
 
 /**
  * Tool to run database scripts
@@ -72,6 +73,38 @@ public class ScriptRunner {
         }
     }
 
+    /**
+     * Runs statements that have already been split up, see {@link DDLScript}
+     */
+    public void runStatements(List<String> statements) throws SQLException {
+        boolean originalAutoCommit = connection.getAutoCommit();
+
+        try {
+            if (originalAutoCommit != this.autoCommit) {
+                connection.setAutoCommit(this.autoCommit);
+            }
+            for (String sql : statements) {
+                LOG.debug(sql);
+                try (Statement statement = connection.createStatement()) {
+                    if (stopOnError) {
+                        statement.execute(sql);
+                    } else {
+                        try {
+                            statement.execute(sql);
+                        } catch (SQLException e) {
+                            LOG.error(e.getMessage(), e);
+                        }
+                    }
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } finally {
+            connection.setAutoCommit(originalAutoCommit);
+        }
+    }
+
     private void runScript(Reader reader) throws IOException, SQLException {
         boolean originalAutoCommit = connection.getAutoCommit();
 
@@ -44,12 +44,17 @@
  ***************************************************************************/
 package com.oltpbenchmark.util;
 
+import com.oltpbenchmark.api.LoaderScheduler;
 import com.oltpbenchmark.api.LoaderThread;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
 
 public abstract class ThreadUtil {
@@ -59,19 +64,77 @@ public abstract class ThreadUtil {
         return Math.max(1, Runtime.getRuntime().availableProcessors());
     }
 
+    /**
+     * Creates unstarted virtual threads, or is null if the JVM doesn't have
+     * them (before JDK 21, or JDK 19/20 without --enable-preview). Looked up
+     * reflectively so that the code still builds for JDK 17.
+     */
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = lookupVirtualThreadFactory();
+
+    private static ThreadFactory lookupVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+            return null;
+        }
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * Returns a new, unstarted virtual thread that will run r.
+     *
+     * @throws UnsupportedOperationException if the JVM doesn't support
+     *                                       virtual threads
+     */
+    public static Thread newVirtualThread(Runnable r) {
+        if (VIRTUAL_THREAD_FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads require JDK 21 or later, this is JDK " + Runtime.version());
+        }
+        return VIRTUAL_THREAD_FACTORY.newThread(r);
+    }
+
 
     /**
      * For a given list of threads, execute them all (up to max_concurrent at a
-     * time) and return once they have completed. If max_concurrent is null,
-     * then all threads will be fired off at the same time
+     * time) in the order of the list and return once they have completed.
      *
      * @param loaderThreads
      * @param maxConcurrent
      * @throws Exception
      */
     public static void runLoaderThreads(final Collection<LoaderThread> loaderThreads, int maxConcurrent) throws InterruptedException {
+        runLoaderThreads(loaderThreads, Collections.emptyMap(), maxConcurrent);
+    }
 
-        final int loaderThreadSize = loaderThreads.size();
+    /**
+     * For a given list of threads, execute them all (up to max_concurrent at a
+     * time) and return once they have completed. A thread is only started
+     * once the threads loading the tables it depends on have completed.
+     *
+     * @param loaderThreads
+     * @param tableDependencies The tables each table depends on
+     * @param maxConcurrent
+     * @throws IllegalStateException if the dependencies have a cycle
+     * @see LoaderScheduler
+     */
+    public static void runLoaderThreads(final Collection<LoaderThread> loaderThreads, Map<String, Set<String>> tableDependencies, int maxConcurrent) throws InterruptedException {
+        runLoaderThreads(new LoaderScheduler(new ArrayList<>(loaderThreads), tableDependencies), maxConcurrent);
+    }
+
+    /**
+     * Execute all the threads of scheduler (up to max_concurrent at a time)
+     * and return once they have completed.
+     *
+     * @param scheduler
+     * @param maxConcurrent
+     */
+    public static void runLoaderThreads(final LoaderScheduler scheduler, int maxConcurrent) throws InterruptedException {
+
+        final int loaderThreadSize = scheduler.size();
 
         int poolSize =  Math.max(1, Math.min(maxConcurrent, loaderThreadSize));
 
@@ -85,16 +148,11 @@ public abstract class ThreadUtil {
 
         final long start = System.currentTimeMillis();
 
-        final CountDownLatch latch = new CountDownLatch(loaderThreadSize);
-
         try {
-            for (LoaderThread loaderThread : loaderThreads) {
-                service.execute(new LatchRunnable(loaderThread, latch));
-            }
-
-            LOG.trace("All Loader Threads executed; waiting on latches...");
-            latch.await();
-
+            scheduler.run(service, poolSize);
+        } catch (RuntimeException e) {
+            LOG.error(String.format("%s; will exit :(", e.getMessage()), e.getCause() != null ? e.getCause() : e);
+            System.exit(1);
         } finally {
 
             LOG.trace("Attempting to shutdown the pool...");
@@ -106,7 +164,7 @@ public abstract class ThreadUtil {
             if (cleanTermination) {
                 LOG.trace("Pool shut down cleanly!");
             } else {
-                LOG.warn("Pool shut down after termination timeout expired.  Likely caused by an unhandled exception in a Loader Thread causing latch count down.  Will force shutdown now.");
+                LOG.warn("Pool shut down after termination timeout expired.  Likely caused by an unhandled exception in a Loader Thread.  Will force shutdown now.");
 
                 List<Runnable> notStarted = service.shutdownNow();
 
@@ -130,26 +188,4 @@ public abstract class ThreadUtil {
         }
     };
 
-    private static class LatchRunnable implements Runnable {
-        private final LoaderThread loaderThread;
-        private final CountDownLatch latch;
-
-        public LatchRunnable(LoaderThread loaderThread, CountDownLatch latch) {
-            this.loaderThread = loaderThread;
-            this.latch = latch;
-        }
-
-        @Override
-        public void run() {
-            try {
-                this.loaderThread.run();
-            } catch (Exception e) {
-                LOG.error(String.format("Exception in Loader Thread with message: [%s]; will count down latch with count %d and then exit :(", e.getMessage(), this.latch.getCount()), e);
-                System.exit(1);
-            } finally {
-                this.latch.countDown();
-            }
-        }
-    }
-
 }
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import com.oltpbenchmark.types.State;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the framework overhead of one pass of the worker loop, without a
+ * database: the calls Worker.run makes around a transaction (the done check,
+ * stayAwake, fetchWork, the state and phase before and after, finishedWork
+ * and the state check of doWork), at increasing numbers of terminals.
+ * <p>
+ * "snapshot" runs those calls on the real WorkloadState. "baseline" runs them
+ * on a copy of the WorkloadState and BenchmarkState logic from before the
+ * snapshot (monitor-guarded state, phase and LinkedList work queue), with
+ * the looks that Worker.run made then.
+ * <p>
+ * unlimited runs an unlimited phase on -t terminals. rateLimited runs a
+ * rate limited phase on -tg 1,N: one dispatcher keeps adding the arrivals of
+ * a rate far beyond what the terminals can take, like ThreadBench does, and
+ * N terminals take them. The score of its terminal method is the dispatch
+ * ceiling.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+ * CP=target/test-classes:target/classes:$(cat cp.txt)
+ * for t in 1 4 16 64 256 1024; do
+ *     java -cp $CP org.openjdk.jmh.Main 'BenchmarkStateBenchmark.unlimited' -t $t
+ *     java -cp $CP org.openjdk.jmh.Main 'BenchmarkStateBenchmark.rateLimited' -tg 1,$t
+ * done
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkStateBenchmark {
+
+    // More than any run uses, so that no terminal is put to sleep
+    private static final int TERMINALS = 1024;
+    private static final double RATE = 100_000_000;
+
+    /**
+     * One pass of the worker loop, and one tick of the dispatcher
+     */
+    private interface Loop {
+        /**
+         * Returns whether the transaction would be recorded
+         */
+        boolean transaction();
+
+        void dispatch();
+
+        /**
+         * Ends the test, so that terminals waiting for work return
+         */
+        void stop();
+    }
+
+    private static final class SnapshotLoop implements Loop {
+        private final BenchmarkState benchmarkState = new BenchmarkState(1);
+        private final WorkloadState workloadState;
+
+        SnapshotLoop(Phase phase) {
+            workloadState = new WorkloadState(benchmarkState, List.of(phase), TERMINALS);
+            workloadState.switchToNextPhase();
+            benchmarkState.startMeasure();
+        }
+
+        @Override
+        public boolean transaction() {
+            WorkloadState w = workloadState;
+            BenchmarkState.Snapshot pre = w.getSnapshot();
+            State preState = pre.getState();
+            if (preState == State.DONE || w.stayAwake()) {
+                return false;
+            }
+            Phase prePhase = w.getPhase(pre);
+            if (prePhase == null) {
+                return false;
+            }
+            SubmittedProcedure pieceOfWork = w.fetchWork(pre);
+            if (pieceOfWork == null) {
+                return false;
+            }
+            if (prePhase.isSerial() || prePhase.isRateLimited()) {
+                pre = w.getSnapshot();
+                prePhase = w.getPhase(pre);
+                preState = pre.getState();
+            }
+            BenchmarkState.Snapshot post = w.getSnapshot();
+            boolean recorded = post.getState() == State.MEASURE && preState == State.MEASURE && w.getPhase(post) == prePhase;
+            w.finishedWork();
+            return recorded;
+        }
+
+        @Override
+        public void dispatch() {
+            workloadState.addArrivals(System.nanoTime(), RATE, false);
+        }
+
+        @Override
+        public void stop() {
+            benchmarkState.startCoolDown();
+        }
+    }
+
+    /**
+     * The parts of WorkloadState and BenchmarkState that the worker loop
+     * used before the snapshot, as they were
+     */
+    private static final class BaselineLoop implements Loop {
+        private final Object benchmarkState = new Object();
+        private volatile State state = State.WARMUP;
+        private final LinkedList<SubmittedProcedure> workQueue = new LinkedList<>();
+        private int workersWaiting = 0;
+        private int workersWorking = 0;
+        private int workerNeedSleep;
+        private Phase currentPhase;
+        private long lastDispatchNs = System.nanoTime();
+
+        BaselineLoop(Phase phase) {
+            currentPhase = phase;
+            phase.resetSerial();
+            workerNeedSleep = TERMINALS - phase.getActiveTerminals();
+            state = State.MEASURE;
+        }
+
+        private State getGlobalState() {
+            synchronized (benchmarkState) {
+                return state;
+            }
+        }
+
+        private Phase getCurrentPhase() {
+            synchronized (benchmarkState) {
+                return currentPhase;
+            }
+        }
+
+        private void stayAwake() {
+            synchronized (this) {
+                while (workerNeedSleep > 0) {
+                    workerNeedSleep--;
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+
+        private SubmittedProcedure fetchWork() {
+            synchronized (this) {
+                if (currentPhase != null && currentPhase.isSerial()) {
+                    throw new UnsupportedOperationException();
+                }
+            }
+
+            if (currentPhase != null && !currentPhase.isRateLimited()) {
+                synchronized (this) {
+                    ++workersWorking;
+                }
+                return new SubmittedProcedure(currentPhase.chooseTransaction(getGlobalState() == State.COLD_QUERY));
+            }
+
+            synchronized (this) {
+                if (workQueue.peek() == null) {
+                    workersWaiting += 1;
+                    while (workQueue.peek() == null) {
+                        if (getGlobalState() == State.EXIT || getGlobalState() == State.DONE) {
+                            return null;
+                        }
+                        try {
+                            this.wait();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                    workersWaiting -= 1;
+                }
+                ++workersWorking;
+                return workQueue.remove();
+            }
+        }
+
+        private void finishedWork() {
+            synchronized (this) {
+                --workersWorking;
+            }
+        }
+
+        @Override
+        public boolean transaction() {
+            State preState = getGlobalState();
+            if (preState == State.DONE) {
+                return false;
+            }
+            stayAwake();
+            Phase prePhase = getCurrentPhase();
+            if (prePhase == null) {
+                return false;
+            }
+            SubmittedProcedure pieceOfWork = fetchWork();
+            if (pieceOfWork == null) {
+                return false;
+            }
+            prePhase = getCurrentPhase();
+            if (prePhase == null) {
+                return false;
+            }
+            preState = getGlobalState();
+            // The check of doWork before the first attempt
+            if (getGlobalState() == State.DONE) {
+                return false;
+            }
+            boolean recorded = false;
+            if (getGlobalState() == State.MEASURE) {
+                Phase postPhase = getCurrentPhase();
+                recorded = postPhase != null && preState == State.MEASURE && postPhase.getId() == prePhase.getId();
+            }
+            finishedWork();
+            return recorded;
+        }
+
+        @Override
+        public void dispatch() {
+            long now = System.nanoTime();
+            int amount = (int) ((now - lastDispatchNs) * RATE / 1e9);
+            if (amount == 0) {
+                return;
+            }
+            lastDispatchNs = now;
+            synchronized (this) {
+                int workAdded = 0;
+                for (int i = 0; i < amount && workQueue.size() <= 10000; ++i) {
+                    workQueue.add(new SubmittedProcedure(currentPhase.chooseTransaction()));
+                    workAdded++;
+                }
+                int numToWake = Math.min(workAdded, workersWaiting);
+                while (numToWake-- > 0) {
+                    this.notify();
+                }
+            }
+        }
+
+        @Override
+        public void stop() {
+            state = State.DONE;
+            synchronized (this) {
+                this.notifyAll();
+            }
+        }
+    }
+
+    private static Loop newLoop(String state, boolean rateLimited) {
+        Phase phase = new Phase("benchmark", 0, 60, 0, rateLimited ? RATE : -1, List.of(1.0), rateLimited, false, false, true,
+                TERMINALS, Phase.Arrival.REGULAR);
+        return state.equals("snapshot") ? new SnapshotLoop(phase) : new BaselineLoop(phase);
+    }
+
+    @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+    public static class Unlimited {
+        @Param({"baseline", "snapshot"})
+        public String state;
+
+        private Loop loop;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            loop = newLoop(state, false);
+        }
+    }
+
+    @org.openjdk.jmh.annotations.State(Scope.Group)
+    public static class RateLimited {
+        @Param({"baseline", "snapshot"})
+        public String state;
+
+        private Loop loop;
+        private boolean stopped;
+
+        // A new test for every iteration, since the last one ends it
+        @Setup(Level.Iteration)
+        public void setUp() {
+            loop = newLoop(state, true);
+            stopped = false;
+        }
+    }
+
+    @Benchmark
+    public boolean unlimited(Unlimited s) {
+        return s.loop.transaction();
+    }
+
+    @Benchmark
+    @Group("rateLimited")
+    @GroupThreads(1)
+    public void dispatcher(RateLimited s, Control control) {
+        if (control.stopMeasurement) {
+            // Let the terminals still waiting for work finish
+            if (!s.stopped) {
+                s.stopped = true;
+                s.loop.stop();
+            }
+            return;
+        }
+        s.loop.dispatch();
+    }
+
+    @Benchmark
+    @Group("rateLimited")
+    @GroupThreads(16)
+    public boolean terminal(RateLimited s, Control control) {
+        // Don't start waiting for work that won't come anymore
+        if (control.stopMeasurement) {
+            return false;
+        }
+        return s.loop.transaction();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.oltpbenchmark.arrivals.ArrivalConfig;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class TestArrivalScheduler {
+
+    /**
+     * testStreams
+     */
+    @Test
+    public void testStreams() {
+        Phase phase = new Phase("test", 1, 10, 0, 1000, List.of(50.0, 30.0, 20.0), true, false, false, true, 2, Phase.Arrival.POISSON);
+        phase.setArrivals(List.of(new ArrivalConfig("mmpp", Map.of("sojourn", "1,0.25"), 2, "second")));
+        ArrivalScheduler scheduler = new ArrivalScheduler(phase, 0, new SplittableRandom(1));
+
+        int[] counts = new int[4];
+        long[] previous = {Long.MIN_VALUE};
+        int seconds = 500;
+        scheduler.release(seconds * 1000000000L, 1000, (type, scheduledNs) -> {
+            // In order across the streams
+            assertTrue(scheduledNs >= previous[0]);
+            previous[0] = scheduledNs;
+            counts[type]++;
+        });
+        // Each type arrives at its share of the rate, whichever stream it is in
+        assertEquals(0, counts[0]);
+        assertEquals(500, counts[1] / (double) seconds, 500 * 0.05);
+        assertEquals(300, counts[2] / (double) seconds, 300 * 0.1);
+        assertEquals(200, counts[3] / (double) seconds, 200 * 0.05);
+        assertTrue(scheduler.getNextArrivalNs() > seconds * 1000000000L);
+
+        // Only a change of the rate or the terminals goes on from here
+        assertTrue(scheduler.continueWith(phase.withChanges(2000, true, false, phase.getWeights(), 1)));
+        assertFalse(scheduler.continueWith(phase.withChanges(1000, true, false, List.of(10.0, 10.0, 80.0), 2)));
+    }
+}
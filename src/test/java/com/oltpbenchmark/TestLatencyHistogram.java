@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class TestLatencyHistogram {
+
+    private static final double[] QUANTILES = {0.0, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 1.0};
+
+    /**
+     * testBuckets
+     */
+    @Test
+    public void testBuckets() {
+        // Buckets are contiguous and every value falls into its own bucket
+        for (int index = 0; index < LatencyHistogram.bucketIndex(Integer.MAX_VALUE); index++) {
+            assertEquals(LatencyHistogram.highestValue(index) + 1, LatencyHistogram.lowestValue(index + 1));
+            assertEquals(index, LatencyHistogram.bucketIndex(LatencyHistogram.lowestValue(index)));
+            assertEquals(index, LatencyHistogram.bucketIndex(LatencyHistogram.highestValue(index)));
+        }
+        assertEquals(127, LatencyHistogram.bucketIndex(127));
+        assertEquals(127, LatencyHistogram.lowestValue(127));
+    }
+
+    /**
+     * testStatistics
+     */
+    @Test
+    public void testStatistics() {
+        Random rand = new Random(1);
+        int[] values = new int[100000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int) Math.exp(rand.nextDouble() * 15);
+            histogram.record(values[i]);
+        }
+        DistributionStatistics exact = DistributionStatistics.computeStatistics(values);
+        DistributionStatistics approx = DistributionStatistics.computeStatistics(histogram);
+
+        assertEquals(exact.getCount(), approx.getCount());
+        assertEquals(exact.getMinimum(), approx.getMinimum(), 0);
+        assertEquals(exact.getMaximum(), approx.getMaximum(), 0);
+        assertEquals(exact.getAverage(), approx.getAverage(), 1e-6);
+        assertEquals(exact.getStandardDeviation(), approx.getStandardDeviation(), 1e-3);
+        assertEquals(exact.getMedian(), approx.getMedian(), exact.getMedian() / 128);
+        assertEquals(exact.get99thPercentile(), approx.get99thPercentile(), exact.get99thPercentile() / 128);
+    }
+
+    /**
+     * testMerge
+     */
+    @Test
+    public void testMerge() {
+        Random rand = new Random(2);
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram merged = new LatencyHistogram();
+        for (int h = 0; h < 4; h++) {
+            LatencyHistogram part = new LatencyHistogram();
+            for (int i = 0; i < 1000 * h; i++) {
+                long value = rand.nextInt(1 << (10 + 4 * h));
+                part.record(value);
+                all.record(value);
+            }
+            merged.add(part);
+        }
+        assertEquals(all.getCount(), merged.getCount());
+        for (double q : QUANTILES) {
+            assertEquals(all.getValueAtQuantile(q), merged.getValueAtQuantile(q));
+        }
+
+        merged.reset();
+        assertEquals(0, merged.getCount());
+        assertEquals(-1, merged.getValueAtQuantile(0.5));
+    }
+
+    /**
+     * testJSON
+     */
+    @Test
+    public void testJSON() {
+        Random rand = new Random(3);
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 5000; i++) {
+            histogram.record(rand.nextInt(1000000));
+        }
+        LatencyHistogram copy = LatencyHistogram.fromJSON(histogram.toJSON());
+        assertEquals(histogram.getCount(), copy.getCount());
+        assertEquals(histogram.getAverage(), copy.getAverage(), 0);
+        assertEquals(histogram.getStandardDeviation(), copy.getStandardDeviation(), 1e-9);
+        for (double q : QUANTILES) {
+            assertEquals(histogram.getValueAtQuantile(q), copy.getValueAtQuantile(q));
+        }
+        assertTrue(LatencyHistogram.fromJSON(new LatencyHistogram().toJSON()).getCount() == 0);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class TestLatencyRecord {
+
+    private static final int NUM_WORKERS = 4;
+
+    /**
+     * testIterateAcrossChunks
+     */
+    @Test
+    public void testIterateAcrossChunks() {
+        // Exactly fill a couple of chunks so that we end on a chunk boundary
+        int count = LatencyRecord.INITIAL_ALLOC_SIZE * 3;
+        LatencyRecord record = new LatencyRecord(0);
+        for (int i = 0; i < count; i++) {
+            record.addLatency(1, i * 1000L, i * 1000L + 5000, 7, 2);
+        }
+        assertEquals(count, record.size());
+
+        int i = 0;
+        for (LatencyRecord.Sample sample : record) {
+            assertEquals(i * 1000L, sample.getStartNanosecond());
+            assertEquals(5, sample.getLatencyMicrosecond());
+            assertEquals(7, sample.getWorkerId());
+            assertEquals(2, sample.getPhaseId());
+            i++;
+        }
+        assertEquals(count, i);
+        assertFalse(new LatencyRecord(0).iterator().hasNext());
+    }
+
+    /**
+     * testResponseTime
+     */
+    @Test
+    public void testResponseTime() {
+        LatencyRecord record = new LatencyRecord(0);
+        record.addLatency(1, 1_000_000L, 3_000_000L, 4_000_000L, 0, 1);
+        LatencyRecord.Sample sample = record.iterator().next();
+        assertEquals(1000, sample.getLatencyMicrosecond());
+        assertEquals(3000, sample.getResponseMicrosecond());
+    }
+
+    /**
+     * testMerge
+     */
+    @Test
+    public void testMerge() {
+        Random rand = new Random(1);
+        List<LatencyRecord> records = new ArrayList<>();
+        int total = 0;
+        for (int w = 0; w < NUM_WORKERS; w++) {
+            LatencyRecord record = new LatencyRecord(0);
+            long start = 0;
+            int count = (w == 1 ? 0 : rand.nextInt(5000));
+            for (int i = 0; i < count; i++) {
+                start += rand.nextInt(1000);
+                record.addLatency(1 + rand.nextInt(3), start, start + rand.nextInt(100000), w, 1);
+            }
+            total += count;
+            records.add(record);
+        }
+
+        long last = Long.MIN_VALUE;
+        int merged = 0;
+        int[] perWorker = new int[NUM_WORKERS];
+        for (LatencyRecord.Sample sample : LatencyRecord.merge(records)) {
+            assertTrue(last <= sample.getStartNanosecond());
+            last = sample.getStartNanosecond();
+            perWorker[sample.getWorkerId()]++;
+            merged++;
+        }
+        assertEquals(total, merged);
+        for (int w = 0; w < NUM_WORKERS; w++) {
+            assertEquals(records.get(w).size(), perWorker[w]);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.junit.Test;
+
+public class TestPhase {
+
+    /**
+     * testRamps
+     */
+    @Test
+    public void testRamps() {
+        Phase phase = new Phase("test", 1, 100, 0, 1000, List.of(100.0), true, false, false, true, 64, Phase.Arrival.REGULAR);
+        assertEquals(1000, phase.getRateAt(0), 0);
+        assertEquals(64, phase.getActiveTerminalsAt(50));
+
+        phase.setRateRamp(new Phase.Ramp(Phase.Ramp.Shape.EXPONENTIAL, 10, 1000, 100));
+        phase.setTerminalRamp(new Phase.Ramp(Phase.Ramp.Shape.LINEAR, 1, 64, 63));
+        assertEquals(10, phase.getRateAt(0), 1e-9);
+        assertEquals(100, phase.getRateAt(50), 1e-9);
+        assertEquals(1000, phase.getRateAt(100), 1e-9);
+        assertEquals(1000, phase.getRateAt(200), 1e-9);
+        assertEquals(1, phase.getActiveTerminalsAt(-1));
+        assertEquals(32, phase.getActiveTerminalsAt(31));
+        assertEquals(64, phase.getActiveTerminalsAt(100));
+
+        // The probes of a rate search run at a rate of their own
+        Phase probe = phase.withRate(500, 10);
+        assertEquals(500, probe.getRateAt(0), 0);
+        assertEquals(64, probe.getActiveTerminalsAt(0));
+    }
+
+    /**
+     * testTargetRate
+     */
+    @Test
+    public void testTargetRate() {
+        Results results = new Results(0, 0, null, List.of());
+        assertTrue(Double.isNaN(results.getTargetRate(0, 10)));
+        results.getTargetRates().put(0L, 100.0);
+        results.getTargetRates().put(10L, 200.0);
+        results.getTargetRates().put(20L, Double.NaN);
+        assertEquals(100, results.getTargetRate(0, 10), 0);
+        assertEquals(150, results.getTargetRate(5, 15), 0);
+        assertTrue(Double.isNaN(results.getTargetRate(15, 25)));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class TestRateSearch {
+
+    private static final int SECONDS = 5;
+
+    private static Phase template() {
+        return new Phase("test", 1, SECONDS, 1, 10, List.of(100.0), true, false, false, true, 1, Phase.Arrival.REGULAR);
+    }
+
+    /**
+     * Runs search against a system that completes at most capacity requests
+     * per second, in latencyMicroseconds each up to kneeRate and in 100ms
+     * above it. Returns the rates it probed.
+     */
+    private static List<Double> run(RateSearch search, double capacity, double kneeRate, long latencyMicroseconds) {
+        List<Double> rates = new ArrayList<>();
+        Phase probe;
+        while ((probe = search.nextProbe()) != null) {
+            assertEquals(SECONDS + 1, probe.getTime());
+            assertEquals(0, probe.getWarmupTime());
+            assertTrue(probe.getSearch() == search);
+            double rate = probe.getRate();
+            rates.add(rate);
+            LatencyHistogram histogram = new LatencyHistogram();
+            long latency = rate <= kneeRate ? latencyMicroseconds : 100_000;
+            for (int i = 0; i < Math.min(rate, capacity) * SECONDS; i++) {
+                histogram.record(latency);
+            }
+            search.record(histogram, SECONDS);
+        }
+        return rates;
+    }
+
+    /**
+     * testBisect
+     */
+    @Test
+    public void testBisect() {
+        RateSearch search = new RateSearch(template(), RateSearch.Metric.P99, false, 50, 10, 100000, 0, 0.05, 0.95, 20);
+        List<Double> rates = run(search, Double.MAX_VALUE, 300, 5_000);
+
+        // Doubling up to the first miss, then bisecting
+        assertEquals(List.of(10.0, 20.0, 40.0, 80.0, 160.0, 320.0), rates.subList(0, 6));
+        assertTrue(search.getMaxSustainableRate() <= 300);
+        assertTrue(search.getMaxSustainableRate() >= 300 / 1.05);
+        assertEquals(rates.size(), search.getProbes().size());
+        assertFalse(search.getProbes().get(5).isSloMet());
+        assertEquals(5_000, search.getProbes().get(0).getLatency());
+        assertNull(search.nextProbe());
+    }
+
+    /**
+     * testStep
+     */
+    @Test
+    public void testStep() {
+        // Misses the SLO on throughput alone
+        RateSearch search = new RateSearch(template(), RateSearch.Metric.AVERAGE, false, 50, 100, 1000, 100, 0.05, 0.95, 20);
+        List<Double> rates = run(search, 350, Double.MAX_VALUE, 5_000);
+        assertEquals(List.of(100.0, 200.0, 300.0, 400.0), rates);
+        assertEquals(300, search.getMaxSustainableRate(), 0);
+        assertEquals(350, search.getProbes().get(3).getThroughput(), 0.001);
+    }
+
+    /**
+     * testMaxRate
+     */
+    @Test
+    public void testMaxRate() {
+        RateSearch search = new RateSearch(template(), RateSearch.Metric.fromString("p999"), false, 50, 100, 500, 0, 0.05, 0.95, 20);
+        assertEquals(List.of(100.0, 200.0, 400.0, 500.0), run(search, Double.MAX_VALUE, Double.MAX_VALUE, 5_000));
+        assertEquals(500, search.getMaxSustainableRate(), 0);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class TestRunControl {
+
+    private static Phase phase(int id) {
+        return new Phase("test", id, 10, 0, 100, List.of(50.0, 50.0), true, false, false, true, 2, Phase.Arrival.REGULAR);
+    }
+
+    /**
+     * testChange
+     */
+    @Test
+    public void testChange() {
+        Phase phase = phase(1);
+        phase.setTerminalRamp(new Phase.Ramp(Phase.Ramp.Shape.LINEAR, 1, 2, 10));
+
+        RunControl.Command command = new RunControl.Command(RunControl.Action.CHANGE, Map.of("rate", "250", "weights", "10, 90"));
+        Phase changed = command.applyTo(phase, 4);
+        assertEquals(250, changed.getRate(), 0);
+        assertEquals(List.of(10.0, 90.0), changed.getWeights());
+        assertEquals(1, changed.getId());
+        assertEquals(10, changed.getTime());
+        // Only the ramp of what did not change is kept
+        assertSame(phase.getTerminalRamp(), changed.getTerminalRamp());
+
+        changed = new RunControl.Command(RunControl.Action.CHANGE, Map.of("rate", "unlimited", "terminals", "4")).applyTo(phase, 4);
+        assertFalse(changed.isRateLimited());
+        assertEquals(4, changed.getActiveTerminals());
+        assertNull(changed.getTerminalRamp());
+
+        assertTrue(new RunControl.Command(RunControl.Action.CHANGE, Map.of("rate", "disabled")).applyTo(phase, 4).isDisabled());
+    }
+
+    /**
+     * testInvalid
+     */
+    @Test
+    public void testInvalid() {
+        List<Map<String, String>> invalid = List.of(Map.of(), Map.of("rate", "fast"), Map.of("rate", "0"), Map.of("terminals", "-1"));
+        for (Map<String, String> params : invalid) {
+            try {
+                new RunControl.Command(RunControl.Action.CHANGE, params);
+                fail("Accepted " + params);
+            } catch (IllegalArgumentException ex) {
+                // Expected
+            }
+        }
+        List<Map<String, String>> inapplicable = List.of(Map.of("weights", "100"), Map.of("terminals", "5"));
+        for (Map<String, String> params : inapplicable) {
+            try {
+                new RunControl.Command(RunControl.Action.CHANGE, params).applyTo(phase(1), 4);
+                fail("Applied " + params);
+            } catch (IllegalArgumentException ex) {
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * testSkipAndAppend
+     */
+    @Test
+    public void testSkipAndAppend() {
+        List<Phase> phases = new ArrayList<>(List.of(phase(1), phase(2), phase(3)));
+        WorkloadState workloadState = new WorkloadState(new BenchmarkState(1), phases, 2);
+        workloadState.switchToNextPhase();
+        assertEquals(1, workloadState.getCurrentPhase().getId());
+
+        workloadState.skipPhases(2);
+        workloadState.switchToNextPhase();
+        assertEquals(3, workloadState.getCurrentPhase().getId());
+
+        workloadState.appendPhase(phase(4));
+        workloadState.switchToNextPhase();
+        assertEquals(4, workloadState.getCurrentPhase().getId());
+        workloadState.switchToNextPhase();
+        assertNull(workloadState.getCurrentPhase());
+    }
+}
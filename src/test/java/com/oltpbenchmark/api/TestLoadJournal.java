@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.api;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestLoadJournal {
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = File.createTempFile("loadjournal", ".journal");
+    }
+
+    @After
+    public void tearDown() {
+        this.file.delete();
+    }
+
+    /**
+     * testResume
+     */
+    @Test
+    public void testResume() throws Exception {
+        try (LoadJournal journal = LoadJournal.open(this.file, "test", false)) {
+            journal.start("item");
+            journal.finish("item");
+            journal.start("warehouse#1/2");
+            journal.start("warehouse#2/2");
+            journal.finish("warehouse#2/2");
+        }
+        try (LoadJournal journal = LoadJournal.open(this.file, "test", true)) {
+            assertTrue(journal.isFinished("item"));
+            assertTrue(journal.isFinished("warehouse#2/2"));
+            assertFalse(journal.isFinished("warehouse#1/2"));
+            assertTrue(journal.isPartial("warehouse#1/2"));
+            assertFalse(journal.isPartial("item"));
+            assertFalse(journal.isPartial("history"));
+        }
+
+        // Without resume the earlier load is forgotten
+        try (LoadJournal journal = LoadJournal.open(this.file, "test", false)) {
+            assertFalse(journal.isFinished("item"));
+        }
+    }
+
+    /**
+     * testPartialLine
+     */
+    @Test
+    public void testPartialLine() throws Exception {
+        Files.writeString(this.file.toPath(), "# test\nstart orders#1/12\nfinish orders#1/1", StandardCharsets.UTF_8);
+        try (LoadJournal journal = LoadJournal.open(this.file, "test", true)) {
+            assertFalse(journal.isFinished("orders#1/1"));
+            assertTrue(journal.isPartial("orders#1/12"));
+            journal.finish("orders#1/12");
+        }
+        try (LoadJournal journal = LoadJournal.open(this.file, "test", true)) {
+            assertTrue(journal.isFinished("orders#1/12"));
+        }
+    }
+
+    /**
+     * testDifferentLoad
+     */
+    @Test
+    public void testDifferentLoad() throws Exception {
+        LoadJournal.open(this.file, "scalefactor=1", false).close();
+        try {
+            LoadJournal.open(this.file, "scalefactor=2", true);
+            fail("A journal of a different load was resumed");
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("scalefactor=1"));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.oltpbenchmark.WorkloadConfiguration;
+import java.io.File;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestLoaderScheduler {
+
+    private MockBenchmark benchmark;
+    private ExecutorService service;
+    private final List<String> loaded = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        WorkloadConfiguration workConf = new WorkloadConfiguration();
+        workConf.setUrl("jdbc:hsqldb:mem:loaderscheduler");
+        workConf.setUsername("sa");
+        workConf.setPassword("");
+        this.benchmark = new MockBenchmark(workConf);
+        this.service = Executors.newFixedThreadPool(1);
+    }
+
+    @After
+    public void tearDown() {
+        this.service.shutdownNow();
+    }
+
+    private LoaderThread thread(String table, long sleepMillis) {
+        return new LoaderThread(this.benchmark) {
+            @Override
+            public void load(Connection conn) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                loaded.add(table);
+            }
+
+            @Override
+            public void truncate(Connection conn) {
+                loaded.add("-" + table);
+            }
+        }.loads(table);
+    }
+
+    private static Map<String, Set<String>> dependencies(String... pairs) {
+        Loader<MockBenchmark> loader = new Loader<>(new MockBenchmark()) {
+            @Override
+            public List<LoaderThread> createLoaderThreads() {
+                return null;
+            }
+        };
+        for (int i = 0; i < pairs.length; i += 2) {
+            loader.addTableDependency(pairs[i], pairs[i + 1]);
+        }
+        return loader.getTableDependencies();
+    }
+
+    /**
+     * testDependentsFirst
+     */
+    @Test
+    public void testDependentsFirst() throws Exception {
+        // The dependent tables come first in the list, which would leave the
+        // only pool thread waiting forever if they were run in order
+        List<LoaderThread> threads = List.of(thread("lineitem", 0), thread("orders", 0),
+                thread("customer", 0), thread("part", 0), thread("nation", 0));
+        LoaderScheduler scheduler = new LoaderScheduler(threads, dependencies(
+                "lineitem", "orders", "lineitem", "part", "orders", "customer", "customer", "nation"));
+        scheduler.run(this.service, 1);
+
+        // NATION starts the longest chain, so it goes first
+        assertEquals(List.of("nation", "customer", "orders", "part", "lineitem"), this.loaded);
+    }
+
+    /**
+     * testUndeclaredInOrder
+     */
+    @Test
+    public void testUndeclaredInOrder() throws Exception {
+        List<LoaderThread> threads = List.of(thread("a", 0), thread("b", 0), thread("c", 0));
+        new LoaderScheduler(threads, dependencies()).run(this.service, 1);
+        assertEquals(List.of("a", "b", "c"), this.loaded);
+    }
+
+    /**
+     * testCriticalPath
+     */
+    @Test
+    public void testCriticalPath() throws Exception {
+        LoaderThread region = thread("region", 0);
+        LoaderThread nation = thread("nation", 0);
+        LoaderThread supplier = thread("supplier", 200);
+        LoaderThread customer = thread("customer", 0);
+        LoaderScheduler scheduler = new LoaderScheduler(List.of(region, nation, supplier, customer), dependencies(
+                "nation", "region", "supplier", "nation", "customer", "nation"));
+        scheduler.run(this.service, 1);
+        assertEquals(List.of(region, nation, supplier), scheduler.getCriticalPath());
+    }
+
+    /**
+     * testJournal
+     */
+    @Test
+    public void testJournal() throws Exception {
+        File file = File.createTempFile("loaderscheduler", ".journal");
+        try {
+            try (LoadJournal journal = LoadJournal.open(file, "test", false)) {
+                journal.start("a");
+                journal.finish("a");
+                journal.start("b");
+            }
+            List<LoaderThread> threads = List.of(thread("a", 0), thread("b", 0), thread("c", 0));
+            LoaderScheduler scheduler = new LoaderScheduler(threads, dependencies("c", "a"));
+            try (LoadJournal journal = LoadJournal.open(file, "test", true)) {
+                scheduler.setJournal(journal);
+                scheduler.run(this.service, 1);
+            }
+            // A is skipped, the rows B left behind are deleted first
+            assertEquals(List.of("-b", "b", "c"), this.loaded);
+            try (LoadJournal journal = LoadJournal.open(file, "test", true)) {
+                assertTrue(journal.isFinished("b"));
+                assertTrue(journal.isFinished("c"));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * testPart
+     */
+    @Test
+    public void testPart() throws Exception {
+        List<LoaderThread> threads = List.of(thread("a", 0), thread("b", 0), thread("c", 0), thread("d", 0));
+        LoaderScheduler scheduler = new LoaderScheduler(threads, dependencies("b", "a"));
+        scheduler.setPart(2, 2);
+        scheduler.run(this.service, 1);
+        assertEquals(List.of("b", "d"), this.loaded);
+    }
+
+    /**
+     * testPartitions
+     */
+    @Test
+    public void testPartitions() throws Exception {
+        // B of partition 1 only waits for A of partition 1, so it can run
+        // before A of partition 2
+        List<LoaderThread> threads = List.of(thread("b", 0).inPartition(1),
+                thread("a", 0).inPartition(2), thread("a", 0).inPartition(1));
+        LoaderScheduler scheduler = new LoaderScheduler(threads, dependencies("b", "a"));
+        scheduler.run(this.service, 1);
+        assertEquals(List.of("a", "b", "a"), this.loaded);
+        assertEquals("b[1]", scheduler.getUnit(0));
+    }
+
+    /**
+     * testCycle
+     */
+    @Test
+    public void testCycle() {
+        List<LoaderThread> threads = List.of(thread("a", 0), thread("b", 0), thread("c", 0));
+        try {
+            new LoaderScheduler(threads, dependencies("a", "b", "b", "a"));
+            fail("Cyclic dependencies were accepted");
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("[a, b]"));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.arrivals;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class TestArrivalProcess {
+
+    private static final long SECOND = 1000000000L;
+
+    /**
+     * The mean rate of the arrivals of process over seconds
+     */
+    private static double meanRate(ArrivalProcess process, double rate, int seconds) {
+        long t = 0;
+        int count = 0;
+        while (true) {
+            t = process.next(t, rate);
+            if (t > seconds * SECOND) {
+                return count / (double) seconds;
+            }
+            count++;
+        }
+    }
+
+    /**
+     * testMeanRates
+     */
+    @Test
+    public void testMeanRates() {
+        List<ArrivalConfig> configs = List.of(
+                new ArrivalConfig("regular", Map.of(), ArrivalConfig.ALL_TYPES, null),
+                new ArrivalConfig("poisson", Map.of(), ArrivalConfig.ALL_TYPES, null),
+                new ArrivalConfig("mmpp", Map.of("factors", "0.5,4", "sojourn", "2,0.5"), ArrivalConfig.ALL_TYPES, null),
+                new ArrivalConfig("pareto", Map.of("on", "0.5", "off", "1", "sources", "8"), ArrivalConfig.ALL_TYPES, null),
+                new ArrivalConfig("sinusoidal", Map.of("amplitude", "0.9", "period", "10"), ArrivalConfig.ALL_TYPES, null));
+        for (ArrivalConfig config : configs) {
+            double rate = meanRate(config.create(new SplittableRandom(1)), 200, 2000);
+            assertEquals(config.toString(), 200, rate, 200 * 0.1);
+        }
+    }
+
+    /**
+     * testSeed
+     */
+    @Test
+    public void testSeed() {
+        ArrivalConfig config = new ArrivalConfig("mmpp", Map.of("seed", "42"), ArrivalConfig.ALL_TYPES, null);
+        ArrivalProcess a = config.create(new SplittableRandom(1));
+        ArrivalProcess b = config.create(new SplittableRandom(2));
+        long ta = 0;
+        long tb = 0;
+        for (int i = 0; i < 1000; i++) {
+            ta = a.next(ta, 100);
+            tb = b.next(tb, 100);
+            assertEquals(ta, tb);
+        }
+    }
+
+    /**
+     * testTrace
+     */
+    @Test
+    public void testTrace() throws IOException {
+        File file = File.createTempFile("trace", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), List.of("# gaps", "10", "", "30 first field only", "20"));
+        // Validating only checks that the trace can be read
+        new ArrivalConfig("trace", Map.of("file", file.getPath()), ArrivalConfig.ALL_TYPES, null).validate();
+
+        TraceArrivals trace = (TraceArrivals) ArrivalProcess.create("trace", Map.of("file", file.getPath()), new SplittableRandom());
+        assertEquals(50, trace.getRecordedRate(), 1e-9);
+        // At the recorded rate the gaps are replayed as they are, and then
+        // over again
+        long t = 0;
+        for (long gap : new long[]{10, 30, 20, 10}) {
+            long next = trace.next(t, 50);
+            assertEquals(gap * 1000000, next - t);
+            t = next;
+        }
+        // At twice the rate they are half as long
+        assertEquals(15000000, trace.next(0, 100));
+    }
+
+    /**
+     * testInvalid
+     */
+    @Test
+    public void testInvalid() {
+        List<Map<String, String>> invalid = List.of(
+                Map.of("type", "bursty"),
+                Map.of("type", "mmpp", "factors", "1,2,3"),
+                Map.of("type", "pareto", "shape", "0.9"),
+                Map.of("type", "sinusoidal", "amplitude", "2"),
+                Map.of("type", "trace"),
+                Map.of("type", "trace", "file", "/no/such/trace"));
+        for (Map<String, String> params : invalid) {
+            try {
+                ArrivalProcess.create(params.get("type"), params, new SplittableRandom());
+                fail("Accepted " + params);
+            } catch (IllegalArgumentException ex) {
+                // Expected
+            }
+            try {
+                ArrivalProcess.validate(params.get("type"), params);
+                fail("Validated " + params);
+            } catch (IllegalArgumentException ex) {
+                // Expected
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.benchmarks.noop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.oltpbenchmark.Phase;
+import com.oltpbenchmark.Results;
+import com.oltpbenchmark.ThreadBench;
+import com.oltpbenchmark.api.AbstractTestCase;
+import com.oltpbenchmark.api.BenchmarkModule;
+import com.oltpbenchmark.api.Procedure;
+import com.oltpbenchmark.api.TransactionType;
+import com.oltpbenchmark.api.TransactionTypes;
+import com.oltpbenchmark.api.Worker;
+import com.oltpbenchmark.util.ThreadUtil;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.Test;
+
+/**
+ * Runs short NoOp workloads through ThreadBench, on platform and on virtual
+ * threads.
+ */
+public class TestNoOpWorkload extends AbstractTestCase<NoOpBenchmark> {
+
+    private static final int TERMINALS = 4;
+
+    public TestNoOpWorkload() {
+        super(true, true);
+    }
+
+    @Override
+    public List<Class<? extends Procedure>> procedures() {
+        return TestNoOpBenchmark.PROCEDURE_CLASSES;
+    }
+
+    @Override
+    public Class<NoOpBenchmark> benchmarkClass() {
+        return NoOpBenchmark.class;
+    }
+
+    @Override
+    public List<String> ignorableTables() {
+        return null;
+    }
+
+    /**
+     * Numbered from 1 after INVALID, like DBWorkload does, since the phases
+     * choose transactions by their 1-based weight
+     */
+    @Override
+    protected TransactionTypes proceduresToTransactionTypes(List<Class<? extends Procedure>> procedures) {
+        TransactionTypes txnTypes = new TransactionTypes(new ArrayList<>());
+        txnTypes.add(TransactionType.INVALID);
+        int id = 1;
+        for (Class<? extends Procedure> procedureClass : procedures) {
+            txnTypes.add(new TransactionType(procedureClass, id++, false, 0, 0) {
+            });
+        }
+        return txnTypes;
+    }
+
+    private Results run(boolean virtualThreads) throws Exception {
+        this.workConf.setTerminals(TERMINALS);
+        this.workConf.setVirtualThreads(virtualThreads);
+        this.workConf.addPhase(1, 1, 0, 0, List.of(100.0), false, false, false, true, TERMINALS, Phase.Arrival.REGULAR);
+        this.workConf.addPhase(2, 1, 0, 200, List.of(100.0), true, false, false, true, TERMINALS, Phase.Arrival.POISSON);
+
+        List<Worker<? extends BenchmarkModule>> workers = new ArrayList<>(this.benchmark.makeWorkers());
+        assertEquals(TERMINALS, workers.size());
+        Results results = ThreadBench.runRateLimitedBenchmark(workers, List.of(this.workConf), 0);
+        assertTrue(results.getMeasuredRequests() > 0);
+        return results;
+    }
+
+    /**
+     * testPlatformThreads
+     */
+    @Test
+    public void testPlatformThreads() throws Exception {
+        run(false);
+    }
+
+    /**
+     * testVirtualThreads
+     */
+    @Test
+    public void testVirtualThreads() throws Exception {
+        assumeTrue("Virtual threads need JDK 21", ThreadUtil.isVirtualThreadSupported());
+
+        // Only a pin in our own code counts, not one inside the driver
+        List<String> pins = new ArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                if (!isInDriver(event)) {
+                    synchronized (pins) {
+                        pins.add(event.getStackTrace().toString());
+                    }
+                }
+            });
+            recording.startAsync();
+
+            run(true);
+        }
+        assertEquals(List.of(), pins);
+    }
+
+    private static boolean isInDriver(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith("org.hsqldb.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+/******************************************************************************
+ *  Copyright 2015 by OLTPBenchmark Project                                   *
+ *                                                                            *
+ *  Licensed under the Apache License, Version 2.0 (the "License");           *
+ *  you may not use this file except in compliance with the License.          *
+ *  You may obtain a copy of the License at                                   *
+ *                                                                            *
+ *    http://www.apache.org/licenses/LICENSE-2.0                              *
+ *                                                                            *
+ *  Unless required by applicable law or agreed to in writing, software       *
+ *  distributed under the License is distributed on an "AS IS" BASIS,         *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  *
+ *  See the License for the specific language governing permissions and       *
+ *  limitations under the License.                                            *
+ ******************************************************************************/
+
+
+package com.oltpbenchmark.benchmarks.tpcds;
+
+import com.oltpbenchmark.api.AbstractTestBenchmarkModule;
+import com.oltpbenchmark.api.Procedure;
+import com.oltpbenchmark.benchmarks.tpcds.procedures.*;
+
+import java.util.List;
+
+public class TestTPCDSBenchmark extends AbstractTestBenchmarkModule<TPCDSBenchmark> {
+
+    public static final List<Class<? extends Procedure>> PROCEDURE_CLASSES = List.of(
+            Q3.class,
+            Q7.class,
+            Q15.class,
+            Q19.class,
+            Q26.class,
+            Q42.class,
+            Q43.class,
+            Q52.class,
+            Q55.class,
+            Q62.class,
+            Q93.class,
+            Q96.class,
+            Q99.class);
+
+    @Override
+    public List<Class<? extends Procedure>> procedures() {
+        return TestTPCDSBenchmark.PROCEDURE_CLASSES;
+    }
+
+    @Override
+    public Class<TPCDSBenchmark> benchmarkClass() {
+        return TPCDSBenchmark.class;
+    }
+
+}
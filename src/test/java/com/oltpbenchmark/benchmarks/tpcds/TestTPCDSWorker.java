@@ -0,0 +1,28 @@
+package com.oltpbenchmark.benchmarks.tpcds;
+
+import com.oltpbenchmark.WorkloadConfiguration;
+import com.oltpbenchmark.api.AbstractTestWorker;
+import com.oltpbenchmark.api.Procedure;
+
+import java.util.List;
+
+public class TestTPCDSWorker extends AbstractTestWorker<TPCDSBenchmark> {
+
+    private static final double SCALE_FACTOR = .001;
+
+    @Override
+    public List<Class<? extends Procedure>> procedures() {
+        return TestTPCDSBenchmark.PROCEDURE_CLASSES;
+    }
+
+    @Override
+    protected void customWorkloadConfiguration(WorkloadConfiguration workConf) {
+        // let's set the SF even lower than .01 for actual worker tests
+        this.workConf.setScaleFactor(SCALE_FACTOR);
+    }
+
+    @Override
+    public Class<TPCDSBenchmark> benchmarkClass() {
+        return TPCDSBenchmark.class;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.benchmarks.tpch.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import org.junit.Test;
+
+/**
+ * The loader splits the tables into parts, which must add up to the same
+ * rows as a single part.
+ */
+public class TestGeneratorParts {
+
+    private static final double SCALE_FACTOR = 0.01;
+
+    private static List<List<Object>> generate(BiFunction<Integer, Integer, Iterable<List<Object>>> generator, int partCount) {
+        List<List<Object>> rows = new ArrayList<>();
+        for (int part = 1; part <= partCount; part++) {
+            for (List<Object> row : generator.apply(part, partCount)) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static void checkParts(BiFunction<Integer, Integer, Iterable<List<Object>>> generator) {
+        List<List<Object>> expected = generate(generator, 1);
+        assertTrue(expected.size() > 0);
+        for (int partCount : new int[]{2, 3, 7}) {
+            assertEquals(expected, generate(generator, partCount));
+        }
+    }
+
+    /**
+     * testPartParts
+     */
+    @Test
+    public void testPartParts() {
+        checkParts((part, partCount) -> new PartGenerator(SCALE_FACTOR, part, partCount));
+        checkParts((part, partCount) -> new PartSupplierGenerator(SCALE_FACTOR, part, partCount));
+    }
+
+    /**
+     * testSupplierParts
+     */
+    @Test
+    public void testSupplierParts() {
+        checkParts((part, partCount) -> new SupplierGenerator(SCALE_FACTOR, part, partCount));
+        checkParts((part, partCount) -> new CustomerGenerator(SCALE_FACTOR, part, partCount));
+    }
+
+    /**
+     * testOrderParts
+     */
+    @Test
+    public void testOrderParts() {
+        checkParts((part, partCount) -> new OrderGenerator(SCALE_FACTOR, part, partCount));
+        checkParts((part, partCount) -> new LineItemGenerator(SCALE_FACTOR, part, partCount));
+    }
+}
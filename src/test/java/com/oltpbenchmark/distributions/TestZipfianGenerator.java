@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.distributions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class TestZipfianGenerator {
+
+    /**
+     * testZetaApproximation
+     */
+    @Test
+    public void testZetaApproximation() throws Exception {
+        for (double theta : new double[]{0.5, 0.99, 1.0, 1.75}) {
+            for (long n : new long[]{10, 5000, 2000000}) {
+                double exact = ZipfianGenerator.zetastatic(n, theta);
+                assertEquals(exact, ZipfianGenerator.zetaApproximation(n, theta), exact * 1e-12);
+            }
+        }
+        assertEquals(ScrambledZipfianGenerator.ZETAN,
+                ZipfianGenerator.zetaCached(ScrambledZipfianGenerator.ITEM_COUNT + 1, ScrambledZipfianGenerator.USED_ZIPFIAN_CONSTANT),
+                1e-6);
+    }
+
+    /**
+     * testZetaCached
+     */
+    @Test
+    public void testZetaCached() throws Exception {
+        double zeta = ZipfianGenerator.zetaCached(1000, 0.99);
+        assertEquals(ZipfianGenerator.zetastatic(1000, 0.99), zeta, 0.0);
+        assertEquals(zeta, ZipfianGenerator.zetaCached(1000, 0.99), 0.0);
+    }
+
+    /**
+     * testSkewedLatest
+     */
+    @Test
+    public void testSkewedLatest() throws Exception {
+        CounterGenerator counter = new CounterGenerator(1000);
+        SkewedLatestGenerator latest = new SkewedLatestGenerator(new Random(0), counter, 0.99);
+        int recent = 0;
+        for (int i = 0; i < 10000; i++) {
+            int value = latest.nextInt();
+            assertTrue(value >= 0 && value <= 999);
+            if (value >= 990) {
+                recent++;
+            }
+        }
+        assertTrue(recent > 3000);
+
+        for (int i = 0; i < 1000; i++) {
+            counter.nextInt();
+        }
+        for (int i = 0; i < 10000; i++) {
+            int value = latest.nextInt();
+            assertTrue(value >= 0 && value <= 1999);
+        }
+    }
+
+    /**
+     * testHotspot
+     */
+    @Test
+    public void testHotspot() throws Exception {
+        HotspotIntegerGenerator hotspot = new HotspotIntegerGenerator(new Random(0), 0, 999, 0.2, 0.8);
+        int hot = 0;
+        for (int i = 0; i < 10000; i++) {
+            int value = hotspot.nextInt();
+            assertTrue(value >= 0 && value <= 999);
+            if (value < 200) {
+                hot++;
+            }
+        }
+        assertEquals(8000, hot, 300);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.oltpbenchmark.catalog.Column;
+import com.oltpbenchmark.catalog.Table;
+import com.oltpbenchmark.types.DatabaseType;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestMultiRowInsertSink {
+
+    private Connection conn;
+    private Table table;
+
+    @Before
+    public void setUp() throws Exception {
+        this.conn = DriverManager.getConnection("jdbc:hsqldb:mem:multirowinsert", "sa", "");
+        try (Statement stmt = this.conn.createStatement()) {
+            stmt.execute("CREATE TABLE multirow (id BIGINT PRIMARY KEY, name VARCHAR(16), price DOUBLE)");
+        }
+        this.table = new Table("multirow", "");
+        this.table.addColumn(new Column("id", "", this.table, Types.BIGINT, null, false));
+        this.table.addColumn(new Column("name", "", this.table, Types.VARCHAR, 16, true));
+        this.table.addColumn(new Column("price", "", this.table, Types.DOUBLE, null, true));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Statement stmt = this.conn.createStatement()) {
+            stmt.execute("DROP TABLE multirow");
+        }
+        this.conn.close();
+    }
+
+    /**
+     * testRowsPerStatement
+     */
+    @Test
+    public void testRowsPerStatement() {
+        assertEquals(128, MultiRowInsertSink.getRowsPerStatement(this.table, DatabaseType.MYSQL, 128));
+        // 950 parameters fit 316 rows of 3 columns
+        assertEquals(316, MultiRowInsertSink.getRowsPerStatement(this.table, DatabaseType.SPANNER, 5000));
+        assertEquals(MultiRowInsertSink.MAX_ROWS_PER_STATEMENT,
+                MultiRowInsertSink.getRowsPerStatement(this.table, DatabaseType.POSTGRES, 5000));
+        assertEquals(1, MultiRowInsertSink.getRowsPerStatement(this.table, DatabaseType.ORACLE, 128));
+        assertFalse(DatabaseType.PHOENIX.supportsMultiRowInsert());
+    }
+
+    /**
+     * testInsert
+     */
+    @Test
+    public void testInsert() throws Exception {
+        int numRows = 10;
+        try (MultiRowInsertSink sink = new MultiRowInsertSink(this.conn, this.table, DatabaseType.HSQLDB, 4)) {
+            for (int i = 0; i < numRows; i++) {
+                sink.setLong(1, i);
+                sink.setString(2, "row" + i);
+                if (i % 2 == 0) {
+                    sink.setDouble(3, i * 1.5);
+                } else {
+                    sink.setNull(3, Types.DOUBLE);
+                }
+                sink.addRow();
+            }
+            assertEquals(numRows, sink.getRowCount());
+        }
+
+        // The last two rows are only written on close
+        try (Statement stmt = this.conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name, price FROM multirow ORDER BY id")) {
+            for (int i = 0; i < numRows; i++) {
+                assertTrue(rs.next());
+                assertEquals(i, rs.getLong(1));
+                assertEquals("row" + i, rs.getString(2));
+                if (i % 2 == 0) {
+                    assertEquals(i * 1.5, rs.getDouble(3), 0.0001);
+                } else {
+                    assertNull(rs.getObject(3));
+                }
+            }
+            assertFalse(rs.next());
+        }
+    }
+}
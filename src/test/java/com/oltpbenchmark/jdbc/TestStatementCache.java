@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.oltpbenchmark.api.SQLStmt;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestStatementCache {
+
+    private static final SQLStmt SELECT_ONE = new SQLStmt("SELECT 1 FROM (VALUES(0))");
+    private static final SQLStmt SELECT_TWO = new SQLStmt("SELECT 2 FROM (VALUES(0))");
+    private static final SQLStmt SELECT_THREE = new SQLStmt("SELECT 3 FROM (VALUES(0))");
+    private static final SQLStmt INSERT_ROW = new SQLStmt("INSERT INTO batchtest VALUES (?)");
+
+    private Connection conn;
+
+    @Before
+    public void setUp() throws Exception {
+        this.conn = DriverManager.getConnection("jdbc:hsqldb:mem:statementcache", "sa", "");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.conn.close();
+    }
+
+    /**
+     * testReuse
+     */
+    @Test
+    public void testReuse() throws Exception {
+        StatementCache cache = new StatementCache(2);
+        PreparedStatement first;
+        try (PreparedStatement stmt = cache.prepare(conn, SELECT_ONE)) {
+            first = stmt;
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+        assertTrue(first.isClosed());
+        assertFalse(first.unwrap(PreparedStatement.class).isClosed());
+
+        try (PreparedStatement stmt = cache.prepare(conn, SELECT_ONE)) {
+            assertSame(first, stmt);
+
+            // Still in use, so the nested call gets its own statement
+            try (PreparedStatement nested = cache.prepare(conn, SELECT_ONE)) {
+                assertNotSame(first, nested);
+            }
+        }
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * testEviction
+     */
+    @Test
+    public void testEviction() throws Exception {
+        StatementCache cache = new StatementCache(2);
+        PreparedStatement one = cache.prepare(conn, SELECT_ONE);
+        PreparedStatement driverOne = one.unwrap(PreparedStatement.class);
+        one.close();
+        cache.prepare(conn, SELECT_TWO).close();
+
+        // Checked out while it is evicted, so it is only closed once returned
+        PreparedStatement two = cache.prepare(conn, SELECT_TWO);
+        PreparedStatement driverTwo = two.unwrap(PreparedStatement.class);
+        cache.prepare(conn, SELECT_THREE).close();
+        assertEquals(2, cache.size());
+        assertTrue(driverOne.isClosed());
+        assertFalse(driverTwo.isClosed());
+
+        cache.prepare(conn, SELECT_ONE).close();
+        assertFalse(driverTwo.isClosed());
+        two.close();
+        assertTrue(driverTwo.isClosed());
+    }
+
+    /**
+     * testInvalidate
+     */
+    @Test
+    public void testInvalidate() throws Exception {
+        StatementCache cache = new StatementCache(4);
+        PreparedStatement stmt = cache.prepare(conn, SELECT_ONE);
+        PreparedStatement driverStmt = stmt.unwrap(PreparedStatement.class);
+        stmt.close();
+
+        try (Connection other = DriverManager.getConnection("jdbc:hsqldb:mem:statementcache", "sa", "")) {
+            try (PreparedStatement otherStmt = cache.prepare(other, SELECT_ONE)) {
+                assertNotSame(stmt, otherStmt);
+                assertSame(other, otherStmt.getConnection());
+            }
+            assertTrue(driverStmt.isClosed());
+            assertEquals(1, cache.size());
+
+            cache.invalidate();
+            assertEquals(0, cache.size());
+        }
+    }
+
+    /**
+     * testResetOnClose
+     */
+    @Test
+    public void testResetOnClose() throws Exception {
+        try (Statement ddl = conn.createStatement()) {
+            ddl.execute("CREATE TABLE batchtest (id INT)");
+        }
+        try {
+            StatementCache cache = new StatementCache(2);
+
+            // Left behind by a procedure that aborted after adding to its batch
+            PreparedStatement stmt = cache.prepare(conn, INSERT_ROW);
+            int maxRows = stmt.getMaxRows();
+            int queryTimeout = stmt.getQueryTimeout();
+            stmt.setInt(1, 1);
+            stmt.addBatch();
+            stmt.setMaxRows(maxRows + 5);
+            stmt.setQueryTimeout(queryTimeout + 5);
+            stmt.close();
+
+            try (PreparedStatement next = cache.prepare(conn, INSERT_ROW)) {
+                assertSame(stmt, next);
+                assertEquals(maxRows, next.getMaxRows());
+                assertEquals(queryTimeout, next.getQueryTimeout());
+                assertEquals(0, next.executeBatch().length);
+            }
+            try (Statement query = conn.createStatement();
+                 ResultSet rs = query.executeQuery("SELECT COUNT(*) FROM batchtest")) {
+                assertTrue(rs.next());
+                assertEquals(0, rs.getInt(1));
+            }
+        } finally {
+            try (Statement ddl = conn.createStatement()) {
+                ddl.execute("DROP TABLE batchtest");
+            }
+        }
+    }
+}
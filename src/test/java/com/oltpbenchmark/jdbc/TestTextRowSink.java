@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import org.junit.Test;
+
+public class TestTextRowSink {
+
+    private static class BufferedTextRowSink extends TextRowSink {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int flushes = 0;
+        private boolean finished = false;
+
+        BufferedTextRowSink(int numColumns, int flushSize) {
+            super(numColumns, flushSize);
+        }
+
+        @Override
+        protected void flush(byte[] buffer, int length) {
+            this.out.write(buffer, 0, length);
+            this.flushes++;
+        }
+
+        @Override
+        protected void finish() {
+            this.finished = true;
+        }
+
+        String getText() {
+            return this.out.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * testEncoding
+     */
+    @Test
+    public void testEncoding() throws Exception {
+        BufferedTextRowSink sink = new BufferedTextRowSink(8, 1024);
+        sink.setLong(1, -1234567890123L);
+        sink.setInt(2, 0);
+        sink.setDouble(3, 2.5);
+        sink.setString(4, "a\tb\\c\nd\re");
+        sink.setString(5, "café € 😀");
+        sink.setNull(6, Types.VARCHAR);
+        sink.setDate(7, Date.valueOf("2020-01-02"));
+        sink.setTimestamp(8, Timestamp.valueOf("2020-01-02 03:04:05.123456"));
+        sink.addRow();
+
+        sink.setLong(1, Long.MIN_VALUE);
+        sink.setDouble(2, 10.0);
+        sink.setBoolean(3, true);
+        sink.setBigDecimal(4, new BigDecimal("1E+3"));
+        sink.setObject(5, 7);
+        sink.setObject(6, null);
+        sink.setObject(7, "x");
+        sink.setTimestamp(8, Timestamp.valueOf("2020-01-02 03:04:05"));
+        sink.addRow();
+        sink.close();
+
+        String expected = "-1234567890123\t0\t2.5\ta\\tb\\\\c\\nd\\re\tcafé € 😀\t\\N\t2020-01-02\t2020-01-02 03:04:05.123456\n"
+                + Long.MIN_VALUE + "\t10\t1\t1000\t7\t\\N\tx\t2020-01-02 03:04:05\n";
+        assertEquals(expected, sink.getText());
+        assertEquals(2, sink.getRowCount());
+        assertTrue(sink.finished);
+    }
+
+    /**
+     * testFlushOnRowBoundary
+     */
+    @Test
+    public void testFlushOnRowBoundary() throws Exception {
+        BufferedTextRowSink sink = new BufferedTextRowSink(2, 16);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sink.setInt(1, i);
+            sink.setString(2, "row" + i);
+            sink.addRow();
+            expected.append(i).append("\trow").append(i).append('\n');
+        }
+        assertTrue(sink.flushes > 1);
+        sink.close();
+        assertEquals(expected.toString(), sink.getText());
+    }
+
+    /**
+     * testColumnOrder
+     */
+    @Test
+    public void testColumnOrder() throws Exception {
+        BufferedTextRowSink sink = new BufferedTextRowSink(2, 16);
+        sink.setInt(1, 1);
+        try {
+            sink.addRow();
+            fail("Row with a missing column was accepted");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+        try {
+            sink.setInt(3, 1);
+            fail("Column out of order was accepted");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.oltpbenchmark.LatencyHistogram;
+import com.oltpbenchmark.api.TransactionType;
+import com.oltpbenchmark.benchmarks.noop.procedures.NoOp;
+import com.oltpbenchmark.types.TransactionStatus;
+import java.util.List;
+import org.junit.Test;
+
+public class TestTransactionCounters {
+
+    private static final TransactionType NOOP = new TransactionType(NoOp.class, 1, false, 0, 0) {
+    };
+
+    /**
+     * testCounters
+     */
+    @Test
+    public void testCounters() throws InterruptedException {
+        TransactionCounters counters = new TransactionCounters(List.of(TransactionType.INVALID, NOOP));
+        assertEquals(1, counters.getTransactionTypes().size());
+
+        Thread worker = new Thread(() -> {
+            for (int i = 0; i < 10000; i++) {
+                counters.recordStatus(NOOP, i % 10 == 0 ? TransactionStatus.RETRY : TransactionStatus.SUCCESS);
+                counters.recordLatency(NOOP, i);
+                counters.recordResponseTime(NOOP, i + 10000);
+            }
+        });
+        worker.start();
+        worker.join();
+
+        long[] statuses = new long[TransactionCounters.NUM_STATUSES];
+        long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+        counters.addTo(NOOP, statuses, buckets);
+        assertEquals(9000, statuses[TransactionStatus.SUCCESS.ordinal()]);
+        assertEquals(1000, statuses[TransactionStatus.RETRY.ordinal()]);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < buckets.length; i++) {
+            histogram.recordBucket(i, buckets[i]);
+        }
+        assertEquals(10000, histogram.getCount());
+        assertEquals(5000, histogram.getValueAtQuantile(0.5), 5000 / 128);
+
+        long[] responseTimeBuckets = new long[LatencyHistogram.BUCKET_COUNT];
+        counters.addResponseTimesTo(NOOP, responseTimeBuckets);
+        LatencyHistogram responseTimes = new LatencyHistogram();
+        for (int i = 0; i < responseTimeBuckets.length; i++) {
+            responseTimes.recordBucket(i, responseTimeBuckets[i]);
+        }
+        assertEquals(10000, responseTimes.getCount());
+        assertEquals(15000, responseTimes.getValueAtQuantile(0.5), 15000 / 128);
+    }
+
+    /**
+     * testPrometheusFormat
+     */
+    @Test
+    public void testPrometheusFormat() {
+        long[] statuses = new long[TransactionCounters.NUM_STATUSES];
+        statuses[TransactionStatus.USER_ABORTED.ordinal()] = 3;
+        LatencyHistogram latencies = new LatencyHistogram();
+        latencies.record(100);
+        IntervalMetrics metrics = new IntervalMetrics(0, 10, 2,
+                List.of(new IntervalMetrics.Transaction("Say \"Hi\"", statuses, statuses, latencies)));
+
+        String text = PrometheusReporter.format(metrics);
+        assertTrue(text.contains("benchbase_transactions_total{type=\"Say \\\"Hi\\\"\",status=\"user_aborted\"} 3\n"));
+        assertTrue(text.contains("benchbase_throughput_transactions_per_second{type=\"Say \\\"Hi\\\"\"} 0.5\n"));
+        assertTrue(text.contains("benchbase_latency_microseconds{type=\"Say \\\"Hi\\\"\",quantile=\"0.99\"} 100\n"));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class TestDDLScript {
+
+    private static final String DDL = String.join("\n",
+            "DROP TABLE IF EXISTS orders CASCADE;",
+            "CREATE TABLE orders (",
+            "    o_id   int         NOT NULL,",
+            "    o_c_id int         NOT NULL, -- the customer",
+            "    o_note varchar(10) DEFAULT 'a,b)',",
+            "    PRIMARY KEY (o_id),",
+            "    FOREIGN KEY (o_c_id) REFERENCES customer (c_id) ON DELETE CASCADE,",
+            "    CONSTRAINT uq_note UNIQUE (o_note, o_c_id),",
+            "    KEY idx_c_id (o_c_id)",
+            ") ENGINE=InnoDB;",
+            "CREATE INDEX idx_orders ON orders (o_c_id, o_id);",
+            "ALTER TABLE \"Customer\" ADD CONSTRAINT fk FOREIGN KEY (c_n_id) REFERENCES nation (n_id);",
+            "-- @post-load",
+            "ANALYZE;");
+
+    /**
+     * testSplit
+     */
+    @Test
+    public void testSplit() throws Exception {
+        DDLScript script = DDLScript.parse(new StringReader(DDL));
+
+        List<String> create = script.getCreateStatements();
+        assertEquals(2, create.size());
+        assertEquals("DROP TABLE IF EXISTS orders CASCADE", create.get(0));
+        assertEquals(String.join("\n",
+                "CREATE TABLE orders (",
+                "    o_id   int         NOT NULL,",
+                "    o_c_id int         NOT NULL,",
+                "    o_note varchar(10) DEFAULT 'a,b)',",
+                "    PRIMARY KEY (o_id)",
+                ") ENGINE=InnoDB"), create.get(1).replaceAll(" +\n", "\n").replaceAll(" +$", ""));
+
+        Map<String, List<String>> indexes = script.getIndexStatements();
+        assertEquals(List.of("orders"), List.copyOf(indexes.keySet()));
+        assertEquals(List.of(
+                "ALTER TABLE orders ADD CONSTRAINT uq_note UNIQUE (o_note, o_c_id)",
+                "CREATE INDEX idx_c_id ON orders (o_c_id)",
+                "CREATE INDEX idx_orders ON orders (o_c_id, o_id)"), indexes.get("orders"));
+        assertEquals(List.of("ANALYZE"), script.getPostLoadStatements());
+
+        Map<String, List<String>> constraints = script.getConstraintStatements();
+        assertEquals(List.of(
+                "ALTER TABLE orders ADD FOREIGN KEY (o_c_id) REFERENCES customer (c_id) ON DELETE CASCADE"), constraints.get("orders"));
+        assertEquals(1, constraints.get("customer").size());
+        assertEquals(6, script.getPostLoadCount());
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 by OLTPBenchmark Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.oltpbenchmark.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFlatFileReader {
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = File.createTempFile("flatfile", ".tbl");
+    }
+
+    @After
+    public void tearDown() {
+        this.file.delete();
+    }
+
+    private void write(String content) throws Exception {
+        Files.write(this.file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * testSplit
+     */
+    @Test
+    public void testSplit() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i).append("|row ").append(i).append("|\n");
+        }
+        write(sb.toString());
+
+        List<FlatFileReader.Range> ranges = FlatFileReader.split(this.file, 7);
+        assertEquals(7, ranges.size());
+        List<Long> keys = new ArrayList<>();
+        for (FlatFileReader.Range range : ranges) {
+            // A window this small makes every few lines go past it
+            try (FlatFileReader reader = new FlatFileReader(range, FlatFileReader.Format.PIPE, 32)) {
+                while (reader.nextLine()) {
+                    assertEquals(2, reader.countFields());
+                    assertTrue(reader.nextField());
+                    long key = reader.getLong();
+                    assertTrue(reader.nextField());
+                    assertEquals("row " + key, reader.getString());
+                    assertFalse(reader.nextField());
+                    keys.add(key);
+                }
+            }
+        }
+        assertEquals(1000, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, keys.get(i).longValue());
+        }
+    }
+
+    /**
+     * testFields
+     */
+    @Test
+    public void testFields() throws Exception {
+        write("-12|0.10|1995-03-15|||\r\n"
+                + "7|1e3|19950316|x|\n"
+                + "3|-123456789.123456789|03/17/1995|18.03.1995");
+        FlatFileReader.Range range = FlatFileReader.split(this.file, 1).get(0);
+        try (FlatFileReader reader = new FlatFileReader(range, FlatFileReader.Format.PIPE)) {
+            assertTrue(reader.nextLine());
+            assertEquals(5, reader.countFields());
+            reader.nextField();
+            assertEquals(-12, reader.getLong());
+            reader.nextField();
+            assertEquals(0.1, reader.getDouble(), 0);
+            reader.nextField();
+            assertEquals(Date.valueOf("1995-03-15"), reader.getDate());
+            reader.nextField();
+            assertTrue(reader.isEmpty());
+            reader.nextField();
+            assertEquals("", reader.getString());
+            assertFalse(reader.nextField());
+
+            assertTrue(reader.nextLine());
+            reader.nextField();
+            assertEquals(7, reader.getLong());
+            reader.nextField();
+            assertEquals(1000.0, reader.getDouble(), 0);
+            reader.nextField();
+            assertEquals(Date.valueOf("1995-03-16"), reader.getDate());
+
+            assertTrue(reader.nextLine());
+            assertEquals(4, reader.countFields());
+            reader.nextField();
+            reader.nextField();
+            assertEquals(-123456789.123456789, reader.getDouble(), 0);
+            reader.nextField();
+            assertEquals(Date.valueOf("1995-03-17"), reader.getDate());
+            reader.nextField();
+            assertEquals(Date.valueOf("1995-03-18"), reader.getDate());
+            assertFalse(reader.nextLine());
+        }
+    }
+
+    /**
+     * testCsv
+     */
+    @Test
+    public void testCsv() throws Exception {
+        write("1, \"a, b\" ,c ,\n");
+        FlatFileReader.Range range = FlatFileReader.split(this.file, 1).get(0);
+        try (FlatFileReader reader = new FlatFileReader(range, FlatFileReader.Format.CSV)) {
+            assertTrue(reader.nextLine());
+            assertEquals(4, reader.countFields());
+            reader.nextField();
+            assertEquals(1, reader.getLong());
+            reader.nextField();
+            assertEquals("a, b", reader.getString());
+            reader.nextField();
+            assertEquals("c", reader.getString());
+            reader.nextField();
+            assertTrue(reader.isEmpty());
+            assertFalse(reader.nextLine());
+        }
+    }
+}
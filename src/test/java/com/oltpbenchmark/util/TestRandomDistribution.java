@@ -185,4 +185,23 @@ public class TestRandomDistribution {
         } // FOR
         assertEquals(hist.getMaxCountValues(), hist2.getMaxCountValues());
     }
-}
\ No newline at end of file
+
+    /**
+     * testSharedZipfTable
+     */
+    @Test
+    public void testSharedZipfTable() throws Exception {
+        RandomDistribution.ZipfTable table = new RandomDistribution.ZipfTable(1, 100000, 1.001d);
+        RandomDistribution.Zipf first = new RandomDistribution.Zipf(new Random(1), table);
+        RandomDistribution.Zipf second = new RandomDistribution.Zipf(new Random(1), table);
+        RandomDistribution.Zipf unshared = new RandomDistribution.Zipf(new Random(1), 1, 100000, 1.001d);
+        for (int i = 0; i < num_records; i++) {
+            long value = first.nextLong();
+            assertTrue(value >= 1 && value < 100000);
+            assertEquals(value, second.nextLong());
+            assertEquals(value, unshared.nextLong());
+        } // FOR
+        assertEquals(table.getMin(), first.getMin());
+        assertEquals(table.getMax(), first.getMax());
+    }
+}